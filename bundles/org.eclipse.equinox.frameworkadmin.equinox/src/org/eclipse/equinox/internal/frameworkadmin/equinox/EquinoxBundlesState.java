@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2017 IBM Corporation and others.
+ * Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,11 +15,13 @@
 package org.eclipse.equinox.internal.frameworkadmin.equinox;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.*;
 import org.eclipse.equinox.frameworkadmin.BundleInfo;
 import org.eclipse.equinox.internal.frameworkadmin.equinox.utils.FileUtils;
+import org.eclipse.equinox.internal.frameworkadmin.utils.ManifestCache;
 import org.eclipse.equinox.internal.frameworkadmin.utils.SimpleBundlesState;
 import org.eclipse.equinox.internal.frameworkadmin.utils.Utils;
 import org.eclipse.equinox.internal.provisional.frameworkadmin.*;
@@ -39,6 +41,8 @@ public class EquinoxBundlesState implements BundlesState {
 	public static final String[] PROPS = { "osgi.os", "osgi.ws", "osgi.nl", "osgi.arch", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
 			Constants.FRAMEWORK_SYSTEMPACKAGES, "osgi.resolverMode", Constants.FRAMEWORK_EXECUTIONENVIRONMENT, //$NON-NLS-1$
 			"osgi.resolveOptional", "osgi.genericAliases" }; //$NON-NLS-1$ //$NON-NLS-2$
+	private static final String MANIFEST_CACHE_FILE = "manifests.cache"; //$NON-NLS-1$
+	private static boolean manifestCacheLoaded = false;
 
 	static boolean checkFullySupported() {
 		// TODO - This was previously doing a bogus check by attempting to instantiate a
@@ -158,12 +162,15 @@ public class EquinoxBundlesState implements BundlesState {
 			return null;
 		}
 		URI bundleLocation = bundleInfo.getLocation();
+		// only read the manifest of bundles that can be the framework
+		String path = bundleLocation.getPath();
+		if (path == null || path.indexOf(EquinoxConstants.FW_SYMBOLIC_NAME) <= 0) {
+			return null;
+		}
 		try {
 			String[] clauses = Utils.getClausesManifestMainAttributes(bundleLocation, Constants.BUNDLE_SYMBOLICNAME);
-			if (bundleLocation.getPath().indexOf(EquinoxConstants.FW_SYMBOLIC_NAME) > 0) {
-				if (EquinoxConstants.PERSISTENT_DIR_NAME.equals(Utils.getPathFromClause(clauses[0]))) {
-					return new File(bundleLocation);
-				}
+			if (EquinoxConstants.PERSISTENT_DIR_NAME.equals(Utils.getPathFromClause(clauses[0]))) {
+				return new File(bundleLocation);
 			}
 		} catch (RuntimeException e) {
 			e.printStackTrace();
@@ -227,11 +234,24 @@ public class EquinoxBundlesState implements BundlesState {
 	StateObjectFactory soFactory = null;
 	State state = null;
 
+	// what the state was composed from, to decide whether it can be updated incrementally
+	private Properties composedPlatformProperties = null;
+	private File composedFwJar = null;
+	private File composedHome = null;
+	private File composedFwConfigLocation = null;
+
 	/**
 	 * Map of URI->BundleDescription, where the key is the bundle location.
 	 */
 	private final HashMap<URI, BundleDescription> locationStateIndex = new HashMap<>();
 
+	/**
+	 * Map of URI->manifest, where the key is the bundle location and the value the
+	 * manifest the bundle was installed with, to detect bundles that changed in
+	 * place.
+	 */
+	private final HashMap<URI, Dictionary<String, String>> manifestIndex = new HashMap<>();
+
 	/**
 	 * Map of String->BundleDescription, where the key is the bundle name and
 	 * version as defined by the {@link #getKey(BundleDescription)} method.
@@ -293,11 +313,106 @@ public class EquinoxBundlesState implements BundlesState {
 	private void composeNewState(LauncherData launcherData, ConfigData configData, Properties properties,
 			BundleInfo[] bInfos) {
 		// Note, there use to be a lot more code in this method
+		loadManifestCache();
 		File fwJar = getSystemBundleFromBundleInfos(configData);
 		launcherData.setFwJar(fwJar);
 		this.setFwJar(fwJar);
 		composeState(configData.getBundles(), properties, null);
 		resolve(true);
+		composedFwJar = fwJar;
+		composedHome = launcherData.getHome();
+		composedFwConfigLocation = launcherData.getFwConfigLocation();
+		saveManifestCache();
+	}
+
+	/**
+	 * Brings this state up to date with the bundles of the given manipulator,
+	 * installing and removing only the bundles that were added, removed or
+	 * changed in place since the state was composed, instead of composing a new
+	 * state from the manifests of all bundles.
+	 *
+	 * @return <code>false</code> if the state cannot be updated, e.g. because
+	 *         the platform properties or the framework changed, and a new state
+	 *         has to be composed
+	 */
+	boolean update(Manipulator source, Dictionary<Object, Object> props) {
+		if (state == null || composedPlatformProperties == null
+				|| !composedPlatformProperties.equals(computePlatformProperties(props))) {
+			return false;
+		}
+		LauncherData launcherData = source.getLauncherData();
+		ConfigData configData = source.getConfigData();
+		if (!Objects.equals(composedHome, launcherData.getHome())
+				|| !Objects.equals(composedFwConfigLocation, launcherData.getFwConfigLocation())) {
+			return false;
+		}
+		loadManifestCache();
+		File fwJar = getSystemBundleFromBundleInfos(configData);
+		if (!Objects.equals(composedFwJar, fwJar)) {
+			return false;
+		}
+		SimpleBundlesState.checkAvailability(fwAdmin);
+		manipulator.setConfigData(configData);
+		manipulator.setLauncherData(launcherData);
+		launcherData.setFwJar(fwJar);
+		setFwJar(fwJar);
+
+		BundleInfo[] bInfos = manipulator.getConfigData().getBundles();
+		Set<URI> locations = new HashSet<>();
+		for (BundleInfo bInfo : bInfos) {
+			locations.add(bInfo.getLocation());
+		}
+		for (Map.Entry<URI, BundleDescription> installed : new ArrayList<>(locationStateIndex.entrySet())) {
+			if (!locations.contains(installed.getKey())) {
+				removeBundleFromState(installed.getValue());
+			}
+		}
+		for (BundleInfo bInfo : bInfos) {
+			BundleDescription installed = getBundleByLocation(bInfo.getLocation());
+			if (installed != null) {
+				// the manifest cache makes this cheap for an unchanged bundle
+				if (Objects.equals(manifestIndex.get(bInfo.getLocation()), Utils.getOSGiManifest(bInfo.getLocation()))) {
+					continue;
+				}
+				// replaced in place, e.g. a rebuilt bundle with the same location
+				removeBundleFromState(installed);
+			}
+			// like composeState, keep only the bundles that could be installed
+			manipulator.getConfigData().removeBundle(bInfo);
+			try {
+				installBundle(bInfo);
+			} catch (RuntimeException e) {
+				Log.error("BundleInfo:" + bInfo, e); //$NON-NLS-1$
+			}
+		}
+		resolve(true);
+		saveManifestCache();
+		return true;
+	}
+
+	private void loadManifestCache() {
+		synchronized (EquinoxBundlesState.class) {
+			if (manifestCacheLoaded) {
+				return;
+			}
+			manifestCacheLoaded = true;
+		}
+		File file = context.getDataFile(MANIFEST_CACHE_FILE);
+		if (file != null) {
+			ManifestCache.getDefault().load(file);
+		}
+	}
+
+	private void saveManifestCache() {
+		File file = context.getDataFile(MANIFEST_CACHE_FILE);
+		if (file == null) {
+			return;
+		}
+		try {
+			ManifestCache.getDefault().save(file);
+		} catch (IOException e) {
+			Log.warn(this, "saveManifestCache()", e); //$NON-NLS-1$
+		}
 	}
 
 	/**
@@ -597,6 +712,7 @@ public class EquinoxBundlesState implements BundlesState {
 			BundleDescription newBundleDescription = soFactory.createBundleDescription(state, manifest,
 					realLocation.toString(), bInfo.getBundleId());
 			addBundleToState(newBundleDescription);
+			manifestIndex.put(realLocation, manifest);
 			manipulator.getConfigData().addBundle(bInfo);
 		} catch (BundleException e) {
 			Log.warn(this, "installBundle(BundleInfo)", e); //$NON-NLS-1$
@@ -656,6 +772,12 @@ public class EquinoxBundlesState implements BundlesState {
 	 * platformProperties of this state.
 	 */
 	private void setPlatformPropertiesToState(Dictionary<Object, Object> props) {
+		Properties platformProperties = computePlatformProperties(props);
+		state.setPlatformProperties(platformProperties);
+		composedPlatformProperties = platformProperties;
+	}
+
+	private Properties computePlatformProperties(Dictionary<Object, Object> props) {
 		Properties platformProperties = setDefaultPlatformProperties();
 
 		for (Enumeration<Object> enumeration = props.keys(); enumeration.hasMoreElements();) {
@@ -669,7 +791,7 @@ public class EquinoxBundlesState implements BundlesState {
 		}
 		// TODO ignore uses directive for resolution here
 		platformProperties.put("osgi.resolver.usesMode", "ignore"); //$NON-NLS-1$ //$NON-NLS-2$
-		state.setPlatformProperties(platformProperties);
+		return platformProperties;
 	}
 
 	private void setStateObjectFactory() {
@@ -778,6 +900,7 @@ public class EquinoxBundlesState implements BundlesState {
 	private void removeBundleFromState(BundleDescription bundleDescription) {
 		URI location = FileUtils.getRealLocation(manipulator, bundleDescription.getLocation());
 		locationStateIndex.remove(location);
+		manifestIndex.remove(location);
 		nameVersionStateIndex.remove(getKey(bundleDescription));
 		state.removeBundle(bundleDescription);
 	}
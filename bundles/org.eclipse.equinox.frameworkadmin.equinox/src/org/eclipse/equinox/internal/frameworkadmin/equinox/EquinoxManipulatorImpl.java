@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2017 IBM Corporation and others.
+ * Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -122,6 +122,8 @@ public class EquinoxManipulatorImpl implements Manipulator {
 			EquinoxConstants.LAUNCHER_NAME, EquinoxConstants.LAUNCHER_VERSION);
 	BundleContext context = null;
 	private Properties platformProperties = new Properties();
+	// the last composed state, updated incrementally by getBundlesState()
+	private EquinoxBundlesState cachedBundlesState = null;
 
 	ServiceTracker cmTracker;
 	int trackingCount = -1;
@@ -168,13 +170,19 @@ public class EquinoxManipulatorImpl implements Manipulator {
 			return new SimpleBundlesState(fwAdmin, this, EquinoxConstants.FW_SYMBOLIC_NAME);
 		}
 
+		Properties props = platformProperties.isEmpty() ? configData.getProperties() : platformProperties;
+		if (cachedBundlesState != null && cachedBundlesState.update(this, props)) {
+			return cachedBundlesState;
+		}
 		if (platformProperties.isEmpty()) {
-			return new EquinoxBundlesState(context, fwAdmin, this, platformAdmin, false);
+			cachedBundlesState = new EquinoxBundlesState(context, fwAdmin, this, platformAdmin, false);
+		} else {
+			// XXX checking if fwDependent or fwIndependent platformProperties are updated
+			// after the platformProperties was created might be required for better
+			// implementation.
+			cachedBundlesState = new EquinoxBundlesState(context, fwAdmin, this, platformAdmin, platformProperties);
 		}
-		// XXX checking if fwDependent or fwIndependent platformProperties are updated
-		// after the platformProperties was created might be required for better
-		// implementation.
-		return new EquinoxBundlesState(context, fwAdmin, this, platformAdmin, platformProperties);
+		return cachedBundlesState;
 	}
 
 	@Override
@@ -385,10 +393,12 @@ public class EquinoxManipulatorImpl implements Manipulator {
 
 		BundlesState bundlesState = null;
 		if (EquinoxBundlesState.checkFullySupported()) {
-			bundlesState = new EquinoxBundlesState(context, fwAdmin, this, platformAdmin, !launcherData.isClean());
-			platformProperties = ((EquinoxBundlesState) bundlesState).getPlatformProperties();
+			cachedBundlesState = new EquinoxBundlesState(context, fwAdmin, this, platformAdmin, !launcherData.isClean());
+			bundlesState = cachedBundlesState;
+			platformProperties = cachedBundlesState.getPlatformProperties();
 		} else {
 			bundlesState = new SimpleBundlesState(fwAdmin, this, EquinoxConstants.FW_SYMBOLIC_NAME);
+			cachedBundlesState = null;
 			platformProperties.clear();
 		}
 		updateAccordingToExpectedState(bundlesState);
@@ -25,10 +25,12 @@ import org.junit.runners.Suite;
 @Suite.SuiteClasses({
 	Bug196525.class,
 	Bug258370.class,
+	BundlesStateUpdateTest.class,
 	CleanupTest.class,
 	FrameworkExtensionTest.class,
 	LauncherConfigLocationTest.class,
 	LauncherDataTest.class,
+	ManifestCacheTest.class,
 	ManipulatorTests.class,
 	NoConfigurationValueInEclipseIni.class,
 	NoRenamingLauncherIni.class,
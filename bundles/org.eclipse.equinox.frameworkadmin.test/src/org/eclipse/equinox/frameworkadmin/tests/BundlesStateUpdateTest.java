@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.frameworkadmin.tests;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import org.eclipse.equinox.frameworkadmin.BundleInfo;
+import org.eclipse.equinox.internal.provisional.frameworkadmin.BundlesState;
+import org.eclipse.equinox.internal.provisional.frameworkadmin.Manipulator;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that the bundles state of a manipulator follows the bundles that are
+ * added, removed and changed in place between two calls of
+ * {@link Manipulator#getBundlesState()}.
+ */
+public class BundlesStateUpdateTest extends FwkAdminAndSimpleConfiguratorTest {
+	private Manipulator manipulator;
+	private File plugins;
+
+	@Override
+	@Before
+	public void setUp() throws Exception {
+		super.setUp();
+		manipulator = createMinimalConfiguration(BundlesStateUpdateTest.class.getName());
+		plugins = new File(getInstallFolder(), "plugins");
+		plugins.mkdirs();
+	}
+
+	private BundleInfo writeBundle(String symbolicName, String version) throws IOException {
+		Manifest manifest = new Manifest();
+		Attributes attributes = manifest.getMainAttributes();
+		attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		attributes.putValue("Bundle-ManifestVersion", "2");
+		attributes.putValue("Bundle-SymbolicName", symbolicName);
+		attributes.putValue("Bundle-Version", version);
+		File jar = new File(plugins, symbolicName + ".jar");
+		long previous = jar.lastModified();
+		try (JarOutputStream output = new JarOutputStream(new FileOutputStream(jar), manifest)) {
+			// only the manifest
+		}
+		if (previous != 0) {
+			// make sure the change is seen on file systems with a coarse time stamp
+			jar.setLastModified(previous + 10000);
+		}
+		return new BundleInfo(symbolicName, version, jar.toURI(), 4, false);
+	}
+
+	private static Set<String> getBundles(BundlesState state) {
+		Set<String> bundles = new HashSet<>();
+		for (BundleInfo bundle : state.getExpectedState()) {
+			bundles.add(bundle.getSymbolicName() + '_' + bundle.getVersion());
+		}
+		return bundles;
+	}
+
+	@Test
+	public void testUpdate() throws Exception {
+		BundleInfo changed = writeBundle("changed", "1.0.0");
+		BundleInfo removed = writeBundle("removed", "1.0.0");
+		manipulator.getConfigData().addBundle(changed);
+		manipulator.getConfigData().addBundle(removed);
+		BundlesState state = manipulator.getBundlesState();
+		Set<String> bundles = getBundles(state);
+		assertTrue(bundles.toString(), bundles.contains("changed_1.0.0"));
+		assertTrue(bundles.toString(), bundles.contains("removed_1.0.0"));
+
+		manipulator.getConfigData().removeBundle(removed);
+		manipulator.getConfigData().removeBundle(changed);
+		// replaced in place, the location stays the same
+		manipulator.getConfigData().addBundle(writeBundle("changed", "2.0.0"));
+		manipulator.getConfigData().addBundle(writeBundle("added", "1.0.0"));
+		BundlesState updated = manipulator.getBundlesState();
+		// updated instead of composed again
+		assertSame(state, updated);
+		bundles = getBundles(updated);
+		assertTrue(bundles.toString(), bundles.contains("added_1.0.0"));
+		assertFalse(bundles.toString(), bundles.contains("removed_1.0.0"));
+		assertFalse(bundles.toString(), bundles.contains("changed_1.0.0"));
+		assertTrue(bundles.toString(), bundles.contains("changed_2.0.0"));
+	}
+}
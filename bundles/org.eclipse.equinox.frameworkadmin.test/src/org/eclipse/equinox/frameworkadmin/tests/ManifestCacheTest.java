@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.frameworkadmin.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Dictionary;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import org.eclipse.equinox.internal.frameworkadmin.utils.ManifestCache;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ManifestCacheTest extends AbstractFwkAdminTest {
+	private File folder;
+
+	@Before
+	public void setUp() {
+		folder = getTestFolder("manifestCache");
+	}
+
+	private static Manifest createManifest(String symbolicName, String version) {
+		Manifest manifest = new Manifest();
+		Attributes attributes = manifest.getMainAttributes();
+		attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		attributes.putValue("Bundle-ManifestVersion", "2");
+		attributes.putValue("Bundle-SymbolicName", symbolicName);
+		attributes.putValue("Bundle-Version", version);
+		return manifest;
+	}
+
+	private static void writeJar(File jar, Manifest manifest) throws IOException {
+		try (JarOutputStream output = new JarOutputStream(new FileOutputStream(jar), manifest)) {
+			// only the manifest
+		}
+	}
+
+	private static void writeDirectory(File directory, Manifest manifest) throws IOException {
+		File file = new File(directory, JarFile.MANIFEST_NAME);
+		file.getParentFile().mkdirs();
+		try (FileOutputStream output = new FileOutputStream(file)) {
+			manifest.write(output);
+		}
+	}
+
+	@Test
+	public void testChangedBundleIsParsedAgain() throws Exception {
+		ManifestCache cache = new ManifestCache(10);
+		File jar = new File(folder, "org.foo_1.0.0.jar");
+		writeJar(jar, createManifest("org.foo", "1.0.0"));
+		assertEquals("1.0.0", cache.getManifest(jar.toURI()).get("Bundle-Version"));
+
+		writeJar(jar, createManifest("org.foo", "1.0.0.qualified"));
+		jar.setLastModified(jar.lastModified() + 2000);
+		assertEquals("1.0.0.qualified", cache.getManifest(jar.toURI()).get("Bundle-Version"));
+
+		File directory = new File(folder, "org.bar_1.0.0");
+		writeDirectory(directory, createManifest("org.bar", "1.0.0"));
+		assertEquals("org.bar", cache.getManifest(directory.toURI()).get("Bundle-SymbolicName"));
+		assertNull(cache.getManifest(new File(folder, "missing.jar").toURI()));
+	}
+
+	@Test
+	public void testReturnedManifestIsACopy() throws Exception {
+		ManifestCache cache = new ManifestCache(10);
+		File jar = new File(folder, "org.foo_1.0.0.jar");
+		writeJar(jar, createManifest("org.foo", "1.0.0"));
+		Dictionary<String, String> manifest = cache.getManifest(jar.toURI());
+		manifest.put("Bundle-Version", "2.0.0");
+		assertEquals("1.0.0", cache.getManifest(jar.toURI()).get("Bundle-Version"));
+	}
+
+	@Test
+	public void testSaveAndLoad() throws Exception {
+		File jar = new File(folder, "org.foo_1.0.0.jar");
+		writeJar(jar, createManifest("org.foo", "1.0.0"));
+		File file = new File(folder, "manifests.cache");
+		ManifestCache cache = new ManifestCache(10);
+		cache.getManifest(jar.toURI());
+		cache.save(file);
+		long saved = file.lastModified();
+
+		ManifestCache loaded = new ManifestCache(10);
+		loaded.load(file);
+		assertEquals("org.foo", loaded.getManifest(jar.toURI()).get("Bundle-SymbolicName"));
+		// the loaded entry is still valid, nothing to store
+		file.setLastModified(saved - 10000);
+		loaded.save(file);
+		assertEquals(saved - 10000, file.lastModified());
+
+		// a corrupt file is ignored
+		Files.write(file.toPath(), new byte[] {1, 2, 3});
+		ManifestCache corrupt = new ManifestCache(10);
+		corrupt.load(file);
+		assertEquals("org.foo", corrupt.getManifest(jar.toURI()).get("Bundle-SymbolicName"));
+		corrupt.save(file);
+		assertNotEquals(3, file.length());
+	}
+}
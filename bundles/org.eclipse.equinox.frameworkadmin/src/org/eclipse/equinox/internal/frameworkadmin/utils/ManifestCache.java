@@ -0,0 +1,196 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.frameworkadmin.utils;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.jar.JarFile;
+import org.eclipse.core.runtime.URIUtil;
+
+/**
+ * A cache of the OSGi manifests of bundles in the local file system, keyed by
+ * the bundle location and validated against the last modification time and
+ * size of the bundle jar or the manifest file of a bundle directory. The cache
+ * can be stored in and restored from a file, so that the manifests of an
+ * installation are not parsed again on every load of a framework manipulator.
+ */
+public class ManifestCache {
+	private static final int MAGIC = 0x50324D43; // P2MC
+	private static final int FORMAT_VERSION = 1;
+	private static final int MAX_STRING_LENGTH = 16 * 1024 * 1024;
+	private static final int DEFAULT_SIZE = Integer.getInteger("eclipse.frameworkadmin.manifestCacheSize", 4096); //$NON-NLS-1$
+
+	private static final ManifestCache DEFAULT = new ManifestCache(DEFAULT_SIZE);
+
+	/**
+	 * A cached manifest, <code>null</code> headers for a location without an
+	 * OSGi manifest.
+	 */
+	private record Entry(long lastModified, long length, Map<String, String> headers) {
+	}
+
+	private final Map<String, Entry> entries;
+	private boolean dirty;
+
+	public static ManifestCache getDefault() {
+		return DEFAULT;
+	}
+
+	public ManifestCache(int maxSize) {
+		entries = new LinkedHashMap<>(256, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * Returns the OSGi manifest of the bundle at the given location, see
+	 * {@link Utils#getOSGiManifest(URI)}. Only manifests of bundles in the local
+	 * file system are cached.
+	 *
+	 * @return a copy of the manifest headers or <code>null</code> if there is no
+	 *         OSGi manifest at the given location
+	 */
+	public Dictionary<String, String> getManifest(URI location) {
+		if (location == null || !"file".equals(location.getScheme())) { //$NON-NLS-1$
+			return Utils.loadOSGiManifest(location);
+		}
+		File bundle = URIUtil.toFile(location);
+		File stamped = bundle.isDirectory() ? new File(bundle, JarFile.MANIFEST_NAME) : bundle;
+		long lastModified = stamped.lastModified();
+		long length = stamped.length();
+		String key = bundle.getAbsolutePath();
+		Entry entry;
+		synchronized (this) {
+			entry = entries.get(key);
+		}
+		if (entry == null || entry.lastModified() != lastModified || entry.length() != length) {
+			Dictionary<String, String> manifest = Utils.loadOSGiManifest(location);
+			if (lastModified == 0) {
+				// missing or unreadable, don't remember
+				return manifest;
+			}
+			entry = new Entry(lastModified, length, manifest == null ? null : toMap(manifest));
+			synchronized (this) {
+				entries.put(key, entry);
+				dirty = true;
+			}
+		}
+		return entry.headers() == null ? null : new Hashtable<>(entry.headers());
+	}
+
+	/**
+	 * Adds the entries stored in the given file to this cache. A missing,
+	 * truncated or unknown file is ignored.
+	 */
+	public synchronized void load(File file) {
+		if (!file.isFile()) {
+			return;
+		}
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION) {
+				return;
+			}
+			int count = input.readInt();
+			Map<String, Entry> loaded = new LinkedHashMap<>();
+			for (int i = 0; i < count; i++) {
+				String key = readString(input);
+				long lastModified = input.readLong();
+				long length = input.readLong();
+				int size = input.readInt();
+				Map<String, String> headers = null;
+				if (size >= 0) {
+					headers = new HashMap<>();
+					for (int j = 0; j < size; j++) {
+						headers.put(readString(input), readString(input));
+					}
+				}
+				loaded.put(key, new Entry(lastModified, length, headers));
+			}
+			// entries found during this session are more recent
+			loaded.keySet().removeAll(entries.keySet());
+			entries.putAll(loaded);
+		} catch (IOException e) {
+			// ignore, the manifests are read again
+		}
+	}
+
+	/**
+	 * Stores the entries of this cache in the given file, if they have changed
+	 * since the cache was last stored.
+	 */
+	public synchronized void save(File file) throws IOException {
+		if (!dirty) {
+			return;
+		}
+		file.getParentFile().mkdirs();
+		File temp = new File(file.getParentFile(), file.getName() + ".tmp"); //$NON-NLS-1$
+		try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+			output.writeInt(MAGIC);
+			output.writeInt(FORMAT_VERSION);
+			output.writeInt(entries.size());
+			for (Map.Entry<String, Entry> cached : entries.entrySet()) {
+				Entry entry = cached.getValue();
+				writeString(output, cached.getKey());
+				output.writeLong(entry.lastModified());
+				output.writeLong(entry.length());
+				if (entry.headers() == null) {
+					output.writeInt(-1);
+					continue;
+				}
+				output.writeInt(entry.headers().size());
+				for (Map.Entry<String, String> header : entry.headers().entrySet()) {
+					writeString(output, header.getKey());
+					writeString(output, header.getValue());
+				}
+			}
+		}
+		Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		dirty = false;
+	}
+
+	private static Map<String, String> toMap(Dictionary<String, String> manifest) {
+		Map<String, String> result = new HashMap<>(manifest.size());
+		for (Enumeration<String> keys = manifest.keys(); keys.hasMoreElements();) {
+			String key = keys.nextElement();
+			result.put(key, manifest.get(key));
+		}
+		return result;
+	}
+
+	// unlike writeUTF this allows headers longer than 64k, such as large Export-Package headers
+	private static void writeString(DataOutputStream output, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		output.writeInt(bytes.length);
+		output.write(bytes);
+	}
+
+	private static String readString(DataInputStream input) throws IOException {
+		int length = input.readInt();
+		if (length < 0 || length > MAX_STRING_LENGTH) {
+			throw new IOException("Corrupt manifest cache"); //$NON-NLS-1$
+		}
+		byte[] bytes = new byte[length];
+		input.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
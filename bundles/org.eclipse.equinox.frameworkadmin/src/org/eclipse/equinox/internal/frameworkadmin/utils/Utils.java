@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2019 IBM Corporation and others.
+ * Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -209,7 +209,19 @@ public class Utils {
 		return manifest.get(name);
 	}
 
+	/**
+	 * Returns the OSGi manifest of the bundle at the given location. Manifests of
+	 * bundles in the local file system are cached in the
+	 * {@link ManifestCache#getDefault() default manifest cache}.
+	 *
+	 * @return the manifest headers or <code>null</code> if there is no OSGi
+	 *         manifest at the given location
+	 */
 	public static Dictionary<String, String> getOSGiManifest(URI location) {
+		return ManifestCache.getDefault().getManifest(location);
+	}
+
+	static Dictionary<String, String> loadOSGiManifest(URI location) {
 		if (location == null) {
 			return null;
 		}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2017 compeople AG and others.
+ * Copyright (c) 2007, 2026 compeople AG and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -54,6 +54,11 @@ public abstract class AbstractBufferingStep extends ProcessingStep {
 
 	protected abstract OutputStream createIncomingStream() throws IOException;
 
+	@Override
+	public boolean isBuffering() {
+		return true;
+	}
+
 	@Override
 	public void close() throws IOException {
 		// When we go to close we must have seen all the content we are going to see.
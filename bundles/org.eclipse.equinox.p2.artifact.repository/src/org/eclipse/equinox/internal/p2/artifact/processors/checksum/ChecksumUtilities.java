@@ -25,6 +25,7 @@ import org.eclipse.equinox.internal.p2.core.helpers.LogHelper;
 import org.eclipse.equinox.internal.p2.repository.Activator;
 import org.eclipse.equinox.internal.p2.repository.helpers.ChecksumHelper;
 import org.eclipse.equinox.internal.p2.repository.helpers.ChecksumProducer;
+import org.eclipse.equinox.internal.provisional.p2.artifact.repository.processing.ProcessingStep;
 import org.eclipse.equinox.p2.repository.artifact.IArtifactDescriptor;
 import org.eclipse.equinox.p2.repository.artifact.spi.ProcessingStepDescriptor;
 import org.eclipse.osgi.util.NLS;
@@ -83,6 +84,29 @@ public class ChecksumUtilities {
 				.collect(Collectors.toList());
 	}
 
+	/**
+	 * Combines checksum verifiers that apply to the same byte stream into a single
+	 * processing step that digests the stream once for all of them. Verifiers for
+	 * the same algorithm and the same expected checksum are only evaluated once.
+	 *
+	 * @param verifiers the verifiers to combine
+	 * @return the single processing step verifying all given checksums, or
+	 *         <code>null</code> if there are no verifiers
+	 */
+	public static ProcessingStep fuseChecksumVerifiers(Collection<ChecksumVerifier> verifiers) {
+		Map<String, ChecksumVerifier> unique = new LinkedHashMap<>();
+		for (ChecksumVerifier verifier : verifiers) {
+			unique.putIfAbsent(verifier.getAlgorithmId() + '=' + verifier.getExpectedChecksum(), verifier);
+		}
+		if (unique.isEmpty()) {
+			return null;
+		}
+		if (unique.size() == 1) {
+			return unique.values().iterator().next();
+		}
+		return new FusedChecksumVerifier(unique.values());
+	}
+
 	private static int parsePriority(String attribute) {
 		if (attribute != null && !attribute.isBlank()) {
 			try {
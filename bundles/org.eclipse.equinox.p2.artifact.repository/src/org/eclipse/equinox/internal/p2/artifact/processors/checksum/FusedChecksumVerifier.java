@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.artifact.processors.checksum;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.equinox.internal.p2.repository.helpers.ChecksumHelper;
+import org.eclipse.equinox.internal.provisional.p2.artifact.repository.processing.ProcessingStep;
+
+/**
+ * A processing step that verifies several checksums of the same byte stream in
+ * a single pass. Each chunk written to this step is passed once to the
+ * destination and then fed into the message digests of all the given
+ * {@link ChecksumVerifier}s, instead of copying the stream through one step per
+ * algorithm.
+ * <p>
+ * The given verifiers are not linked into the chain themselves; they only
+ * provide the digests and evaluate the result when this step is closed. The
+ * result of each verifier is available through {@link #getResults()}.
+ * </p>
+ *
+ * @noreference This class is not intended to be referenced by clients.
+ */
+public final class FusedChecksumVerifier extends ProcessingStep implements IDigestingStep {
+
+	private static final int BUFFER_SIZE = 16 * 1024;
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+	private int count;
+	private final List<ChecksumVerifier> verifiers;
+
+	public FusedChecksumVerifier(Collection<ChecksumVerifier> verifiers) {
+		this.verifiers = List.copyOf(verifiers);
+		for (ChecksumVerifier verifier : this.verifiers) {
+			setStatus(verifier.getStatus());
+		}
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		getDestination().write(b);
+		if (count == BUFFER_SIZE) {
+			updateDigests(buffer, 0, count);
+			count = 0;
+		}
+		buffer[count++] = (byte) b;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		getDestination().write(b, off, len);
+		if (count > 0) {
+			updateDigests(buffer, 0, count);
+			count = 0;
+		}
+		updateDigests(b, off, len);
+	}
+
+	private void updateDigests(byte[] b, int off, int len) {
+		for (ChecksumVerifier verifier : verifiers) {
+			verifier.messageDigest.update(b, off, len);
+		}
+	}
+
+	@Override
+	public void updateDigests(ByteBuffer data) {
+		if (count > 0) {
+			updateDigests(buffer, 0, count);
+			count = 0;
+		}
+		for (ChecksumVerifier verifier : verifiers) {
+			verifier.messageDigest.update(data.duplicate());
+		}
+		data.position(data.limit());
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (count > 0) {
+			updateDigests(buffer, 0, count);
+			count = 0;
+		}
+		for (ChecksumVerifier verifier : verifiers) {
+			verifier.onClose(ChecksumHelper.toHexString(verifier.messageDigest.digest()));
+			setStatus(verifier.getStatus());
+		}
+		super.close();
+	}
+
+	/**
+	 * Returns the verification result of every algorithm, keyed by the checksum
+	 * id. If the same algorithm is verified against several checksums, the most
+	 * severe result is reported. The results are only meaningful once this step
+	 * has been closed.
+	 *
+	 * @return the status of each checksum verification
+	 */
+	public Map<String, IStatus> getResults() {
+		Map<String, IStatus> results = new LinkedHashMap<>();
+		for (ChecksumVerifier verifier : verifiers) {
+			results.merge(verifier.getAlgorithmId(), verifier.getStatus(),
+					(first, second) -> first.getSeverity() >= second.getSeverity() ? first : second);
+		}
+		return results;
+	}
+
+	public List<ChecksumVerifier> getVerifiers() {
+		return verifiers;
+	}
+}
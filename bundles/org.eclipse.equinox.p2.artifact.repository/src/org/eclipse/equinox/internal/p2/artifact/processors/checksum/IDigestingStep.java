@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.artifact.processors.checksum;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A processing step that only computes digests of the bytes written to it and
+ * passes them on to its destination unchanged. Such a step can be given the
+ * bytes directly through {@link #updateDigests(ByteBuffer)} while the content
+ * itself is copied to the end of the chain by other means, e.g. by the file
+ * system.
+ *
+ * @noreference This interface is not intended to be referenced by clients.
+ */
+public interface IDigestingStep {
+
+	/**
+	 * Updates the digests of this step with the remaining bytes of the given
+	 * buffer without writing them to the destination.
+	 *
+	 * @param data the bytes to digest
+	 */
+	void updateDigests(ByteBuffer data);
+}
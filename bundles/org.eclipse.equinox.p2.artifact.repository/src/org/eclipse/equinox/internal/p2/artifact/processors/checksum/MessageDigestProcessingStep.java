@@ -22,7 +22,7 @@ import org.eclipse.equinox.internal.provisional.p2.artifact.repository.processin
 /**
  * @noreference This class is not intended to be referenced by clients.
  */
-public abstract class MessageDigestProcessingStep extends ProcessingStep {
+public abstract class MessageDigestProcessingStep extends ProcessingStep implements IDigestingStep {
 
 	protected MessageDigest messageDigest;
 	private static final int BUFFER_SIZE = 16 * 1024;
@@ -40,6 +40,17 @@ public abstract class MessageDigestProcessingStep extends ProcessingStep {
 		buffer.put((byte) b);
 	}
 
+	@Override
+	public final void write(byte[] b, int off, int len) throws IOException {
+		getDestination().write(b, off, len);
+
+		// bytes written one at a time must be digested first to keep the order
+		if (buffer.position() > 0) {
+			processBufferredBytes();
+		}
+		messageDigest.update(b, off, len);
+	}
+
 	private void processBufferredBytes() {
 		buffer.flip();
 		updateDigest();
@@ -50,6 +61,14 @@ public abstract class MessageDigestProcessingStep extends ProcessingStep {
 		messageDigest.update(buffer);
 	}
 
+	@Override
+	public final void updateDigests(ByteBuffer data) {
+		if (buffer.position() > 0) {
+			processBufferredBytes();
+		}
+		messageDigest.update(data);
+	}
+
 	@Override
 	public final void close() throws IOException {
 		processBufferredBytes();
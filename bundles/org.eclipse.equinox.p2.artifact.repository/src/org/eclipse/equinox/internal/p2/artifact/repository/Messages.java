@@ -71,6 +71,7 @@ public class Messages extends NLS {
 	public static String retryRequest;
 
 	public static String error_copying_local_file;
+	public static String error_copying_local_file_length;
 
 	public static String calculateChecksum_file;
 	public static String calculateChecksum_ok;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2018 IBM Corporation and others.
+ * Copyright (c) 2008, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -25,8 +25,12 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.xml.parsers.*;
 import org.eclipse.core.runtime.*;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.equinox.internal.p2.core.helpers.*;
 import org.eclipse.equinox.internal.p2.repository.*;
 import org.eclipse.equinox.p2.repository.IRepository;
@@ -42,6 +46,12 @@ import org.xml.sax.SAXException;
  * a list of &lt;mirror&gt; elements. The mirrors are assumed to be already
  * sorted geographically with closer mirrors first. <br>
  * <br>
+ * The throughput and latency of each mirror are tracked as exponentially
+ * weighted averages of the downloads from it and of a few probes sent when the
+ * mirrors are first needed. The mirrors are ranked whenever these statistics
+ * change, so that selecting a mirror only reads the current ranking. Concurrent
+ * downloads are spread across the best mirrors. <br>
+ * <br>
  * Always use {@link MirrorSelector.MirrorInfoComparator} for comparison.
  */
 public class MirrorSelector {
@@ -54,6 +64,17 @@ public class MirrorSelector {
 
 	private static final double LOG2 = Math.log(2);
 
+	/**
+	 * The number of the best mirrors that are probed when the mirrors are first
+	 * needed, 0 to disable probing.
+	 */
+	private static final int PROBE_COUNT = Integer.getInteger("p2.mirrorSelector.probes", 3); //$NON-NLS-1$
+
+	/**
+	 * The number of the best mirrors concurrent downloads are spread across.
+	 */
+	private static final int SPREAD = Integer.getInteger("p2.mirrorSelector.spread", 3); //$NON-NLS-1$
+
 	/**
 	 * Encapsulates information about a single mirror
 	 */
@@ -62,13 +83,17 @@ public class MirrorSelector {
 		private static final long SECONDARY_FAILURE_LINGER_TIME = 300000; // Wait 5 minutes
 		private static final int ACCEPTABLE_FILE_NOT_FOUND_COUNT = 5; // Given an established connection, those are generally quick
 		private static final Timer resetFailure = new Timer(true);
+		private static final double SMOOTHING = 0.3; // Weight of a new sample in the averages
+		public static final long UNKNOWN_LATENCY = -1;
 
 		long bytesPerSecond;
+		long latency = UNKNOWN_LATENCY;
 		int failureCount;
 		int fileNotFoundCount;
 		int totalFailureCount;
 		final int initialRank;
 		String locationString;
+		final AtomicInteger downloads = new AtomicInteger();
 
 		public MirrorInfo(String location, int initialRank) {
 			this.initialRank = initialRank;
@@ -83,7 +108,7 @@ public class MirrorSelector {
 
 		@Override
 		public synchronized String toString() {
-			return "Mirror(" + locationString + ',' + failureCount + ',' + bytesPerSecond + ')'; //$NON-NLS-1$
+			return "Mirror(" + locationString + ',' + failureCount + ',' + bytesPerSecond + ',' + latency + ',' + downloads.get() + ')'; //$NON-NLS-1$
 		}
 
 		public synchronized void decrementFailureCount() {
@@ -122,6 +147,32 @@ public class MirrorSelector {
 			return bytesPerSecond;
 		}
 
+		/**
+		 * Adds a measured transfer rate to the average rate of this mirror, so
+		 * that one slow download doesn't ruin the mirror's reputation.
+		 */
+		public synchronized void updateBytesPerSecond(long sample) {
+			if (sample <= 0) {
+				return;
+			}
+			setBytesPerSecond(bytesPerSecond > 0 ? (long) (bytesPerSecond + SMOOTHING * (sample - bytesPerSecond)) : sample);
+		}
+
+		/**
+		 * Adds a measured latency in milliseconds to the average latency of this
+		 * mirror.
+		 */
+		public synchronized void updateLatency(long sample) {
+			if (sample < 0) {
+				return;
+			}
+			latency = latency >= 0 ? (long) (latency + SMOOTHING * (sample - latency)) : sample;
+		}
+
+		public synchronized long getLatency() {
+			return latency;
+		}
+
 		public synchronized void incrementFileNotFoundCount() {
 			if (++fileNotFoundCount > ACCEPTABLE_FILE_NOT_FOUND_COUNT) {
 				incrementFailureCount();
@@ -135,11 +186,20 @@ public class MirrorSelector {
 	 */
 	URI baseURI;
 
-	MirrorInfo[] mirrors;
+	volatile MirrorInfo[] mirrors;
 
-	private final IRepository<?> repository;
+	/**
+	 * The mirrors, best first.
+	 */
+	private volatile MirrorInfo[] ranking;
 
-	private final Random random = new Random();
+	/**
+	 * The start times of the downloads from a mirror location that have not been
+	 * reported yet.
+	 */
+	private final Map<String, Long> started = new ConcurrentHashMap<>();
+
+	private final IRepository<?> repository;
 
 	private final Transport transport;
 
@@ -244,16 +304,19 @@ public class MirrorSelector {
 			if (o1 == o2) {
 				return 0; // shortest way
 			}
-			// euclidean lengths
-			double o1_el = sqrt(abs(o1.bytesPerSecond * WEIGHT_BYTESPERSECOND) * abs(o1.bytesPerSecond * WEIGHT_BYTESPERSECOND) + (o1.failureCount * WEIGHT_FAILURECOUNT) * (o1.failureCount * WEIGHT_FAILURECOUNT) + o1.initialRank * o1.initialRank);
-			double o2_el = sqrt(abs(o2.bytesPerSecond * WEIGHT_BYTESPERSECOND) * abs(o2.bytesPerSecond * WEIGHT_BYTESPERSECOND) + (o2.failureCount * WEIGHT_FAILURECOUNT) * (o2.failureCount * WEIGHT_FAILURECOUNT) + o2.initialRank * o2.initialRank);
-			// vector dot products
-			double dp_1 = (qBytesPerSeconds * abs(o1.bytesPerSecond * WEIGHT_BYTESPERSECOND) + qFailureCount * (o1.failureCount * WEIGHT_FAILURECOUNT) + qRank * o1.initialRank);
-			double dp_2 = (qBytesPerSeconds * abs(o2.bytesPerSecond * WEIGHT_BYTESPERSECOND) + qFailureCount * (o2.failureCount * WEIGHT_FAILURECOUNT) + qRank * o2.initialRank);
-			// similarities from o1 to Q and o2 to Q (where q=query)
-			double sim1 = dp_1 / (qel * o1_el);
-			double sim2 = dp_2 / (qel * o2_el);
-			return Double.valueOf(sim2).compareTo(Double.valueOf(sim1));
+			return Double.compare(similarity(o2), similarity(o1));
+		}
+
+		/**
+		 * Returns the similarity of the given mirror to the query, higher is better.
+		 */
+		double similarity(MirrorInfo o) {
+			// euclidean length
+			double o_el = sqrt(abs(o.bytesPerSecond * WEIGHT_BYTESPERSECOND) * abs(o.bytesPerSecond * WEIGHT_BYTESPERSECOND) + (o.failureCount * WEIGHT_FAILURECOUNT) * (o.failureCount * WEIGHT_FAILURECOUNT) + o.initialRank * o.initialRank);
+			// vector dot product
+			double dp = (qBytesPerSeconds * abs(o.bytesPerSecond * WEIGHT_BYTESPERSECOND) + qFailureCount * (o.failureCount * WEIGHT_FAILURECOUNT) + qRank * o.initialRank);
+			// similarity from o to Q (where q=query)
+			return dp / (qel * o_el);
 		}
 
 	}
@@ -343,7 +406,7 @@ public class MirrorSelector {
 	 * repository.  Always falls back to the given input location in case of failure
 	 * to compute mirrors. Never returns null.
 	 */
-	public synchronized URI getMirrorLocation(URI inputLocation, IProgressMonitor monitor) {
+	public URI getMirrorLocation(URI inputLocation, IProgressMonitor monitor) {
 		Assert.isNotNull(inputLocation);
 		if (baseURI == null) {
 			return inputLocation;
@@ -353,7 +416,7 @@ public class MirrorSelector {
 		if (relativeLocation == null || relativeLocation.isAbsolute()) {
 			return inputLocation;
 		}
-		MirrorInfo selectedMirror = selectMirror(monitor);
+		MirrorInfo selectedMirror = selectMirror(relativeLocation, monitor);
 		if (selectedMirror == null) {
 			return inputLocation;
 		}
@@ -361,7 +424,11 @@ public class MirrorSelector {
 			Tracing.debug("Selected mirror for artifact " + inputLocation + ": " + selectedMirror); //$NON-NLS-1$ //$NON-NLS-2$
 		}
 		try {
-			return new URI(selectedMirror.locationString + relativeLocation.getPath());
+			URI location = new URI(selectedMirror.locationString + relativeLocation.getPath());
+			if (started.put(location.toString(), System.currentTimeMillis()) == null) {
+				selectedMirror.downloads.incrementAndGet();
+			}
+			return location;
 		} catch (URISyntaxException e) {
 			log("Unable to make location " + inputLocation + " relative to mirror " + selectedMirror.locationString, e); //$NON-NLS-1$ //$NON-NLS-2$
 		}
@@ -382,10 +449,93 @@ public class MirrorSelector {
 		}
 	}
 
+	/**
+	 * Returns the current ranking of the mirrors, initializing the mirrors and
+	 * probing the best of them with the given location if this is the first
+	 * request. Returns <code>null</code> if the mirrors could not be computed.
+	 */
+	private MirrorInfo[] getRanking(URI relativeLocation, IProgressMonitor monitor) {
+		MirrorInfo[] result = ranking;
+		if (result != null) {
+			return result;
+		}
+		synchronized (this) {
+			if (ranking == null) {
+				initMirrors(monitor);
+				if (mirrors != null) {
+					rank();
+					probe(relativeLocation);
+				}
+			}
+			return ranking;
+		}
+	}
+
+	/**
+	 * Ranks the mirrors according to their current statistics. The statistics may
+	 * change while ranking, so the similarity of each mirror is computed once.
+	 */
+	private void rank() {
+		MirrorInfo[] infos = mirrors;
+		if (infos == null) {
+			return;
+		}
+		record Ranked(MirrorInfo mirror, double similarity) {
+		}
+		MirrorInfoComparator comparator = getComparator();
+		Ranked[] ranked = new Ranked[infos.length];
+		for (int i = 0; i < infos.length; i++) {
+			ranked[i] = new Ranked(infos[i], comparator.similarity(infos[i]));
+		}
+		Arrays.sort(ranked, (r1, r2) -> Double.compare(r2.similarity(), r1.similarity()));
+		MirrorInfo[] result = new MirrorInfo[ranked.length];
+		for (int i = 0; i < ranked.length; i++) {
+			result[i] = ranked[i].mirror();
+		}
+		ranking = result;
+		if (Tracing.DEBUG_MIRRORS) {
+			Tracing.debug("Ranked mirrors of " + baseURI + ": " + Arrays.toString(result)); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	/**
+	 * Probes the best mirrors for the given location in the background to learn
+	 * about their latency and about mirrors that are down before downloading from
+	 * them.
+	 */
+	private void probe(URI relativeLocation) {
+		MirrorInfo[] ranked = ranking;
+		for (int i = 0; i < min(PROBE_COUNT, ranked.length); i++) {
+			MirrorInfo mirror = ranked[i];
+			Job.createSystem("Probe mirror " + mirror.locationString, monitor -> { //$NON-NLS-1$
+				probe(mirror, relativeLocation, monitor);
+				return Status.OK_STATUS;
+			}).schedule();
+		}
+	}
+
+	void probe(MirrorInfo mirror, URI relativeLocation, IProgressMonitor monitor) {
+		long start = System.currentTimeMillis();
+		try {
+			transport.getLastModified(new URI(mirror.locationString + relativeLocation.getPath()), monitor);
+			mirror.updateLatency(System.currentTimeMillis() - start);
+		} catch (FileNotFoundException e) {
+			// the mirror responded, the artifact may be missing from all mirrors
+			mirror.updateLatency(System.currentTimeMillis() - start);
+			mirror.incrementFileNotFoundCount();
+		} catch (OperationCanceledException e) {
+			return;
+		} catch (CoreException | AuthenticationFailedException | URISyntaxException e) {
+			mirror.incrementFailureCount();
+		}
+		rank();
+	}
+
 	private MirrorInfoComparator getComparator() {
 		long maxBytesPerSecond = 0;
-		if (mirrors != null) {
-			for (MirrorInfo mi : mirrors) {
+		MirrorInfo[] infos = mirrors;
+		if (infos != null) {
+			for (MirrorInfo mi : infos) {
 				maxBytesPerSecond = max(maxBytesPerSecond, mi.bytesPerSecond);
 			}
 		}
@@ -400,12 +550,17 @@ public class MirrorSelector {
 	/**
 	 * Reports the result of a mirror download
 	 */
-	public synchronized void reportResult(String toDownload, IStatus result) {
-		if (mirrors == null) {
+	public void reportResult(String toDownload, IStatus result) {
+		MirrorInfo[] infos = mirrors;
+		if (infos == null) {
 			return;
 		}
-		for (MirrorInfo mirror : mirrors) {
+		Long start = started.remove(toDownload);
+		for (MirrorInfo mirror : infos) {
 			if (toDownload.startsWith(mirror.locationString)) {
+				if (start != null) {
+					mirror.downloads.decrementAndGet();
+				}
 				if (!result.isOK() && result.getSeverity() != IStatus.CANCEL) {
 					// Punishing a mirror harshly for a FileNotFoundException can be very wrong.
 					// Some artifacts are not found on any mirror. When that's the case,
@@ -417,20 +572,21 @@ public class MirrorSelector {
 						mirror.incrementFailureCount();
 					}
 				}
-				if (result instanceof DownloadStatus) {
-					long oldRate = mirror.bytesPerSecond;
-					long newRate = ((DownloadStatus) result).getTransferRate();
-					//average old and new rate so one slow download doesn't ruin the mirror's reputation
-					if (newRate > 0) {
-						if (oldRate > 0) {
-							newRate = (oldRate + newRate) / 2;
+				if (result instanceof DownloadStatus downloadStatus) {
+					long rate = downloadStatus.getTransferRate();
+					if (rate > 0) {
+						mirror.updateBytesPerSecond(rate);
+						long size = downloadStatus.getFileSize();
+						if (start != null && size > 0) {
+							// the time the download took beyond the transfer of its bytes
+							mirror.updateLatency(max(0, System.currentTimeMillis() - start - size * 1000 / rate));
 						}
-						mirror.setBytesPerSecond(newRate);
 					}
 				}
 				if (Tracing.DEBUG_MIRRORS) {
 					Tracing.debug("Updated mirror " + mirror); //$NON-NLS-1$
 				}
+				rank();
 				return;
 			}
 		}
@@ -440,31 +596,32 @@ public class MirrorSelector {
 	 * Return whether or not all the mirrors for this selector have proven to be invalid
 	 * @return whether or not there is a valid mirror in this selector.
 	 */
-	public synchronized boolean hasValidMirror() {
+	public boolean hasValidMirror() {
 		// return true if there is a mirror and it doesn't have multiple failures.
 		if (mirrors == null || mirrors.length == 0) {
 			return false;
 		}
-		Arrays.sort(mirrors, getComparator());
-		return mirrors[0].failureCount < 2;
+		rank();
+		MirrorInfo[] ranked = ranking;
+		return ranked[0].failureCount < 2;
 	}
 
 	/**
-	 * Selects a mirror from the given list of mirrors. Returns null if a mirror
-	 * could not be found.
+	 * Selects a mirror from the current ranking of the mirrors. Returns null if a
+	 * mirror could not be found.
 	 */
-	private MirrorInfo selectMirror(IProgressMonitor monitor) {
-		initMirrors(monitor);
+	private MirrorInfo selectMirror(URI relativeLocation, IProgressMonitor monitor) {
+		MirrorInfo[] ranked = getRanking(relativeLocation, monitor);
 		final int mirrorCount;
-		if (mirrors == null || (mirrorCount = mirrors.length) == 0) {
+		if (ranked == null || (mirrorCount = ranked.length) == 0) {
 			return null;
 		}
 
 		MirrorInfo selected;
 		if (mirrorCount == 1) {
-			selected = mirrors[0];
+			selected = ranked[0];
 		} else {
-			Arrays.sort(mirrors, getComparator());
+			int mirrorIndex;
 			for (;;) {
 				//this is a function that randomly selects a mirror based on a logarithmic
 				//distribution. Mirror 0 has a 1/2 chance of being selected, mirror 1 has a 1/4 chance,
@@ -473,13 +630,12 @@ public class MirrorSelector {
 				//the algorithm computes the most significant digit in a binary number by computing the base 2 logarithm
 				//if the first digit is most significant, mirror 0 is selected, if the second is most significant, mirror 1 is selected, etc
 				int highestMirror = min(15, mirrorCount);
-				int result = (int) (Math.log(random.nextInt(1 << highestMirror) + 1) / LOG2);
+				int result = (int) (Math.log(ThreadLocalRandom.current().nextInt(1 << highestMirror) + 1) / LOG2);
 				if (result >= highestMirror || result < 0) {
 					result = highestMirror - 1;
 				}
 
-				int mirrorIndex = highestMirror - 1 - result;
-				selected = mirrors[mirrorIndex];
+				mirrorIndex = highestMirror - 1 - result;
 
 				// Only choose a mirror from the best 50% of the top 15 of all mirrors
 				if (mirrorIndex <= (mirrorCount * 0.5d)) {
@@ -487,6 +643,7 @@ public class MirrorSelector {
 					break;
 				}
 			}
+			selected = spread(ranked, ranked[mirrorIndex]);
 		}
 
 		//for now, don't tolerate mirrors with multiple failures
@@ -496,4 +653,30 @@ public class MirrorSelector {
 		return selected;
 	}
 
+	/**
+	 * Returns the mirror with the fewest running downloads among the best mirrors
+	 * if the given mirror has more, preferring a mirror with a lower latency.
+	 */
+	private static MirrorInfo spread(MirrorInfo[] ranked, MirrorInfo selected) {
+		MirrorInfo result = selected;
+		int candidates = min(SPREAD, (int) (ranked.length * 0.5d) + 1);
+		for (int i = 0; i < candidates; i++) {
+			MirrorInfo candidate = ranked[i];
+			if (candidate.failureCount > 1) {
+				continue;
+			}
+			int difference = candidate.downloads.get() - result.downloads.get();
+			if (difference < 0 || (difference == 0 && result != selected && isFaster(candidate, result))) {
+				result = candidate;
+			}
+		}
+		return result;
+	}
+
+	private static boolean isFaster(MirrorInfo mirror, MirrorInfo other) {
+		long latency = mirror.getLatency();
+		long otherLatency = other.getLatency();
+		return latency != MirrorInfo.UNKNOWN_LATENCY && (otherLatency == MirrorInfo.UNKNOWN_LATENCY || latency < otherLatency);
+	}
+
 }
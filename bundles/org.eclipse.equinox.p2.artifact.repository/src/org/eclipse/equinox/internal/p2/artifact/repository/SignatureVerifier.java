@@ -1,5 +1,5 @@
 /*******************************************************************************
-* Copyright (c) 2007, 2017 compeople AG and others.
+* Copyright (c) 2007, 2026 compeople AG and others.
 *
 * This program and the accompanying materials
 * are made available under the terms of the Eclipse Public License 2.0
@@ -20,22 +20,58 @@ import java.security.GeneralSecurityException;
 import java.util.ArrayList;
 import java.util.zip.ZipException;
 import org.eclipse.core.runtime.*;
+import org.eclipse.equinox.internal.p2.artifact.repository.simple.SimpleArtifactRepository.ArtifactOutputStream;
 import org.eclipse.equinox.internal.p2.core.helpers.FileUtils;
 import org.eclipse.equinox.internal.p2.core.helpers.ServiceHelper;
 import org.eclipse.equinox.internal.provisional.p2.artifact.repository.processing.ProcessingStep;
+import org.eclipse.equinox.internal.provisional.p2.artifact.repository.processing.ProcessingStepHandler;
 import org.eclipse.osgi.signedcontent.*;
 
 /**
- * Processing step validating the signature of the artifact being downloaded  
+ * Processing step validating the signature of the artifact being downloaded. If
+ * the artifact is written unchanged into a local file, the content is passed on
+ * as it is written and the signature is verified on that file. Otherwise the
+ * content is buffered in a temporary file.
  */
 public class SignatureVerifier extends ProcessingStep {
 	private File inputFile;
 	private OutputStream tempStream;
+	// the end of the chain when verifying the artifact file
+	private ArtifactOutputStream target;
+	private boolean written;
 
 	public boolean areRequirementsSatisfied() {
 		return true;
 	}
 
+	@Override
+	public void link(OutputStream destination, IProgressMonitor monitor) {
+		super.link(destination, monitor);
+		target = getTarget(destination);
+	}
+
+	/**
+	 * Returns the artifact stream at the end of the given chain if it writes the
+	 * content into a local file and no step in between buffers the content.
+	 */
+	private static ArtifactOutputStream getTarget(OutputStream stream) {
+		while (stream instanceof ProcessingStep step) {
+			if (step.isBuffering()) {
+				return null;
+			}
+			stream = ProcessingStepHandler.getDestination(stream);
+		}
+		if (stream instanceof ArtifactOutputStream artifactStream && artifactStream.getFile() != null) {
+			return artifactStream;
+		}
+		return null;
+	}
+
+	@Override
+	public boolean isBuffering() {
+		return target == null;
+	}
+
 	@Override
 	public void write(int b) throws IOException {
 		getOutputStream().write(b);
@@ -47,6 +83,10 @@ public class SignatureVerifier extends ProcessingStep {
 	}
 
 	private OutputStream getOutputStream() throws IOException {
+		written = true;
+		if (target != null) {
+			return getDestination();
+		}
 		if (tempStream != null) {
 			return tempStream;
 		}
@@ -65,7 +105,7 @@ public class SignatureVerifier extends ProcessingStep {
 			}
 			// Ok, so there is content, close the tempStream
 			tempStream.close();
-			setStatus(verifyContent());
+			setStatus(verifyContent(inputFile));
 
 			// now write the  content to the final destination
 			resultStream = new BufferedInputStream(new FileInputStream(inputFile));
@@ -81,13 +121,13 @@ public class SignatureVerifier extends ProcessingStep {
 		}
 	}
 
-	private IStatus verifyContent() throws IOException {
+	private IStatus verifyContent(File file) throws IOException {
 		SignedContentFactory verifierFactory = ServiceHelper.getService(Activator.getContext(), SignedContentFactory.class);
 		SignedContent signedContent;
 		try {
-			signedContent = verifierFactory.getSignedContent(inputFile);
+			signedContent = verifierFactory.getSignedContent(file);
 		} catch (GeneralSecurityException e) {
-			return new Status(IStatus.ERROR, Activator.ID, MirrorRequest.ARTIFACT_PROCESSING_ERROR, Messages.SignatureVerification_failedRead + inputFile, e);
+			return new Status(IStatus.ERROR, Activator.ID, MirrorRequest.ARTIFACT_PROCESSING_ERROR, Messages.SignatureVerification_failedRead + file, e);
 		} catch (ZipException e) {
 			// SignedContentFactory behavior changed to throw a ZipException if the
 			// file is not a valid zip file, before it would just return an empty unsigned content object.
@@ -108,13 +148,28 @@ public class SignatureVerifier extends ProcessingStep {
 			}
 		}
 		if (allStatus.size() > 0) {
-			return new MultiStatus(Activator.ID, IStatus.ERROR, allStatus.toArray(new IStatus[allStatus.size()]), Messages.SignatureVerification_invalidFileContent + inputFile, null);
+			return new MultiStatus(Activator.ID, IStatus.ERROR, allStatus.toArray(new IStatus[allStatus.size()]), Messages.SignatureVerification_invalidFileContent + file, null);
 		}
 		return Status.OK_STATUS;
 	}
 
 	@Override
 	public void close() throws IOException {
+		if (target != null) {
+			// Verify the artifact file before the chain is closed, so that a corrupt
+			// artifact is never committed to the target repository
+			if (written) {
+				flush();
+				IStatus status = verifyContent(target.getFile());
+				setStatus(status);
+				if (!status.isOK()) {
+					// the artifact stream deletes the file instead of adding the descriptor
+					target.setStatus(status);
+				}
+			}
+			super.close();
+			return;
+		}
 		// When we go to close we must have seen all the content we are going to see
 		// So before closing, verify and write the result to the destination
 		verify();
@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.artifact.repository.simple;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import org.eclipse.equinox.internal.p2.metadata.ArtifactKey;
+import org.eclipse.equinox.internal.p2.persistence.Journal;
+import org.eclipse.equinox.p2.metadata.IArtifactKey;
+import org.eclipse.equinox.p2.metadata.Version;
+import org.eclipse.equinox.p2.repository.artifact.IProcessingStepDescriptor;
+import org.eclipse.equinox.p2.repository.artifact.spi.ProcessingStepDescriptor;
+
+/**
+ * The journal of the artifact descriptors added to and removed from a simple
+ * artifact repository since its index file was last written. Each record
+ * holds a single descriptor.
+ */
+class DescriptorJournal {
+	static final String FILE_NAME = SimpleArtifactRepository.CONTENT_FILENAME + ".journal"; //$NON-NLS-1$
+
+	private static final byte ADDED = 1;
+	private static final byte REMOVED = 2;
+
+	/**
+	 * A descriptor read from the journal.
+	 */
+	record Change(boolean added, SimpleArtifactDescriptor descriptor) {
+	}
+
+	private final Journal journal;
+
+	DescriptorJournal(File directory) {
+		journal = new Journal(new File(directory, FILE_NAME));
+	}
+
+	File getFile() {
+		return journal.getFile();
+	}
+
+	int getRecordCount() {
+		return journal.getRecordCount();
+	}
+
+	boolean canAppend() {
+		return journal.canAppend();
+	}
+
+	List<Change> read(long generation) throws IOException {
+		List<byte[]> records = journal.read(generation);
+		List<Change> changes = new ArrayList<>(records.size());
+		for (byte[] record : records) {
+			changes.add(decode(record));
+		}
+		return changes;
+	}
+
+	void append(long generation, Collection<SimpleArtifactDescriptor> added, Collection<SimpleArtifactDescriptor> removed) throws IOException {
+		List<byte[]> records = new ArrayList<>(added.size() + removed.size());
+		for (SimpleArtifactDescriptor descriptor : removed) {
+			records.add(encode(REMOVED, descriptor));
+		}
+		for (SimpleArtifactDescriptor descriptor : added) {
+			records.add(encode(ADDED, descriptor));
+		}
+		journal.append(generation, records);
+	}
+
+	boolean delete() {
+		return journal.delete();
+	}
+
+	private static byte[] encode(byte kind, SimpleArtifactDescriptor descriptor) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+		DataOutputStream output = new DataOutputStream(buffer);
+		output.writeByte(kind);
+		IArtifactKey key = descriptor.getArtifactKey();
+		writeString(output, key.getClassifier());
+		writeString(output, key.getId());
+		writeString(output, key.getVersion().toString());
+		IProcessingStepDescriptor[] steps = descriptor.getProcessingSteps();
+		output.writeInt(steps.length);
+		for (IProcessingStepDescriptor step : steps) {
+			writeString(output, step.getProcessorId());
+			writeString(output, step.getData());
+			output.writeBoolean(step.isRequired());
+		}
+		writeProperties(output, descriptor.getProperties());
+		writeProperties(output, descriptor.getRepositoryProperties());
+		output.flush();
+		return buffer.toByteArray();
+	}
+
+	private static Change decode(byte[] record) throws IOException {
+		DataInputStream input = new DataInputStream(new ByteArrayInputStream(record));
+		byte kind = input.readByte();
+		if (kind != ADDED && kind != REMOVED) {
+			throw new IOException("Unknown journal record: " + kind); //$NON-NLS-1$
+		}
+		String classifier = readString(input);
+		String id = readString(input);
+		Version version = Version.create(readString(input));
+		SimpleArtifactDescriptor descriptor = new SimpleArtifactDescriptor(new ArtifactKey(classifier, id, version));
+		int stepCount = input.readInt();
+		IProcessingStepDescriptor[] steps = stepCount == 0 ? SimpleArtifactRepositoryIO.EMPTY_STEPS : new IProcessingStepDescriptor[stepCount];
+		for (int i = 0; i < stepCount; i++) {
+			steps[i] = new ProcessingStepDescriptor(readString(input), readString(input), input.readBoolean());
+		}
+		descriptor.setProcessingSteps(steps);
+		descriptor.addProperties(readProperties(input));
+		descriptor.addRepositoryProperties(readProperties(input));
+		return new Change(kind == ADDED, descriptor);
+	}
+
+	private static void writeProperties(DataOutputStream output, Map<String, String> properties) throws IOException {
+		output.writeInt(properties.size());
+		for (Map.Entry<String, String> entry : properties.entrySet()) {
+			writeString(output, entry.getKey());
+			writeString(output, entry.getValue());
+		}
+	}
+
+	private static Map<String, String> readProperties(DataInputStream input) throws IOException {
+		int size = input.readInt();
+		Map<String, String> properties = new LinkedHashMap<>(size);
+		for (int i = 0; i < size; i++) {
+			properties.put(readString(input), readString(input));
+		}
+		return properties;
+	}
+
+	// unlike writeUTF this allows null and values longer than 64k, such as PGP signatures
+	private static void writeString(DataOutputStream output, String value) throws IOException {
+		if (value == null) {
+			output.writeInt(-1);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		output.writeInt(bytes.length);
+		output.write(bytes);
+	}
+
+	private static String readString(DataInputStream input) throws IOException {
+		int length = input.readInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		input.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2018 IBM Corporation and others.
+ * Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -22,6 +22,9 @@ package org.eclipse.equinox.internal.p2.artifact.repository.simple;
 import java.io.*;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -32,6 +35,7 @@ import org.eclipse.core.runtime.*;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.equinox.internal.p2.artifact.processors.checksum.ChecksumUtilities;
 import org.eclipse.equinox.internal.p2.artifact.processors.checksum.ChecksumVerifier;
+import org.eclipse.equinox.internal.p2.artifact.processors.checksum.IDigestingStep;
 import org.eclipse.equinox.internal.p2.artifact.processors.pgp.PGPSignatureVerifier;
 import org.eclipse.equinox.internal.p2.artifact.repository.*;
 import org.eclipse.equinox.internal.p2.artifact.repository.Messages;
@@ -40,6 +44,7 @@ import org.eclipse.equinox.internal.p2.core.helpers.LogHelper;
 import org.eclipse.equinox.internal.p2.metadata.ArtifactKey;
 import org.eclipse.equinox.internal.p2.metadata.expression.CompoundIterator;
 import org.eclipse.equinox.internal.p2.metadata.index.IndexProvider;
+import org.eclipse.equinox.internal.p2.persistence.Journal;
 import org.eclipse.equinox.internal.p2.repository.DownloadStatus;
 import org.eclipse.equinox.internal.p2.repository.Transport;
 import org.eclipse.equinox.internal.p2.repository.helpers.ChecksumHelper;
@@ -96,6 +101,17 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 	 */
 	public static final String PROP_BLOBSTORE_NAME = "p2.blobstore.name"; //$NON-NLS-1$
 
+	/**
+	 * Boolean repository property to append added and removed artifact
+	 * descriptors of a local repository to a journal next to the index file
+	 * instead of rewriting the index file on every change. The index file is
+	 * rewritten in batches, when the journal has grown too long, and when any
+	 * other change is saved. Readers replay the journal after loading the index
+	 * file; readers that do not know the journal only see the state of the
+	 * index file.
+	 */
+	public static final String PROP_JOURNAL = Journal.PROP_JOURNAL;
+
 	/**
 	 * Does this instance of the repository currently hold a lock
 	 */
@@ -108,12 +124,17 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 
 	private long cacheTimestamp = 0l;
 
+	private long cacheJournalLength = 0l;
+
+	private DescriptorJournal journal;
+
 	public class ArtifactOutputStream extends OutputStream implements IStateful, IAdaptable {
 		private boolean closed;
 		private long count = 0;
 		private final IArtifactDescriptor descriptor;
 		private final OutputStream destination;
 		private final File file;
+		private final FileOutputStream fileTarget;
 		private IStatus status = Status.OK_STATUS;
 		private OutputStream firstLink;
 
@@ -125,6 +146,48 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 			this.destination = os;
 			this.descriptor = descriptor;
 			this.file = file;
+			this.fileTarget = null;
+		}
+
+		ArtifactOutputStream(FileOutputStream target, IArtifactDescriptor descriptor, File file) {
+			this.destination = new BufferedOutputStream(target);
+			this.descriptor = descriptor;
+			this.file = file;
+			this.fileTarget = target;
+		}
+
+		/**
+		 * Returns whether the content of a local file can be transferred directly
+		 * into the artifact file with {@link #transferFrom(File, long, long)}. This is
+		 * only the case for plain file artifacts as long as nothing has been written
+		 * to this stream.
+		 */
+		boolean canTransferFrom() {
+			return fileTarget != null && count == 0 && !closed;
+		}
+
+		/**
+		 * Transfers the given range of a local file into the artifact file using
+		 * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)},
+		 * which lets the operating system copy the bytes without passing them through
+		 * the Java heap.
+		 *
+		 * @return the number of bytes transferred
+		 */
+		long transferFrom(File source, long position, long length) throws IOException {
+			try (FileChannel in = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+				FileChannel out = fileTarget.getChannel();
+				long transferred = 0;
+				while (transferred < length) {
+					long n = in.transferTo(position + transferred, length - transferred, out);
+					if (n <= 0) {
+						break;
+					}
+					transferred += n;
+				}
+				count += transferred;
+				return transferred;
+			}
 		}
 
 		@Override
@@ -170,6 +233,14 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 			return destination;
 		}
 
+		/**
+		 * Returns the local file this stream writes the artifact to, or
+		 * <code>null</code> if the artifact is not a plain file.
+		 */
+		public File getFile() {
+			return fileTarget == null ? null : file;
+		}
+
 		@Override
 		public void setStatus(IStatus status) {
 			this.status = status == null ? Status.OK_STATUS : status;
@@ -193,6 +264,11 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 			count++;
 		}
 
+		@Override
+		public void flush() throws IOException {
+			destination.flush();
+		}
+
 		public void setFirstLink(OutputStream value) {
 			firstLink = value;
 		}
@@ -281,9 +357,15 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 
 	private static final int DEFAULT_MAX_THREADS = 4;
 
+	/**
+	 * The number of bytes transferred at once when copying a local file directly
+	 * into a local artifact file.
+	 */
+	private static final long TRANSFER_CHUNK_SIZE = 8 * 1024 * 1024;
+
 	protected String[][] mappingRules = DEFAULT_MAPPING_RULES;
 
-	private MirrorSelector mirrors;
+	private volatile MirrorSelector mirrors;
 
 	private boolean disableSave = false;
 
@@ -412,7 +494,7 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 			SimpleArtifactDescriptor internalDescriptor = createInternalDescriptor(toAdd);
 			artifactDescriptors.add(internalDescriptor);
 			mapDescriptor(internalDescriptor, true);
-			save();
+			save(List.of(internalDescriptor), List.of());
 		} finally {
 			if (lockAcquired) {
 				unlock();
@@ -425,6 +507,13 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 		return new SimpleArtifactDescriptor(key);
 	}
 
+	private SimpleArtifactDescriptor toInternalDescriptor(IArtifactDescriptor descriptor) {
+		if (descriptor instanceof SimpleArtifactDescriptor simple) {
+			return simple;
+		}
+		return createInternalDescriptor(descriptor);
+	}
+
 	private SimpleArtifactDescriptor createInternalDescriptor(IArtifactDescriptor descriptor) {
 		SimpleArtifactDescriptor internal = new SimpleArtifactDescriptor(descriptor);
 
@@ -454,6 +543,7 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 				}
 			}
 
+			List<SimpleArtifactDescriptor> added = new ArrayList<>(descriptors.length);
 			for (IArtifactDescriptor descriptor : descriptors) {
 				if (artifactDescriptors.contains(descriptor)) {
 					continue;
@@ -461,8 +551,9 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 				SimpleArtifactDescriptor internalDescriptor = createInternalDescriptor(descriptor);
 				artifactDescriptors.add(internalDescriptor);
 				mapDescriptor(internalDescriptor, true);
+				added.add(internalDescriptor);
 			}
-			save();
+			save(added, List.of());
 		} finally {
 			if (lockAcquired) {
 				unlock();
@@ -470,13 +561,14 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 		}
 	}
 
-	private synchronized OutputStream addPostSteps(ProcessingStepHandler handler, IArtifactDescriptor descriptor, OutputStream destination, IProgressMonitor monitor) {
+	private synchronized OutputStream addPostSteps(ProcessingStepHandler handler, IArtifactDescriptor descriptor,
+			OutputStream destination, boolean verifyArtifactChecksums, IProgressMonitor monitor) {
 		monitor = IProgressMonitor.nullSafe(monitor);
 		ArrayList<ProcessingStep> steps = new ArrayList<>();
 		steps.add(new SignatureVerifier());
-		Set<String> skipChecksums = isArtifactMd5ChecksumEnabled(getProvisioningAgent()) ? Collections.emptySet()
-				: Collections.singleton(ChecksumHelper.MD5);
-		addChecksumVerifiers(descriptor, steps, skipChecksums, IArtifactDescriptor.ARTIFACT_CHECKSUM);
+		if (verifyArtifactChecksums) {
+			addChecksumVerifiers(descriptor, steps, getArtifactChecksumsToSkip(), IArtifactDescriptor.ARTIFACT_CHECKSUM);
+		}
 
 		if (!isFolderBased(descriptor)) {
 			addPGPSignatureVerifier(descriptor, steps);
@@ -499,7 +591,8 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 		}
 	}
 
-	private OutputStream addPreSteps(ProcessingStepHandler handler, IArtifactDescriptor descriptor, OutputStream destination, IProgressMonitor monitor) {
+	private OutputStream addPreSteps(ProcessingStepHandler handler, IArtifactDescriptor descriptor,
+			OutputStream destination, boolean verifyArtifactChecksums, IProgressMonitor monitor) {
 		monitor = IProgressMonitor.nullSafe(monitor);
 		ArrayList<ProcessingStep> steps = new ArrayList<>();
 		if (IArtifactDescriptor.TYPE_ZIP.equals(descriptor.getProperty(IArtifactDescriptor.DOWNLOAD_CONTENTTYPE))) {
@@ -508,14 +601,21 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 
 		Set<String> skipChecksums = isDownloadMd5ChecksumEnabled(getProvisioningAgent()) ? Collections.emptySet()
 				: Collections.singleton(ChecksumHelper.MD5);
-		ArrayList<ProcessingStep> downloadChecksumSteps = new ArrayList<>();
-		addChecksumVerifiers(descriptor, downloadChecksumSteps, skipChecksums, IArtifactDescriptor.DOWNLOAD_CHECKSUM);
-		if (downloadChecksumSteps.isEmpty() && !isLocal()) {
+		ArrayList<ChecksumVerifier> checksumVerifiers = new ArrayList<>();
+		addChecksumVerifiers(descriptor, checksumVerifiers, skipChecksums, IArtifactDescriptor.DOWNLOAD_CHECKSUM);
+		if (checksumVerifiers.isEmpty() && !isLocal()) {
 			LogHelper.log(new Status(IStatus.WARNING, Activator.ID,
 					NLS.bind(Messages.noDigestAlgorithmToVerifyDownload, descriptor.getArtifactKey(),
 							descriptor.getRepository().getLocation())));
 		}
-		steps.addAll(downloadChecksumSteps);
+		if (verifyArtifactChecksums) {
+			addChecksumVerifiers(descriptor, checksumVerifiers, getArtifactChecksumsToSkip(),
+					IArtifactDescriptor.ARTIFACT_CHECKSUM);
+		}
+		ProcessingStep checksumStep = ChecksumUtilities.fuseChecksumVerifiers(checksumVerifiers);
+		if (checksumStep != null) {
+			steps.add(checksumStep);
+		}
 
 		// Add steps here if needed
 		if (steps.isEmpty()) {
@@ -526,7 +626,13 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 		return handler.link(stepArray, destination, monitor);
 	}
 
-	private void addChecksumVerifiers(IArtifactDescriptor descriptor, ArrayList<ProcessingStep> steps, Set<String> skipChecksums, String property) {
+	private Set<String> getArtifactChecksumsToSkip() {
+		return isArtifactMd5ChecksumEnabled(getProvisioningAgent()) ? Collections.emptySet()
+				: Collections.singleton(ChecksumHelper.MD5);
+	}
+
+	private void addChecksumVerifiers(IArtifactDescriptor descriptor, Collection<? super ChecksumVerifier> steps,
+			Set<String> skipChecksums, String property) {
 		if (isChecksumsEnabled(getProvisioningAgent())) {
 			Collection<ChecksumVerifier> checksumVerifiers = ChecksumUtilities.getChecksumVerifiers(descriptor,
 					property, skipChecksums);
@@ -605,12 +711,7 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 	 * descriptor existed in the repository, and was successfully removed.
 	 */
 	private boolean doRemoveArtifact(IArtifactDescriptor descriptor) {
-		SimpleArtifactDescriptor simple = null;
-		if (descriptor instanceof SimpleArtifactDescriptor) {
-			simple = (SimpleArtifactDescriptor) descriptor;
-		} else {
-			simple = createInternalDescriptor(descriptor);
-		}
+		SimpleArtifactDescriptor simple = toInternalDescriptor(descriptor);
 		if (simple.getRepositoryProperty(SimpleArtifactDescriptor.ARTIFACT_REFERENCE) == null) {
 			File file = getArtifactFile(descriptor);
 			if (file != null) {
@@ -718,6 +819,18 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 	 */
 	private IStatus copyFileToStream(File in, OutputStream out, IProgressMonitor monitor) {
 		monitor = IProgressMonitor.nullSafe(monitor);
+		// If the bytes are at most digested on their way into a local artifact file, let
+		// the file system copy them directly. This is the case for raw copies, the
+		// signature verifier that getArtifact puts first needs the bytes themselves.
+		List<IDigestingStep> digestingSteps = new ArrayList<>();
+		OutputStream chainEnd = out;
+		while (chainEnd instanceof IDigestingStep step) {
+			digestingSteps.add(step);
+			chainEnd = ProcessingStepHandler.getDestination(chainEnd);
+		}
+		if (chainEnd instanceof ArtifactOutputStream artifactStream && artifactStream.canTransferFrom()) {
+			return transferFile(in, digestingSteps, artifactStream, monitor);
+		}
 		// Buffer filled with contents from the stream at a time
 		int bufferSize = 16 * 1024;
 		byte[] buffer = new byte[bufferSize];
@@ -747,6 +860,83 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 		return status;
 	}
 
+	/**
+	 * Copy a local file into the file of an artifact output stream without
+	 * streaming it through the Java heap. The given steps are only fed with the
+	 * content to compute their digests. Since the digests are computed in a
+	 * separate pass, the number of bytes digested and transferred is checked
+	 * against the length of the file; a file that changes while it is copied
+	 * fails the transfer, and the artifact is not added.
+	 */
+	private IStatus transferFile(File in, List<IDigestingStep> digestingSteps, ArtifactOutputStream out,
+			IProgressMonitor monitor) {
+		long length = in.length();
+		int chunks = (int) (length / TRANSFER_CHUNK_SIZE) + 1;
+		SubMonitor sub = SubMonitor.convert(monitor, Messages.downloading + in.getName(),
+				digestingSteps.isEmpty() ? chunks : 2 * chunks);
+		DownloadStatus status = new DownloadStatus(IStatus.OK, Activator.ID, Status.OK_STATUS.getMessage());
+		try {
+			long start = System.currentTimeMillis();
+			if (!digestingSteps.isEmpty()) {
+				long digested = 0;
+				try (FileChannel channel = FileChannel.open(in.toPath(), StandardOpenOption.READ)) {
+					ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+					long read = 0;
+					while (channel.read(buffer) != -1) {
+						buffer.flip();
+						read += buffer.remaining();
+						digested += buffer.remaining();
+						for (IDigestingStep step : digestingSteps) {
+							step.updateDigests(buffer.duplicate());
+						}
+						buffer.clear();
+						if (read >= TRANSFER_CHUNK_SIZE) {
+							read -= TRANSFER_CHUNK_SIZE;
+							sub.worked(1);
+						}
+					}
+				}
+				if (digested != length) {
+					return failTransfer(out, in, digested, length);
+				}
+			}
+			long position = 0;
+			while (position < length) {
+				if (sub.isCanceled()) {
+					out.setStatus(Status.CANCEL_STATUS);
+					return Status.CANCEL_STATUS;
+				}
+				long transferred = out.transferFrom(in, position, Math.min(TRANSFER_CHUNK_SIZE, length - position));
+				if (transferred <= 0) {
+					break;
+				}
+				position += transferred;
+				sub.worked(1);
+			}
+			if (position != length || in.length() != length) {
+				return failTransfer(out, in, position, length);
+			}
+			long end = System.currentTimeMillis();
+			status.setFileSize(position);
+			status.setLastModified(in.lastModified());
+			status.setTransferRate(position / Math.max((end - start), 1) * 1000);
+		} catch (IOException ioe) {
+			IStatus error = new Status(IStatus.ERROR, Activator.ID, NLS.bind(Messages.error_copying_local_file, in.getAbsolutePath()), ioe);
+			out.setStatus(error);
+			return error;
+		} finally {
+			sub.done();
+		}
+		return status;
+	}
+
+	private static IStatus failTransfer(ArtifactOutputStream out, File in, long copied, long length) {
+		IStatus error = new Status(IStatus.ERROR, Activator.ID, NLS.bind(Messages.error_copying_local_file_length, new Object[] {in.getAbsolutePath(), copied, length}));
+		// the artifact stream deletes the incomplete file when it is closed
+		out.setStatus(error);
+		return error;
+	}
+
 	private IStatus downloadArtifact(IArtifactDescriptor descriptor, URI mirrorLocation, OutputStream destination,
 			IProgressMonitor monitor) {
 		monitor = IProgressMonitor.nullSafe(monitor);
@@ -781,15 +971,22 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 	 * @param baseLocation The location of the artifact in this repository
 	 * @return the Location of the artifact in this repository, or an equivalent mirror
 	 */
-	private synchronized URI getMirror(URI baseLocation, IProgressMonitor monitor) {
+	private URI getMirror(URI baseLocation, IProgressMonitor monitor) {
 		monitor = IProgressMonitor.nullSafe(monitor);
 		if (!isMirrorsEnabled(getProvisioningAgent()) || (!isForceThreading() && isLocal())) {
 			return baseLocation;
 		}
-		if (mirrors == null) {
-			mirrors = new MirrorSelector(this, getTransport());
+		// the selector is not shared through the repository lock, so that concurrent downloads select mirrors in parallel
+		MirrorSelector selector = mirrors;
+		if (selector == null) {
+			synchronized (this) {
+				if (mirrors == null) {
+					mirrors = new MirrorSelector(this, getTransport());
+				}
+				selector = mirrors;
+			}
 		}
-		return mirrors.getMirrorLocation(baseLocation, monitor);
+		return selector.getMirrorLocation(baseLocation, monitor);
 	}
 
 	/**
@@ -1161,6 +1358,9 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 
 			// finally create and return an output stream suitably wrapped so that when it is
 			// closed the repository is updated with the descriptor
+			if (target instanceof FileOutputStream fileTarget) {
+				return new ArtifactOutputStream(fileTarget, newDescriptor, outputFile);
+			}
 			return new ArtifactOutputStream(new BufferedOutputStream(target), newDescriptor, outputFile);
 		} catch (IOException e) {
 			throw failedWrite(e);
@@ -1276,9 +1476,13 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 
 	public OutputStream processDestination(ProcessingStepHandler handler, IArtifactDescriptor descriptor, OutputStream destination, IProgressMonitor monitor) {
 		monitor = IProgressMonitor.nullSafe(monitor);
-		destination = addPostSteps(handler, descriptor, destination, monitor);
-		destination = handler.createAndLink(getProvisioningAgent(), descriptor.getProcessingSteps(), descriptor, destination, monitor);
-		destination = addPreSteps(handler, descriptor, destination, monitor);
+		// Without processing steps the downloaded bytes are the artifact bytes, so the
+		// download and artifact checksums are verified together in a single pass.
+		IProcessingStepDescriptor[] processingSteps = descriptor.getProcessingSteps();
+		boolean fuseChecksums = processingSteps == null || processingSteps.length == 0;
+		destination = addPostSteps(handler, descriptor, destination, !fuseChecksums, monitor);
+		destination = handler.createAndLink(getProvisioningAgent(), processingSteps, descriptor, destination, monitor);
+		destination = addPreSteps(handler, descriptor, destination, fuseChecksums, monitor);
 		return destination;
 	}
 
@@ -1322,7 +1526,7 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 			}
 
 			if (doRemoveArtifact(descriptor)) {
-				save();
+				save(List.of(), List.of(toInternalDescriptor(descriptor)));
 			}
 		} finally {
 			if (lockAcquired) {
@@ -1343,12 +1547,14 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 				}
 			}
 
-			boolean changed = false;
+			List<SimpleArtifactDescriptor> removed = new ArrayList<>(descriptors.length);
 			for (IArtifactDescriptor descriptor : descriptors) {
-				changed |= doRemoveArtifact(descriptor);
+				if (doRemoveArtifact(descriptor)) {
+					removed.add(toInternalDescriptor(descriptor));
+				}
 			}
-			if (changed) {
-				save();
+			if (!removed.isEmpty()) {
+				save(List.of(), removed);
 			}
 		} finally {
 			if (lockAcquired) {
@@ -1373,17 +1579,17 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 				}
 			}
 
-			boolean changed = false;
+			List<SimpleArtifactDescriptor> removed = new ArrayList<>();
 			for (IArtifactKey key : keys) {
 				IArtifactDescriptor[] descriptors = getArtifactDescriptors(key);
 				for (IArtifactDescriptor descriptor : descriptors) {
-					if (!removeIfAdded || addedDescriptors.remove(descriptor)) {
-						changed |= doRemoveArtifact(descriptor);
+					if ((!removeIfAdded || addedDescriptors.remove(descriptor)) && doRemoveArtifact(descriptor)) {
+						removed.add(toInternalDescriptor(descriptor));
 					}
 				}
 			}
-			if (changed) {
-				save();
+			if (!removed.isEmpty()) {
+				save(List.of(), removed);
 			}
 		} finally {
 			if (lockAcquired) {
@@ -1405,12 +1611,14 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 			}
 
 			IArtifactDescriptor[] toRemove = getArtifactDescriptors(key);
-			boolean changed = false;
+			List<SimpleArtifactDescriptor> removed = new ArrayList<>(toRemove.length);
 			for (IArtifactDescriptor element : toRemove) {
-				changed |= doRemoveArtifact(element);
+				if (doRemoveArtifact(element)) {
+					removed.add(toInternalDescriptor(element));
+				}
 			}
-			if (changed) {
-				save();
+			if (!removed.isEmpty()) {
+				save(List.of(), removed);
 			}
 		} finally {
 			if (lockAcquired) {
@@ -1475,9 +1683,83 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 		save(compress);
 	}
 
+	/**
+	 * Saves the given changes of the artifact descriptors. A journaled
+	 * repository appends them to its journal, other repositories rewrite the
+	 * index file.
+	 */
+	private void save(Collection<SimpleArtifactDescriptor> added, Collection<SimpleArtifactDescriptor> removed) {
+		if (disableSave) {
+			return;
+		}
+		if (!TRUE.equalsIgnoreCase(getProperty(PROP_JOURNAL)) || !isLocal() || !hasIndexFile()) {
+			save();
+			return;
+		}
+		if (added.isEmpty() && removed.isEmpty()) {
+			return;
+		}
+		DescriptorJournal descriptorJournal = getJournal();
+		// an instance that has not read the journal would truncate it
+		if (!descriptorJournal.canAppend() || descriptorJournal.getRecordCount() + added.size() + removed.size() > Journal.COMPACTION_THRESHOLD) {
+			save();
+			return;
+		}
+		assertModifiable();
+		try {
+			descriptorJournal.append(Journal.getGeneration(getProperty(Journal.PROP_GENERATION)), added, removed);
+			updateTimestamp();
+		} catch (IOException e) {
+			LogHelper.log(new Status(IStatus.WARNING, Activator.ID, "Unable to append to journal " + descriptorJournal.getFile(), e)); //$NON-NLS-1$
+			save();
+		}
+	}
+
+	private boolean hasIndexFile() {
+		return URIUtil.toFile(getActualLocation(getLocation(), false)).exists() || URIUtil.toFile(getActualLocation(getLocation(), true)).exists();
+	}
+
+	private synchronized DescriptorJournal getJournal() {
+		if (journal == null) {
+			journal = new DescriptorJournal(URIUtil.toFile(getLocation()));
+		}
+		return journal;
+	}
+
+	/**
+	 * Applies the changes recorded in the journal of a local repository to the
+	 * descriptors read from its index file.
+	 */
+	synchronized void replayJournal() {
+		if (!isLocal()) {
+			return;
+		}
+		DescriptorJournal descriptorJournal = getJournal();
+		List<DescriptorJournal.Change> changes;
+		try {
+			changes = descriptorJournal.read(Journal.getGeneration(getProperty(Journal.PROP_GENERATION)));
+		} catch (IOException e) {
+			LogHelper.log(new Status(IStatus.WARNING, Activator.ID, "Unable to read journal " + descriptorJournal.getFile(), e)); //$NON-NLS-1$
+			return;
+		}
+		for (DescriptorJournal.Change change : changes) {
+			SimpleArtifactDescriptor descriptor = change.descriptor();
+			if (change.added()) {
+				if (artifactDescriptors.add(descriptor)) {
+					descriptor.setRepository(this);
+					mapDescriptor(descriptor, false);
+				}
+			} else if (artifactDescriptors.remove(descriptor)) {
+				unmapDescriptor(descriptor);
+			}
+		}
+		updateTimestamp();
+	}
+
 	private void save(boolean compress) {
 		assertModifiable();
 		OutputStream os = null;
+		boolean written = false;
 		try {
 			try {
 				URI actualLocation = getActualLocation(getLocation(), false);
@@ -1504,7 +1786,12 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 					((JarOutputStream) os).putNextEntry(new JarEntry(IPath.fromOSString(artifactsFile.getAbsolutePath()).lastSegment()));
 				}
 				super.setProperty(IRepository.PROP_TIMESTAMP, Long.toString(System.currentTimeMillis()), new NullProgressMonitor());
+				if (TRUE.equalsIgnoreCase(getProperty(PROP_JOURNAL)) || getJournal().getFile().exists()) {
+					// a journal left over from before this index file is skipped
+					super.setProperty(Journal.PROP_GENERATION, Journal.nextGeneration(getProperty(Journal.PROP_GENERATION)), new NullProgressMonitor());
+				}
 				new SimpleArtifactRepositoryIO(getProvisioningAgent()).write(this, os);
+				written = true;
 			} catch (IOException e) {
 				// TODO proper exception handling
 				e.printStackTrace();
@@ -1512,6 +1799,10 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 				if (os != null) {
 					os.close();
 				}
+				if (written) {
+					// the index file contains all changes now
+					getJournal().delete();
+				}
 				updateTimestamp();
 			}
 		} catch (IOException e) {
@@ -1797,6 +2088,7 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 			if (lastModified > 0) {
 				cacheTimestamp = lastModified;
 			}
+			cacheJournalLength = getJournal().getFile().length();
 		} catch (Exception e) {
 			// Do nothing
 		}
@@ -1817,10 +2109,12 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 			try {
 				File localFile = repositoryFactory.getLocalFile(getLocation(), subMonitor.newChild(1));
 				long lastModified = localFile.lastModified();
-				if (lastModified <= cacheTimestamp) {
+				long journalLength = getJournal().getFile().length();
+				if (lastModified <= cacheTimestamp && journalLength == cacheJournalLength) {
 					return;
 				}
 				cacheTimestamp = lastModified;
+				cacheJournalLength = journalLength;
 			} catch (Exception e) {
 				// Dont'r worry if we can't load
 				return;
@@ -1854,6 +2148,8 @@ public class SimpleArtifactRepository extends AbstractArtifactRepository impleme
 				this.artifactDescriptors = ((SimpleArtifactRepository) repositoryOnDisk).artifactDescriptors;
 				this.artifactMap = ((SimpleArtifactRepository) repositoryOnDisk).artifactMap;
 				this.addedDescriptors.clear();
+				// continue the journal where the repository on disk has read it
+				this.journal = ((SimpleArtifactRepository) repositoryOnDisk).journal;
 			}
 		} finally {
 			monitor.done();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2017 IBM Corporation and others.
+ * Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -115,6 +115,7 @@ public class SimpleArtifactRepositoryFactory extends ArtifactRepositoryFactory {
 				SimpleArtifactRepositoryIO io = new SimpleArtifactRepositoryIO(getAgent());
 				SimpleArtifactRepository result = (SimpleArtifactRepository) io.read(location, descriptorStream, sub.newChild(100), acquireLock);
 				result.initializeAfterLoad(location);
+				result.replayJournal();
 				if (result != null && (flags & IRepositoryManager.REPOSITORY_HINT_MODIFIABLE) > 0 && !result.isModifiable()) {
 					return null;
 				}
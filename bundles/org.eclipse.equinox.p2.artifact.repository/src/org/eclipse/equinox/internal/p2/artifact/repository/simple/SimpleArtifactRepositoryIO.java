@@ -63,7 +63,7 @@ public class SimpleArtifactRepositoryIO {
 		try {
 			try {
 				bufferedOutput = new BufferedOutputStream(output);
-				Writer repositoryWriter = new Writer(bufferedOutput);
+				Writer repositoryWriter = new Writer(bufferedOutput, !XMLWriter.COMPACT);
 				repositoryWriter.write(repository);
 			} finally {
 				if (bufferedOutput != null) {
@@ -234,6 +234,10 @@ public class SimpleArtifactRepositoryIO {
 			super(output, PI_DEFAULTS);
 		}
 
+		public Writer(OutputStream output, boolean indent) {
+			super(output, PI_DEFAULTS, indent);
+		}
+
 		/**
 		 * Write the given artifact repository to the output stream.
 		 */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2009 IBM Corporation and others.
+ * Copyright (c) 2008, 2026 IBM Corporation and others.
  *
  * This
  * program and the accompanying materials are made available under the terms of
@@ -20,6 +20,7 @@ public class Messages extends NLS {
 	public static String cannot_get_extension;
 	public static String cannot_instantiate_step;
 	public static String ZipVerifierStep_invalid_archive;
+	public static String ZipVerifierStep_incomplete_archive;
 	public static String processing_step_results;
 
 	static {
@@ -1,5 +1,5 @@
 /*******************************************************************************
-* Copyright (c) 2007, 2017 compeople AG and others.
+* Copyright (c) 2007, 2026 compeople AG and others.
 *
 * This program and the accompanying materials
 * are made available under the terms of the Eclipse Public License 2.0
@@ -155,4 +155,15 @@ public abstract class ProcessingStep extends OutputStream implements IStateful {
 	public boolean isEnabled() {
 		return true;
 	}
+
+	/**
+	 * Returns whether this step holds back the data written to it, typically in a
+	 * temporary file, until it is closed. Steps that pass the data on as it is
+	 * written, possibly after inspecting it, are not buffering.
+	 *
+	 * @return whether this step buffers the data written to it
+	 */
+	public boolean isBuffering() {
+		return false;
+	}
 }
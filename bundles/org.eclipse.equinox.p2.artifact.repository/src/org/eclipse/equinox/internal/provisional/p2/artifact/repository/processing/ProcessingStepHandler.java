@@ -171,7 +171,15 @@ public class ProcessingStepHandler {
 		return status.getSeverity() > result ? status.getSeverity() : result;
 	}
 
-	private static OutputStream getDestination(OutputStream stream) {
+	/**
+	 * Returns the stream the given processing step or artifact stream writes its
+	 * data to.
+	 *
+	 * @param stream a stream of a processing chain
+	 * @return the next stream of the chain, or <code>null</code> if the given
+	 *         stream is not a link of a processing chain
+	 */
+	public static OutputStream getDestination(OutputStream stream) {
 		if (stream instanceof ProcessingStep) {
 			return ((ProcessingStep) stream).getDestination();
 		}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2017 IBM Corporation and others.
+ * Copyright (c) 2008, 2026 IBM Corporation and others.
  *
  * This
  * program and the accompanying materials are made available under the terms of
@@ -18,34 +18,133 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.equinox.internal.p2.artifact.repository.Activator;
 
+/**
+ * Verifies that the data passed through is a complete zip archive. The local
+ * header at the start and the end of central directory record at the end of
+ * the archive are checked as the data streams by, so the archive is never
+ * copied.
+ */
 public class ZipVerifierStep extends ProcessingStep {
 	static final int[] ZIP_HEADER = new int[] {0x50, 0x4b, 0x03, 0x04};
 
+	private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+	private static final int END_HEADER_SIGNATURE = 0x06054b50;
+	private static final int ZIP64_END_LOCATOR_SIGNATURE = 0x07064b50;
+	private static final int END_HEADER_LENGTH = 22;
+	private static final int ZIP64_END_LOCATOR_LENGTH = 20;
+	private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+
 	private int valid = 0; //-1 indicates that it is not a zip, >3 indicates that we are done the verification 
+	private long count = 0;
+	// the last bytes written, a ring holding the end of central directory record and the archive comment
+	private byte[] tail;
+	private int tailPosition = 0;
 
 	@Override
 	public void write(int b) throws IOException {
 		getDestination().write(b);
 		if (valid > 3) {
-			return;
+			append((byte) b);
+		} else if (valid != -1) {
+			checkHeader((byte) b);
 		}
-		if (valid == -1) {
-			return;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		getDestination().write(b, off, len);
+		while (len > 0 && valid >= 0 && valid <= 3) {
+			checkHeader(b[off++]);
+			len--;
 		}
-		if (b != ZIP_HEADER[valid++]) {
+		if (valid > 3 && len > 0) {
+			append(b, off, len);
+		}
+	}
+
+	private void checkHeader(byte b) {
+		count++;
+		if ((b & 0xFF) != ZIP_HEADER[valid++]) {
 			valid = -1;
 			setStatus(new Status(IStatus.ERROR, Activator.ID, Messages.ZipVerifierStep_invalid_archive));
 			return;
 		}
+		if (valid > 3) {
+			tail = new byte[END_HEADER_LENGTH + MAX_COMMENT_LENGTH];
+			for (int i = 0; i < ZIP_HEADER.length; i++) {
+				tail[i] = (byte) ZIP_HEADER[i];
+			}
+			tailPosition = ZIP_HEADER.length;
+		}
+	}
+
+	private void append(byte b) {
+		count++;
+		tail[tailPosition] = b;
+		tailPosition = (tailPosition + 1) % tail.length;
+	}
+
+	private void append(byte[] b, int off, int len) {
+		count += len;
+		if (len > tail.length) {
+			off += len - tail.length;
+			len = tail.length;
+		}
+		int first = Math.min(len, tail.length - tailPosition);
+		System.arraycopy(b, off, tail, tailPosition, first);
+		System.arraycopy(b, off + first, tail, 0, len - first);
+		tailPosition = (tailPosition + len) % tail.length;
+	}
+
+	/**
+	 * Returns whether the archive ends with an end of central directory record
+	 * that refers to a central directory before it, as a reader of the archive
+	 * would find it.
+	 */
+	private boolean hasCentralDirectory() {
+		int size = (int) Math.min(count, tail.length);
+		byte[] end = new byte[size];
+		int start = Math.floorMod(tailPosition - size, tail.length);
+		int first = Math.min(size, tail.length - start);
+		System.arraycopy(tail, start, end, 0, first);
+		System.arraycopy(tail, 0, end, first, size - first);
+		for (int i = size - END_HEADER_LENGTH; i >= 0; i--) {
+			if (getInt(end, i) != END_HEADER_SIGNATURE) {
+				continue;
+			}
+			long centralSize = getInt(end, i + 12) & 0xFFFFFFFFL;
+			long centralOffset = getInt(end, i + 16) & 0xFFFFFFFFL;
+			if (centralSize == 0xFFFFFFFFL || centralOffset == 0xFFFFFFFFL) {
+				// the real values are in the zip64 end of central directory record
+				return i >= ZIP64_END_LOCATOR_LENGTH && getInt(end, i - ZIP64_END_LOCATOR_LENGTH) == ZIP64_END_LOCATOR_SIGNATURE;
+			}
+			long endPosition = count - size + i;
+			if (centralOffset + centralSize > endPosition) {
+				continue;
+			}
+			int central = (int) (i - centralSize);
+			if (centralSize > 0 && central >= 0 && getInt(end, central) != CENTRAL_HEADER_SIGNATURE) {
+				continue;
+			}
+			return true;
+		}
+		return false;
+	}
+
+	private static int getInt(byte[] b, int off) {
+		return (b[off] & 0xFF) | (b[off + 1] & 0xFF) << 8 | (b[off + 2] & 0xFF) << 16 | (b[off + 3] & 0xFF) << 24;
 	}
 
 	@Override
 	public void close() throws IOException {
-		if (valid > 3) {
+		if (valid > 3 && hasCentralDirectory()) {
 			setStatus(Status.OK_STATUS);
+		} else if (valid > 3) {
+			setStatus(new Status(IStatus.ERROR, Activator.ID, Messages.ZipVerifierStep_incomplete_archive));
 		} else {
 			setStatus(new Status(IStatus.ERROR, Activator.ID, Messages.ZipVerifierStep_invalid_archive));
 		}
+		tail = null;
 		super.close();
 	}
 }
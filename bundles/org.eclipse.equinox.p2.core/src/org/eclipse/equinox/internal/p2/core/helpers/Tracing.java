@@ -30,12 +30,14 @@ public class Tracing {
 	//debug constants
 	public static boolean DEBUG_GENERATOR_PARSING = false;
 	public static boolean DEBUG_INSTALL_REGISTRY = false;
+	public static boolean DEBUG_LOAD_REPO = false;
 	public static boolean DEBUG_METADATA_PARSING = false;
 	public static boolean DEBUG_MIRRORS = false;
 	public static boolean DEBUG_PARSE_PROBLEMS = false;
 	public static boolean DEBUG_PLANNER_OPERANDS = false;
 	public static boolean DEBUG_PLANNER_PROJECTOR = false;
 	public static boolean DEBUG_PLANNER_PROJECTOR_ENCODING = false;
+	public static boolean DEBUG_PLANNER_SOLUTION_CACHE = false;
 	public static boolean DEBUG_PROFILE_PREFERENCES = false;
 	public static boolean DEBUG_PUBLISHING = false;
 	public static boolean DEBUG_RECONCILER = false;
@@ -55,6 +57,7 @@ public class Tracing {
 					DEBUG_EVENTS_CLIENT = options.getBooleanOption(Activator.ID + "/events/client", false); //$NON-NLS-1$
 					DEBUG_GENERATOR_PARSING = options.getBooleanOption(Activator.ID + "/generator/parsing", false); //$NON-NLS-1$
 					DEBUG_INSTALL_REGISTRY = options.getBooleanOption(Activator.ID + "/engine/installregistry", false); //$NON-NLS-1$
+					DEBUG_LOAD_REPO = options.getBooleanOption(Activator.ID + "/core/loadRepo", false); //$NON-NLS-1$
 					DEBUG_METADATA_PARSING = options.getBooleanOption(Activator.ID + "/metadata/parsing", false); //$NON-NLS-1$
 					DEBUG_MIRRORS = options.getBooleanOption(Activator.ID + "/artifacts/mirrors", false); //$NON-NLS-1$
 					DEBUG_PARSE_PROBLEMS = options.getBooleanOption(Activator.ID + "/core/parseproblems", false); //$NON-NLS-1$
@@ -62,6 +65,8 @@ public class Tracing {
 					DEBUG_PLANNER_PROJECTOR = options.getBooleanOption(Activator.ID + "/planner/projector", false); //$NON-NLS-1$
 					DEBUG_PLANNER_PROJECTOR_ENCODING = options.getBooleanOption(Activator.ID + "/planner/encoding", //$NON-NLS-1$
 							false);
+					DEBUG_PLANNER_SOLUTION_CACHE = options.getBooleanOption(Activator.ID + "/planner/solutionCache", //$NON-NLS-1$
+							false);
 					DEBUG_PROFILE_PREFERENCES = options.getBooleanOption(Activator.ID + "/engine/profilepreferences", //$NON-NLS-1$
 							false);
 					DEBUG_PUBLISHING = options.getBooleanOption(Activator.ID + "/publisher", false); //$NON-NLS-1$
@@ -43,8 +43,11 @@ import org.eclipse.equinox.app.IApplication;
 import org.eclipse.equinox.app.IApplicationContext;
 import org.eclipse.equinox.internal.p2.core.helpers.ServiceHelper;
 import org.eclipse.equinox.internal.p2.core.helpers.StringHelper;
+import org.eclipse.equinox.internal.p2.director.Explanation;
+import org.eclipse.equinox.internal.p2.director.ExplanationEvent;
 import org.eclipse.equinox.internal.p2.director.ProfileChangeRequest;
 import org.eclipse.equinox.internal.p2.engine.EngineActivator;
+import org.eclipse.equinox.internal.p2.engine.SimpleProfileRegistry;
 import org.eclipse.equinox.internal.p2.engine.phases.AuthorityChecker;
 import org.eclipse.equinox.internal.provisional.p2.core.eventbus.IProvisioningEventBus;
 import org.eclipse.equinox.internal.provisional.p2.core.eventbus.ProvisioningListener;
@@ -394,6 +397,9 @@ public class DirectorApplication implements IApplication, ProvisioningListener {
 	private static final CommandLineOption OPTION_PURGEHISTORY = new CommandLineOption(new String[] { //
 			"-purgeHistory" }, //$NON-NLS-1$
 			null, Messages.Help_Purge_the_install_registry);
+	private static final CommandLineOption OPTION_COMPACTHISTORY = new CommandLineOption(new String[] { //
+			"-compactProfileHistory" }, //$NON-NLS-1$
+			null, Messages.Help_Compact_the_install_registry);
 	private static final CommandLineOption OPTION_FOLLOW_REFERENCES = new CommandLineOption(new String[] { //
 			"-followReferences" }, //$NON-NLS-1$
 			null, Messages.Help_Follow_references);
@@ -563,6 +569,7 @@ public class DirectorApplication implements IApplication, ProvisioningListener {
 	private boolean verifyOnly;
 	private boolean roamingProfile;
 	private boolean purgeRegistry;
+	private boolean compactRegistry;
 	private boolean followReferences;
 	private boolean downloadOnly;
 	private String profileId;
@@ -1026,6 +1033,11 @@ public class DirectorApplication implements IApplication, ProvisioningListener {
 	 */
 	@Override
 	public void notify(EventObject o) {
+		if (o instanceof ExplanationEvent event) {
+			// the final explanation is printed with the failure of the plan
+			printExplanation(event);
+			return;
+		}
 		if (!(o instanceof RepositoryEvent event)) {
 			return;
 		}
@@ -1345,6 +1357,11 @@ public class DirectorApplication implements IApplication, ProvisioningListener {
 				continue;
 			}
 
+			if (OPTION_COMPACTHISTORY.isOption(opt)) {
+				compactRegistry = true;
+				continue;
+			}
+
 			if (OPTION_FOLLOW_REFERENCES.isOption(opt)) {
 				followReferences = true;
 				continue;
@@ -1438,7 +1455,7 @@ public class DirectorApplication implements IApplication, ProvisioningListener {
 		}
 
 		else if (!printHelpInfo && !printIUList && !printRootIUList && !printTags && !purgeRegistry
-				&& rootsToInstall.isEmpty() && rootsToUninstall.isEmpty()
+				&& !compactRegistry && rootsToInstall.isEmpty() && rootsToUninstall.isEmpty()
 				&& revertToPreviousState == NOTHING_TO_REVERT_TO) {
 			log.printOut(Messages.Help_Missing_argument);
 			printHelpInfo = true;
@@ -1514,6 +1531,9 @@ public class DirectorApplication implements IApplication, ProvisioningListener {
 				if (purgeRegistry) {
 					purgeRegistry();
 				}
+				if (compactRegistry) {
+					compactRegistry();
+				}
 				log.printOut(NLS.bind(Messages.Operation_complete, Long.valueOf(System.currentTimeMillis() - time)));
 			}
 			return IApplication.EXIT_OK;
@@ -1553,6 +1573,18 @@ public class DirectorApplication implements IApplication, ProvisioningListener {
 		}
 	}
 
+	private void compactRegistry() throws CoreException {
+		if (getProfile() == null) {
+			return;
+		}
+		if (targetAgent.getService(IProfileRegistry.class) instanceof SimpleProfileRegistry registry) {
+			IStatus result = registry.compactProfileStates(profileId);
+			if (!result.isOK()) {
+				throw new CoreException(result);
+			}
+		}
+	}
+
 	private void revertToPreviousState() throws CoreException {
 		IProfile profile = initializeProfile();
 		IProfileRegistry profileRegistry = targetAgent.getService(IProfileRegistry.class);
@@ -1647,6 +1679,7 @@ public class DirectorApplication implements IApplication, ProvisioningListener {
 				OPTION_UNINSTALL_IU, //
 				OPTION_REVERT, //
 				OPTION_PURGEHISTORY, //
+				OPTION_COMPACTHISTORY, //
 				OPTION_DESTINATION, //
 				OPTION_LIST, //
 				OPTION_LIST_TAGS, //
@@ -1821,6 +1854,14 @@ public class DirectorApplication implements IApplication, ProvisioningListener {
 		}
 	}
 
+	private void printExplanation(ExplanationEvent event) {
+		Set<Explanation> explanation = event.getExplanation();
+		log.printErr(NLS.bind(Messages.Explanation_refined, event.getProfileId(), explanation.size()));
+		for (Explanation ex : explanation) {
+			printError(ex.toStatus(), 1);
+		}
+	}
+
 	private void printError(IStatus status, int level) {
 		String prefix = emptyString(level);
 
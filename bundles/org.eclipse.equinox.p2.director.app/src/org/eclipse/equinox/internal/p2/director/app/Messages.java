@@ -85,6 +85,7 @@ public class Messages extends NLS {
 	public static String Help_Revert_to_previous_state;
 	public static String Help_Use_a_shared_location_for_the_install;
 	public static String Help_Purge_the_install_registry;
+	public static String Help_Compact_the_install_registry;
 	public static String Help_Follow_references;
 	public static String Help_Defines_a_tag_for_provisioning_session;
 	public static String Help_List_Tags;
@@ -119,6 +120,8 @@ public class Messages extends NLS {
 
 	public static String Help_Add_JRE_IU;
 
+	public static String Explanation_refined;
+
 	static {
 		// initialize resource bundle
 		NLS.initializeMessages(BUNDLE_NAME, Messages.class);
@@ -0,0 +1,47 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.director;
+
+import java.util.EventObject;
+import java.util.Set;
+
+/**
+ * Published by the planner on the provisioning event bus every time the
+ * explanation of a failed resolution has been refined, before the final
+ * explanation is part of the plan status.
+ */
+public class ExplanationEvent extends EventObject {
+
+	private static final long serialVersionUID = 5304958472375903624L;
+	private final String profileId;
+	private final Set<Explanation> explanation;
+
+	public ExplanationEvent(String profileId, Set<Explanation> explanation) {
+		super(profileId);
+		this.profileId = profileId;
+		this.explanation = explanation;
+	}
+
+	public String getProfileId() {
+		return profileId;
+	}
+
+	/**
+	 * Returns the conflicting constraints found so far, a subset of the ones
+	 * reported by the previous event for the same resolution.
+	 */
+	public Set<Explanation> getExplanation() {
+		return explanation;
+	}
+}
@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.director;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.eclipse.equinox.internal.p2.metadata.InstallableUnit;
+import org.eclipse.equinox.p2.metadata.IInstallableUnit;
+import org.eclipse.equinox.p2.metadata.expression.IMatchExpression;
+
+/**
+ * Evaluates the filters of installable units and requirements against a
+ * selection context. The selection context does not change while the
+ * installable units are sliced and projected and the same few filters (such as
+ * <code>(osgi.os=win32)</code>) are shared by thousands of units, so the result
+ * of each distinct filter is remembered and the filter is evaluated only once.
+ * <p>
+ * Instances are not thread safe.
+ * </p>
+ */
+public final class FilterEvaluator {
+	private final IInstallableUnit selectionContext;
+	private final Map<IMatchExpression<IInstallableUnit>, Boolean> results = new HashMap<>();
+
+	public FilterEvaluator(Map<String, String> context) {
+		this(InstallableUnit.contextIU(context));
+	}
+
+	public FilterEvaluator(IInstallableUnit selectionContext) {
+		this.selectionContext = selectionContext;
+	}
+
+	/**
+	 * Returns the installable unit holding the properties the filters are
+	 * evaluated against.
+	 */
+	public IInstallableUnit getSelectionContext() {
+		return selectionContext;
+	}
+
+	/**
+	 * Returns whether the given filter matches the selection context.
+	 *
+	 * @param filter the filter, may be <code>null</code>
+	 * @return <code>true</code> if there is no filter or it matches the
+	 *         selection context
+	 */
+	public boolean isMatch(IMatchExpression<IInstallableUnit> filter) {
+		if (filter == null) {
+			return true;
+		}
+		Boolean result = results.get(filter);
+		if (result == null) {
+			result = Boolean.valueOf(filter.isMatch(selectionContext));
+			results.put(filter, result);
+		}
+		return result.booleanValue();
+	}
+}
@@ -0,0 +1,197 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.director;
+
+import java.util.*;
+import org.sat4j.core.VecInt;
+import org.sat4j.specs.*;
+import org.sat4j.tools.xplain.MinimizationStrategy;
+
+/**
+ * A deletion based minimization of the constraints explaining why a problem
+ * has no solution, that can be interrupted and resumed.
+ * <p>
+ * The first call to {@link #explain(ISolver, Map, IVecInt)} answers the
+ * conflicting constraints reported by the solver right away. Every subsequent
+ * call tries to remove constraints from that set for at most the given
+ * interval, and answers the constraints that could not be removed so far. The
+ * answer of every call is a set of constraints that cannot be satisfied
+ * together, which is minimal once {@link #isFinished()} returns {@code true}.
+ * Refinement stops at the given deadline or when the computation is canceled,
+ * leaving the last answer in place.
+ * </p>
+ */
+class IncrementalExplanationStrategy implements MinimizationStrategy {
+	private static final long serialVersionUID = 1L;
+
+	private final long deadline;
+	private final long interval;
+	private volatile boolean canceled;
+	private transient volatile ISolver solver;
+
+	// the assumptions given to the solver, followed by the selectors of the
+	// constraints that are not part of the conflict (positive, the constraint is
+	// disabled) and the selectors of the candidates (negative while the constraint
+	// is enabled)
+	private IVecInt assumptions;
+	private int firstCandidate;
+	private int next;
+
+	/**
+	 * @param deadline the time in milliseconds after which the explanation is
+	 *                 no longer refined
+	 * @param interval the maximum time in milliseconds spent refining the
+	 *                 explanation in a single call
+	 */
+	IncrementalExplanationStrategy(long deadline, long interval) {
+		this.deadline = deadline;
+		this.interval = interval;
+	}
+
+	@Override
+	public IVecInt explain(ISolver s, Map<Integer, ?> constrs, IVecInt assumps) throws TimeoutException {
+		solver = s;
+		try {
+			if (assumptions == null) {
+				initialize(s, constrs, assumps);
+				return current();
+			}
+			long end = Math.min(deadline, System.currentTimeMillis() + interval);
+			while (!isFinished() && !canceled && System.currentTimeMillis() < end) {
+				if (deadline != Long.MAX_VALUE) {
+					// a single check must not overrun the budget
+					s.setTimeoutMs(Math.max(1, deadline - System.currentTimeMillis()));
+				}
+				refine(s);
+			}
+			return current();
+		} finally {
+			solver = null;
+		}
+	}
+
+	private void initialize(ISolver s, Map<Integer, ?> constrs, IVecInt assumps) {
+		Set<Integer> userAssumptions = new HashSet<>();
+		for (IteratorInt it = assumps.iterator(); it.hasNext();) {
+			userAssumptions.add(it.next());
+		}
+		// the selectors of the conflicting constraints, negated to enable them
+		Set<Integer> conflict = new LinkedHashSet<>();
+		IVecInt core = s.unsatExplanation();
+		if (core != null) {
+			for (IteratorInt it = core.iterator(); it.hasNext();) {
+				int lit = it.next();
+				if (!userAssumptions.contains(lit) && constrs.containsKey(-lit)) {
+					conflict.add(lit);
+				}
+			}
+		}
+		if (conflict.isEmpty()) {
+			// no conflict reported, minimize over all the constraints
+			for (Integer key : constrs.keySet()) {
+				conflict.add(-key);
+			}
+		}
+		assumptions = new VecInt(assumps.size() + constrs.size());
+		assumps.copyTo(assumptions);
+		for (Integer key : constrs.keySet()) {
+			if (!conflict.contains(-key)) {
+				assumptions.push(key);
+			}
+		}
+		firstCandidate = assumptions.size();
+		for (int lit : conflict) {
+			assumptions.push(lit);
+		}
+		// a single constraint is minimal
+		next = conflict.size() == 1 ? assumptions.size() : firstCandidate;
+	}
+
+	/**
+	 * Disables the next candidate. If the problem still has no solution, the
+	 * candidate is not needed to explain the conflict, and neither are the
+	 * candidates the solver did not use to prove it.
+	 */
+	private void refine(ISolver s) {
+		int lit = assumptions.get(next);
+		assumptions.set(next, -lit);
+		boolean satisfiable;
+		try {
+			satisfiable = s.isSatisfiable(assumptions);
+		} catch (TimeoutException e) {
+			// keep the candidate, the explanation is not minimal but still valid
+			satisfiable = true;
+		}
+		if (satisfiable) {
+			assumptions.set(next, lit);
+		} else {
+			IVecInt core = s.unsatExplanation();
+			if (core != null) {
+				Set<Integer> used = new HashSet<>();
+				for (IteratorInt it = core.iterator(); it.hasNext();) {
+					used.add(it.next());
+				}
+				for (int i = next + 1; i < assumptions.size(); i++) {
+					int candidate = assumptions.get(i);
+					if (candidate < 0 && !used.contains(candidate)) {
+						assumptions.set(i, -candidate);
+					}
+				}
+			}
+		}
+		next++;
+	}
+
+	/**
+	 * Returns the selectors of the constraints that are still enabled.
+	 */
+	private IVecInt current() {
+		IVecInt result = new VecInt();
+		for (int i = firstCandidate; i < assumptions.size(); i++) {
+			int lit = assumptions.get(i);
+			if (lit < 0) {
+				result.push(-lit);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns whether the last answer is known to be minimal.
+	 */
+	boolean isFinished() {
+		return assumptions != null && next >= assumptions.size();
+	}
+
+	/**
+	 * Returns whether the last answer will not be refined any further.
+	 */
+	boolean isDone() {
+		return isFinished() || canceled || System.currentTimeMillis() >= deadline;
+	}
+
+	@Override
+	public void cancelExplanationComputation() {
+		canceled = true;
+		ISolver s = solver;
+		if (s != null) {
+			s.expireTimeout();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "Incremental deletion based explanation strategy"; //$NON-NLS-1$
+	}
+}
@@ -70,5 +70,7 @@ public class Messages extends NLS {
 	public static String Planner_profile_out_of_sync;
 	public static String RequestStatus_message;
 	public static String Planner_no_installer_agent;
+	public static String Planner_Invalid_Explanation_Time_Budget;
+	public static String Planner_Explanation_Strategy_Unavailable;
 
 }
@@ -60,7 +60,7 @@ public class PermissiveSlicer extends Slicer {
 		if (filter == null) {
 			return !onlyFilteredRequirements;
 		}
-		return considerFilter ? filter.isMatch(selectionContext) : evalFilterTo;
+		return considerFilter ? getFilterEvaluator().isMatch(filter) : evalFilterTo;
 	}
 
 	@Override
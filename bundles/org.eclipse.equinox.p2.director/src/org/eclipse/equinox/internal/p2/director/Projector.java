@@ -21,16 +21,17 @@
  ******************************************************************************/
 package org.eclipse.equinox.internal.p2.director;
 
+import java.lang.reflect.Field;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.function.Consumer;
 import org.eclipse.core.runtime.*;
 import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.equinox.internal.p2.core.helpers.LogHelper;
 import org.eclipse.equinox.internal.p2.core.helpers.Tracing;
 import org.eclipse.equinox.internal.p2.director.Explanation.NotInstallableRoot;
 import org.eclipse.equinox.internal.p2.metadata.IRequiredCapability;
-import org.eclipse.equinox.internal.p2.metadata.InstallableUnit;
 import org.eclipse.equinox.p2.metadata.*;
-import org.eclipse.equinox.p2.metadata.expression.IMatchExpression;
 import org.eclipse.equinox.p2.query.*;
 import org.eclipse.osgi.util.NLS;
 import org.sat4j.minisat.restarts.LubyRestarts;
@@ -38,6 +39,7 @@ import org.sat4j.pb.*;
 import org.sat4j.pb.core.PBSolverResolution;
 import org.sat4j.pb.tools.*;
 import org.sat4j.specs.*;
+import org.sat4j.tools.xplain.Xplain;
 
 /**
  * This class is the interface between SAT4J and the planner. It produces a
@@ -55,6 +57,11 @@ public class Projector {
 	 * The default SAT solver timeout (in number of conflicts). See bug 372529 for discussion.
 	 */
 	private static final int DEFAULT_SOLVER_TIMEOUT = 10000;
+	/**
+	 * The maximum time in milliseconds spent refining an explanation before the
+	 * refined explanation is reported.
+	 */
+	private static final long EXPLANATION_REFINEMENT_INTERVAL = 500;
 	static boolean DEBUG = Tracing.DEBUG_PLANNER_PROJECTOR;
 	private static boolean DEBUG_ENCODING = Tracing.DEBUG_PLANNER_PROJECTOR_ENCODING;
 	private final IQueryable<IInstallableUnit> picker;
@@ -66,6 +73,7 @@ public class Projector {
 	private final Map<String, Map<Version, IInstallableUnit>> slice; //The IUs that have been considered to be part of the problem
 
 	private final IInstallableUnit selectionContext;
+	private final FilterEvaluator filterEvaluator;
 
 	DependencyHelper<Object, Explanation> dependencyHelper;
 	private Collection<IInstallableUnit> solution;
@@ -88,6 +96,11 @@ public class Projector {
 	private boolean emptyBecauseFiltered;
 	private boolean userDefinedFunction;
 
+	private long explanationTimeBudget;
+	private Consumer<Set<Explanation>> explanationListener;
+	// logged once when the solver does not allow to replace its minimization strategy
+	private static volatile boolean explanationStrategyUnavailable;
+
 	static class AbstractVariable {
 		//		private String name;
 
@@ -110,7 +123,8 @@ public class Projector {
 	 * Job for computing SAT failure explanation in the background.
 	 */
 	class ExplanationJob extends Job {
-		private Set<Explanation> explanation;
+		private volatile Set<Explanation> explanation;
+		private volatile Set<Explanation> partialExplanation;
 
 		public ExplanationJob() {
 			super(Messages.Planner_NoSolution);
@@ -135,13 +149,33 @@ public class Projector {
 
 		@Override
 		protected IStatus run(IProgressMonitor monitor) {
-			long start = 0;
+			long start = System.currentTimeMillis();
 			if (DEBUG) {
-				start = System.currentTimeMillis();
 				Tracing.debug("Determining cause of failure: " + start); //$NON-NLS-1$
 			}
 			try {
-				explanation = dependencyHelper.why();
+				long deadline = explanationTimeBudget > 0 ? start + explanationTimeBudget : Long.MAX_VALUE;
+				IncrementalExplanationStrategy strategy = installExplanationStrategy(deadline);
+				if (strategy == null) {
+					explanation = dependencyHelper.why();
+				} else {
+					// every round answers conflicting constraints, fewer of them each time
+					Set<Explanation> current = dependencyHelper.why();
+					while (!strategy.isDone()) {
+						partialExplanation = current;
+						if (DEBUG) {
+							Tracing.debug("Explanation refined (" + current.size() + " constraints): " + (System.currentTimeMillis() - start)); //$NON-NLS-1$ //$NON-NLS-2$
+						}
+						if (explanationListener != null) {
+							explanationListener.accept(current);
+						}
+						current = dependencyHelper.why();
+					}
+					if (DEBUG && !strategy.isFinished()) {
+						Tracing.debug("Explanation not minimal, time budget exhausted or computation canceled"); //$NON-NLS-1$
+					}
+					explanation = current;
+				}
 				if (DEBUG) {
 					long stop = System.currentTimeMillis();
 					Tracing.debug("Explanation found: " + (stop - start)); //$NON-NLS-1$
@@ -157,7 +191,7 @@ public class Projector {
 			} finally {
 				//must never have a null result, because caller is waiting on result to be non-null
 				if (explanation == null) {
-					explanation = Collections.emptySet();
+					explanation = partialExplanation != null ? partialExplanation : Collections.emptySet();
 				}
 			}
 			synchronized (this) {
@@ -168,10 +202,45 @@ public class Projector {
 
 	}
 
+	/**
+	 * Replaces the minimization strategy of the solver by one that reports
+	 * conflicting constraints before the minimal explanation is known.
+	 *
+	 * @return the installed strategy, or <code>null</code> if the solver does not
+	 *         allow to replace it
+	 */
+	IncrementalExplanationStrategy installExplanationStrategy(long deadline) {
+		if (explanationStrategyUnavailable) {
+			return null;
+		}
+		Exception failure = null;
+		try {
+			// the helper does not expose the explainer wrapping the solver
+			Field field = DependencyHelper.class.getDeclaredField("xplain"); //$NON-NLS-1$
+			field.setAccessible(true);
+			if (field.get(dependencyHelper) instanceof Xplain<?> xplain) {
+				IncrementalExplanationStrategy strategy = new IncrementalExplanationStrategy(deadline, EXPLANATION_REFINEMENT_INTERVAL);
+				xplain.setMinimizationStrategy(strategy);
+				return strategy;
+			}
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			failure = e;
+		}
+		// e.g. a different version of SAT4J, fall back to its default strategy
+		explanationStrategyUnavailable = true;
+		LogHelper.log(new Status(IStatus.WARNING, DirectorActivator.PI_DIRECTOR, Messages.Planner_Explanation_Strategy_Unavailable, failure));
+		return null;
+	}
+
 	public Projector(IQueryable<IInstallableUnit> q, Map<String, String> context, Set<IInstallableUnit> nonGreedyIUs, boolean considerMetaRequirements) {
+		this(q, new FilterEvaluator(context), nonGreedyIUs, considerMetaRequirements);
+	}
+
+	public Projector(IQueryable<IInstallableUnit> q, FilterEvaluator filterEvaluator, Set<IInstallableUnit> nonGreedyIUs, boolean considerMetaRequirements) {
 		picker = q;
 		slice = new HashMap<>();
-		selectionContext = InstallableUnit.contextIU(context);
+		selectionContext = filterEvaluator.getSelectionContext();
+		this.filterEvaluator = filterEvaluator;
 		abstractVariables = new ArrayList<>();
 		allOptionalAbstractRequirements = new ArrayList<>();
 		result = new MultiStatus(DirectorActivator.PI_DIRECTOR, IStatus.OK, Messages.Planner_Problems_resolving_plan, null);
@@ -341,13 +410,11 @@ public class Projector {
 
 	// Check whether the requirement is applicable
 	protected boolean isApplicable(IRequirement req) {
-		IMatchExpression<IInstallableUnit> filter = req.getFilter();
-		return filter == null || filter.isMatch(selectionContext);
+		return filterEvaluator.isMatch(req.getFilter());
 	}
 
 	protected boolean isApplicable(IInstallableUnit iu) {
-		IMatchExpression<IInstallableUnit> filter = iu.getFilter();
-		return filter == null || filter.isMatch(selectionContext);
+		return filterEvaluator.isMatch(iu.getFilter());
 	}
 
 	private void expandNegatedRequirement(IRequirement req, IInstallableUnit iu, List<AbstractVariable> optionalAbstractRequirements, boolean isRootIu) throws ContradictionException {
@@ -1118,6 +1185,27 @@ public class Projector {
 		userDefinedFunction = containsKey;
 	}
 
+	/**
+	 * Sets the maximum time in milliseconds spent computing an explanation. Once
+	 * the time is exhausted, {@link #getExplanation(IProgressMonitor)} answers the
+	 * smallest set of conflicting constraints found so far, which may not be
+	 * minimal. A value of 0 or less means no limit.
+	 */
+	public void setExplanationTimeBudget(long millis) {
+		explanationTimeBudget = millis;
+	}
+
+	/**
+	 * Sets a listener notified, from a background thread, of the intermediate
+	 * explanations found while an explanation is being computed. The first one
+	 * is reported as soon as the solver has found conflicting constraints, the
+	 * following ones every time the explanation has been refined. The final
+	 * explanation is answered by {@link #getExplanation(IProgressMonitor)}.
+	 */
+	public void setExplanationListener(Consumer<Set<Explanation>> listener) {
+		explanationListener = listener;
+	}
+
 	public void close() {
 		if (dependencyHelper != null) {
 			dependencyHelper.reset();
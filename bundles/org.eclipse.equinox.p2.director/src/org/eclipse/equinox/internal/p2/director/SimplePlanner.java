@@ -33,6 +33,7 @@ import org.eclipse.equinox.internal.p2.director.Explanation.Singleton;
 import org.eclipse.equinox.internal.p2.metadata.IRequiredCapability;
 import org.eclipse.equinox.internal.p2.metadata.query.UpdateQuery;
 import org.eclipse.equinox.internal.p2.rollback.FormerState;
+import org.eclipse.equinox.internal.provisional.p2.core.eventbus.IProvisioningEventBus;
 import org.eclipse.equinox.internal.provisional.p2.director.PlannerStatus;
 import org.eclipse.equinox.internal.provisional.p2.director.RequestStatus;
 import org.eclipse.equinox.p2.core.IAgentLocation;
@@ -53,10 +54,23 @@ public class SimplePlanner implements IPlanner {
 	public static final String INCLUSION_RULES = "org.eclipse.equinox.p2.internal.inclusion.rules"; //$NON-NLS-1$
 	private static final String ID_IU_FOR_ACTIONS = "org.eclipse.equinox.p2.engine.actions.root"; //$NON-NLS-1$
 	private static final String EXPLANATION = "org.eclipse.equinox.p2.director.explain"; //$NON-NLS-1$
+	// the maximum time in milliseconds spent explaining why there is no solution
+	private static final String EXPLANATION_TIME_BUDGET = "org.eclipse.equinox.p2.director.explanationTimeBudget"; //$NON-NLS-1$
 	private static final String CONSIDER_METAREQUIREMENTS = "org.eclipse.equinox.p2.planner.resolveMetaRequirements"; //$NON-NLS-1$
+	// whether solutions are cached in the agent location, as a context or framework property
+	private static final String SOLUTION_CACHE = "org.eclipse.equinox.p2.director.solutionCache"; //$NON-NLS-1$
 
 	static final int UNSATISFIABLE = 1; // status code indicating that the problem is not satisfiable
 
+	/**
+	 * The installable units selected by a resolution, and the hosts the selected
+	 * fragments are attached to.
+	 */
+	record Solution(Collection<IInstallableUnit> units,
+			Map<IInstallableUnitFragment, List<IInstallableUnit>> fragments) {
+		//
+	}
+
 	private final IProvisioningAgent agent;
 	private final IProfileRegistry profileRegistry;
 	private final IEngine engine;
@@ -323,6 +337,17 @@ public class SimplePlanner implements IPlanner {
 		return result;
 	}
 
+	private Collection<IInstallableUnit> gatherAvailableInstallableUnits(ProfileChangeRequest profileChangeRequest,
+			ProvisioningContext context, IProgressMonitor monitor) {
+		List<IInstallableUnit> extraIUs = new ArrayList<>(profileChangeRequest.getAdditions());
+		extraIUs.addAll(profileChangeRequest.getRemovals());
+		if (context == null || context.getProperty(INCLUDE_PROFILE_IUS) == null
+				|| context.getProperty(INCLUDE_PROFILE_IUS).equalsIgnoreCase(Boolean.TRUE.toString())) {
+			profileChangeRequest.getProfile().available(QueryUtil.createIUAnyQuery(), null).forEach(extraIUs::add);
+		}
+		return gatherAvailableInstallableUnits(extraIUs, context, monitor);
+	}
+
 	private Collection<IInstallableUnit> gatherAvailableInstallableUnits(List<IInstallableUnit> additionalSource,
 			ProvisioningContext context, IProgressMonitor monitor) {
 		Map<String, IInstallableUnit> resultsMap = new HashMap<>();
@@ -378,6 +403,46 @@ public class SimplePlanner implements IPlanner {
 		return satisfyMetaRequirements(p.getProperties());
 	}
 
+	private static long getExplanationTimeBudget(ProvisioningContext context) {
+		String budget = context == null ? null : context.getProperty(EXPLANATION_TIME_BUDGET);
+		if (budget == null) {
+			return 0;
+		}
+		try {
+			return Long.parseLong(budget.trim());
+		} catch (NumberFormatException e) {
+			LogHelper.log(new Status(WARNING, PI_DIRECTOR, NLS.bind(Messages.Planner_Invalid_Explanation_Time_Budget, budget), e));
+			return 0;
+		}
+	}
+
+	private SolutionCache getSolutionCache(ProvisioningContext context) {
+		String enabled = context == null ? null : context.getProperty(SOLUTION_CACHE);
+		if (enabled == null) {
+			enabled = DirectorActivator.context.map(ctx -> ctx.getProperty(SOLUTION_CACHE)).orElse(null);
+		}
+		return Boolean.parseBoolean(enabled) ? SolutionCache.getCache(agent) : null;
+	}
+
+	// Everything the solution of a request depends on
+	private static String computeFingerprint(ProfileChangeRequest profileChangeRequest, ProvisioningContext context,
+			Object[] updatedPlan, Collection<IInstallableUnit> availableIUs, Map<String, String> environment) {
+		SolutionCache.Fingerprint fingerprint = new SolutionCache.Fingerprint();
+		if (environment != null) {
+			fingerprint.addProperties("environment", environment); //$NON-NLS-1$
+		}
+		return fingerprint //
+				.addRequirements("roots", ((IInstallableUnit) updatedPlan[0]).getRequirements()) //$NON-NLS-1$
+				.addUnits("existingRoots", Arrays.asList((IInstallableUnit[]) updatedPlan[1])) //$NON-NLS-1$
+				.addUnits("additions", profileChangeRequest.getAdditions()) //$NON-NLS-1$
+				.addUnits("profile", profileChangeRequest.getProfile().query(QueryUtil.createIUAnyQuery(), null).toUnmodifiableSet()) //$NON-NLS-1$
+				.addUnits("available", availableIUs) //$NON-NLS-1$
+				.addProperties("profileProperties", profileChangeRequest.getProfileProperties()) //$NON-NLS-1$
+				.add("userDefined", Stream.of(Boolean.toString(profileChangeRequest.getPropertiesToAdd().containsKey("_internal_user_defined_")))) //$NON-NLS-1$ //$NON-NLS-2$
+				.addProperties("context", context == null ? Map.of() : context.getProperties()) //$NON-NLS-1$
+				.getValue();
+	}
+
 	/**
 	 * Performs a provisioning request resolution
 	 *
@@ -385,7 +450,7 @@ public class SimplePlanner implements IPlanner {
 	 * @param context              The context for the resolution pass
 	 * @param monitor
 	 *
-	 * @return Return a {@link Projector} that captures the complete future state of
+	 * @return Return a {@link Solution} that captures the complete future state of
 	 *         the profile that satisfies the request. If the request can't be
 	 *         satisfied return an {@link IProvisioningPlan} where the error is
 	 *         captured in {@link IProvisioningPlan#getStatus()}
@@ -395,91 +460,124 @@ public class SimplePlanner implements IPlanner {
 		SubMonitor sub = SubMonitor.convert(monitor, ExpandWork);
 		sub.setTaskName(Messages.Director_Task_Resolving_Dependencies);
 		try {
-			IProfile profile = profileChangeRequest.getProfile();
-
 			Object[] updatedPlan = updatePlannerInfo(profileChangeRequest, context);
 
 			Map<String, String> newSelectionContext = createSelectionContext(
 					profileChangeRequest.getProfileProperties());
 
-			List<IInstallableUnit> extraIUs = new ArrayList<>(profileChangeRequest.getAdditions());
-			extraIUs.addAll(profileChangeRequest.getRemovals());
-			if (context == null || context.getProperty(INCLUDE_PROFILE_IUS) == null
-					|| context.getProperty(INCLUDE_PROFILE_IUS).equalsIgnoreCase(Boolean.TRUE.toString())) {
-				profile.available(QueryUtil.createIUAnyQuery(), null).forEach(extraIUs::add);
-			}
-
-			Collection<IInstallableUnit> availableIUs = gatherAvailableInstallableUnits(extraIUs, context,
-					sub.newChild(ExpandWork / 4));
-			Slicer slicer = new Slicer(new QueryableArray(availableIUs), newSelectionContext,
-					satisfyMetaRequirements(profileChangeRequest.getProfileProperties()));
-			IQueryable<IInstallableUnit> slice = slicer.slice(List.of((IInstallableUnit) updatedPlan[0]),
+			Collection<IInstallableUnit> availableIUs = gatherAvailableInstallableUnits(profileChangeRequest, context,
 					sub.newChild(ExpandWork / 4));
-			if (slice == null) {
-				IProvisioningPlan plan = engine.createPlan(profile, context);
-				plan.setStatus(slicer.getStatus());
-				return plan;
+			return getSolutionFor(profileChangeRequest, context, updatedPlan, availableIUs,
+					new QueryableArray(availableIUs), new FilterEvaluator(newSelectionContext), null, sub);
+		} finally {
+			sub.done();
+		}
+	}
+
+	/**
+	 * Resolves the request in the selection context of the given filter evaluator.
+	 *
+	 * @param universe    the installable units the request is sliced from, it
+	 *                    must contain the slice of the request for the selection
+	 *                    context
+	 * @param environment the environment the selection context has been created
+	 *                    for, or <code>null</code> if it is the one of the profile
+	 */
+	private Object getSolutionFor(ProfileChangeRequest profileChangeRequest, ProvisioningContext context,
+			Object[] updatedPlan, Collection<IInstallableUnit> availableIUs, IQueryable<IInstallableUnit> universe,
+			FilterEvaluator filterEvaluator, Map<String, String> environment, SubMonitor sub) {
+		IProfile profile = profileChangeRequest.getProfile();
+		SolutionCache cache = getSolutionCache(context);
+		String fingerprint = null;
+		if (cache != null) {
+			fingerprint = computeFingerprint(profileChangeRequest, context, updatedPlan, availableIUs, environment);
+			Solution cached = cache.get(fingerprint, availableIUs);
+			if (cached != null) {
+				return cached;
 			}
-			slice = new CompoundQueryable<>(List.of(slice, new QueryableArray(profileChangeRequest.getAdditions())));
-			Projector projector = new Projector(slice, newSelectionContext, slicer.getNonGreedyIUs(),
-					satisfyMetaRequirements(profileChangeRequest.getProfileProperties()));
-			projector.setUserDefined(profileChangeRequest.getPropertiesToAdd().containsKey("_internal_user_defined_")); //$NON-NLS-1$
-			projector.encode((IInstallableUnit) updatedPlan[0], (IInstallableUnit[]) updatedPlan[1], profile,
-					profileChangeRequest.getAdditions(), sub.newChild(ExpandWork / 4));
-
-			IStatus s = projector.invokeSolver(sub.newChild(ExpandWork / 4));
-			switch (s.getSeverity()) {
-			case CANCEL: {
+		}
+		Slicer slicer = new Slicer(universe, filterEvaluator,
+				satisfyMetaRequirements(profileChangeRequest.getProfileProperties()));
+		IQueryable<IInstallableUnit> slice = slicer.slice(List.of((IInstallableUnit) updatedPlan[0]),
+				sub.newChild(ExpandWork / 4));
+		if (slice == null) {
+			IProvisioningPlan plan = engine.createPlan(profile, context);
+			plan.setStatus(slicer.getStatus());
+			return plan;
+		}
+		slice = new CompoundQueryable<>(List.of(slice, new QueryableArray(profileChangeRequest.getAdditions())));
+		Projector projector = new Projector(slice, slicer.getFilterEvaluator(), slicer.getNonGreedyIUs(),
+				satisfyMetaRequirements(profileChangeRequest.getProfileProperties()));
+		projector.setUserDefined(profileChangeRequest.getPropertiesToAdd().containsKey("_internal_user_defined_")); //$NON-NLS-1$
+		projector.encode((IInstallableUnit) updatedPlan[0], (IInstallableUnit[]) updatedPlan[1], profile,
+				profileChangeRequest.getAdditions(), sub.newChild(ExpandWork / 4));
+
+		IStatus s = projector.invokeSolver(sub.newChild(ExpandWork / 4));
+		switch (s.getSeverity()) {
+		case CANCEL: {
+			IProvisioningPlan plan = engine.createPlan(profile, context);
+			plan.setStatus(s);
+			projector.close();
+			return plan;
+		}
+
+		// Convert the projector explanation chain into an IStatus
+		case ERROR: {
+			sub.setTaskName(Messages.Planner_NoSolution);
+			if (s.getCode() != UNSATISFIABLE || (context != null && !(context.getProperty(EXPLANATION) == null
+					|| Boolean.parseBoolean(context.getProperty(EXPLANATION))))) {
 				IProvisioningPlan plan = engine.createPlan(profile, context);
 				plan.setStatus(s);
 				projector.close();
 				return plan;
 			}
 
-			// Convert the projector explanation chain into an IStatus
-			case ERROR: {
-				sub.setTaskName(Messages.Planner_NoSolution);
-				if (s.getCode() != UNSATISFIABLE || (context != null && !(context.getProperty(EXPLANATION) == null
-						|| Boolean.parseBoolean(context.getProperty(EXPLANATION))))) {
-					IProvisioningPlan plan = engine.createPlan(profile, context);
-					plan.setStatus(s);
-					projector.close();
-					return plan;
-				}
+			// Extract the explanation
+			projector.setExplanationTimeBudget(getExplanationTimeBudget(context));
+			IProvisioningEventBus eventBus = agent.getService(IProvisioningEventBus.class);
+			if (eventBus != null) {
+				// lets e.g. the director application show the conflicts while the explanation is minimized
+				String profileId = profile.getProfileId();
+				projector.setExplanationListener(refined -> eventBus.publishEvent(new ExplanationEvent(profileId, refined)));
+			}
+			Set<Explanation> explanation = projector.getExplanation(sub.newChild(ExpandWork / 4));
+			IStatus explanationStatus = convertExplanationToStatus(explanation);
 
-				// Extract the explanation
-				Set<Explanation> explanation = projector.getExplanation(sub.newChild(ExpandWork / 4));
-				IStatus explanationStatus = convertExplanationToStatus(explanation);
+			Map<IInstallableUnit, RequestStatus>[] changes = buildDetailedErrors(profileChangeRequest);
+			Map<IInstallableUnit, RequestStatus> requestChanges = changes[0];
+			Map<IInstallableUnit, RequestStatus> requestSideEffects = changes[1];
+			PlannerStatus plannerStatus = new PlannerStatus(explanationStatus,
+					new RequestStatus(null, REMOVED, ERROR, explanation), requestChanges, requestSideEffects, null);
 
-				Map<IInstallableUnit, RequestStatus>[] changes = buildDetailedErrors(profileChangeRequest);
-				Map<IInstallableUnit, RequestStatus> requestChanges = changes[0];
-				Map<IInstallableUnit, RequestStatus> requestSideEffects = changes[1];
-				PlannerStatus plannerStatus = new PlannerStatus(explanationStatus,
-						new RequestStatus(null, REMOVED, ERROR, explanation), requestChanges, requestSideEffects, null);
+			IProvisioningPlan plan = engine.createPlan(profile, context);
+			plan.setStatus(plannerStatus);
+			projector.close();
+			return plan;
+		}
 
-				IProvisioningPlan plan = engine.createPlan(profile, context);
-				plan.setStatus(plannerStatus);
-				projector.close();
-				return plan;
-			}
+		// The resolution succeeded. We can forget about the warnings since there is a
+		// solution.
+		case OK: {
+			return toSolution(projector, cache, fingerprint);
+		}
 
-			// The resolution succeeded. We can forget about the warnings since there is a
-			// solution.
-			case OK: {
-				return projector;
+		// Log the unexpected status type, but continue
+		default: {
+			if (Tracing.DEBUG) {
+				LogHelper.log(s);
 			}
+			return toSolution(projector, cache, fingerprint);
+		}
+		}
+	}
 
-			// Log the unexpected status type, but continue
-			default: {
-				if (Tracing.DEBUG) {
-					LogHelper.log(s);
-				}
-				return projector;
-			}
-			}
-		} finally {
-			sub.done();
+	private static Solution toSolution(Projector projector, SolutionCache cache, String fingerprint) {
+		Solution solution = new Solution(projector.extractSolution(), projector.getFragmentAssociation());
+		projector.close();
+		if (cache != null) {
+			cache.put(fingerprint, solution);
 		}
+		return solution;
 	}
 
 	@Override
@@ -491,24 +589,7 @@ public class SimplePlanner implements IPlanner {
 		try {
 			// Get the solution for the initial request
 			Object resolutionResult = getSolutionFor(pcr, context, sub.newChild(ExpandWork / 2));
-			// a return value of a plan indicates failure when resolving so return.
-			if (resolutionResult instanceof IProvisioningPlan plan) {
-				return plan;
-			}
-
-			Projector projector = (Projector) resolutionResult;
-			Collection<IInstallableUnit> newState = projector.extractSolution();
-			Collection<IInstallableUnit> fullState = new ArrayList<>();
-			fullState.addAll(newState);
-			newState = AttachmentHelper.attachFragments(newState.stream(), projector.getFragmentAssociation());
-
-			IProvisioningPlan temporaryPlan = generatePlan(projector, newState, pcr, context);
-			projector.close();
-
-			// Create a plan for installing necessary pieces to complete the installation
-			// (e.g touchpoint actions)
-			return createInstallerPlan(pcr.getProfile(), pcr, fullState, newState, temporaryPlan, context,
-					sub.newChild(ExpandWork / 2));
+			return toProvisioningPlan(pcr, resolutionResult, context, sub.newChild(ExpandWork / 2));
 		} catch (OperationCanceledException e) {
 			IProvisioningPlan plan = engine.createPlan(pcr.getProfile(), context);
 			plan.setStatus(Status.CANCEL_STATUS);
@@ -518,6 +599,99 @@ public class SimplePlanner implements IPlanner {
 		}
 	}
 
+	/**
+	 * Returns the plans for the given request in each of the given environments.
+	 * An environment holds the properties, such as <code>osgi.os</code>,
+	 * <code>osgi.ws</code> and <code>osgi.arch</code>, that replace those of the
+	 * profile when the filters of the installable units are evaluated, the
+	 * properties of the profile itself are not changed by the plans.
+	 * <p>
+	 * This is equivalent to planning the request once for every environment, but
+	 * the available installable units are gathered once and sliced once for all
+	 * environments, and the filters are evaluated once per environment. The
+	 * plan for the installer of the profile, if any, is computed for the
+	 * environment of the installer.
+	 * </p>
+	 *
+	 * @param request      the request to be evaluated
+	 * @param environments the environments to plan the request for
+	 * @param context      the context in which the request is processed
+	 * @param monitor      a monitor on which planning
+	 * @return the plan for each environment, in the order of the environments
+	 */
+	public Map<Map<String, String>, IProvisioningPlan> getProvisioningPlans(IProfileChangeRequest request,
+			Collection<Map<String, String>> environments, ProvisioningContext context, IProgressMonitor monitor) {
+		ProfileChangeRequest pcr = (ProfileChangeRequest) request;
+		Map<Map<String, String>, IProvisioningPlan> plans = new LinkedHashMap<>();
+		SubMonitor sub = SubMonitor.convert(monitor, ExpandWork * (environments.size() + 1));
+		sub.setTaskName(Messages.Director_Task_Resolving_Dependencies);
+		try {
+			Object[] updatedPlan = updatePlannerInfo(pcr, context);
+			Map<String, String> profileSelectionContext = createSelectionContext(pcr.getProfileProperties());
+			Map<Map<String, String>, FilterEvaluator> filterEvaluators = new LinkedHashMap<>();
+			for (Map<String, String> environment : environments) {
+				Map<String, String> selectionContext = new HashMap<>(profileSelectionContext);
+				selectionContext.putAll(environment);
+				filterEvaluators.put(environment, new FilterEvaluator(selectionContext));
+			}
+			if (filterEvaluators.isEmpty()) {
+				return plans;
+			}
+
+			Collection<IInstallableUnit> availableIUs = gatherAvailableInstallableUnits(pcr, context,
+					sub.newChild(ExpandWork / 2));
+			// the slice of each environment is contained in the slice of all of them
+			Slicer slicer = new AnyEnvironmentSlicer(new QueryableArray(availableIUs), filterEvaluators.values(),
+					satisfyMetaRequirements(pcr.getProfileProperties()));
+			IQueryable<IInstallableUnit> universe = slicer.slice(List.of((IInstallableUnit) updatedPlan[0]),
+					sub.newChild(ExpandWork / 2));
+			for (Map.Entry<Map<String, String>, FilterEvaluator> entry : filterEvaluators.entrySet()) {
+				SubMonitor environmentMonitor = sub.newChild(ExpandWork);
+				if (universe == null) {
+					IProvisioningPlan plan = engine.createPlan(pcr.getProfile(), context);
+					plan.setStatus(slicer.getStatus());
+					plans.put(entry.getKey(), plan);
+					continue;
+				}
+				Object resolutionResult = getSolutionFor(pcr, context, updatedPlan, availableIUs, universe,
+						entry.getValue(), entry.getKey(), SubMonitor.convert(environmentMonitor.newChild(ExpandWork / 2), ExpandWork));
+				plans.put(entry.getKey(), toProvisioningPlan(pcr, resolutionResult, context, environmentMonitor.newChild(ExpandWork / 2)));
+			}
+			return plans;
+		} catch (OperationCanceledException e) {
+			for (Map<String, String> environment : environments) {
+				if (!plans.containsKey(environment)) {
+					IProvisioningPlan plan = engine.createPlan(pcr.getProfile(), context);
+					plan.setStatus(Status.CANCEL_STATUS);
+					plans.put(environment, plan);
+				}
+			}
+			return plans;
+		} finally {
+			sub.done();
+		}
+	}
+
+	private IProvisioningPlan toProvisioningPlan(ProfileChangeRequest pcr, Object resolutionResult,
+			ProvisioningContext context, IProgressMonitor monitor) {
+		// a return value of a plan indicates failure when resolving so return.
+		if (resolutionResult instanceof IProvisioningPlan plan) {
+			return plan;
+		}
+
+		Solution solution = (Solution) resolutionResult;
+		Collection<IInstallableUnit> newState = solution.units();
+		Collection<IInstallableUnit> fullState = new ArrayList<>();
+		fullState.addAll(newState);
+		newState = AttachmentHelper.attachFragments(newState.stream(), solution.fragments());
+
+		IProvisioningPlan temporaryPlan = generatePlan(solution, newState, pcr, context);
+
+		// Create a plan for installing necessary pieces to complete the installation
+		// (e.g touchpoint actions)
+		return createInstallerPlan(pcr.getProfile(), pcr, fullState, newState, temporaryPlan, context, monitor);
+	}
+
 	// private IProvisioningPlan
 	// generateAbsoluteProvisioningPlan(ProfileChangeRequest profileChangeRequest,
 	// ProvisioningContext context, IProgressMonitor monitor) {
@@ -701,7 +875,7 @@ public class SimplePlanner implements IPlanner {
 		}
 
 		initialPlan
-				.setInstallerPlan(generatePlan((Projector) externalInstallerPlan, null, agentRequest, initialContext));
+				.setInstallerPlan(generatePlan((Solution) externalInstallerPlan, null, agentRequest, initialContext));
 		return initialPlan;
 	}
 
@@ -765,10 +939,9 @@ public class SimplePlanner implements IPlanner {
 
 		// Compute the installer plan. It is the difference between what is currently in
 		// the profile and the solution we just computed
-		Collection<IInstallableUnit> agentState = ((Projector) agentSolution).extractSolution();
+		Collection<IInstallableUnit> agentState = new ArrayList<>(((Solution) agentSolution).units());
 		agentState.remove(metaRequirementIU); // Remove the fake IU
-		agentState = AttachmentHelper.attachFragments(agentState.stream(),
-				((Projector) agentSolution).getFragmentAssociation());
+		agentState = AttachmentHelper.attachFragments(agentState.stream(), ((Solution) agentSolution).fragments());
 
 		ProvisioningContext noRepoContext = createNoRepoContext(initialRequest);
 		// ...This computes the attachment of what is currently in the profile
@@ -783,7 +956,7 @@ public class SimplePlanner implements IPlanner {
 		}
 		var profileState = initialRequest.getProfile().query(QueryUtil.createIUAnyQuery(), null).stream();
 		Collection<IInstallableUnit> initialState = AttachmentHelper.attachFragments(profileState,
-				((Projector) initialSolution).getFragmentAssociation());
+				((Solution) initialSolution).fragments());
 
 		IProvisioningPlan agentPlan = generateProvisioningPlan(initialState, agentState, initialRequest, null,
 				initialContext);
@@ -794,12 +967,11 @@ public class SimplePlanner implements IPlanner {
 	}
 
 	// Compute the set of operands based on the solution obtained previously
-	private IProvisioningPlan generatePlan(Projector newSolution, Collection<IInstallableUnit> newState,
+	private IProvisioningPlan generatePlan(Solution newSolution, Collection<IInstallableUnit> newState,
 			ProfileChangeRequest request, ProvisioningContext context) {
 		// Compute the attachment of the new state if not provided
 		if (newState == null) {
-			newState = newSolution.extractSolution();
-			newState = AttachmentHelper.attachFragments(newState.stream(), newSolution.getFragmentAssociation());
+			newState = AttachmentHelper.attachFragments(newSolution.units().stream(), newSolution.fragments());
 		}
 		ProvisioningContext noRepoContext = createNoRepoContext(request);
 
@@ -815,7 +987,7 @@ public class SimplePlanner implements IPlanner {
 		}
 		Stream<IInstallableUnit> profileState = request.getProfile().query(QueryUtil.createIUAnyQuery(), null).stream();
 		Collection<IInstallableUnit> initialState = AttachmentHelper.attachFragments(profileState,
-				((Projector) initialSolution).getFragmentAssociation());
+				((Solution) initialSolution).fragments());
 
 		// Generate the plan
 		return generateProvisioningPlan(initialState, newState, request, null, context);
@@ -989,6 +1161,30 @@ public class SimplePlanner implements IPlanner {
 		return new CollectionResult<>(resultsMap.values());
 	}
 
+	/**
+	 * Slices the installable units that are applicable in at least one of several
+	 * selection contexts.
+	 */
+	private static class AnyEnvironmentSlicer extends Slicer {
+		private final Collection<FilterEvaluator> filterEvaluators;
+
+		AnyEnvironmentSlicer(IQueryable<IInstallableUnit> possibilities, Collection<FilterEvaluator> filterEvaluators,
+				boolean considerMetaRequirements) {
+			super(possibilities, filterEvaluators.iterator().next(), considerMetaRequirements);
+			this.filterEvaluators = filterEvaluators;
+		}
+
+		@Override
+		protected boolean isApplicable(IRequirement req) {
+			return filterEvaluators.stream().anyMatch(evaluator -> evaluator.isMatch(req.getFilter()));
+		}
+
+		@Override
+		protected boolean isApplicable(IInstallableUnit iu) {
+			return filterEvaluators.stream().anyMatch(evaluator -> evaluator.isMatch(iu.getFilter()));
+		}
+	}
+
 	// helper class to trick the resolver to believe that everything is optional
 	private static class EverythingOptionalProfile implements IProfile {
 		private final IProfile profile;
@@ -22,7 +22,6 @@ import org.eclipse.equinox.internal.p2.core.helpers.Tracing;
 import org.eclipse.equinox.internal.p2.metadata.InstallableUnit;
 import org.eclipse.equinox.internal.p2.metadata.InstallableUnitPatch;
 import org.eclipse.equinox.p2.metadata.*;
-import org.eclipse.equinox.p2.metadata.expression.IMatchExpression;
 import org.eclipse.equinox.p2.query.*;
 import org.eclipse.osgi.util.NLS;
 
@@ -31,6 +30,7 @@ public class Slicer {
 	private final IQueryable<IInstallableUnit> possibilites;
 	private final boolean considerMetaRequirements;
 	protected final IInstallableUnit selectionContext;
+	private final FilterEvaluator filterEvaluator;
 	/** The IUs that have been considered to be part of the problem */
 	private final Map<String, Map<Version, IInstallableUnit>> slice = new HashMap<>();
 	private final MultiStatus result = new MultiStatus(Slicer.class, 0, Messages.Planner_Problems_resolving_plan);
@@ -45,11 +45,26 @@ public class Slicer {
 
 	public Slicer(IQueryable<IInstallableUnit> possibilites, IInstallableUnit selectionContext,
 			boolean considerMetaRequirements) {
+		this(possibilites, new FilterEvaluator(selectionContext), considerMetaRequirements);
+	}
+
+	public Slicer(IQueryable<IInstallableUnit> possibilites, FilterEvaluator filterEvaluator,
+			boolean considerMetaRequirements) {
 		this.possibilites = possibilites;
-		this.selectionContext = selectionContext;
+		this.selectionContext = filterEvaluator.getSelectionContext();
+		this.filterEvaluator = filterEvaluator;
 		this.considerMetaRequirements = considerMetaRequirements;
 	}
 
+	/**
+	 * Returns the evaluator used for the filters of the installable units and
+	 * requirements, it can be shared with a {@link Projector} for the same
+	 * selection context.
+	 */
+	public FilterEvaluator getFilterEvaluator() {
+		return filterEvaluator;
+	}
+
 	public IQueryable<IInstallableUnit> slice(Collection<IInstallableUnit> ius, IProgressMonitor monitor) {
 		monitor = IProgressMonitor.nullSafe(monitor);
 		try {
@@ -123,13 +138,11 @@ public class Slicer {
 	}
 
 	protected boolean isApplicable(IRequirement req) {
-		IMatchExpression<IInstallableUnit> filter = req.getFilter();
-		return filter == null || filter.isMatch(selectionContext);
+		return filterEvaluator.isMatch(req.getFilter());
 	}
 
 	protected boolean isApplicable(IInstallableUnit iu) {
-		IMatchExpression<IInstallableUnit> filter = iu.getFilter();
-		return filter == null || filter.isMatch(selectionContext);
+		return filterEvaluator.isMatch(iu.getFilter());
 	}
 
 	protected void processIU(IInstallableUnit iu) {
@@ -0,0 +1,264 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.director;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.eclipse.core.runtime.URIUtil;
+import org.eclipse.equinox.internal.p2.core.helpers.Tracing;
+import org.eclipse.equinox.internal.p2.director.SimplePlanner.Solution;
+import org.eclipse.equinox.p2.core.IAgentLocation;
+import org.eclipse.equinox.p2.core.IProvisioningAgent;
+import org.eclipse.equinox.p2.metadata.*;
+
+/**
+ * Stores the solutions computed by the planner in the agent location, so that
+ * resolving the same request against the same installable units again does not
+ * require slicing and solving the problem.
+ * <p>
+ * Solutions are looked up by a {@link Fingerprint} of everything the resolution
+ * depends on. Installable units are identified by their id and version only,
+ * so a cached solution is not noticed to be stale if an installable unit is
+ * replaced by a different one with the same id and version. Only the ids and
+ * versions of the units of a solution are stored, a solution is discarded if
+ * one of them is no longer available.
+ * </p>
+ */
+public class SolutionCache {
+	private static final String FORMAT_VERSION = "1"; //$NON-NLS-1$
+	private static final String HEADER = "#p2 planner solution "; //$NON-NLS-1$
+	private static final String CACHE_DIR = "solutions"; //$NON-NLS-1$
+	private static final String SOLUTION_EXT = ".solution"; //$NON-NLS-1$
+	private static final String UNIT = "U"; //$NON-NLS-1$
+	private static final String FRAGMENT = "F"; //$NON-NLS-1$
+	private static final String HOST = "H"; //$NON-NLS-1$
+	private static final String SEPARATOR = "\t"; //$NON-NLS-1$
+	// the number of solutions kept, the least recently used ones are deleted first
+	private static final int MAX_SOLUTIONS = Integer.getInteger("p2.planner.solutionCache.maxEntries", 64); //$NON-NLS-1$
+
+	private static final boolean DEBUG = Tracing.DEBUG_PLANNER_SOLUTION_CACHE;
+
+	// the number of resolutions that did not need the solver
+	private static final AtomicInteger hits = new AtomicInteger();
+
+	/**
+	 * A digest of the inputs of a resolution. Sections are digested in the order
+	 * they are added, the entries of a section are sorted first.
+	 */
+	static final class Fingerprint {
+		private final MessageDigest digest;
+
+		Fingerprint() {
+			try {
+				digest = MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException(e);
+			}
+			update(FORMAT_VERSION);
+		}
+
+		Fingerprint add(String section, Stream<String> entries) {
+			update(section);
+			entries.sorted().forEach(this::update);
+			return this;
+		}
+
+		Fingerprint addUnits(String section, Collection<IInstallableUnit> units) {
+			return add(section, units.stream().map(SolutionCache::toKey));
+		}
+
+		Fingerprint addRequirements(String section, Collection<IRequirement> requirements) {
+			return add(section, requirements.stream().map(r -> r.getMatches() + SEPARATOR + r.getMin() + SEPARATOR
+					+ r.getMax() + SEPARATOR + r.isGreedy() + SEPARATOR + r.getFilter()));
+		}
+
+		Fingerprint addProperties(String section, Map<String, String> properties) {
+			return add(section, properties.entrySet().stream().map(e -> e.getKey() + '=' + e.getValue()));
+		}
+
+		private void update(String value) {
+			digest.update(value.getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) '\n');
+		}
+
+		String getValue() {
+			return HexFormat.of().formatHex(digest.digest());
+		}
+	}
+
+	private final File directory;
+
+	SolutionCache(File directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Returns the cache stored in the location of the given agent, or
+	 * <code>null</code> if the agent has no location.
+	 */
+	static SolutionCache getCache(IProvisioningAgent agent) {
+		IAgentLocation location = agent.getService(IAgentLocation.class);
+		if (location == null) {
+			return null;
+		}
+		URI dataArea = location.getDataArea(DirectorActivator.PI_DIRECTOR);
+		if (dataArea == null || !"file".equals(dataArea.getScheme())) { //$NON-NLS-1$
+			return null;
+		}
+		return new SolutionCache(URIUtil.toFile(URIUtil.append(dataArea, CACHE_DIR)));
+	}
+
+	/**
+	 * Returns the number of solutions that have been served from a cache instead
+	 * of being computed, since the bundle has been started.
+	 */
+	public static int getHitCount() {
+		return hits.get();
+	}
+
+	/**
+	 * Returns the solution stored for the given fingerprint.
+	 *
+	 * @param fingerprint the fingerprint of the resolution
+	 * @param available   the units the solution may consist of
+	 * @return the solution, or <code>null</code> if there is none or one of its
+	 *         units is not available
+	 */
+	Solution get(String fingerprint, Collection<IInstallableUnit> available) {
+		File file = new File(directory, fingerprint + SOLUTION_EXT);
+		if (!file.isFile()) {
+			if (DEBUG) {
+				Tracing.debug("Solution cache miss: " + fingerprint); //$NON-NLS-1$
+			}
+			return null;
+		}
+		Map<String, IInstallableUnit> units = new HashMap<>(available.size());
+		for (IInstallableUnit iu : available) {
+			units.put(toKey(iu), iu);
+		}
+		Solution solution = read(file, units);
+		if (solution == null) {
+			if (DEBUG) {
+				Tracing.debug("Solution cache stale entry: " + fingerprint); //$NON-NLS-1$
+			}
+			file.delete();
+			return null;
+		}
+		// remember when the solution has been used last
+		file.setLastModified(System.currentTimeMillis());
+		hits.incrementAndGet();
+		if (DEBUG) {
+			Tracing.debug("Solution cache hit: " + fingerprint); //$NON-NLS-1$
+		}
+		return solution;
+	}
+
+	private static Solution read(File file, Map<String, IInstallableUnit> units) {
+		try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+			if (!(HEADER + FORMAT_VERSION).equals(reader.readLine())) {
+				return null;
+			}
+			Collection<IInstallableUnit> solution = new ArrayList<>();
+			Map<IInstallableUnitFragment, List<IInstallableUnit>> fragments = new HashMap<>();
+			List<IInstallableUnit> hosts = null;
+			for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+				String[] parts = line.split(SEPARATOR, 2);
+				IInstallableUnit iu = units.get(parts[1]);
+				if (iu == null) {
+					return null;
+				}
+				switch (parts[0]) {
+					case UNIT :
+						solution.add(iu);
+						break;
+					case FRAGMENT :
+						if (!(iu instanceof IInstallableUnitFragment fragment)) {
+							return null;
+						}
+						hosts = new ArrayList<>();
+						fragments.put(fragment, hosts);
+						break;
+					case HOST :
+						if (hosts == null) {
+							return null;
+						}
+						hosts.add(iu);
+						break;
+					default :
+						return null;
+				}
+			}
+			return new Solution(solution, fragments);
+		} catch (IOException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Stores the solution computed for the given fingerprint.
+	 */
+	void put(String fingerprint, Solution solution) {
+		directory.mkdirs();
+		File file = new File(directory, fingerprint + SOLUTION_EXT);
+		File tempFile = new File(directory, fingerprint + ".tmp"); //$NON-NLS-1$
+		try {
+			try (Writer writer = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8)) {
+				writer.write(HEADER + FORMAT_VERSION + '\n');
+				for (IInstallableUnit iu : solution.units()) {
+					writer.write(UNIT + SEPARATOR + toKey(iu) + '\n');
+				}
+				for (Map.Entry<IInstallableUnitFragment, List<IInstallableUnit>> entry : solution.fragments().entrySet()) {
+					writer.write(FRAGMENT + SEPARATOR + toKey(entry.getKey()) + '\n');
+					for (IInstallableUnit host : entry.getValue()) {
+						writer.write(HOST + SEPARATOR + toKey(host) + '\n');
+					}
+				}
+			}
+			Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			if (DEBUG) {
+				Tracing.debug("Solution cache stored: " + fingerprint); //$NON-NLS-1$
+			}
+		} catch (IOException e) {
+			// the agent location may be read-only, the solution is not cached
+			tempFile.delete();
+			if (DEBUG) {
+				Tracing.debug("Unable to store solution " + fingerprint + ": " + e.getMessage()); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			return;
+		}
+		prune();
+	}
+
+	private void prune() {
+		File[] files = directory.listFiles((dir, name) -> name.endsWith(SOLUTION_EXT));
+		if (files == null || files.length <= MAX_SOLUTIONS) {
+			return;
+		}
+		Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+		for (int i = 0; i < files.length - MAX_SOLUTIONS; i++) {
+			files[i].delete();
+		}
+	}
+
+	private static String toKey(IInstallableUnit iu) {
+		return iu.getId() + SEPARATOR + iu.getVersion();
+	}
+}
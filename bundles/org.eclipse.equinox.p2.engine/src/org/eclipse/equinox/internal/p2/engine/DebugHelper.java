@@ -33,6 +33,7 @@ public class DebugHelper {
 	public static final boolean DEBUG_ENGINE_SESSION;
 	public static final boolean DEBUG_CERTIFICATE_CHECKER_UNSIGNED;
 	public static final boolean DEBUG_CERTIFICATE_CHECKER_UNTRUSTED;
+	public static final boolean DEBUG_CERTIFICATE_CHECKER_CACHE;
 
 	static {
 		DebugOptions options = ServiceHelper.getService(EngineActivator.getContext(), DebugOptions.class);
@@ -42,12 +43,14 @@ public class DebugHelper {
 			DEBUG_ENGINE_SESSION = options.getBooleanOption(EngineActivator.ID + "/enginesession/debug", false); //$NON-NLS-1$
 			DEBUG_CERTIFICATE_CHECKER_UNSIGNED = options.getBooleanOption(EngineActivator.ID + "/certificatechecker/unsigned", false); //$NON-NLS-1$
 			DEBUG_CERTIFICATE_CHECKER_UNTRUSTED = options.getBooleanOption(EngineActivator.ID + "/certificatechecker/untrusted", false); //$NON-NLS-1$
+			DEBUG_CERTIFICATE_CHECKER_CACHE = options.getBooleanOption(EngineActivator.ID + "/certificatechecker/cache", false); //$NON-NLS-1$
 		} else {
 			DEBUG_PROFILE_REGISTRY = false;
 			DEBUG_ENGINE = false;
 			DEBUG_ENGINE_SESSION = false;
 			DEBUG_CERTIFICATE_CHECKER_UNSIGNED = false;
 			DEBUG_CERTIFICATE_CHECKER_UNTRUSTED = false;
+			DEBUG_CERTIFICATE_CHECKER_CACHE = false;
 		}
 	}
 
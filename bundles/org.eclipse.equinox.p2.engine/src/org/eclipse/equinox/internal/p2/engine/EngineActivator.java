@@ -52,6 +52,20 @@ public class EngineActivator implements BundleActivator {
 	 */
 	public static final String PROFILE_FORMAT_UNCOMPRESSED = "uncompressed"; //$NON-NLS-1$
 
+	/**
+	 * System property describing how the profile registry stores the states of a
+	 * profile. By default every state is written as a complete profile.
+	 */
+	public static final String PROP_PROFILE_SNAPSHOTS = "eclipse.p2.profileSnapshots"; //$NON-NLS-1$
+
+	/**
+	 * Value for the PROP_PROFILE_SNAPSHOTS system property specifying that profile
+	 * states are written as deltas against periodic complete checkpoints. Profile
+	 * registries written in this format cannot be fully read by p2 releases that
+	 * predate it.
+	 */
+	public static final String PROFILE_SNAPSHOTS_DELTA = "delta"; //$NON-NLS-1$
+
 	/**
 	 * System property specifying how the engine should handle unsigned artifacts.
 	 * If this property is undefined, the default value is assumed to be "prompt".
@@ -14,8 +14,7 @@
  *******************************************************************************/
 package org.eclipse.equinox.internal.p2.engine;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.*;
 import javax.xml.parsers.SAXParserFactory;
 import org.eclipse.equinox.internal.p2.metadata.repository.io.MetadataParser;
 import org.eclipse.equinox.p2.metadata.IInstallableUnit;
@@ -194,4 +193,87 @@ public abstract class ProfileParser extends MetadataParser implements ProfileXML
 			}
 		}
 	}
+
+	/**
+	 * Handler for a profile state written as a delta by
+	 * {@link ProfileWriter#writeProfileDelta}. The installable units and their
+	 * properties reported by this handler are the ones recorded in the delta only.
+	 */
+	protected class ProfileDeltaHandler extends ProfileHandler {
+
+		private final String[] required = new String[] {BASE_TIMESTAMP_ATTRIBUTE};
+
+		private long baseTimestamp;
+		private RemovedUnitsHandler removedUnitsHandler;
+
+		@Override
+		protected void handleRootAttributes(Attributes attributes) {
+			super.handleRootAttributes(attributes);
+			String base = parseRequiredAttributes(attributes, required)[0];
+			if (base != null) {
+				try {
+					baseTimestamp = Long.parseLong(base);
+				} catch (NumberFormatException e) {
+					invalidAttributeValue(PROFILE_ELEMENT, BASE_TIMESTAMP_ATTRIBUTE, base);
+				}
+			}
+		}
+
+		@Override
+		public void startElement(String name, Attributes attributes) {
+			if (REMOVED_UNITS_ELEMENT.equals(name)) {
+				if (removedUnitsHandler == null) {
+					removedUnitsHandler = new RemovedUnitsHandler(this, attributes);
+				} else {
+					duplicateElement(this, name, attributes);
+				}
+			} else {
+				super.startElement(name, attributes);
+			}
+		}
+
+		public long getBaseTimestamp() {
+			return baseTimestamp;
+		}
+
+		/**
+		 * Returns the identities ({@code id_version}) of the units that have been
+		 * removed from the base state.
+		 */
+		public Set<String> getRemovedUnits() {
+			if (removedUnitsHandler == null) {
+				return Collections.emptySet();
+			}
+			return removedUnitsHandler.getRemovedUnits();
+		}
+	}
+
+	protected class RemovedUnitsHandler extends AbstractHandler {
+
+		private final String[] required = new String[] {ID_ATTRIBUTE, VERSION_ATTRIBUTE};
+
+		private final Set<String> removedUnits;
+
+		public RemovedUnitsHandler(AbstractHandler parentHandler, Attributes attributes) {
+			super(parentHandler, REMOVED_UNITS_ELEMENT);
+			String sizeStr = parseOptionalAttribute(attributes, COLLECTION_SIZE_ATTRIBUTE);
+			removedUnits = new HashSet<>(sizeStr != null ? Integer.parseInt(sizeStr) : 4);
+		}
+
+		public Set<String> getRemovedUnits() {
+			return removedUnits;
+		}
+
+		@Override
+		public void startElement(String name, Attributes attributes) {
+			if (name.equals(INSTALLABLE_UNIT_ELEMENT)) {
+				String values[] = parseRequiredAttributes(attributes, required);
+				Version version = checkVersion(INSTALLABLE_UNIT_ELEMENT, VERSION_ATTRIBUTE, values[1]);
+				removedUnits.add(values[0] + "_" + version.toString()); //$NON-NLS-1$
+				new IgnoringHandler(this);
+			} else {
+				invalidElement(name, attributes);
+			}
+		}
+	}
 }
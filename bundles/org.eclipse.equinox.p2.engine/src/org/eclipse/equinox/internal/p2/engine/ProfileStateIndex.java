@@ -0,0 +1,259 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.engine;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.ToLongFunction;
+
+/**
+ * Keeps track of the files storing the states of the profiles of a profile
+ * registry, so that the timestamps of a profile can be looked up without
+ * listing and inspecting its directory every time.
+ * <p>
+ * The states of a profile directory are cached in memory and persisted next to
+ * the directory, in a file named after the directory with an {@code .index}
+ * extension. An index is only trusted as long as the last modification time of
+ * the directory is the one recorded when it was built. Since the modification
+ * time of a directory may have a coarse granularity, an index built shortly
+ * after the directory has been modified is rebuilt on the next access.
+ * </p>
+ * <p>
+ * The index also records the id of the parent of the profile, which never
+ * changes, so that the sub-profiles of a profile can be found without parsing
+ * the states of all profiles.
+ * </p>
+ */
+class ProfileStateIndex {
+	private static final String FORMAT_VERSION = "1"; //$NON-NLS-1$
+	private static final String HEADER = "#p2 profile state index "; //$NON-NLS-1$
+	private static final String INDEX_EXT = ".index"; //$NON-NLS-1$
+	private static final String STATE = "S"; //$NON-NLS-1$
+	private static final String INVALID = "X"; //$NON-NLS-1$
+	private static final String PARENT = "P"; //$NON-NLS-1$
+	// the parent id recorded for a profile without a parent
+	private static final String NO_PARENT = ""; //$NON-NLS-1$
+	private static final String SEPARATOR = "\t"; //$NON-NLS-1$
+	// the modification time granularity of file systems we do not want to miss changes on
+	private static final long RACY_INTERVAL = 2000;
+
+	/**
+	 * A file storing a state of a profile.
+	 */
+	record StateFile(long timestamp, String name, long size) {
+		//
+	}
+
+	/**
+	 * The states of a profile directory as of the given modification time of the
+	 * directory.
+	 *
+	 * @param lastModified the modification time of the directory
+	 * @param scanTime     the time the directory has been listed
+	 * @param states       the states by timestamp
+	 * @param invalidName  the name of a file that looks like, but is no profile
+	 *                     state, or {@code null}
+	 * @param parentId     the id of the parent profile, an empty string if the
+	 *                     profile has no parent, or {@code null} if not known
+	 */
+	record States(long lastModified, long scanTime, NavigableMap<Long, StateFile> states, String invalidName, String parentId) {
+
+		boolean isValid(long directoryModified) {
+			return lastModified == directoryModified && scanTime - lastModified >= RACY_INTERVAL;
+		}
+	}
+
+	private final Map<File, States> states = new HashMap<>();
+	// the parent ids known for the profile directories, kept when their states change
+	private final Map<File, String> parents = new HashMap<>();
+	private final ToLongFunction<String> timestampOf;
+
+	/**
+	 * @param timestampOf returns the timestamp of the state stored in the file
+	 *                    with the given name, or -1 if the file does not store a
+	 *                    state
+	 */
+	ProfileStateIndex(ToLongFunction<String> timestampOf) {
+		this.timestampOf = timestampOf;
+	}
+
+	/**
+	 * Returns the states stored in the given profile directory.
+	 */
+	synchronized States getStates(File profileDirectory) {
+		long lastModified = profileDirectory.lastModified();
+		if (lastModified == 0) {
+			// the directory does not exist
+			states.remove(profileDirectory);
+			return new States(0, 0, Collections.emptyNavigableMap(), null, null);
+		}
+		States result = states.get(profileDirectory);
+		if (result != null && result.isValid(lastModified)) {
+			return result;
+		}
+		result = read(getIndexFile(profileDirectory));
+		String parentId = parents.containsKey(profileDirectory) || result == null ? parents.get(profileDirectory) : result.parentId();
+		if (result == null || !result.isValid(lastModified) || !Objects.equals(parentId, result.parentId())) {
+			if (result == null || !result.isValid(lastModified)) {
+				result = scan(profileDirectory, lastModified, parentId);
+			} else {
+				result = new States(result.lastModified(), result.scanTime(), result.states(), result.invalidName(), parentId);
+			}
+			if (result.isValid(lastModified)) {
+				write(getIndexFile(profileDirectory), result);
+			}
+		}
+		if (parentId != null) {
+			parents.put(profileDirectory, parentId);
+		}
+		states.put(profileDirectory, result);
+		return result;
+	}
+
+	/**
+	 * Returns the id of the parent of the profile stored in the given directory,
+	 * an empty string if the profile has no parent, or {@code null} if the parent
+	 * is not known because the profile has not been read or written since the
+	 * index was created.
+	 */
+	synchronized String getParentId(File profileDirectory) {
+		return getStates(profileDirectory).parentId();
+	}
+
+	/**
+	 * Records the parent of the profile stored in the given directory, after the
+	 * profile has been read or written.
+	 *
+	 * @param parentId the id of the parent profile, or {@code null} if the
+	 *                 profile has no parent
+	 */
+	synchronized void setParentId(File profileDirectory, String parentId) {
+		String recorded = parentId == null ? NO_PARENT : parentId;
+		if (recorded.equals(parents.put(profileDirectory, recorded))) {
+			return;
+		}
+		States cached = states.get(profileDirectory);
+		if (cached != null) {
+			// otherwise the index is written with the parent on the next access
+			cached = new States(cached.lastModified(), cached.scanTime(), cached.states(), cached.invalidName(), recorded);
+			states.put(profileDirectory, cached);
+			if (cached.isValid(profileDirectory.lastModified())) {
+				write(getIndexFile(profileDirectory), cached);
+			}
+		}
+	}
+
+	/**
+	 * Forgets what is known about the given profile directory, after its content
+	 * has been changed.
+	 */
+	synchronized void invalidate(File profileDirectory) {
+		states.remove(profileDirectory);
+	}
+
+	/**
+	 * Removes the index of a profile directory that has been deleted.
+	 */
+	synchronized void remove(File profileDirectory) {
+		states.remove(profileDirectory);
+		parents.remove(profileDirectory);
+		getIndexFile(profileDirectory).delete();
+	}
+
+	private static File getIndexFile(File profileDirectory) {
+		return new File(profileDirectory.getParentFile(), profileDirectory.getName() + INDEX_EXT);
+	}
+
+	private States scan(File profileDirectory, long lastModified, String parentId) {
+		long scanTime = System.currentTimeMillis();
+		NavigableMap<Long, StateFile> result = new TreeMap<>();
+		String invalidName = null;
+		File[] files = profileDirectory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				String name = file.getName();
+				if (name.startsWith("._") || !file.isFile()) { //$NON-NLS-1$
+					continue;
+				}
+				long timestamp = timestampOf.applyAsLong(name);
+				if (timestamp >= 0) {
+					result.put(timestamp, new StateFile(timestamp, name, file.length()));
+				} else if (SimpleProfileRegistry.isStateFile(name)) {
+					invalidName = name;
+				}
+			}
+		}
+		return new States(lastModified, scanTime, Collections.unmodifiableNavigableMap(result), invalidName, parentId);
+	}
+
+	private static States read(File indexFile) {
+		if (!indexFile.isFile()) {
+			return null;
+		}
+		try (BufferedReader reader = Files.newBufferedReader(indexFile.toPath(), StandardCharsets.UTF_8)) {
+			if (!(HEADER + FORMAT_VERSION).equals(reader.readLine())) {
+				return null;
+			}
+			String[] times = reader.readLine().split(SEPARATOR);
+			NavigableMap<Long, StateFile> result = new TreeMap<>();
+			String invalidName = null;
+			String parentId = null;
+			for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+				String[] parts = line.split(SEPARATOR, 4);
+				if (STATE.equals(parts[0])) {
+					long timestamp = Long.parseLong(parts[1]);
+					result.put(timestamp, new StateFile(timestamp, parts[3], Long.parseLong(parts[2])));
+				} else if (INVALID.equals(parts[0])) {
+					invalidName = parts[1];
+				} else if (PARENT.equals(parts[0])) {
+					parentId = parts[1];
+				} else {
+					return null;
+				}
+			}
+			return new States(Long.parseLong(times[0]), Long.parseLong(times[1]), Collections.unmodifiableNavigableMap(result), invalidName, parentId);
+		} catch (IOException | RuntimeException e) {
+			// the index is rebuilt from the directory
+			return null;
+		}
+	}
+
+	private static void write(File indexFile, States states) {
+		File tempFile = new File(indexFile.getParentFile(), indexFile.getName() + ".tmp"); //$NON-NLS-1$
+		try {
+			try (Writer writer = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8)) {
+				writer.write(HEADER + FORMAT_VERSION + '\n');
+				writer.write(states.lastModified() + SEPARATOR + states.scanTime() + '\n');
+				for (StateFile state : states.states().values()) {
+					writer.write(STATE + SEPARATOR + state.timestamp() + SEPARATOR + state.size() + SEPARATOR + state.name() + '\n');
+				}
+				if (states.invalidName() != null) {
+					writer.write(INVALID + SEPARATOR + states.invalidName() + '\n');
+				}
+				if (states.parentId() != null) {
+					writer.write(PARENT + SEPARATOR + states.parentId() + '\n');
+				}
+			}
+			Files.move(tempFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			// the registry may be read-only, the index is kept in memory only
+			tempFile.delete();
+			if (DebugHelper.DEBUG_PROFILE_REGISTRY) {
+				DebugHelper.debug("profile registry", "Unable to write profile state index " + indexFile + ": " + e.getMessage()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
+		}
+	}
+}
@@ -26,26 +26,94 @@ public class ProfileWriter extends MetadataWriter implements ProfileXMLConstants
 		super(output, processingInstructions);
 	}
 
+	public ProfileWriter(OutputStream output, ProcessingInstruction[] processingInstructions, boolean indent) {
+		super(output, processingInstructions, indent);
+	}
+
 	public void writeProfile(IProfile profile) {
 		start(PROFILE_ELEMENT);
 		attribute(ID_ATTRIBUTE, profile.getProfileId());
 		attribute(TIMESTAMP_ATTRIBUTE, Long.toString(profile.getTimestamp()));
 		writeProperties(profile.getProperties());
 		ArrayList<IInstallableUnit> ius = new ArrayList<>(profile.query(QueryUtil.createIUAnyQuery(), null).toUnmodifiableSet());
-		ius.sort((iu1, iu2) -> {
-			int IdCompare = iu1.getId().compareTo(iu2.getId());
-			if (IdCompare != 0) {
-				return IdCompare;
-			}
-
-			return iu1.getVersion().compareTo(iu2.getVersion());
-		});
+		ius.sort(ProfileWriter::compare);
 		writeInstallableUnits(ius.iterator(), ius.size());
 		writeInstallableUnitsProperties(ius.iterator(), ius.size(), profile);
 		end(PROFILE_ELEMENT);
 		flush();
 	}
 
+	/**
+	 * Writes a profile state as the difference to an earlier, complete state of the
+	 * same profile. The properties of the profile are always written in full. The
+	 * properties of an installable unit are written in full whenever they differ
+	 * from the base state; an empty properties element denotes that all properties
+	 * of the unit have been removed.
+	 *
+	 * @param profileId           the id of the profile
+	 * @param timestamp           the timestamp of the profile state
+	 * @param baseTimestamp       the timestamp of the state the delta applies to
+	 * @param properties          the properties of the profile
+	 * @param addedUnits          the units that are not part of the base state
+	 * @param removedUnits        the units of the base state that have been removed
+	 * @param changedIUProperties the properties of all units whose properties
+	 *                            differ from the base state
+	 */
+	public void writeProfileDelta(String profileId, long timestamp, long baseTimestamp, Map<String, String> properties, Collection<IInstallableUnit> addedUnits, Collection<IInstallableUnit> removedUnits, Map<IInstallableUnit, Map<String, String>> changedIUProperties) {
+		start(PROFILE_ELEMENT);
+		attribute(ID_ATTRIBUTE, profileId);
+		attribute(TIMESTAMP_ATTRIBUTE, Long.toString(timestamp));
+		attribute(BASE_TIMESTAMP_ATTRIBUTE, Long.toString(baseTimestamp));
+		writeProperties(properties);
+		ArrayList<IInstallableUnit> added = new ArrayList<>(addedUnits);
+		added.sort(ProfileWriter::compare);
+		writeInstallableUnits(added.iterator(), added.size());
+		if (!removedUnits.isEmpty()) {
+			ArrayList<IInstallableUnit> removed = new ArrayList<>(removedUnits);
+			removed.sort(ProfileWriter::compare);
+			start(REMOVED_UNITS_ELEMENT);
+			attribute(COLLECTION_SIZE_ATTRIBUTE, removed.size());
+			for (IInstallableUnit iu : removed) {
+				start(INSTALLABLE_UNIT_ELEMENT);
+				attribute(ID_ATTRIBUTE, iu.getId());
+				attribute(VERSION_ATTRIBUTE, iu.getVersion().toString());
+				end(INSTALLABLE_UNIT_ELEMENT);
+			}
+			end(REMOVED_UNITS_ELEMENT);
+		}
+		if (!changedIUProperties.isEmpty()) {
+			ArrayList<IInstallableUnit> changed = new ArrayList<>(changedIUProperties.keySet());
+			changed.sort(ProfileWriter::compare);
+			start(IUS_PROPERTIES_ELEMENT);
+			attribute(COLLECTION_SIZE_ATTRIBUTE, changed.size());
+			for (IInstallableUnit iu : changed) {
+				Map<String, String> iuProperties = changedIUProperties.get(iu);
+				start(IU_PROPERTIES_ELEMENT);
+				attribute(ID_ATTRIBUTE, iu.getId());
+				attribute(VERSION_ATTRIBUTE, iu.getVersion().toString());
+				if (iuProperties.isEmpty()) {
+					start(PROPERTIES_ELEMENT);
+					attribute(COLLECTION_SIZE_ATTRIBUTE, 0);
+					end(PROPERTIES_ELEMENT);
+				} else {
+					writeProperties(iuProperties);
+				}
+				end(IU_PROPERTIES_ELEMENT);
+			}
+			end(IUS_PROPERTIES_ELEMENT);
+		}
+		end(PROFILE_ELEMENT);
+		flush();
+	}
+
+	private static int compare(IInstallableUnit iu1, IInstallableUnit iu2) {
+		int idCompare = iu1.getId().compareTo(iu2.getId());
+		if (idCompare != 0) {
+			return idCompare;
+		}
+		return iu1.getVersion().compareTo(iu2.getVersion());
+	}
+
 	private void writeInstallableUnitsProperties(Iterator<IInstallableUnit> it, int size, IProfile profile) {
 		if (size == 0) {
 			return;
@@ -34,4 +34,8 @@ public interface ProfileXMLConstants extends XMLConstants {
 	public static final String IUS_PROPERTIES_ELEMENT = "iusProperties"; //$NON-NLS-1$
 	public static final String IU_PROPERTIES_ELEMENT = "iuProperties"; //$NON-NLS-1$
 	public static final String PROFILE_TARGET = "profile"; //$NON-NLS-1$
+
+	// Constants for profile deltas
+	public static final String BASE_TIMESTAMP_ATTRIBUTE = "base"; //$NON-NLS-1$
+	public static final String REMOVED_UNITS_ELEMENT = "removedUnits"; //$NON-NLS-1$
 }
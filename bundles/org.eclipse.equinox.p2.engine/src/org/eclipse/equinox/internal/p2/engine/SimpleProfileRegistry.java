@@ -50,6 +50,11 @@ public class SimpleProfileRegistry implements IProfileRegistry, IAgentService {
 
 	private static final String PROFILE_EXT = ".profile"; //$NON-NLS-1$
 	private static final String PROFILE_GZ_EXT = ".profile.gz"; //$NON-NLS-1$
+	private static final String PROFILE_DELTA_EXT = ".profiledelta.gz"; //$NON-NLS-1$
+	private static final String PROFILE_BASE_EXT = ".profilebase.gz"; //$NON-NLS-1$
+	private static final char DELTA_BASE_SEPARATOR = '-';
+	// the number of states stored as deltas against the same checkpoint
+	private static final int MAX_DELTAS_PER_CHECKPOINT = 10;
 	public static final String DEFAULT_STORAGE_DIR = "profileRegistry"; //$NON-NLS-1$
 	private static final String DATA_EXT = ".data"; //$NON-NLS-1$
 
@@ -79,6 +84,84 @@ public class SimpleProfileRegistry implements IProfileRegistry, IAgentService {
 	// cache of last accessed profile state properties
 	private ProfileStateProperties lastAccessedProperties;
 
+	/**
+	 * The last complete state of a profile, which the states saved after it are
+	 * written as deltas against.
+	 */
+	private record Checkpoint(long timestamp, Map<IInstallableUnit, Map<String, String>> units) {
+		//
+	}
+
+	/**
+	 * The difference between the installable units of two states of a profile.
+	 */
+	private record ProfileDelta(List<IInstallableUnit> addedUnits, List<IInstallableUnit> removedUnits, Map<IInstallableUnit, Map<String, String>> changedProperties) {
+
+		/**
+		 * Computes the delta between the given states, or returns {@code null} if
+		 * the delta is too large to be worth storing instead of the complete state.
+		 */
+		static ProfileDelta compute(Map<IInstallableUnit, Map<String, String>> base, Map<IInstallableUnit, Map<String, String>> current) {
+			List<IInstallableUnit> added = new ArrayList<>();
+			List<IInstallableUnit> removed = new ArrayList<>();
+			Map<IInstallableUnit, Map<String, String>> changed = new HashMap<>();
+			for (Entry<IInstallableUnit, Map<String, String>> entry : current.entrySet()) {
+				Map<String, String> baseProperties = base.get(entry.getKey());
+				if (baseProperties == null) {
+					added.add(entry.getKey());
+					if (!entry.getValue().isEmpty()) {
+						changed.put(entry.getKey(), entry.getValue());
+					}
+				} else if (!baseProperties.equals(entry.getValue())) {
+					changed.put(entry.getKey(), entry.getValue());
+				}
+			}
+			for (IInstallableUnit iu : base.keySet()) {
+				if (!current.containsKey(iu)) {
+					removed.add(iu);
+				}
+			}
+			if ((added.size() + removed.size() + changed.size()) * 2 > current.size()) {
+				return null;
+			}
+			return new ProfileDelta(added, removed, changed);
+		}
+	}
+
+	private final Map<String, Checkpoint> checkpoints = new HashMap<>();
+
+	private final ProfileStateIndex stateIndex = new ProfileStateIndex(SimpleProfileRegistry::getStateTimestamp);
+
+	/**
+	 * Profiles that have been restored one at a time, as long as the complete
+	 * profile map has not been restored.
+	 */
+	private SoftReference<Map<String, Profile>> loadedProfiles;
+
+	/**
+	 * A parsed historical state of a profile, along with the file it was read
+	 * from.
+	 */
+	private record Snapshot(String fileName, long size, SoftReference<Profile> profile) {
+		//
+	}
+
+	private record SnapshotKey(String profileId, long timestamp) {
+		//
+	}
+
+	// the number of parsed historical profile states kept in memory
+	private static final int SNAPSHOT_CACHE_SIZE = Integer.getInteger("p2.profileRegistry.snapshotCacheSize", 4); //$NON-NLS-1$
+
+	private final Map<SnapshotKey, Snapshot> snapshots = new LinkedHashMap<>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<SnapshotKey, Snapshot> eldest) {
+			return size() > SNAPSHOT_CACHE_SIZE;
+		}
+	};
+
 	public SimpleProfileRegistry(IProvisioningAgent agent, File registryDirectory) {
 		this(agent, registryDirectory, new SurrogateProfileHandler(agent), true);
 	}
@@ -214,33 +297,40 @@ public class SimpleProfileRegistry implements IProfileRegistry, IAgentService {
 			id = self;
 		}
 
-		if (profiles != null) {
-			IProfile profile = getProfile(id);
-			if (profile != null && profile.getTimestamp() == timestamp) {
-				return profile;
-			}
+		Profile current = getLoadedProfile(id);
+		if (current != null && current.getTimestamp() == timestamp) {
+			return getProfile(id);
 		}
 
 		File profileDirectory = getProfileFolder(id);
-		if (!profileDirectory.isDirectory()) {
+		ProfileStateIndex.StateFile state = stateIndex.getStates(profileDirectory).states().get(timestamp);
+		if (state == null) {
 			return null;
 		}
 
-		File profileFile = new File(profileDirectory, Long.toString(timestamp) + PROFILE_GZ_EXT);
-		if (!profileFile.exists()) {
-			profileFile = new File(profileDirectory, Long.toString(timestamp) + PROFILE_EXT);
-			if (!profileFile.exists()) {
-				return null;
+		SnapshotKey key = new SnapshotKey(id, timestamp);
+		Snapshot snapshot = snapshots.get(key);
+		if (snapshot != null && snapshot.fileName().equals(state.name()) && snapshot.size() == state.size()) {
+			Profile profile = snapshot.profile().get();
+			if (profile != null) {
+				return profile.snapshot();
 			}
 		}
 
+		File profileFile = new File(profileDirectory, state.name());
 		Parser parser = new Parser(EngineActivator.ID);
 		try {
 			parser.parse(profileFile);
 		} catch (IOException e) {
 			LogHelper.log(new Status(IStatus.ERROR, EngineActivator.ID, NLS.bind(Messages.error_parsing_profile, profileFile), e));
 		}
-		return parser.getProfileMap().get(id);
+		Profile profile = parser.getProfileMap().get(id);
+		if (profile == null) {
+			snapshots.remove(key);
+			return null;
+		}
+		snapshots.put(key, new Snapshot(state.name(), state.size(), new SoftReference<>(profile)));
+		return profile.snapshot();
 	}
 
 	@Override
@@ -253,25 +343,11 @@ public class SimpleProfileRegistry implements IProfileRegistry, IAgentService {
 			return new long[0];
 		}
 
-		File profileDirectory = getProfileFolder(id);
-		if (!profileDirectory.isDirectory()) {
-			return new long[0];
-		}
-
-		File[] profileFiles = profileDirectory.listFiles((FileFilter) pathname -> (pathname.getName().endsWith(PROFILE_EXT) || pathname.getName().endsWith(PROFILE_GZ_EXT)) && pathname.isFile() && !pathname.getName().startsWith("._")); //$NON-NLS-1$
-
-		long[] timestamps = new long[profileFiles.length];
-		for (int i = 0; i < profileFiles.length; i++) {
-			String filename = profileFiles[i].getName();
-			int extensionIndex = filename.lastIndexOf(PROFILE_EXT);
-			try {
-				timestamps[i] = Long.parseLong(filename.substring(0, extensionIndex));
-			} catch (NumberFormatException e) {
-				throw new IllegalStateException("Incompatible profile file name. Expected format is {timestamp}" + PROFILE_GZ_EXT + " (or {timestamp}" + PROFILE_EXT + ") but was " + filename + "."); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
-			}
+		ProfileStateIndex.States states = stateIndex.getStates(getProfileFolder(id));
+		if (states.invalidName() != null) {
+			throw new IllegalStateException("Incompatible profile file name. Expected format is {timestamp}" + PROFILE_GZ_EXT + " (or {timestamp}" + PROFILE_EXT + ") but was " + states.invalidName() + "."); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
 		}
-		Arrays.sort(timestamps);
-		return timestamps;
+		return states.states().keySet().stream().mapToLong(Long::longValue).toArray();
 	}
 
 	/**
@@ -281,7 +357,7 @@ public class SimpleProfileRegistry implements IProfileRegistry, IAgentService {
 		if (SELF.equals(id)) {
 			id = self;
 		}
-		Profile profile = getProfileMap().get(id);
+		Profile profile = loadProfile(id);
 		if (self != null && self.equals(id)) {
 			boolean resetProfile = false;
 			if (profile != null && ignoreExistingProfile(profile)) {
@@ -412,6 +488,7 @@ public class SimpleProfileRegistry implements IProfileRegistry, IAgentService {
 			result = new LinkedHashMap<>(8);
 		}
 		profiles = new SoftReference<>(result);
+		loadedProfiles = null;
 		if (updateSelfProfile) {
 			//update self profile on first load
 			updateSelfProfile(result);
@@ -419,9 +496,53 @@ public class SimpleProfileRegistry implements IProfileRegistry, IAgentService {
 		return result;
 	}
 
+	/**
+	 * Returns the profile with the given id. As long as the complete profile map
+	 * has not been restored, only the requested profile is restored from disk.
+	 */
+	private Profile loadProfile(String id) {
+		Map<String, Profile> profileMap = profiles == null ? null : profiles.get();
+		if (profileMap != null || id == null) {
+			return getProfileMap().get(id);
+		}
+		Map<String, Profile> loaded = loadedProfiles == null ? null : loadedProfiles.get();
+		if (loaded == null) {
+			loaded = new HashMap<>();
+			loadedProfiles = new SoftReference<>(loaded);
+		}
+		Profile profile = loaded.get(id);
+		if (profile != null) {
+			return profile;
+		}
+		Map<String, Profile> restored = restore(id);
+		if (restored == null) {
+			return getProfileMap().get(id);
+		}
+		profile = restored.get(id);
+		if (profile != null) {
+			loaded.put(id, profile);
+			if (updateSelfProfile && id.equals(self)) {
+				updateSelfProfile(loaded);
+			}
+		}
+		return profile;
+	}
+
+	/**
+	 * Returns the profile with the given id if it has already been restored, or
+	 * {@code null} otherwise.
+	 */
+	private Profile getLoadedProfile(String id) {
+		Map<String, Profile> profileMap = profiles == null ? null : profiles.get();
+		if (profileMap == null) {
+			profileMap = loadedProfiles == null ? null : loadedProfiles.get();
+		}
+		return profileMap == null ? null : profileMap.get(id);
+	}
+
 	public synchronized void updateProfile(Profile profile) {
 		String id = profile.getProfileId();
-		Profile current = getProfileMap().get(id);
+		Profile current = loadProfile(id);
 		if (current == null) {
 			throw new IllegalArgumentException(NLS.bind(Messages.profile_does_not_exist, id));
 		}
@@ -517,6 +638,7 @@ public class SimpleProfileRegistry implements IProfileRegistry, IAgentService {
 		}
 		profileMap.remove(profileId);
 		profileLocks.remove(profileId);
+		checkpoints.remove(profileId);
 		// deleting the profile removes the folder and subsequently all
 		// the profile state properties as well since they are stored in a file in the folder.
 		deleteProfile(profileId);
@@ -529,12 +651,10 @@ public class SimpleProfileRegistry implements IProfileRegistry, IAgentService {
 			id = self;
 		}
 
-		if (profiles != null) {
-			IProfile profile = getProfile(id);
-			if (profile != null && profile.getTimestamp() == timestamp) {
-				throw new ProvisionException(
-						NLS.bind(Messages.SimpleProfileRegistry_CannotRemoveCurrentSnapshot, profile));
-			}
+		IProfile profile = loadProfile(id);
+		if (profile != null && profile.getTimestamp() == timestamp) {
+			throw new ProvisionException(
+					NLS.bind(Messages.SimpleProfileRegistry_CannotRemoveCurrentSnapshot, profile));
 		}
 
 		File profileDirectory = getProfileFolder(id);
@@ -542,20 +662,100 @@ public class SimpleProfileRegistry implements IProfileRegistry, IAgentService {
 			return;
 		}
 
-		File profileFile = new File(profileDirectory, Long.toString(timestamp) + PROFILE_GZ_EXT);
-		if (!profileFile.exists()) {
-			profileFile = new File(profileDirectory, Long.toString(timestamp) + PROFILE_EXT);
-			if (!profileFile.exists()) {
-				return;
+		File profileFile = findStateFile(profileDirectory, timestamp);
+		if (profileFile == null) {
+			return;
+		}
+		snapshots.remove(new SnapshotKey(id, timestamp));
+		String fileName = profileFile.getName();
+		if (fileName.endsWith(PROFILE_DELTA_EXT)) {
+			FileUtils.deleteAll(profileFile);
+			stateIndex.invalidate(profileDirectory);
+			// drop the checkpoint of a removed state once no delta refers to it anymore
+			long baseTimestamp = getDeltaBaseTimestamp(fileName);
+			if (countDeltas(profileDirectory, baseTimestamp) == 0) {
+				FileUtils.deleteAll(new File(profileDirectory, Long.toString(baseTimestamp) + PROFILE_BASE_EXT));
 			}
+		} else if (fileName.endsWith(PROFILE_GZ_EXT) && countDeltas(profileDirectory, timestamp) > 0) {
+			// other states are stored as deltas against this one, so keep it as their base
+			profileFile.renameTo(new File(profileDirectory, Long.toString(timestamp) + PROFILE_BASE_EXT));
+		} else {
+			FileUtils.deleteAll(profileFile);
 		}
-		FileUtils.deleteAll(profileFile);
+		stateIndex.invalidate(profileDirectory);
 		// Ignore the return value here. If there was a problem removing the profile state
 		// properties we don't want to fail the whole operation since the profile state itself
 		// was removed successfully
 		removeProfileStateProperties(id, timestamp, null);
 	}
 
+	/**
+	 * Rewrites the states of the given profile that are stored as complete profiles
+	 * into deltas against periodic checkpoints, the way they are written when
+	 * {@link EngineActivator#PROP_PROFILE_SNAPSHOTS} is set to
+	 * {@link EngineActivator#PROFILE_SNAPSHOTS_DELTA}. States that are already
+	 * stored as deltas are left untouched. Profiles that may still be read by an
+	 * older engine are not compacted.
+	 *
+	 * @param id the id of the profile to compact
+	 * @return the result of the compaction
+	 */
+	public synchronized IStatus compactProfileStates(String id) {
+		if (SELF.equals(id)) {
+			id = self;
+		}
+		Profile profile = internalGetProfile(id);
+		if (profile == null) {
+			return new Status(IStatus.ERROR, EngineActivator.ID, NLS.bind(Messages.profile_does_not_exist, id));
+		}
+		if (!shouldGzipFile(profile)) {
+			return Status.OK_STATUS;
+		}
+		if (!internalLockProfile(profile)) {
+			return new Status(IStatus.ERROR, EngineActivator.ID, Messages.SimpleProfileRegistry_Profile_in_use);
+		}
+		File profileDirectory = getProfileFolder(id);
+		try {
+			Checkpoint checkpoint = null;
+			int deltas = 0;
+			for (ProfileStateIndex.StateFile state : stateIndex.getStates(profileDirectory).states().values()) {
+				if (!state.name().endsWith(PROFILE_GZ_EXT)) {
+					continue;
+				}
+				long timestamp = state.timestamp();
+				File profileFile = new File(profileDirectory, state.name());
+				Parser parser = new Parser(EngineActivator.ID);
+				ProfileParser.ProfileHandler handler = parser.parseState(profileFile);
+				Map<IInstallableUnit, Map<String, String>> units = getInstallableUnitProperties(handler);
+				ProfileDelta delta = null;
+				if (checkpoint != null && deltas < MAX_DELTAS_PER_CHECKPOINT) {
+					delta = ProfileDelta.compute(checkpoint.units(), units);
+				}
+				if (delta == null) {
+					checkpoint = new Checkpoint(timestamp, units);
+					deltas = countDeltas(profileDirectory, timestamp);
+					continue;
+				}
+				File deltaFile = new File(profileDirectory, Long.toString(timestamp) + DELTA_BASE_SEPARATOR + checkpoint.timestamp() + PROFILE_DELTA_EXT);
+				try (OutputStream os = new GZIPOutputStream(new FileOutputStream(deltaFile))) {
+					new Writer(os).writeProfileDelta(id, timestamp, checkpoint.timestamp(), handler.getProperties(), delta.addedUnits(), delta.removedUnits(), delta.changedProperties());
+				} catch (IOException e) {
+					deltaFile.delete();
+					throw e;
+				}
+				FileUtils.deleteAll(profileFile);
+				deltas++;
+			}
+		} catch (IOException e) {
+			return new Status(IStatus.ERROR, EngineActivator.ID, NLS.bind(Messages.SimpleProfileRegistry_Error_compacting_states, id), e);
+		} finally {
+			checkpoints.remove(id);
+			stateIndex.invalidate(profileDirectory);
+			internalUnlockProfile(profile);
+		}
+		return Status.OK_STATUS;
+	}
+
 	private void broadcastChangeEvent(String profileId, int reason) {
 		if (eventBus != null) {
 			eventBus.publishEvent(new ProfileEvent(profileId, reason));
@@ -581,57 +781,254 @@ public class SimpleProfileRegistry implements IProfileRegistry, IAgentService {
 		for (File profileDirectorie : profileDirectories) {
 			String directoryName = profileDirectorie.getName();
 			String profileId = unescape(directoryName.substring(0, directoryName.lastIndexOf(PROFILE_EXT)));
-			ProfileLock lock = profileLocks.get(profileId);
-			if (lock == null) {
-				lock = new ProfileLock(this, profileDirectorie);
-				profileLocks.put(profileId, lock);
+			restore(parser, profileId, profileDirectorie);
+		}
+		return parser.getProfileMap();
+	}
+
+	/**
+	 * Restores a single profile from disk, without restoring the other profiles of
+	 * the registry. Returns <code>null</code> if the profile cannot be restored on
+	 * its own because it is a sub-profile.
+	 */
+	private Map<String, Profile> restore(String id) {
+		if (store == null || !store.isDirectory()) {
+			throw new IllegalStateException(NLS.bind(Messages.reg_dir_not_available, store));
+		}
+
+		File profileDirectory = getProfileFolder(id);
+		if (!profileDirectory.isDirectory()) {
+			return Collections.emptyMap();
+		}
+		// the sub-profiles of a profile are only recorded in their own states
+		List<String> subProfileIds = new ArrayList<>();
+		File[] profileDirectories = store.listFiles((FileFilter) pathname -> pathname.getName().endsWith(PROFILE_EXT) && pathname.isDirectory());
+		if (profileDirectories != null) {
+			for (File directory : profileDirectories) {
+				if (directory.equals(profileDirectory)) {
+					continue;
+				}
+				String parentId = stateIndex.getParentId(directory);
+				if (parentId == null) {
+					// not known until the profile is read, restore the complete registry
+					return null;
+				}
+				if (parentId.equals(id)) {
+					String directoryName = directory.getName();
+					subProfileIds.add(unescape(directoryName.substring(0, directoryName.lastIndexOf(PROFILE_EXT))));
+				}
 			}
+		}
+		Parser parser = new Parser(EngineActivator.ID);
+		restore(parser, id, profileDirectory);
+		ProfileParser.ProfileHandler profileHandler = parser.getProfileHandlers().get(id);
+		if (profileHandler != null && profileHandler.getParentId() != null) {
+			return null;
+		}
+		Map<String, Profile> profileMap = parser.getProfileMap();
+		Profile profile = profileMap.get(id);
+		if (profile != null) {
+			subProfileIds.forEach(profile::addSubProfile);
+		}
+		return profileMap;
+	}
+
+	private void restore(Parser parser, String profileId, File profileDirectory) {
+		ProfileLock lock = profileLocks.get(profileId);
+		if (lock == null) {
+			lock = new ProfileLock(this, profileDirectory);
+			profileLocks.put(profileId, lock);
+		}
 
-			boolean locked = false;
-			if (lock.processHoldsLock() || (locked = lock.lock())) {
-				try {
-					File profileFile = findLatestProfileFile(profileDirectorie);
-					if (profileFile != null) {
-						try {
-							parser.parse(profileFile);
-						} catch (IOException e) {
-							LogHelper.log(new Status(IStatus.ERROR, EngineActivator.ID, NLS.bind(Messages.error_parsing_profile, profileFile), e));
+		boolean locked = false;
+		if (lock.processHoldsLock() || (locked = lock.lock())) {
+			try {
+				File profileFile = findLatestProfileFile(profileDirectory);
+				if (profileFile != null) {
+					try {
+						parser.parse(profileFile);
+						ProfileParser.ProfileHandler profileHandler = parser.getProfileHandlers().get(profileId);
+						if (profileHandler != null) {
+							stateIndex.setParentId(profileDirectory, profileHandler.getParentId());
 						}
-					}
-				} finally {
-					if (locked) {
-						lock.unlock();
+					} catch (IOException e) {
+						LogHelper.log(new Status(IStatus.ERROR, EngineActivator.ID, NLS.bind(Messages.error_parsing_profile, profileFile), e));
 					}
 				}
-			} else {
-				// could not lock the profile, so add a place holder
-				parser.addProfilePlaceHolder(profileId);
+			} finally {
+				if (locked) {
+					lock.unlock();
+				}
 			}
+		} else {
+			// could not lock the profile, so add a place holder
+			parser.addProfilePlaceHolder(profileId);
 		}
-		return parser.getProfileMap();
 	}
 
 	private File findLatestProfileFile(File profileDirectory) {
-		File latest = null;
-		long latestTimestamp = 0;
-		File[] profileFiles = profileDirectory.listFiles((FileFilter) pathname -> (pathname.getName().endsWith(PROFILE_GZ_EXT) || pathname.getName().endsWith(PROFILE_EXT)) && !pathname.isDirectory());
-		// protect against NPE
-		if (profileFiles == null) {
+		Entry<Long, ProfileStateIndex.StateFile> latest = stateIndex.getStates(profileDirectory).states().lastEntry();
+		return latest == null ? null : new File(profileDirectory, latest.getValue().name());
+	}
+
+	/**
+	 * Returns whether the file with the given name stores a state of a profile,
+	 * either completely or as a delta.
+	 */
+	static boolean isStateFile(String fileName) {
+		return fileName.endsWith(PROFILE_EXT) || fileName.endsWith(PROFILE_GZ_EXT) || fileName.endsWith(PROFILE_DELTA_EXT);
+	}
+
+	/**
+	 * Returns the timestamp of the profile state stored in the file with the given
+	 * name, or -1 if the name does not denote a profile state.
+	 */
+	private static long getStateTimestamp(String fileName) {
+		int end;
+		if (fileName.endsWith(PROFILE_DELTA_EXT)) {
+			end = fileName.indexOf(DELTA_BASE_SEPARATOR);
+		} else if (fileName.endsWith(PROFILE_EXT) || fileName.endsWith(PROFILE_GZ_EXT)) {
+			end = fileName.indexOf(PROFILE_EXT);
+		} else {
+			return -1;
+		}
+		try {
+			return end > 0 ? Long.parseLong(fileName.substring(0, end)) : -1;
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * Returns the timestamp of the checkpoint a delta file was written against, or
+	 * -1 if the name does not denote a delta.
+	 */
+	private static long getDeltaBaseTimestamp(String fileName) {
+		int start = fileName.indexOf(DELTA_BASE_SEPARATOR) + 1;
+		if (start == 0 || !fileName.endsWith(PROFILE_DELTA_EXT)) {
+			return -1;
+		}
+		try {
+			return Long.parseLong(fileName.substring(start, fileName.length() - PROFILE_DELTA_EXT.length()));
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * Returns the file storing the given state of a profile, or {@code null} if
+	 * there is no such state.
+	 */
+	private File findStateFile(File profileDirectory, long timestamp) {
+		ProfileStateIndex.StateFile state = stateIndex.getStates(profileDirectory).states().get(timestamp);
+		return state == null ? null : new File(profileDirectory, state.name());
+	}
+
+	/**
+	 * Returns the complete profile file that deltas written against the given
+	 * timestamp are applied to, or {@code null} if it does not exist.
+	 */
+	private static File findCheckpointFile(File profileDirectory, long timestamp) {
+		File checkpointFile = new File(profileDirectory, Long.toString(timestamp) + PROFILE_GZ_EXT);
+		if (checkpointFile.isFile()) {
+			return checkpointFile;
+		}
+		checkpointFile = new File(profileDirectory, Long.toString(timestamp) + PROFILE_BASE_EXT);
+		return checkpointFile.isFile() ? checkpointFile : null;
+	}
+
+	/**
+	 * Returns the number of states stored as deltas against the given checkpoint.
+	 */
+	private int countDeltas(File profileDirectory, long checkpointTimestamp) {
+		String suffix = DELTA_BASE_SEPARATOR + Long.toString(checkpointTimestamp) + PROFILE_DELTA_EXT;
+		int count = 0;
+		for (ProfileStateIndex.StateFile state : stateIndex.getStates(profileDirectory).states().values()) {
+			if (state.name().endsWith(suffix)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the checkpoint the next state of the given profile can be written
+	 * against, or {@code null} if the next state should be a new checkpoint.
+	 */
+	private Checkpoint getCheckpoint(File profileDirectory, String profileId) {
+		Checkpoint checkpoint = checkpoints.get(profileId);
+		if (checkpoint == null || findCheckpointFile(profileDirectory, checkpoint.timestamp()) == null) {
+			checkpoint = readCheckpoint(profileDirectory);
+			if (checkpoint == null) {
+				checkpoints.remove(profileId);
+				return null;
+			}
+			checkpoints.put(profileId, checkpoint);
+		}
+		if (countDeltas(profileDirectory, checkpoint.timestamp()) >= MAX_DELTAS_PER_CHECKPOINT) {
 			return null;
 		}
-		for (File profileFile : profileFiles) {
-			String fileName = profileFile.getName();
-			try {
-				long timestamp = Long.parseLong(fileName.substring(0, fileName.indexOf(PROFILE_EXT)));
-				if (timestamp > latestTimestamp) {
-					latestTimestamp = timestamp;
-					latest = profileFile;
-				}
-			} catch (NumberFormatException e) {
-				// ignore
+		return checkpoint;
+	}
+
+	/**
+	 * Reads the checkpoint of the latest state of a profile from disk.
+	 */
+	private Checkpoint readCheckpoint(File profileDirectory) {
+		File latest = findLatestProfileFile(profileDirectory);
+		if (latest == null) {
+			return null;
+		}
+		String fileName = latest.getName();
+		long timestamp;
+		if (fileName.endsWith(PROFILE_DELTA_EXT)) {
+			timestamp = getDeltaBaseTimestamp(fileName);
+		} else if (fileName.endsWith(PROFILE_GZ_EXT)) {
+			timestamp = getStateTimestamp(fileName);
+		} else {
+			return null;
+		}
+		File checkpointFile = findCheckpointFile(profileDirectory, timestamp);
+		if (checkpointFile == null) {
+			return null;
+		}
+		try {
+			return new Checkpoint(timestamp, getInstallableUnitProperties(new Parser(EngineActivator.ID).parseState(checkpointFile)));
+		} catch (IOException e) {
+			// the next state is written as a new checkpoint
+			if (DebugHelper.DEBUG_PROFILE_REGISTRY) {
+				DebugHelper.debug(PROFILE_REGISTRY, "Unable to read profile checkpoint " + checkpointFile + ": " + e.getMessage()); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			return null;
+		}
+	}
+
+	private static Map<IInstallableUnit, Map<String, String>> getInstallableUnitProperties(ProfileParser.ProfileHandler handler) {
+		Map<IInstallableUnit, Map<String, String>> units = new HashMap<>();
+		IInstallableUnit[] ius = handler.getInstallableUnits();
+		if (ius != null) {
+			for (IInstallableUnit iu : ius) {
+				Map<String, String> properties = handler.getIUProperties(iu);
+				units.put(iu, properties == null ? Collections.emptyMap() : new HashMap<>(properties));
 			}
 		}
-		return latest;
+		return units;
+	}
+
+	private static Map<IInstallableUnit, Map<String, String>> getInstallableUnitProperties(Profile profile) {
+		Map<IInstallableUnit, Map<String, String>> units = new HashMap<>();
+		for (IInstallableUnit iu : profile.query(QueryUtil.createIUAnyQuery(), null)) {
+			units.put(iu, new HashMap<>(profile.getInstallableUnitProperties(iu)));
+		}
+		return units;
+	}
+
+	/**
+	 * Returns whether profile states should be stored as deltas against periodic
+	 * checkpoints.
+	 */
+	private boolean useDeltaSnapshots() {
+		return EngineActivator.PROFILE_SNAPSHOTS_DELTA.equals(EngineActivator.getProperty(EngineActivator.PROP_PROFILE_SNAPSHOTS, agent));
 	}
 
 	private void saveProfile(Profile profile) {
@@ -644,7 +1041,17 @@ public class SimpleProfileRegistry implements IProfileRegistry, IAgentService {
 			currentTimestamp = currentTimeInMillis(previousTimestamp);
 		}
 		boolean shouldGzipFile = shouldGzipFile(profile);
-		File profileFile = new File(profileDirectory, Long.toString(currentTimestamp) + (shouldGzipFile ? PROFILE_GZ_EXT : PROFILE_EXT));
+		// deltas are never written for profiles that older engines may have to read
+		boolean deltaSnapshots = shouldGzipFile && useDeltaSnapshots();
+		Map<IInstallableUnit, Map<String, String>> units = deltaSnapshots ? getInstallableUnitProperties(profile) : null;
+		Checkpoint checkpoint = deltaSnapshots ? getCheckpoint(profileDirectory, profile.getProfileId()) : null;
+		ProfileDelta delta = checkpoint != null ? ProfileDelta.compute(checkpoint.units(), units) : null;
+		File profileFile;
+		if (delta != null) {
+			profileFile = new File(profileDirectory, Long.toString(currentTimestamp) + DELTA_BASE_SEPARATOR + checkpoint.timestamp() + PROFILE_DELTA_EXT);
+		} else {
+			profileFile = new File(profileDirectory, Long.toString(currentTimestamp) + (shouldGzipFile ? PROFILE_GZ_EXT : PROFILE_EXT));
+		}
 
 		// Log a stack trace to see who is writing the profile.
 		if (DebugHelper.DEBUG_PROFILE_REGISTRY) {
@@ -657,11 +1064,23 @@ public class SimpleProfileRegistry implements IProfileRegistry, IAgentService {
 				? new GZIPOutputStream(new FileOutputStream(profileFile))
 				: new FileOutputStream(profileFile)) {
 			Writer writer = new Writer(os);
-			writer.writeProfile(profile);
+			if (delta != null) {
+				writer.writeProfileDelta(profile.getProfileId(), currentTimestamp, checkpoint.timestamp(), profile.getProperties(), delta.addedUnits(), delta.removedUnits(), delta.changedProperties());
+			} else {
+				writer.writeProfile(profile);
+			}
 		} catch (IOException e) {
 			profile.setTimestamp(previousTimestamp);
 			profileFile.delete();
 			LogHelper.log(new Status(IStatus.ERROR, EngineActivator.ID, NLS.bind(Messages.error_persisting_profile, profile.getProfileId()), e));
+			return;
+		} finally {
+			stateIndex.invalidate(profileDirectory);
+		}
+		IProfile parent = profile.getParentProfile();
+		stateIndex.setParentId(profileDirectory, parent == null ? null : parent.getProfileId());
+		if (deltaSnapshots && delta == null) {
+			checkpoints.put(profile.getProfileId(), new Checkpoint(currentTimestamp, units));
 		}
 	}
 
@@ -696,6 +1115,8 @@ public class SimpleProfileRegistry implements IProfileRegistry, IAgentService {
 	private void deleteProfile(String profileId) {
 		File profileDirectory = getProfileFolder(profileId);
 		FileUtils.deleteAll(profileDirectory);
+		stateIndex.remove(profileDirectory);
+		snapshots.keySet().removeIf(key -> key.profileId().equals(profileId));
 	}
 
 	/**
@@ -751,7 +1172,7 @@ public class SimpleProfileRegistry implements IProfileRegistry, IAgentService {
 	static class Writer extends ProfileWriter {
 
 		public Writer(OutputStream output) {
-			super(output, new ProcessingInstruction[] {ProcessingInstruction.makeTargetVersionInstruction(PROFILE_TARGET, ProfileXMLConstants.CURRENT_VERSION)});
+			super(output, new ProcessingInstruction[] {ProcessingInstruction.makeTargetVersionInstruction(PROFILE_TARGET, ProfileXMLConstants.CURRENT_VERSION)}, !COMPACT);
 		}
 	}
 
@@ -775,25 +1196,53 @@ public class SimpleProfileRegistry implements IProfileRegistry, IAgentService {
 		}
 
 		public void parse(File file) throws IOException {
+			ProfileHandler profileHandler;
+			if (file.getName().endsWith(PROFILE_DELTA_EXT)) {
+				ProfileDeltaHandler deltaHandler = new ProfileDeltaHandler();
+				parse(file, deltaHandler);
+				File checkpointFile = findCheckpointFile(file.getParentFile(), deltaHandler.getBaseTimestamp());
+				if (checkpointFile == null) {
+					throw new IOException("Missing checkpoint " + deltaHandler.getBaseTimestamp() + " of profile state " + file); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+				profileHandler = new SnapshotHandler(parseState(checkpointFile), deltaHandler);
+			} else {
+				profileHandler = parse(file, new ProfileHandler());
+			}
+			profileHandlers.put(profileHandler.getProfileId(), profileHandler);
+		}
+
+		/**
+		 * Parses a complete profile state without adding it to the profiles of this
+		 * parser.
+		 */
+		ProfileHandler parseState(File file) throws IOException {
+			return parse(file, new ProfileHandler());
+		}
+
+		private ProfileHandler parse(File file, ProfileHandler profileHandler) throws IOException {
 			InputStream is;
-			if (file.getName().endsWith(PROFILE_GZ_EXT)) {
+			if (file.getName().endsWith(".gz")) { //$NON-NLS-1$
 				is = new BufferedInputStream(new GZIPInputStream(new FileInputStream(file)));
 			} else { // backward compatibility. SimpleProfileRegistry doesn't write non-gzipped profiles any more.
 				is = new BufferedInputStream(new FileInputStream(file));
 			}
-			parse(is);
+			return parse(is, profileHandler);
 		}
 
-		public synchronized void parse(InputStream stream) throws IOException {
+		public void parse(InputStream stream) throws IOException {
+			ProfileHandler profileHandler = parse(stream, new ProfileHandler());
+			profileHandlers.put(profileHandler.getProfileId(), profileHandler);
+		}
+
+		private synchronized ProfileHandler parse(InputStream stream, ProfileHandler profileHandler) throws IOException {
 			this.status = null;
 			try {
 				// TODO: currently not caching the parser since we make no assumptions
 				//		 or restrictions on concurrent parsing
 				XMLReader reader = getParser().getXMLReader();
-				ProfileHandler profileHandler = new ProfileHandler();
 				reader.setContentHandler(new ProfileDocHandler(PROFILE_ELEMENT, profileHandler));
 				reader.parse(new InputSource(stream));
-				profileHandlers.put(profileHandler.getProfileId(), profileHandler);
+				return profileHandler;
 			} catch (SAXException e) {
 				IOException ioException = new IOException(e.getMessage());
 				ioException.initCause(e);
@@ -857,6 +1306,65 @@ public class SimpleProfileRegistry implements IProfileRegistry, IAgentService {
 			profileMap.put(profileId, profile);
 		}
 
+		/**
+		 * Presents a profile state stored as a delta together with its checkpoint as
+		 * a complete profile state.
+		 */
+		private final class SnapshotHandler extends ProfileHandler {
+			private final ProfileHandler checkpointHandler;
+			private final ProfileDeltaHandler deltaHandler;
+			private IInstallableUnit[] units;
+
+			SnapshotHandler(ProfileHandler checkpointHandler, ProfileDeltaHandler deltaHandler) {
+				super(deltaHandler.getProfileId());
+				this.checkpointHandler = checkpointHandler;
+				this.deltaHandler = deltaHandler;
+			}
+
+			@Override
+			public String getParentId() {
+				return deltaHandler.getParentId();
+			}
+
+			@Override
+			public long getTimestamp() {
+				return deltaHandler.getTimestamp();
+			}
+
+			@Override
+			public Map<String, String> getProperties() {
+				return deltaHandler.getProperties();
+			}
+
+			@Override
+			public IInstallableUnit[] getInstallableUnits() {
+				if (units == null) {
+					List<IInstallableUnit> result = new ArrayList<>();
+					IInstallableUnit[] checkpointUnits = checkpointHandler.getInstallableUnits();
+					if (checkpointUnits != null) {
+						Set<String> removedUnits = deltaHandler.getRemovedUnits();
+						for (IInstallableUnit iu : checkpointUnits) {
+							if (!removedUnits.contains(iu.getId() + "_" + iu.getVersion().toString())) { //$NON-NLS-1$
+								result.add(iu);
+							}
+						}
+					}
+					IInstallableUnit[] addedUnits = deltaHandler.getInstallableUnits();
+					if (addedUnits != null) {
+						Collections.addAll(result, addedUnits);
+					}
+					units = result.toArray(IInstallableUnit[]::new);
+				}
+				return units;
+			}
+
+			@Override
+			public Map<String, String> getIUProperties(IInstallableUnit iu) {
+				Map<String, String> properties = deltaHandler.getIUProperties(iu);
+				return properties != null ? properties : checkpointHandler.getIUProperties(iu);
+			}
+		}
+
 		private final class ProfileDocHandler extends DocHandler {
 
 			public ProfileDocHandler(String rootName, RootHandler rootHandler) {
@@ -889,7 +1397,7 @@ public class SimpleProfileRegistry implements IProfileRegistry, IAgentService {
 
 	@Override
 	public synchronized boolean isCurrent(IProfile profile) {
-		Profile internalProfile = getProfileMap().get(profile.getProfileId());
+		Profile internalProfile = loadProfile(profile.getProfileId());
 		if (internalProfile == null) {
 			throw new IllegalArgumentException(NLS.bind(Messages.profile_not_registered, profile.getProfileId()));
 		}
@@ -982,22 +1490,16 @@ public class SimpleProfileRegistry implements IProfileRegistry, IAgentService {
 		}
 
 		// check profiles to avoid restoring the profile registry
-		if (profiles != null) {
-			if (getProfile(id) != null) {
-				return true;
-			}
+		if (getLoadedProfile(id) != null) {
+			return true;
 		}
 
-		File profileDirectory = getProfileFolder(id);
-		if (!profileDirectory.isDirectory()) {
-			return false;
-		}
-		File[] profileFiles = profileDirectory.listFiles((FileFilter) pathname -> (pathname.getName().endsWith(PROFILE_GZ_EXT) || pathname.getName().endsWith(PROFILE_EXT)) && pathname.isFile());
-		return profileFiles.length > 0;
+		return !stateIndex.getStates(getProfileFolder(id)).states().isEmpty();
 	}
 
 	public synchronized void resetProfiles() {
 		profiles = null;
+		loadedProfiles = null;
 	}
 
 	public synchronized void unlockProfile(IProfile profile) {
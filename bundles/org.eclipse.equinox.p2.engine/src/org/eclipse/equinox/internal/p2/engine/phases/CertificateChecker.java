@@ -16,10 +16,13 @@ package org.eclipse.equinox.internal.p2.engine.phases;
 import java.io.*;
 import java.net.URL;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
 import java.security.cert.*;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.*;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -57,6 +60,13 @@ public class CertificateChecker {
 	private static boolean VERIFY_CERTIFICATE_SIGNATURE_VALIDITY = Boolean.TRUE.toString()
 			.equalsIgnoreCase(System.getProperty("p2.verifyCertificateSignatureValidity", Boolean.TRUE.toString())); //$NON-NLS-1$
 
+	/**
+	 * The maximum number of threads used to verify the signed content of the
+	 * artifacts.
+	 */
+	private static final int MAX_VERIFICATION_THREADS = Integer.getInteger("p2.certificateChecker.maxThreads", //$NON-NLS-1$
+			Runtime.getRuntime().availableProcessors());
+
 	public static final String TRUST_ALWAYS_PROPERTY = "trustAlways"; //$NON-NLS-1$
 
 	public static final String TRUSTED_KEY_STORE_PROPERTY = "pgp.trustedPublicKeys"; //$NON-NLS-1$
@@ -159,7 +169,17 @@ public class CertificateChecker {
 		Set<SimpleArtifactRepository> repositories = new HashSet<>();
 		boolean isTrustedKeySetInitialized = false;
 		Map<IArtifactKey, File> artifactFiles = new LinkedHashMap<>();
-		for (Entry<IArtifactDescriptor, File> artifact : artifacts.entrySet()) {
+		List<Entry<IArtifactDescriptor, File>> artifactEntries = new ArrayList<>(artifacts.entrySet());
+		Map<File, SignedContentCache.Result> verifiedContents = new HashMap<>();
+		IStatus verificationStatus = verifySignedContents(verifierFactory,
+				artifactEntries.stream().map(Entry::getValue).toList(), verifiedContents);
+		if (!verificationStatus.isOK()) {
+			return verificationStatus;
+		}
+
+		// Aggregate in the iteration order of the artifacts, independently of the order
+		// in which the verifications completed.
+		for (Entry<IArtifactDescriptor, File> artifact : artifactEntries) {
 			IArtifactDescriptor artifactDescriptor = artifact.getKey();
 			IArtifactRepository repository = artifactDescriptor.getRepository();
 			if (repository instanceof SimpleArtifactRepository simpleArtifactRepository) {
@@ -169,90 +189,76 @@ public class CertificateChecker {
 			File artifactFile = artifact.getValue();
 			artifactFiles.put(artifactKey, artifactFile);
 			boolean artifactTrustedByCertificate = false;
-			try {
-				SignedContent content = verifierFactory.getSignedContent(artifactFile);
-				boolean signed = content.isSigned();
-				if (signed) {
-					SignerInfo[] signerInfo = content.getSignerInfos();
-
-					// Only record the untrusted elements if there are no trusted elements.
-					// Also check previously trusted certificates from the preferences.
-					if (Arrays.stream(signerInfo).noneMatch(SignerInfo::isTrusted)
-							&& Arrays.stream(signerInfo).map(SignerInfo::getCertificateChain).flatMap(Arrays::stream)
-									.noneMatch(cert -> additionalTrustedCertificates.get().contains(cert))) {
-						for (SignerInfo element : signerInfo) {
-							if (!element.isTrusted()) {
-								List<Certificate> certificateChain = Arrays.asList(element.getCertificateChain());
-								untrustedCertificates.computeIfAbsent(certificateChain, key -> new LinkedHashSet<>())
-										.add(artifactKey);
-							}
+			SignedContentCache.Result content = verifiedContents.get(artifactFile);
+			boolean signed = content.signed();
+			if (signed) {
+				SignerInfo[] signerInfo = content.signerInfos();
+
+				// Only record the untrusted elements if there are no trusted elements.
+				// Also check previously trusted certificates from the preferences.
+				if (Arrays.stream(signerInfo).noneMatch(SignerInfo::isTrusted)
+						&& Arrays.stream(signerInfo).map(SignerInfo::getCertificateChain).flatMap(Arrays::stream)
+								.noneMatch(cert -> additionalTrustedCertificates.get().contains(cert))) {
+					for (SignerInfo element : signerInfo) {
+						if (!element.isTrusted()) {
+							List<Certificate> certificateChain = Arrays.asList(element.getCertificateChain());
+							untrustedCertificates.computeIfAbsent(certificateChain, key -> new LinkedHashSet<>())
+									.add(artifactKey);
 						}
-					} else {
-						artifactTrustedByCertificate = true;
 					}
+				} else {
+					artifactTrustedByCertificate = true;
+				}
 
-					// Treat the artifact as untrusted if the signature is outside of the
-					// certificate's validity range.
-					if (VERIFY_CERTIFICATE_SIGNATURE_VALIDITY) {
-						List<SignerInfo> invalidSignatures = Arrays.stream(signerInfo).filter(info -> {
-							try {
-								content.checkValidity(info);
-								return false;
-							} catch (CertificateExpiredException | CertificateNotYetValidException e) {
-								return true;
-							}
-						}).collect(Collectors.toList());
-
-						// Only complain if all signatures are invalid and do so even if the certificate
-						// itself is trusted.
-						if (signerInfo.length == invalidSignatures.size()) {
-							artifactTrustedByCertificate = false;
-							for (SignerInfo info : invalidSignatures) {
-								List<Certificate> certificateChain = Arrays.asList(info.getCertificateChain());
-								untrustedCertificates.computeIfAbsent(certificateChain, key -> new LinkedHashSet<>())
-										.add(artifactKey);
-							}
+				// Treat the artifact as untrusted if the signature is outside of the
+				// certificate's validity range.
+				if (VERIFY_CERTIFICATE_SIGNATURE_VALIDITY) {
+					List<SignerInfo> invalidSignatures = content.invalidSignerInfos();
+
+					// Only complain if all signatures are invalid and do so even if the certificate
+					// itself is trusted.
+					if (signerInfo.length == invalidSignatures.size()) {
+						artifactTrustedByCertificate = false;
+						for (SignerInfo info : invalidSignatures) {
+							List<Certificate> certificateChain = Arrays.asList(info.getCertificateChain());
+							untrustedCertificates.computeIfAbsent(certificateChain, key -> new LinkedHashSet<>())
+									.add(artifactKey);
 						}
 					}
-
 				}
 
-				// Also check for PGP signatures if the artifact is not trusted by a certificate
-				// because there might be trusted PGP keys too.
-				if (!signed || !artifactTrustedByCertificate) {
-					// The keys are in this destination artifact's properties if and only if the
-					// PGPSignatureVerifier verified the signatures against these keys.
-					List<PGPPublicKey> verifiedKeys = PGPPublicKeyStore
-							.readPublicKeys(
-									artifactDescriptor.getProperty(PGPSignatureVerifier.PGP_SIGNER_KEYS_PROPERTY_NAME))
-							.stream().map(keyService::addKey).collect(Collectors.toList());
-					if (!verifiedKeys.isEmpty()) {
-						if (!isTrustedKeySetInitialized) {
-							isTrustedKeySetInitialized = true;
-							trustedKeySet.addAll(trustedKeys.get().all().stream()
-									.filter(it -> keyService.getVerifiedRevocationDate(it) == null).toList());
-						}
-						// Only record the untrusted keys if none of the keys are trusted.
-						if (verifiedKeys.stream().noneMatch(trustedKeySet::contains)) {
-							verifiedKeys.forEach(key -> untrustedPGPKeys
-									.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(artifactKey));
-						} else {
-							// There are PGP keys and at least one of them is trusted so even if there are
-							// untrusted certificates we will not prompt for those because we only prompt if
-							// none of the certificates *and* none of the PGP keys are trusted.
-							// So clean them out of the map.
-							untrustedCertificates.values().forEach(it -> it.remove(artifactKey));
-							untrustedCertificates.values().removeIf(Collection::isEmpty);
-						}
-					} else if (!signed) {
-						unsignedArtifacts.add(artifactKey);
+			}
+
+			// Also check for PGP signatures if the artifact is not trusted by a certificate
+			// because there might be trusted PGP keys too.
+			if (!signed || !artifactTrustedByCertificate) {
+				// The keys are in this destination artifact's properties if and only if the
+				// PGPSignatureVerifier verified the signatures against these keys.
+				List<PGPPublicKey> verifiedKeys = PGPPublicKeyStore
+						.readPublicKeys(
+								artifactDescriptor.getProperty(PGPSignatureVerifier.PGP_SIGNER_KEYS_PROPERTY_NAME))
+						.stream().map(keyService::addKey).collect(Collectors.toList());
+				if (!verifiedKeys.isEmpty()) {
+					if (!isTrustedKeySetInitialized) {
+						isTrustedKeySetInitialized = true;
+						trustedKeySet.addAll(trustedKeys.get().all().stream()
+								.filter(it -> keyService.getVerifiedRevocationDate(it) == null).toList());
+					}
+					// Only record the untrusted keys if none of the keys are trusted.
+					if (verifiedKeys.stream().noneMatch(trustedKeySet::contains)) {
+						verifiedKeys.forEach(key -> untrustedPGPKeys
+								.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(artifactKey));
+					} else {
+						// There are PGP keys and at least one of them is trusted so even if there are
+						// untrusted certificates we will not prompt for those because we only prompt if
+						// none of the certificates *and* none of the PGP keys are trusted.
+						// So clean them out of the map.
+						untrustedCertificates.values().forEach(it -> it.remove(artifactKey));
+						untrustedCertificates.values().removeIf(Collection::isEmpty);
 					}
+				} else if (!signed) {
+					unsignedArtifacts.add(artifactKey);
 				}
-			} catch (GeneralSecurityException e) {
-				return new Status(IStatus.ERROR, EngineActivator.ID, Messages.CertificateChecker_SignedContentError, e);
-			} catch (IOException e) {
-				return new Status(IStatus.ERROR, EngineActivator.ID, Messages.CertificateChecker_SignedContentIOError,
-						e);
 			}
 		}
 
@@ -407,6 +413,131 @@ public class CertificateChecker {
 		return Status.OK_STATUS;
 	}
 
+	/**
+	 * Verifies the signed content of the given files, using several threads if
+	 * there is more than one file to verify. Each {@link SignedContent} is confined
+	 * to the thread that verifies it; only the extracted signer information is
+	 * stored in the result map. Files that were already verified by a previous
+	 * checker of the same agent are not read again.
+	 *
+	 * @return an error status for the first file, in the order given, that could
+	 *         not be verified, or an OK status
+	 */
+	private IStatus verifySignedContents(SignedContentFactory verifierFactory, List<File> files,
+			Map<File, SignedContentCache.Result> results) {
+		// the cached trust state of the signers is only valid for the same trust anchors
+		String trustAnchors = getTrustAnchorsFingerprint();
+		SignedContentCache cache = trustAnchors == null ? null : SignedContentCache.getCache(agent);
+		if (cache != null) {
+			cache.validate(trustAnchors);
+		}
+		List<File> toVerify = new ArrayList<>();
+		for (File file : new LinkedHashSet<>(files)) {
+			SignedContentCache.Result cached = cache == null ? null : cache.get(file);
+			if (cached != null) {
+				results.put(file, cached);
+			} else {
+				toVerify.add(file);
+			}
+		}
+		if (DebugHelper.DEBUG_CERTIFICATE_CHECKER_CACHE) {
+			DebugHelper.debug(DEBUG_PREFIX, NLS.bind("Verifying {0} of {1} artifacts, the others are cached", //$NON-NLS-1$
+					toVerify.size(), files.size()));
+		}
+		if (toVerify.isEmpty()) {
+			return Status.OK_STATUS;
+		}
+
+		List<Future<SignedContentCache.Result>> futures = new ArrayList<>(toVerify.size());
+		int threads = Math.min(toVerify.size(), MAX_VERIFICATION_THREADS);
+		ExecutorService executor = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+		try {
+			for (File file : toVerify) {
+				Callable<SignedContentCache.Result> verification = () -> verifySignedContent(verifierFactory, file);
+				if (executor != null) {
+					futures.add(executor.submit(verification));
+				} else {
+					futures.add(CompletableFuture.completedFuture(verification.call()));
+				}
+			}
+			for (int i = 0; i < toVerify.size(); i++) {
+				File file = toVerify.get(i);
+				SignedContentCache.Result result = futures.get(i).get();
+				results.put(file, result);
+				if (cache != null) {
+					cache.put(file, result);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return Status.CANCEL_STATUS;
+		} catch (Exception e) {
+			Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+			if (cause instanceof GeneralSecurityException) {
+				return new Status(IStatus.ERROR, EngineActivator.ID, Messages.CertificateChecker_SignedContentError,
+						cause);
+			}
+			if (cause instanceof IOException) {
+				return new Status(IStatus.ERROR, EngineActivator.ID, Messages.CertificateChecker_SignedContentIOError,
+						cause);
+			}
+			return new Status(IStatus.ERROR, EngineActivator.ID, Messages.CertificateChecker_SignedContentError,
+					cause);
+		} finally {
+			if (executor != null) {
+				executor.shutdownNow();
+			}
+		}
+		return Status.OK_STATUS;
+	}
+
+	private static SignedContentCache.Result verifySignedContent(SignedContentFactory verifierFactory, File file)
+			throws GeneralSecurityException, IOException {
+		SignedContent content = verifierFactory.getSignedContent(file);
+		if (!content.isSigned()) {
+			return SignedContentCache.Result.UNSIGNED;
+		}
+		SignerInfo[] signerInfo = content.getSignerInfos();
+		Date[] signingTimes = Arrays.stream(signerInfo).map(content::getSigningTime).toArray(Date[]::new);
+		return new SignedContentCache.Result(true, signerInfo, signingTimes);
+	}
+
+	/**
+	 * Returns a fingerprint of the trust anchors of all trust engines, or
+	 * <code>null</code> if they cannot be read.
+	 */
+	private static String getTrustAnchorsFingerprint() {
+		BundleContext context = EngineActivator.getContext();
+		if (context == null) {
+			return null;
+		}
+		ServiceTracker<TrustEngine, TrustEngine> trustEngineTracker = new ServiceTracker<>(context, TrustEngine.class,
+				null);
+		trustEngineTracker.open();
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+			TrustEngine[] trustEngines = trustEngineTracker.getServices(new TrustEngine[0]);
+			Arrays.sort(trustEngines, Comparator.comparing(TrustEngine::getName));
+			for (TrustEngine trustEngine : trustEngines) {
+				digest.update(trustEngine.getName().getBytes(StandardCharsets.UTF_8));
+				String[] aliases = trustEngine.getAliases();
+				Arrays.sort(aliases);
+				for (String alias : aliases) {
+					digest.update(alias.getBytes(StandardCharsets.UTF_8));
+					Certificate anchor = trustEngine.getTrustAnchor(alias);
+					if (anchor != null) {
+						digest.update(anchor.getEncoded());
+					}
+				}
+			}
+			return HexFormat.of().formatHex(digest.digest());
+		} catch (IOException | GeneralSecurityException e) {
+			return null;
+		} finally {
+			trustEngineTracker.close();
+		}
+	}
+
 	/**
 	 * This modifies the argument collection to remove the certificates that were
 	 * successfully saved. Often no certificates are saved because this tries to
@@ -431,6 +562,8 @@ public class CertificateChecker {
 					}
 					try {
 						trustEngine.addTrustAnchor(trustedCertificate, trustedCertificate.toString());
+						// the trust of cached signers is computed against the previous anchors
+						SignedContentCache.getCache(agent).clear();
 						// this should mean we added an anchor successfully; continue to next
 						// certificate
 						it.remove();
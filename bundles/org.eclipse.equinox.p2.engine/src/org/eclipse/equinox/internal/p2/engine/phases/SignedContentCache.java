@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.engine.phases;
+
+import java.io.File;
+import java.security.cert.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.equinox.p2.core.IProvisioningAgent;
+import org.eclipse.osgi.signedcontent.SignerInfo;
+
+/**
+ * A cache of the signer information of artifact files that have already been
+ * verified by a {@link CertificateChecker}. The cache is registered with the
+ * provisioning agent so that re-verifying the same pooled bundle in a
+ * subsequent provisioning operation does not need to re-read the jar.
+ * <p>
+ * An entry is only reused when the file still has the same length and
+ * modification time as when it was verified. The trust state of the cached
+ * signers is only valid for the trust anchors it was computed against, so the
+ * cache is discarded whenever a checker finds different trust anchors, see
+ * {@link #validate(String)}. The validity of the signer certificates is not
+ * cached, it depends on the current date for signatures without a timestamp.
+ * </p>
+ */
+public class SignedContentCache {
+
+	/**
+	 * Service name for the signed content cache service.
+	 */
+	public static final String SERVICE_NAME = SignedContentCache.class.getName();
+
+	/**
+	 * The outcome of verifying the signatures of a single file. The signer
+	 * information is extracted from the file's {@code SignedContent} so that the
+	 * content itself never escapes the thread that verified it.
+	 *
+	 * @param signed       whether the file is signed
+	 * @param signerInfos  the signers of the file
+	 * @param signingTimes the signing time of each signer, <code>null</code> for a
+	 *                     signature without a timestamp
+	 */
+	record Result(boolean signed, SignerInfo[] signerInfos, Date[] signingTimes) {
+		static final Result UNSIGNED = new Result(false, new SignerInfo[0], new Date[0]);
+
+		/**
+		 * Returns the signers whose signature is outside the validity range of their
+		 * certificate chain, checked at the signing time or, without a timestamp, at
+		 * the current date.
+		 */
+		List<SignerInfo> invalidSignerInfos() {
+			List<SignerInfo> invalid = new ArrayList<>();
+			for (int i = 0; i < signerInfos.length; i++) {
+				try {
+					for (Certificate certificate : signerInfos[i].getCertificateChain()) {
+						if (certificate instanceof X509Certificate x509Certificate) {
+							if (signingTimes[i] == null) {
+								x509Certificate.checkValidity();
+							} else {
+								x509Certificate.checkValidity(signingTimes[i]);
+							}
+						}
+					}
+				} catch (CertificateExpiredException | CertificateNotYetValidException e) {
+					invalid.add(signerInfos[i]);
+				}
+			}
+			return invalid;
+		}
+	}
+
+	private record Key(String path, long length, long lastModified) {
+		static Key of(File file) {
+			return new Key(file.getAbsolutePath(), file.length(), file.lastModified());
+		}
+	}
+
+	private final Map<Key, Result> results = new ConcurrentHashMap<>();
+	private final AtomicLong verifications = new AtomicLong();
+	// the trust anchors the trust state of the cached signers was computed against
+	private String trustAnchors;
+
+	/**
+	 * Returns the cache registered with the given agent, registering a new one if
+	 * there is none yet.
+	 */
+	public static SignedContentCache getCache(IProvisioningAgent agent) {
+		synchronized (agent) {
+			SignedContentCache cache = (SignedContentCache) agent.getService(SERVICE_NAME);
+			if (cache == null) {
+				cache = new SignedContentCache();
+				agent.registerService(SERVICE_NAME, cache);
+			}
+			return cache;
+		}
+	}
+
+	/**
+	 * Discards the cached results if they were computed against other trust
+	 * anchors than the given ones.
+	 *
+	 * @param currentTrustAnchors a fingerprint of the current trust anchors
+	 */
+	synchronized void validate(String currentTrustAnchors) {
+		if (!currentTrustAnchors.equals(trustAnchors)) {
+			results.clear();
+			trustAnchors = currentTrustAnchors;
+		}
+	}
+
+	Result get(File file) {
+		return results.get(Key.of(file));
+	}
+
+	void put(File file, Result result) {
+		verifications.incrementAndGet();
+		results.put(Key.of(file), result);
+	}
+
+	/**
+	 * Returns the number of files that have been verified and added to this cache.
+	 */
+	public long getVerificationCount() {
+		return verifications.get();
+	}
+
+	/**
+	 * Discards all cached results.
+	 */
+	public synchronized void clear() {
+		results.clear();
+		trustAnchors = null;
+	}
+}
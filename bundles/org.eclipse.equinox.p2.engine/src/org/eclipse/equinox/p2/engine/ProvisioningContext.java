@@ -18,6 +18,7 @@ package org.eclipse.equinox.p2.engine;
 
 import java.net.URI;
 import java.util.*;
+import java.util.concurrent.*;
 import org.eclipse.core.runtime.*;
 import org.eclipse.equinox.internal.p2.engine.DebugHelper;
 import org.eclipse.equinox.internal.p2.engine.DownloadManager;
@@ -52,6 +53,11 @@ public class ProvisioningContext {
 	private final Set<URI> failedArtifactRepositories = new HashSet<>();
 	private final Set<URI> failedMetadataRepositories = new HashSet<>();
 
+	/**
+	 * The maximum number of repositories loaded concurrently.
+	 */
+	private static final int MAX_LOADING_THREADS = Integer.getInteger("p2.provisioningContext.maxThreads", 4); //$NON-NLS-1$
+
 	class ArtifactRepositoryQueryable implements IQueryable<IArtifactRepository> {
 		List<IArtifactRepository> repositories;
 
@@ -170,89 +176,75 @@ public class ProvisioningContext {
 		URI[] repositories = artifactRepositories == null ? repoManager.getKnownRepositories(IRepositoryManager.REPOSITORIES_ALL) : artifactRepositories;
 		Arrays.sort(repositories, DownloadManager.LOCAL_FIRST_URI_COMPARATOR);
 
-		List<IArtifactRepository> repos = new ArrayList<>();
-		SubMonitor sub = SubMonitor.convert(monitor, repositories.length + 1);
-		for (URI location : repositories) {
-			getLoadedRepository(location, repoManager, repos, sub.split(1));
-			// Remove this URI from the list of extra references if it is there.
-			if (referencedArtifactRepositories != null && location != null) {
-				referencedArtifactRepositories.remove(location.toString());
+		List<URI> locations = new ArrayList<>(Arrays.asList(repositories));
+		if (referencedArtifactRepositories != null) {
+			// Remove the specified URIs from the list of extra references if they are there.
+			for (URI location : repositories) {
+				if (location != null) {
+					referencedArtifactRepositories.remove(location.toString());
+				}
 			}
-		}
-		// Are there any extra artifact repository references to consider?
-		if (referencedArtifactRepositories != null && referencedArtifactRepositories.size() > 0 && shouldFollowArtifactReferences()) {
-			SubMonitor innerSub = SubMonitor.convert(sub.split(1), referencedArtifactRepositories.size());
-			for (URI referencedURI : referencedArtifactRepositories.values()) {
-				getLoadedRepository(referencedURI, repoManager, repos, innerSub.split(1));
+			// Are there any extra artifact repository references to consider?
+			if (shouldFollowArtifactReferences()) {
+				locations.addAll(referencedArtifactRepositories.values());
 			}
 		}
-		return repos;
-	}
+		loadRepositories(repoManager, locations, loadedArtifactRepositories, failedArtifactRepositories, monitor);
 
-	private void getLoadedRepository(URI location, IArtifactRepositoryManager repoManager,
-			List<IArtifactRepository> repos, IProgressMonitor monitor) {
-		if (failedArtifactRepositories.contains(location)) {
-			return;
-		}
-		try {
+		List<IArtifactRepository> repos = new ArrayList<>();
+		for (URI location : locations) {
 			IArtifactRepository repository = loadedArtifactRepositories.get(location);
-			if (repository == null) {
-				repository = repoManager.loadRepository(location, monitor);
-				loadedArtifactRepositories.put(location, repository);
+			if (repository != null) {
+				repos.add(repository);
 			}
-			repos.add(repository);
-		} catch (ProvisionException e) {
-			//skip and remember unreadable repositories
-			failedArtifactRepositories.add(location);
 		}
+		return repos;
 	}
 
 	private Set<IMetadataRepository> getLoadedMetadataRepositories(IProgressMonitor monitor) {
 		IMetadataRepositoryManager repoManager = agent.getService(IMetadataRepositoryManager.class);
 		URI[] repositories = metadataRepositories == null ? repoManager.getKnownRepositories(IRepositoryManager.REPOSITORIES_ALL) : metadataRepositories;
+		boolean followMetadataRepoReferences = shouldFollowReferences();
 
 		Map<String, IMetadataRepository> repos = new HashMap<>();
-		SubMonitor sub = SubMonitor.convert(monitor, repositories.length);
+		SubMonitor sub = SubMonitor.convert(monitor);
 
 		// Clear out the list of remembered artifact repositories
 		referencedArtifactRepositories = new HashMap<>();
-		for (URI repositorie : repositories) {
-			loadMetadataRepository(repoManager, repositorie, repos, shouldFollowReferences(), sub.split(1));
+		// Follow the references breadth first, so that all repositories referenced
+		// from one level of the graph are loaded together.
+		List<URI> level = Arrays.asList(repositories);
+		while (!level.isEmpty()) {
+			sub.setWorkRemaining(level.size() * 2);
+			loadRepositories(repoManager, level, loadedMetadataRepositories, failedMetadataRepositories, sub.split(level.size()));
+			List<URI> nextLevel = new ArrayList<>();
+			for (URI location : level) {
+				IMetadataRepository repository = loadedMetadataRepositories.get(location);
+				// if we've already processed this repo, don't do it again.  This keeps us from getting
+				// caught up in circular references.
+				if (repository == null || repos.putIfAbsent(location.toString(), repository) != null) {
+					continue;
+				}
+				collectReferences(repository, repoManager, followMetadataRepoReferences, repos, nextLevel);
+			}
+			level = nextLevel;
 		}
 		return new HashSet<>(repos.values());
 	}
 
-	private void loadMetadataRepository(IMetadataRepositoryManager manager, URI location,
-			Map<String, IMetadataRepository> repos, boolean followMetadataRepoReferences, IProgressMonitor monitor) {
-		// if we've already processed this repo, don't do it again.  This keeps us from getting
-		// caught up in circular references.
-		if (repos.containsKey(location.toString()) || failedMetadataRepositories.contains(location)) {
-			return;
-		}
-
-		SubMonitor subMonitor = SubMonitor.convert(monitor, 2);
-		// First load the repository itself.
-		IMetadataRepository repository = loadedMetadataRepositories.get(location);
-		if (repository == null) {
-			try {
-				repository = manager.loadRepository(location, subMonitor.split(1));
-				loadedMetadataRepositories.put(location, repository);
-			} catch (ProvisionException e) {
-				failedMetadataRepositories.add(location);
-				return;
-			}
-		}
-		repos.put(location.toString(), repository);
+	private void collectReferences(IMetadataRepository repository, IMetadataRepositoryManager manager,
+			boolean followMetadataRepoReferences, Map<String, IMetadataRepository> repos, List<URI> metadataReferences) {
 		Collection<IRepositoryReference> references = repository.getReferences();
 		// We always load artifact repositories referenced by this repository.  We might load
 		// metadata repositories
 		if (!references.isEmpty()) {
 			IArtifactRepositoryManager artifactManager = agent.getService(IArtifactRepositoryManager.class);
-			SubMonitor repoMon = SubMonitor.convert(subMonitor.split(1), references.size());
 			for (IRepositoryReference ref : references) {
 				try {
 					if (ref.getType() == IRepository.TYPE_METADATA && followMetadataRepoReferences && isEnabled(manager, ref)) {
-						loadMetadataRepository(manager, ref.getLocation(), repos, followMetadataRepoReferences, repoMon.split(1));
+						if (!repos.containsKey(ref.getLocation().toString())) {
+							metadataReferences.add(ref.getLocation());
+						}
 					} else if (ref.getType() == IRepository.TYPE_ARTIFACT && isEnabled(artifactManager, ref)) {
 						// We want to remember all enabled artifact repository locations.
 						referencedArtifactRepositories.put(ref.getLocation().toString(), ref.getLocation());
@@ -263,7 +255,96 @@ public class ProvisioningContext {
 				}
 			}
 		}
+	}
 
+	/**
+	 * Loads the repositories at the given locations that have neither been loaded
+	 * nor failed to load before, using up to {@link #MAX_LOADING_THREADS} threads.
+	 * The repository manager still serializes the loads of the same location.
+	 *
+	 * @return the repositories loaded by this call, which have also been added to
+	 *         the loaded repositories
+	 */
+	private <T, R extends IRepository<T>> Map<URI, R> loadRepositories(IRepositoryManager<T> manager,
+			Collection<URI> locations, Map<URI, R> loadedRepositories, Set<URI> failedRepositories,
+			IProgressMonitor monitor) {
+		Set<URI> toLoad = new LinkedHashSet<>();
+		for (URI location : locations) {
+			if (!loadedRepositories.containsKey(location) && !failedRepositories.contains(location)) {
+				toLoad.add(location);
+			}
+		}
+		SubMonitor subMonitor = SubMonitor.convert(monitor, toLoad.size());
+		Map<URI, R> result = new LinkedHashMap<>();
+		int threads = Math.min(toLoad.size(), MAX_LOADING_THREADS);
+		if (threads <= 1) {
+			for (URI location : toLoad) {
+				R repository = loadRepository(manager, location, subMonitor.split(1));
+				loaded(location, repository, result, failedRepositories);
+			}
+		} else {
+			// the loading threads only observe cancellation, progress is reported by this thread
+			IProgressMonitor cancellation = new NullProgressMonitor();
+			ExecutorService executor = Executors.newFixedThreadPool(threads);
+			try {
+				Map<URI, Future<R>> loads = new LinkedHashMap<>();
+				for (URI location : toLoad) {
+					loads.put(location, executor.submit(() -> loadRepository(manager, location, cancellation)));
+				}
+				for (Map.Entry<URI, Future<R>> load : loads.entrySet()) {
+					loaded(load.getKey(), await(load.getValue(), subMonitor), result, failedRepositories);
+					subMonitor.worked(1);
+				}
+			} finally {
+				cancellation.setCanceled(true);
+				executor.shutdownNow();
+			}
+		}
+		loadedRepositories.putAll(result);
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T, R extends IRepository<T>> R loadRepository(IRepositoryManager<T> manager, URI location,
+			IProgressMonitor monitor) {
+		try {
+			return (R) manager.loadRepository(location, monitor);
+		} catch (ProvisionException e) {
+			return null;
+		}
+	}
+
+	private static <R> void loaded(URI location, R repository, Map<URI, R> repos, Set<URI> failedRepositories) {
+		if (repository != null) {
+			repos.put(location, repository);
+		} else {
+			//skip and remember unreadable repositories
+			failedRepositories.add(location);
+		}
+	}
+
+	private static <R> R await(Future<R> future, IProgressMonitor monitor) {
+		while (true) {
+			if (monitor.isCanceled()) {
+				throw new OperationCanceledException();
+			}
+			try {
+				return future.get(100, TimeUnit.MILLISECONDS);
+			} catch (TimeoutException e) {
+				// check for cancellation again
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new OperationCanceledException();
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException runtimeException) {
+					throw runtimeException;
+				}
+				if (e.getCause() instanceof Error error) {
+					throw error;
+				}
+				throw new IllegalStateException(e.getCause());
+			}
+		}
 	}
 
 	// If the manager knows about the repo, consider its enablement state in the manager.
@@ -364,43 +445,23 @@ public class ProvisioningContext {
 
 	private <T, R extends IRepository<T>> Map<URI, R> getAllLoadedRepositories(IRepositoryManager<T> manager,
 			Map<URI, R> loadedRepositories, Set<URI> failedRepositories, IProgressMonitor monitor) {
-		SubMonitor subMonitor = SubMonitor.convert(monitor, loadedRepositories.size());
+		SubMonitor subMonitor = SubMonitor.convert(monitor);
 		var allLoadedRepositories = new HashMap<>(loadedRepositories);
-		for (var repository : loadedRepositories.values()) {
-			loadComposites(manager, repository, allLoadedRepositories, failedRepositories, subMonitor.split(1));
-		}
-		return allLoadedRepositories;
-	}
-
-	private <T, R extends IRepository<T>> void loadComposites(IRepositoryManager<T> manager, R repository,
-			Map<URI, R> repos, Set<URI> failedRepositories, IProgressMonitor monitor) {
-		if (repository instanceof ICompositeRepository<?> composite) {
-			List<URI> children = composite.getChildren();
-			SubMonitor subMonitor = SubMonitor.convert(monitor, children.size());
-			for (var location : children) {
-				loadRepository(manager, location, repos, failedRepositories, subMonitor.split(1));
-			}
-		}
-	}
-
-	private <T, R extends IRepository<T>> void loadRepository(IRepositoryManager<T> manager, URI location,
-			Map<URI, R> repos, Set<URI> failedRepositories,
-			IProgressMonitor monitor) {
-		SubMonitor subMonitor = SubMonitor.convert(monitor, 2);
-
-		if (failedMetadataRepositories.contains(location)) {
-			return;
-		}
-		if (!repos.containsKey(location)) { // A previous attempt may have failed
-			try {
-				@SuppressWarnings("unchecked")
-				R repository = (R) manager.loadRepository(location, subMonitor.split(1));
-				repos.put(location, repository);
-				loadComposites(manager, repository, repos, failedRepositories, subMonitor.split(1));
-			} catch (ProvisionException e) {
-				failedMetadataRepositories.add(location);
+		// Load the children of the composites breadth first, one level of the
+		// composite hierarchy at a time.
+		Collection<R> level = loadedRepositories.values();
+		while (!level.isEmpty()) {
+			List<URI> children = new ArrayList<>();
+			for (var repository : level) {
+				if (repository instanceof ICompositeRepository<?> composite) {
+					children.addAll(composite.getChildren());
+				}
 			}
+			subMonitor.setWorkRemaining(children.size() * 2);
+			level = loadRepositories(manager, children, allLoadedRepositories, failedRepositories,
+					subMonitor.split(children.size())).values();
 		}
+		return allLoadedRepositories;
 	}
 
 	private static final Comparator<IArtifactKey> ARTIFACT_KEY_COMPARATOR = Comparator //
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2008, 2017 IBM Corporation and others.
+ *  Copyright (c) 2008, 2026 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -18,6 +18,7 @@ import java.io.*;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import org.eclipse.core.runtime.*;
 import org.eclipse.equinox.internal.p2.core.helpers.LogHelper;
 import org.eclipse.equinox.internal.p2.publisher.eclipse.FeatureParser;
@@ -40,6 +41,8 @@ public class SiteListener extends DirectoryChangeListener {
 	public static final Object UNINITIALIZED = "uninitialized"; //$NON-NLS-1$
 	public static final Object INITIALIZING = "initializing"; //$NON-NLS-1$
 	public static final Object INITIALIZED = "initialized"; //$NON-NLS-1$
+	// one lock per extension location so that different locations can be synchronized concurrently
+	private static final Map<File, Object> SYNCHRONIZE_LOCKS = new ConcurrentHashMap<>();
 
 	private final String policy;
 	private final String[] list;
@@ -80,41 +83,43 @@ public class SiteListener extends DirectoryChangeListener {
 	 * so simply loading them here will work and that all their properties etc have been configured
 	 * previously.
 	 */
-	public static synchronized void synchronizeRepositories(ExtensionLocationMetadataRepository metadataRepository, ExtensionLocationArtifactRepository artifactRepository, File base) {
-		try {
-			if (metadataRepository == null) {
-				artifactRepository.reload();
-				ExtensionLocationMetadataRepositoryFactory factory = new ExtensionLocationMetadataRepositoryFactory();
-				factory.setAgent(artifactRepository.getProvisioningAgent());
-				metadataRepository = (ExtensionLocationMetadataRepository) factory.load(artifactRepository.getLocation(), 0, null);
-			} else if (artifactRepository == null) {
-				metadataRepository.reload();
-				ExtensionLocationArtifactRepositoryFactory factory = new ExtensionLocationArtifactRepositoryFactory();
-				factory.setAgent(metadataRepository.getProvisioningAgent());
-				artifactRepository = (ExtensionLocationArtifactRepository) factory.load(metadataRepository.getLocation(), 0, null);
+	public static void synchronizeRepositories(ExtensionLocationMetadataRepository metadataRepository, ExtensionLocationArtifactRepository artifactRepository, File base) {
+		synchronized (SYNCHRONIZE_LOCKS.computeIfAbsent(base.getAbsoluteFile(), key -> new Object())) {
+			try {
+				if (metadataRepository == null) {
+					artifactRepository.reload();
+					ExtensionLocationMetadataRepositoryFactory factory = new ExtensionLocationMetadataRepositoryFactory();
+					factory.setAgent(artifactRepository.getProvisioningAgent());
+					metadataRepository = (ExtensionLocationMetadataRepository) factory.load(artifactRepository.getLocation(), 0, null);
+				} else if (artifactRepository == null) {
+					metadataRepository.reload();
+					ExtensionLocationArtifactRepositoryFactory factory = new ExtensionLocationArtifactRepositoryFactory();
+					factory.setAgent(metadataRepository.getProvisioningAgent());
+					artifactRepository = (ExtensionLocationArtifactRepository) factory.load(metadataRepository.getLocation(), 0, null);
+				}
+			} catch (ProvisionException e) {
+				// TODO need proper error handling here.  What should we do if there is a failure
+				// when loading "the other" repo?
+				e.printStackTrace();
+				return;
 			}
-		} catch (ProvisionException e) {
-			// TODO need proper error handling here.  What should we do if there is a failure
-			// when loading "the other" repo?
-			e.printStackTrace();
-			return;
-		}
 
-		artifactRepository.state(INITIALIZING);
-		metadataRepository.state(INITIALIZING);
-		File plugins = new File(base, PLUGINS);
-		File features = new File(base, FEATURES);
-		DirectoryWatcher watcher = new DirectoryWatcher(new File[] {plugins, features});
-		//  here we have to sync with the inner repos as the extension location repos are 
-		// read-only wrappers.
-		DirectoryChangeListener listener = new RepositoryListener(metadataRepository.metadataRepository, artifactRepository.artifactRepository);
-		if (metadataRepository.getProperties().get(SiteListener.SITE_POLICY) != null) {
-			listener = new SiteListener(metadataRepository.getProperties(), metadataRepository.getLocation().toString(), new BundlePoolFilteredListener(listener));
+			artifactRepository.state(INITIALIZING);
+			metadataRepository.state(INITIALIZING);
+			File plugins = new File(base, PLUGINS);
+			File features = new File(base, FEATURES);
+			DirectoryWatcher watcher = new DirectoryWatcher(new File[] {plugins, features});
+			//  here we have to sync with the inner repos as the extension location repos are 
+			// read-only wrappers.
+			DirectoryChangeListener listener = new RepositoryListener(metadataRepository.metadataRepository, artifactRepository.artifactRepository);
+			if (metadataRepository.getProperties().get(SiteListener.SITE_POLICY) != null) {
+				listener = new SiteListener(metadataRepository.getProperties(), metadataRepository.getLocation().toString(), new BundlePoolFilteredListener(listener));
+			}
+			watcher.addListener(listener);
+			watcher.poll();
+			artifactRepository.state(INITIALIZED);
+			metadataRepository.state(INITIALIZED);
 		}
-		watcher.addListener(listener);
-		watcher.poll();
-		artifactRepository.state(INITIALIZED);
-		metadataRepository.state(INITIALIZED);
 	}
 
 	/*
@@ -0,0 +1,298 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.garbagecollector;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import org.eclipse.equinox.internal.p2.metadata.ArtifactKey;
+import org.eclipse.equinox.p2.metadata.IArtifactKey;
+
+/**
+ * Counts, for every artifact repository that is garbage collected, how many
+ * registered profiles reference each artifact key. The index is updated one
+ * profile at a time with the keys contributed by the mark set providers, so
+ * that garbage collection does not have to compute the keys of the profiles
+ * that did not change.
+ * <p>
+ * Keys that have never been referenced by any indexed profile are not known to
+ * the index, the garbage collection finds them in the repository by their
+ * missing reference count. An index only becomes {@link #isComplete() complete}
+ * once it has been built along with a full garbage collection, when the keys
+ * of all registered profiles are known.
+ * </p>
+ */
+public class ArtifactReferenceIndex {
+	private static final String FORMAT_VERSION = "1"; //$NON-NLS-1$
+	private static final String HEADER = "#p2 artifact reference index "; //$NON-NLS-1$
+	private static final String COMPLETE = "complete"; //$NON-NLS-1$
+	private static final String PROFILE = "P"; //$NON-NLS-1$
+	private static final String REPOSITORY = "R"; //$NON-NLS-1$
+	private static final String CANDIDATES = "C"; //$NON-NLS-1$
+	private static final String KEY = "K"; //$NON-NLS-1$
+	private static final String SEPARATOR = "\t"; //$NON-NLS-1$
+
+	/**
+	 * The keys a single profile contributed to the index, as of the given profile
+	 * timestamp.
+	 */
+	private record Contribution(long timestamp, Map<URI, Set<IArtifactKey>> keys) {
+		//
+	}
+
+	private final Map<String, Contribution> contributions = new HashMap<>();
+	private final Map<URI, Map<IArtifactKey, Integer>> referenceCounts = new HashMap<>();
+	private final Map<URI, Set<IArtifactKey>> candidates = new HashMap<>();
+	private boolean complete;
+	private boolean dirty;
+
+	/**
+	 * Returns whether the index has been built together with a full sweep and may
+	 * be used to collect garbage incrementally.
+	 */
+	public synchronized boolean isComplete() {
+		return complete;
+	}
+
+	public synchronized void setComplete(boolean complete) {
+		if (this.complete != complete) {
+			this.complete = complete;
+			dirty = true;
+		}
+	}
+
+	/**
+	 * Returns whether the keys of the given profile have been indexed for the
+	 * given timestamp of the profile.
+	 */
+	public synchronized boolean isCurrent(String profileId, long timestamp) {
+		Contribution contribution = contributions.get(profileId);
+		return contribution != null && contribution.timestamp() == timestamp;
+	}
+
+	public synchronized Set<String> getProfileIds() {
+		return new HashSet<>(contributions.keySet());
+	}
+
+	/**
+	 * Replaces the keys referenced by the given profile. Keys the profile no longer
+	 * references and that are not referenced by any other profile become
+	 * candidates for garbage collection.
+	 *
+	 * @param profileId the id of the profile
+	 * @param timestamp the timestamp of the profile the keys were computed from
+	 * @param keys      the referenced keys, by location of the repository they are
+	 *                  stored in
+	 */
+	public synchronized void update(String profileId, long timestamp, Map<URI, Set<IArtifactKey>> keys) {
+		Map<URI, Set<IArtifactKey>> copy = new HashMap<>();
+		keys.forEach((repository, repositoryKeys) -> copy.put(repository, new HashSet<>(repositoryKeys)));
+		Contribution previous = contributions.put(profileId, new Contribution(timestamp, copy));
+		copy.forEach((repository, repositoryKeys) -> {
+			Set<IArtifactKey> previousKeys = previous == null ? Set.of() : previous.keys().getOrDefault(repository, Set.of());
+			for (IArtifactKey key : repositoryKeys) {
+				if (!previousKeys.contains(key)) {
+					increment(repository, key);
+				}
+			}
+		});
+		if (previous != null) {
+			previous.keys().forEach((repository, previousKeys) -> {
+				Set<IArtifactKey> repositoryKeys = copy.getOrDefault(repository, Set.of());
+				for (IArtifactKey key : previousKeys) {
+					if (!repositoryKeys.contains(key)) {
+						decrement(repository, key);
+					}
+				}
+			});
+		}
+		dirty = true;
+	}
+
+	/**
+	 * Removes all keys referenced by the given profile from the index.
+	 */
+	public synchronized void remove(String profileId) {
+		Contribution previous = contributions.remove(profileId);
+		if (previous == null) {
+			return;
+		}
+		previous.keys().forEach((repository, previousKeys) -> {
+			for (IArtifactKey key : previousKeys) {
+				decrement(repository, key);
+			}
+		});
+		dirty = true;
+	}
+
+	private void increment(URI repository, IArtifactKey key) {
+		referenceCounts.computeIfAbsent(repository, r -> new HashMap<>()).merge(key, 1, Integer::sum);
+	}
+
+	private void decrement(URI repository, IArtifactKey key) {
+		Map<IArtifactKey, Integer> counts = referenceCounts.get(repository);
+		if (counts == null) {
+			return;
+		}
+		Integer count = counts.get(key);
+		if (count == null) {
+			return;
+		}
+		if (count > 1) {
+			counts.put(key, count - 1);
+			return;
+		}
+		counts.remove(key);
+		candidates.computeIfAbsent(repository, r -> new HashSet<>()).add(key);
+	}
+
+	/**
+	 * Returns the number of indexed profiles referencing the given key.
+	 */
+	public synchronized int getReferenceCount(URI repository, IArtifactKey key) {
+		Map<IArtifactKey, Integer> counts = referenceCounts.get(repository);
+		return counts == null ? 0 : counts.getOrDefault(key, 0);
+	}
+
+	/**
+	 * Returns the keys of the given repository that are no longer referenced by
+	 * any indexed profile and forgets about them.
+	 *
+	 * @param repository the location of the repository
+	 * @return the keys that can be removed from the repository
+	 */
+	public synchronized Set<IArtifactKey> takeCandidates(URI repository) {
+		Set<IArtifactKey> result = candidates.remove(repository);
+		if (result == null) {
+			return Set.of();
+		}
+		dirty = true;
+		result.removeIf(key -> getReferenceCount(repository, key) > 0);
+		return result;
+	}
+
+	/**
+	 * Discards all candidates. This is done after a full sweep, which collects all
+	 * unreferenced keys anyway.
+	 */
+	public synchronized void clearCandidates() {
+		if (!candidates.isEmpty()) {
+			candidates.clear();
+			dirty = true;
+		}
+	}
+
+	/**
+	 * Returns whether the index has changed since it has been read or written.
+	 */
+	public synchronized boolean isDirty() {
+		return dirty;
+	}
+
+	public synchronized void write(OutputStream output) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+		writer.write(HEADER + FORMAT_VERSION + '\n');
+		if (complete) {
+			writer.write(COMPLETE + '\n');
+		}
+		for (Map.Entry<String, Contribution> entry : contributions.entrySet()) {
+			writer.write(PROFILE + SEPARATOR + entry.getValue().timestamp() + SEPARATOR + entry.getKey() + '\n');
+			for (Map.Entry<URI, Set<IArtifactKey>> keys : entry.getValue().keys().entrySet()) {
+				writer.write(REPOSITORY + SEPARATOR + keys.getKey() + '\n');
+				writeKeys(writer, keys.getValue());
+			}
+		}
+		for (Map.Entry<URI, Set<IArtifactKey>> entry : candidates.entrySet()) {
+			writer.write(CANDIDATES + SEPARATOR + entry.getKey() + '\n');
+			writeKeys(writer, entry.getValue());
+		}
+		writer.flush();
+		dirty = false;
+	}
+
+	private static void writeKeys(Writer writer, Set<IArtifactKey> keys) throws IOException {
+		for (IArtifactKey key : keys) {
+			writer.write(KEY + SEPARATOR + key.toExternalForm() + '\n');
+		}
+	}
+
+	/**
+	 * Reads an index previously written with {@link #write(OutputStream)}.
+	 *
+	 * @throws IOException if the input cannot be read or is not a valid index
+	 */
+	public static ArtifactReferenceIndex read(InputStream input) throws IOException {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+		if (!(HEADER + FORMAT_VERSION).equals(reader.readLine())) {
+			throw new IOException("Unsupported artifact reference index format"); //$NON-NLS-1$
+		}
+		ArtifactReferenceIndex index = new ArtifactReferenceIndex();
+		boolean complete = false;
+		String profileId = null;
+		long timestamp = 0;
+		Map<URI, Set<IArtifactKey>> profileKeys = null;
+		Set<IArtifactKey> keys = null;
+		try {
+			for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+				if (line.equals(COMPLETE)) {
+					complete = true;
+					continue;
+				}
+				String[] parts = line.split(SEPARATOR, 3);
+				switch (parts[0]) {
+					case PROFILE :
+						if (profileId != null) {
+							index.update(profileId, timestamp, profileKeys);
+						}
+						timestamp = Long.parseLong(parts[1]);
+						profileId = parts[2];
+						profileKeys = new HashMap<>();
+						keys = null;
+						break;
+					case REPOSITORY :
+						if (profileKeys == null) {
+							throw new IOException("Repository outside of a profile: " + line); //$NON-NLS-1$
+						}
+						keys = profileKeys.computeIfAbsent(URI.create(parts[1]), r -> new HashSet<>());
+						break;
+					case CANDIDATES :
+						if (profileId != null) {
+							index.update(profileId, timestamp, profileKeys);
+							profileId = null;
+							profileKeys = null;
+						}
+						keys = index.candidates.computeIfAbsent(URI.create(parts[1]), r -> new HashSet<>());
+						break;
+					case KEY :
+						if (keys == null) {
+							throw new IOException("Key outside of a repository: " + line); //$NON-NLS-1$
+						}
+						keys.add(ArtifactKey.parse(parts[1]));
+						break;
+					default :
+						throw new IOException("Unexpected entry: " + line); //$NON-NLS-1$
+				}
+			}
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+			throw new IOException(e);
+		}
+		if (profileId != null) {
+			index.update(profileId, timestamp, profileKeys);
+		}
+		index.complete = complete;
+		index.dirty = false;
+		return index;
+	}
+}
@@ -38,10 +38,21 @@ public class CoreGarbageCollector {
 		Set<IArtifactKey> set = new HashSet<>(Arrays.asList(markSet));
 		//this query will match all artifact keys that are not in the given set
 		IQuery<IArtifactKey> query = QueryUtil.createQuery(IArtifactKey.class, "unique($0)", set); //$NON-NLS-1$
+		remove(aRepository.query(query, null).toSet(), aRepository);
+	}
+
+	/**
+	 * Removes the artifacts of all the given keys from aRepository in a single batch.
+	 */
+	public synchronized void remove(Collection<IArtifactKey> garbage, final IArtifactRepository aRepository) {
+		if (garbage.isEmpty()) {
+			return;
+		}
+		IArtifactKey[] keys = garbage.toArray(new IArtifactKey[garbage.size()]);
 		aRepository.executeBatch(monitor -> {
-			for (IArtifactKey key : aRepository.query(query, null)) {
-				aRepository.removeDescriptor(key, new NullProgressMonitor());
-				if (DEBUG) {
+			aRepository.removeDescriptors(keys, new NullProgressMonitor());
+			if (DEBUG) {
+				for (IArtifactKey key : keys) {
 					Tracing.debug("Key removed:" + key); //$NON-NLS-1$
 				}
 			}
@@ -13,6 +13,8 @@
  *******************************************************************************/
 package org.eclipse.equinox.internal.p2.garbagecollector;
 
+import java.io.*;
+import java.net.URI;
 import java.util.*;
 import org.eclipse.core.runtime.*;
 import org.eclipse.core.runtime.preferences.*;
@@ -20,12 +22,14 @@ import org.eclipse.equinox.internal.p2.core.helpers.LogHelper;
 import org.eclipse.equinox.internal.p2.engine.*;
 import org.eclipse.equinox.internal.provisional.p2.core.eventbus.IProvisioningEventBus;
 import org.eclipse.equinox.internal.provisional.p2.core.eventbus.SynchronousProvisioningListener;
+import org.eclipse.equinox.p2.core.IAgentLocation;
 import org.eclipse.equinox.p2.core.IProvisioningAgent;
 import org.eclipse.equinox.p2.core.spi.IAgentService;
-import org.eclipse.equinox.p2.engine.IProfile;
-import org.eclipse.equinox.p2.engine.IProfileRegistry;
+import org.eclipse.equinox.p2.engine.*;
 import org.eclipse.equinox.p2.metadata.IArtifactKey;
+import org.eclipse.equinox.p2.repository.artifact.ArtifactKeyQuery;
 import org.eclipse.equinox.p2.repository.artifact.IArtifactRepository;
+import org.eclipse.osgi.util.NLS;
 import org.osgi.service.prefs.Preferences;
 
 /**
@@ -38,6 +42,10 @@ import org.osgi.service.prefs.Preferences;
  * Then, the MarkSets are obtained for every other registered Profile in a similar fashion.  Each MarkSet is
  * checked to see if its artifact repository is already a key in markSet.  If so, that MarkSet's artifact keys
  * are added to the list that is mapped to by the artifact repository.
+ *
+ * The keys of every registered profile are also recorded in an {@link ArtifactReferenceIndex}, which is kept up to
+ * date as profiles are committed or removed.  Once the index is complete, subsequent collections only compute the
+ * MarkSets of the profiles that changed, and remove the artifacts that no indexed profile references.
  */
 public class GarbageCollector implements SynchronousProvisioningListener, IAgentService {
 	/**
@@ -78,6 +86,9 @@ public class GarbageCollector implements SynchronousProvisioningListener, IAgent
 	private static final String ATTRIBUTE_CLASS = "class"; //$NON-NLS-1$
 
 	private static final String PT_MARKSET = GarbageCollectorHelper.ID + ".marksetproviders"; //$NON-NLS-1$
+
+	private static final String INDEX_FILE = "referenceIndex.txt"; //$NON-NLS-1$
+
 	final IProvisioningAgent agent;
 
 	//The GC is triggered when an uninstall event occurred during a "transaction" and the transaction is committed.
@@ -88,6 +99,12 @@ public class GarbageCollector implements SynchronousProvisioningListener, IAgent
 	 */
 	private Map<IArtifactRepository, Collection<IArtifactKey>> markSet;
 
+	/**
+	 * Counts the references of all registered profiles to the artifacts of the
+	 * collected repositories, lazily read from the agent's data area.
+	 */
+	private ArtifactReferenceIndex index;
+
 	public GarbageCollector(IProvisioningAgent agent) {
 		this.agent = agent;
 	}
@@ -98,7 +115,7 @@ public class GarbageCollector implements SynchronousProvisioningListener, IAgent
 		}
 	}
 
-	private void contributeMarkSets(IConfigurationElement runAttribute, IProfile profile, boolean addRepositories) {
+	private void contributeMarkSets(IConfigurationElement runAttribute, IProfile profile, Map<IArtifactRepository, Set<IArtifactKey>> profileMarkSet) {
 		ParameterizedSafeRunnable providerExecutor = new ParameterizedSafeRunnable(runAttribute, profile);
 		SafeRunner.run(providerExecutor);
 		MarkSet[] aProfileMarkSets = providerExecutor.getResult();
@@ -110,17 +127,25 @@ public class GarbageCollector implements SynchronousProvisioningListener, IAgent
 			if (aProfileMarkSet == null) {
 				continue;
 			}
-			Collection<IArtifactKey> keys = markSet.get(aProfileMarkSet.getRepo());
-			if (keys == null) {
-				if (addRepositories) {
-					keys = new HashSet<>();
-					markSet.put(aProfileMarkSet.getRepo(), keys);
-					addKeys(keys, aProfileMarkSet.getKeys());
-				}
-			} else {
-				addKeys(keys, aProfileMarkSet.getKeys());
+			addKeys(profileMarkSet.computeIfAbsent(aProfileMarkSet.getRepo(), repo -> new HashSet<>()), aProfileMarkSet.getKeys());
+		}
+	}
+
+	/**
+	 * Returns the keys referenced by the given profile, by the repository they are
+	 * stored in, as reported by all registered mark set providers.
+	 */
+	private Map<IArtifactRepository, Set<IArtifactKey>> computeMarkSet(IProfile profile) {
+		Map<IArtifactRepository, Set<IArtifactKey>> profileMarkSet = new HashMap<>();
+		IExtensionRegistry registry = RegistryFactory.getRegistry();
+		IConfigurationElement[] configElts = registry.getConfigurationElementsFor(PT_MARKSET);
+		for (IConfigurationElement configElt : configElts) {
+			if (configElt == null || !(configElt.getName().equals("run"))) { //$NON-NLS-1$
+				continue;
 			}
+			contributeMarkSets(configElt, profile, profileMarkSet);
 		}
+		return profileMarkSet;
 	}
 
 	protected boolean getBooleanPreference(String key, boolean defaultValue) {
@@ -150,30 +175,211 @@ public class GarbageCollector implements SynchronousProvisioningListener, IAgent
 				uninstallEventProfileId = event.getProfile().getProfileId();
 			}
 		} else if (o instanceof CommitOperationEvent event) {
-			if (uninstallEventProfileId != null) {
-				if (uninstallEventProfileId.equals(event.getProfile().getProfileId()) && getBooleanPreference(GarbageCollectorHelper.GC_ENABLED, true)) {
-					runGC(event.getProfile());
-				}
-				uninstallEventProfileId = null;
+			if (uninstallEventProfileId != null && uninstallEventProfileId.equals(event.getProfile().getProfileId()) && getBooleanPreference(GarbageCollectorHelper.GC_ENABLED, true)) {
+				runGC(event.getProfile());
+			} else {
+				updateIndex(event.getProfile().getProfileId());
 			}
+			uninstallEventProfileId = null;
 		} else if (o instanceof RollbackOperationEvent) {
 			if (uninstallEventProfileId != null && uninstallEventProfileId.equals(((RollbackOperationEvent) o).getProfile().getProfileId())) {
 				uninstallEventProfileId = null;
 			}
+		} else if (o instanceof ProfileEvent event && event.getReason() == IProfileEvent.REMOVED) {
+			ArtifactReferenceIndex referenceIndex = getIndex();
+			if (referenceIndex.isComplete()) {
+				referenceIndex.remove(event.getProfileId());
+				saveIndex();
+			}
 		}
 	}
 
-	public void runGC(IProfile profile) {
-		markSet = new HashMap<>();
-		if (!traverseMainProfile(profile)) {
+	/**
+	 * Keeps the reference index up to date with the registered state of the given
+	 * profile, so that the next garbage collection can be done incrementally.
+	 */
+	private void updateIndex(String profileId) {
+		ArtifactReferenceIndex referenceIndex = getIndex();
+		// an incomplete index is rebuilt by the next full sweep anyway
+		if (!referenceIndex.isComplete()) {
 			return;
 		}
+		IProfileRegistry profileRegistry = agent.getService(IProfileRegistry.class);
+		IProfile profile = profileRegistry == null ? null : profileRegistry.getProfile(profileId);
+		if (profile == null || referenceIndex.isCurrent(profileId, profile.getTimestamp())) {
+			return;
+		}
+		referenceIndex.update(profileId, profile.getTimestamp(), byLocation(computeMarkSet(profile)));
+		saveIndex();
+	}
+
+	/**
+	 * Removes the artifacts that are no longer used by any registered profile from
+	 * the repositories used by the given profile.
+	 * <p>
+	 * The references to the artifacts are looked up in the
+	 * {@link ArtifactReferenceIndex} of the agent, which only has to be refreshed
+	 * for the profiles that changed since the last garbage collection. The
+	 * MarkSets of all profiles are computed again when there is no complete index
+	 * yet, or when the {@link GarbageCollectorHelper#GC_FULL_SWEEP} preference is
+	 * set.
+	 * </p>
+	 */
+	public synchronized void runGC(IProfile profile) {
+		ArtifactReferenceIndex referenceIndex = getIndex();
+		if (!referenceIndex.isComplete() || getBooleanPreference(GarbageCollectorHelper.GC_FULL_SWEEP, false)) {
+			runFullGC(profile);
+		} else {
+			runIncrementalGC(profile);
+		}
+		saveIndex();
+	}
+
+	/**
+	 * Marks the keys used by all registered profiles and sweeps every other artifact
+	 * from the repositories used by the given profile. This also rebuilds the
+	 * reference index.
+	 */
+	private void runFullGC(IProfile profile) {
+		ArtifactReferenceIndex referenceIndex = getIndex();
+		Map<IArtifactRepository, Set<IArtifactKey>> mainMarkSet = computeMarkSet(profile);
+		markSet = new HashMap<>();
+		mainMarkSet.forEach((repo, keys) -> markSet.put(repo, new HashSet<>(keys)));
 
 		//Complete each MarkSet with the MarkSets provided by all of the other registered Profiles
-		traverseRegisteredProfiles();
+		Set<String> registeredIds = new HashSet<>();
+		for (IProfile registeredProfile : getRegisteredProfiles()) {
+			Map<IArtifactRepository, Set<IArtifactKey>> registeredMarkSet = computeMarkSet(registeredProfile);
+			registeredMarkSet.forEach((repo, keys) -> {
+				Collection<IArtifactKey> marked = markSet.get(repo);
+				if (marked != null) {
+					marked.addAll(keys);
+				}
+			});
+			if (registeredProfile.getProfileId().equals(profile.getProfileId())) {
+				registeredMarkSet.forEach((repo, keys) -> mainMarkSet.computeIfAbsent(repo, r -> new HashSet<>()).addAll(keys));
+			} else {
+				registeredIds.add(registeredProfile.getProfileId());
+				referenceIndex.update(registeredProfile.getProfileId(), registeredProfile.getTimestamp(), byLocation(registeredMarkSet));
+			}
+		}
+		referenceIndex.update(profile.getProfileId(), profile.getTimestamp(), byLocation(mainMarkSet));
+		registeredIds.add(profile.getProfileId());
+		removeUnregisteredProfiles(registeredIds);
 
 		//Run the GC on each MarkSet
 		invokeCoreGC();
+
+		referenceIndex.clearCandidates();
+		referenceIndex.setComplete(true);
+	}
+
+	/**
+	 * Refreshes the reference index with the profiles that changed since it was
+	 * last updated and removes the artifacts that are not referenced by any
+	 * profile from the repositories used by the given profile.
+	 */
+	private void runIncrementalGC(IProfile profile) {
+		ArtifactReferenceIndex referenceIndex = getIndex();
+		// the mark set of the main profile may depend on more than its timestamp, e.g. the running bundles
+		Map<IArtifactRepository, Set<IArtifactKey>> mainMarkSet = computeMarkSet(profile);
+		Set<String> registeredIds = new HashSet<>();
+		for (IProfile registeredProfile : getRegisteredProfiles()) {
+			String id = registeredProfile.getProfileId();
+			long timestamp = registeredProfile.getTimestamp();
+			registeredIds.add(id);
+			if (id.equals(profile.getProfileId())) {
+				if (timestamp != profile.getTimestamp()) {
+					computeMarkSet(registeredProfile).forEach((repo, keys) -> mainMarkSet.computeIfAbsent(repo, r -> new HashSet<>()).addAll(keys));
+				}
+			} else if (!referenceIndex.isCurrent(id, timestamp)) {
+				referenceIndex.update(id, timestamp, byLocation(computeMarkSet(registeredProfile)));
+			}
+		}
+		referenceIndex.update(profile.getProfileId(), profile.getTimestamp(), byLocation(mainMarkSet));
+		registeredIds.add(profile.getProfileId());
+		removeUnregisteredProfiles(registeredIds);
+
+		for (IArtifactRepository repository : mainMarkSet.keySet()) {
+			URI location = repository.getLocation();
+			// the keys whose last reference was dropped are swept below
+			referenceIndex.takeCandidates(location);
+			// as are the keys that no profile ever referenced, e.g. the artifacts of a
+			// rolled back install or of files added to the repository directly
+			Set<IArtifactKey> garbage = new HashSet<>();
+			for (IArtifactKey key : repository.query(ArtifactKeyQuery.ALL_KEYS, null)) {
+				if (referenceIndex.getReferenceCount(location, key) == 0) {
+					garbage.add(key);
+				}
+			}
+			new CoreGarbageCollector().remove(garbage, repository);
+		}
+	}
+
+	private void removeUnregisteredProfiles(Set<String> registeredIds) {
+		ArtifactReferenceIndex referenceIndex = getIndex();
+		for (String id : referenceIndex.getProfileIds()) {
+			if (!registeredIds.contains(id)) {
+				referenceIndex.remove(id);
+			}
+		}
+	}
+
+	private IProfile[] getRegisteredProfiles() {
+		IProfileRegistry profileRegistry = agent.getService(IProfileRegistry.class);
+		return profileRegistry == null ? new IProfile[0] : profileRegistry.getProfiles();
+	}
+
+	private static Map<URI, Set<IArtifactKey>> byLocation(Map<IArtifactRepository, Set<IArtifactKey>> profileMarkSet) {
+		Map<URI, Set<IArtifactKey>> result = new HashMap<>();
+		profileMarkSet.forEach((repo, keys) -> result.computeIfAbsent(repo.getLocation(), location -> new HashSet<>()).addAll(keys));
+		return result;
+	}
+
+	/**
+	 * Returns the reference index of this agent, reading it from the agent's data
+	 * area the first time.
+	 */
+	synchronized ArtifactReferenceIndex getIndex() {
+		if (index != null) {
+			return index;
+		}
+		File file = getIndexFile();
+		if (file != null && file.isFile()) {
+			try (InputStream input = new BufferedInputStream(new FileInputStream(file))) {
+				index = ArtifactReferenceIndex.read(input);
+			} catch (IOException e) {
+				// ignore, a full sweep will rebuild the index
+			}
+		}
+		if (index == null) {
+			index = new ArtifactReferenceIndex();
+		}
+		return index;
+	}
+
+	private synchronized void saveIndex() {
+		File file = getIndexFile();
+		if (index == null || !index.isDirty() || file == null) {
+			return;
+		}
+		file.getParentFile().mkdirs();
+		try (OutputStream output = new BufferedOutputStream(new FileOutputStream(file))) {
+			index.write(output);
+		} catch (IOException e) {
+			LogHelper.log(new Status(IStatus.WARNING, GarbageCollectorHelper.ID, NLS.bind(Messages.Error_saving_reference_index, file), e));
+			// do not trust a partially written index
+			file.delete();
+		}
+	}
+
+	private File getIndexFile() {
+		IAgentLocation location = agent.getService(IAgentLocation.class);
+		if (location == null) {
+			return null;
+		}
+		URI dataArea = location.getDataArea(GarbageCollectorHelper.ID);
+		return dataArea == null ? null : new File(URIUtil.toFile(dataArea), INDEX_FILE);
 	}
 
 	@Override
@@ -191,37 +397,6 @@ public class GarbageCollector implements SynchronousProvisioningListener, IAgent
 		if (eventBus != null) {
 			eventBus.removeListener(this);
 		}
-	}
-
-	private boolean traverseMainProfile(IProfile profile) {
-		IExtensionRegistry registry = RegistryFactory.getRegistry();
-		IConfigurationElement[] configElts = registry.getConfigurationElementsFor(PT_MARKSET);
-
-		//First we collect all repos and keys for the profile being GC'ed
-		for (IConfigurationElement configElt : configElts) {
-			if (configElt == null || !(configElt.getName().equals("run"))) { //$NON-NLS-1$
-				continue;
-			}
-			contributeMarkSets(configElt, profile, true);
-		}
-		return true;
-	}
-
-	private void traverseRegisteredProfiles() {
-		IExtensionRegistry registry = RegistryFactory.getRegistry();
-		IConfigurationElement[] configElts = registry.getConfigurationElementsFor(PT_MARKSET);
-		for (IConfigurationElement configElt : configElts) {
-			if (configElt == null || !(configElt.getName().equals("run"))) { //$NON-NLS-1$
-				continue;
-			}
-			IProfileRegistry profileRegistry = agent.getService(IProfileRegistry.class);
-			if (profileRegistry == null) {
-				return;
-			}
-			IProfile[] registeredProfiles = profileRegistry.getProfiles();
-			for (IProfile registeredProfile : registeredProfiles) {
-				contributeMarkSets(configElt, registeredProfile, false);
-			}
-		}
+		saveIndex();
 	}
 }
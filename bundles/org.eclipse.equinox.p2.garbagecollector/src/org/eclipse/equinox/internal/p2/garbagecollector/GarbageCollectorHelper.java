@@ -19,6 +19,7 @@ public class GarbageCollectorHelper {
 
 	public static final String ID = "org.eclipse.equinox.p2.garbagecollector"; //$NON-NLS-1$
 	public static final String GC_ENABLED = "gc_enabled"; //$NON-NLS-1$
+	public static final String GC_FULL_SWEEP = "gc_full_sweep"; //$NON-NLS-1$
 
 
 	static <T> T getService(Class<T> clazz) {
@@ -19,6 +19,7 @@ public class Messages extends NLS {
 	private static final String BUNDLE_NAME = "org.eclipse.equinox.internal.p2.garbagecollector.messages"; //$NON-NLS-1$
 
 	public static String Error_in_extension;
+	public static String Error_saving_reference_index;
 
 	static {
 		// load message values from bundle file
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2008 IBM Corporation and others.
+ * Copyright (c) 2006, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -27,6 +27,7 @@ public class Main {
 		System.out.println();
 		System.out.println("-outputDir <dir>  the output directory"); //$NON-NLS-1$
 		System.out.println("-verbose        verbose mode "); //$NON-NLS-1$
+		System.out.println("-threads <n>    process up to <n> jars concurrently"); //$NON-NLS-1$
 	}
 
 	public static JarProcessorExecutor.Options processArguments(String[] args) {
@@ -50,6 +51,13 @@ public class Main {
 					return null;
 				}
 				options.outputDir = args[++i];
+			} else if (args[i].equals("-threads") && i < args.length - 2) { //$NON-NLS-1$
+				try {
+					options.threads = Integer.parseInt(args[++i]);
+				} catch (NumberFormatException e) {
+					printUsage();
+					return null;
+				}
 			} else if (args[i].equals("-verbose")) { //$NON-NLS-1$
 				options.verbose = true;
 			} else if (args[i].equals("-processAll")) { //$NON-NLS-1$
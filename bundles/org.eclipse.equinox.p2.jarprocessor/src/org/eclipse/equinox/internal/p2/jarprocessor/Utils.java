@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2017 IBM Corporation and others.
+ * Copyright (c) 2006, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,7 +17,7 @@ import java.io.*;
 import java.util.*;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
-import java.util.zip.ZipException;
+import java.util.zip.*;
 
 /**
  * @author aniefer@ca.ibm.com
@@ -198,8 +198,52 @@ public class Utils {
 		}
 	}
 
+	/**
+	 * Get the properties from the eclipse.inf file of the jar read from the given
+	 * stream, without extracting the jar. The stream is read up to the eclipse.inf
+	 * entry and closed. If the stream does not contain a jar, null is returned. If
+	 * the jar does not contain an eclipse.inf file, an empty Properties object is
+	 * returned.
+	 *
+	 * @return The eclipse.inf properties for the jar read from the stream
+	 * @see #getEclipseInf(File, boolean)
+	 */
+	public static Properties getEclipseInf(InputStream jarStream, boolean verbose) {
+		try (ZipInputStream jar = new ZipInputStream(new BufferedInputStream(jarStream))) {
+			ZipEntry entry = jar.getNextEntry();
+			if (entry == null) {
+				// not a jar, or an empty one
+				return null;
+			}
+			for (; entry != null; entry = jar.getNextEntry()) {
+				if (entry.getName().equals(MARK_FILE_NAME)) {
+					Properties props = new Properties();
+					props.load(jar);
+					return props;
+				}
+			}
+			return new Properties();
+		} catch (ZipException e) {
+			// not a jar, don't bother logging this.
+			return null;
+		} catch (IOException e) {
+			if (verbose) {
+				System.out.println("Failed to obtain eclipse.inf due to IOException"); //$NON-NLS-1$
+				e.printStackTrace();
+			}
+			return null;
+		}
+	}
+
 	public static boolean shouldSkipJar(File input, boolean processAll, boolean verbose) {
-		Properties inf = getEclipseInf(input, verbose);
+		return shouldSkipJar(getEclipseInf(input, verbose), processAll);
+	}
+
+	/**
+	 * Return whether a jar with the given eclipse.inf properties, as returned by
+	 * {@link #getEclipseInf(File, boolean)}, is skipped.
+	 */
+	public static boolean shouldSkipJar(Properties inf, boolean processAll) {
 		if (inf == null) {
 			// not a jar, could be a pack.gz
 			return false;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2017 IBM Corporation and others.
+ * Copyright (c) 2006, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,6 +15,8 @@ package org.eclipse.internal.provisional.equinox.p2.jarprocessor;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.jar.*;
 import org.eclipse.equinox.internal.p2.jarprocessor.Utils;
 import org.eclipse.equinox.internal.p2.jarprocessor.ZipProcessor;
@@ -26,7 +28,46 @@ public class JarProcessor {
 	private int depth = -1;
 	private boolean verbose = false;
 	private boolean processAll = false;
+	private boolean parallel = false;
 	private final LinkedList<Properties> containingInfs = new LinkedList<>();
+	// shared with the processors of nested jars
+	private final Map<String, LongAdder> stepTimes;
+
+	public JarProcessor() {
+		this(new ConcurrentHashMap<>());
+	}
+
+	private JarProcessor(Map<String, LongAdder> stepTimes) {
+		this.stepTimes = stepTimes;
+	}
+
+	/**
+	 * A nested jar processed by its own processor, concurrently with the other
+	 * nested jars of the same jar.
+	 */
+	private static class NestedJar extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		final String name;
+		final File extracted;
+		private final transient JarProcessor processor;
+		File result;
+		IOException failure;
+
+		NestedJar(String name, File extracted, JarProcessor processor) {
+			this.name = name;
+			this.extracted = extracted;
+			this.processor = processor;
+		}
+
+		@Override
+		protected void compute() {
+			try {
+				result = processor.processJar(extracted);
+			} catch (IOException e) {
+				failure = e;
+			}
+		}
+	}
 
 	public String getWorkingDirectory() {
 		return workingDirectory;
@@ -46,6 +87,45 @@ public class JarProcessor {
 		this.processAll = all;
 	}
 
+	/**
+	 * Process the nested jars of a jar concurrently when this processor runs in a
+	 * {@link ForkJoinPool}, as it does for a {@link JarProcessorExecutor} with more
+	 * than one thread.
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	/**
+	 * Returns the time in milliseconds spent in each process step, by step name,
+	 * including the time spent on nested jars and by copies of this processor.
+	 */
+	public Map<String, Long> getStepTimes() {
+		Map<String, Long> result = new TreeMap<>();
+		stepTimes.forEach((name, nanos) -> result.put(name, TimeUnit.NANOSECONDS.toMillis(nanos.sum())));
+		return result;
+	}
+
+	/**
+	 * Returns a processor with the steps and settings of this processor that can
+	 * process a jar concurrently with this one.
+	 */
+	JarProcessor copy() {
+		JarProcessor copy = new JarProcessor(stepTimes);
+		copy.steps.addAll(steps);
+		copy.workingDirectory = workingDirectory;
+		copy.depth = depth;
+		copy.verbose = verbose;
+		copy.processAll = processAll;
+		copy.parallel = parallel;
+		copy.containingInfs.addAll(containingInfs);
+		return copy;
+	}
+
+	private void recordTime(IProcessStep step, long start) {
+		stepTimes.computeIfAbsent(step.getStepName(), name -> new LongAdder()).add(System.nanoTime() - start);
+	}
+
 	public void addProcessStep(IProcessStep step) {
 		steps.add(step);
 	}
@@ -171,6 +251,8 @@ public class JarProcessor {
 			}
 		}
 
+		boolean concurrent = parallel && ForkJoinTask.inForkJoinPool();
+		List<NestedJar> nestedJars = new ArrayList<>();
 		Enumeration<JarEntry> entries = jar.entries();
 		if (entries.hasMoreElements()) {
 			for (JarEntry entry = entries.nextElement(); entry != null; entry = entries.hasMoreElements()
@@ -179,6 +261,15 @@ public class JarProcessor {
 				String name = entry.getName();
 				String newName = recursionEffect(name);
 				if (newName != null) {
+					// without processAll every nested jar is skipped, so it is left as it is without extracting it;
+					// with processAll few are, and processJar checks the extracted file instead of reading the entry twice
+					if (!processAll) {
+						try (InputStream in = jar.getInputStream(entry)) {
+							if (Utils.shouldSkipJar(Utils.getEclipseInf(in, verbose), false)) {
+								continue;
+							}
+						}
+					}
 					if (verbose) {
 						for (int i = 0; i <= depth; i++) {
 							System.out.print("  "); //$NON-NLS-1$
@@ -204,32 +295,56 @@ public class JarProcessor {
 					}
 					extracted.setLastModified(entry.getTime());
 
+					if (concurrent) {
+						JarProcessor nested = copy();
+						nested.containingInfs.addFirst(inf);
+						nested.setWorkingDirectory(parentDir.getCanonicalPath());
+						nestedJars.add(new NestedJar(name, extracted, nested));
+						continue;
+					}
+
 					// recurse
 					String dir = getWorkingDirectory();
+					File result;
 					try {
 						containingInfs.addFirst(inf);
 						setWorkingDirectory(parentDir.getCanonicalPath());
-						File result = processJar(extracted);
-						newName = name.substring(0, name.length() - extracted.getName().length()) + result.getName();
-						data.put(name, newName);
+						result = processJar(extracted);
 					} finally {
 						setWorkingDirectory(dir);
 						containingInfs.removeFirst();
 					}
-
-					// delete the extracted item leaving the recursion result
-					if (!name.equals(newName)) {
-						extracted.delete();
-					}
+					nestedJarProcessed(name, extracted, result, data);
+				}
+			}
+		}
+		if (!nestedJars.isEmpty()) {
+			ForkJoinTask.invokeAll(nestedJars);
+			for (NestedJar nestedJar : nestedJars) {
+				if (nestedJar.failure != null) {
+					throw nestedJar.failure;
 				}
+				nestedJarProcessed(nestedJar.name, nestedJar.extracted, nestedJar.result, data);
 			}
 		}
 	}
 
+	private void nestedJarProcessed(String name, File extracted, File result, Map<String, String> data) {
+		String newName = name.substring(0, name.length() - extracted.getName().length()) + result.getName();
+		data.put(name, newName);
+
+		// delete the extracted item leaving the recursion result
+		if (!name.equals(newName)) {
+			extracted.delete();
+		}
+	}
+
 	private File preProcess(File input, File tempDir) {
 		File result = null;
 		for (IProcessStep step : steps) {
+			long start = System.nanoTime();
 			result = step.preProcess(input, tempDir, containingInfs);
+			recordTime(step, start);
 			if (result != null) {
 				input = result;
 			}
@@ -240,7 +355,9 @@ public class JarProcessor {
 	private File postProcess(File input, File tempDir) {
 		File result = null;
 		for (IProcessStep step : steps) {
+			long start = System.nanoTime();
 			result = step.postProcess(input, tempDir, containingInfs);
+			recordTime(step, start);
 			if (result != null) {
 				input = result;
 			}
@@ -251,7 +368,9 @@ public class JarProcessor {
 	private boolean adjustInf(File input, Properties inf) {
 		boolean adjusted = false;
 		for (IProcessStep step : steps) {
+			long start = System.nanoTime();
 			adjusted |= step.adjustInf(input, inf, containingInfs);
+			recordTime(step, start);
 		}
 		return adjusted;
 	}
@@ -292,8 +411,8 @@ public class JarProcessor {
 			if (depth == 0) {
 				tempDir = new File(workingDir, "temp." + workingFile.getName()); //$NON-NLS-1$
 			} else {
-				File parent = workingDir.getParentFile();
-				tempDir = new File(parent, "temp_" + depth + '_' + workingFile.getName()); //$NON-NLS-1$
+				// next to the nested jar, so that the nested jars of one jar can be processed concurrently
+				tempDir = new File(workingDir, "temp_" + depth + '_' + workingFile.getName()); //$NON-NLS-1$
 			}
 
 			JarFile jar = null;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2021 IBM Corporation and others.
+ * Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,8 +15,8 @@
 package org.eclipse.internal.provisional.equinox.p2.jarprocessor;
 
 import java.io.*;
-import java.util.Properties;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.*;
 import org.eclipse.equinox.internal.p2.jarprocessor.*;
 
 public class JarProcessorExecutor {
@@ -32,10 +32,16 @@ public class JarProcessorExecutor {
 		public boolean verbose = false;
 		public boolean processAll = false;
 		public File input = null;
+		/**
+		 * The number of jars processed concurrently, including nested jars
+		 */
+		public int threads = 1;
 	}
 
 	protected Options options = null;
 	private Set<String> signExclusions = null;
+	private ForkJoinPool pool = null;
+	private final List<ForkJoinTask<File>> pending = new ArrayList<>();
 
 	public void runJarProcessor(Options processOptions) {
 		this.options = processOptions;
@@ -57,6 +63,10 @@ public class JarProcessorExecutor {
 			processor.setWorkingDirectory(options.outputDir);
 			processor.setProcessAll(options.processAll);
 			processor.setVerbose(options.verbose);
+			if (options.threads > 1) {
+				pool = new ForkJoinPool(options.threads);
+				processor.setParallel(true);
+			}
 
 			// load options file
 			Properties properties = new Properties();
@@ -71,10 +81,41 @@ public class JarProcessorExecutor {
 				if (options.verbose) {
 					e.printStackTrace();
 				}
+			} finally {
+				awaitPending();
+			}
+			if (options.verbose) {
+				processor.getStepTimes().forEach((step, millis) -> System.out.println(step + ": " + millis + "ms")); //$NON-NLS-1$ //$NON-NLS-2$
 			}
 		}
 	}
 
+	/**
+	 * Wait for the jars that are processed concurrently.
+	 */
+	private void awaitPending() {
+		if (pool == null) {
+			return;
+		}
+		try {
+			for (ForkJoinTask<File> task : pending) {
+				try {
+					task.get();
+				} catch (ExecutionException e) {
+					if (options.verbose) {
+						e.getCause().printStackTrace();
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			pending.clear();
+			pool.shutdownNow();
+			pool = null;
+		}
+	}
+
 	protected FileFilter createFileFilter(Options processOptions) {
 		return Utils.JAR_FILTER;
 	}
@@ -144,6 +185,12 @@ public class JarProcessorExecutor {
 						if (sign) {
 							addSignStep(processor, packProperties, options);
 						}
+						if (pool != null) {
+							JarProcessor copy = processor.copy();
+							File file = files[i];
+							pending.add(pool.submit(() -> copy.processJar(file)));
+							continue;
+						}
 						files[i] = processor.processJar(files[i]);
 					}
 
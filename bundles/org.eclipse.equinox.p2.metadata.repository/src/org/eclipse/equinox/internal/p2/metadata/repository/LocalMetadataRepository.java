@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2007, 2023 IBM Corporation and others.
+ *  Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -24,6 +24,7 @@ import org.eclipse.core.runtime.*;
 import org.eclipse.equinox.internal.p2.core.helpers.LogHelper;
 import org.eclipse.equinox.internal.p2.metadata.*;
 import org.eclipse.equinox.internal.p2.metadata.index.*;
+import org.eclipse.equinox.internal.p2.persistence.Journal;
 import org.eclipse.equinox.internal.provisional.p2.core.eventbus.IProvisioningEventBus;
 import org.eclipse.equinox.internal.provisional.p2.repository.RepositoryEvent;
 import org.eclipse.equinox.p2.core.*;
@@ -44,6 +45,16 @@ import org.eclipse.equinox.p2.repository.metadata.spi.AbstractMetadataRepository
  */
 public class LocalMetadataRepository extends AbstractMetadataRepository implements IIndexProvider<IInstallableUnit> {
 
+	/**
+	 * Boolean repository property to append added and removed installable
+	 * units to a journal next to the index file instead of rewriting the index
+	 * file on every change. The index file is rewritten in the usual format
+	 * when the journal has grown too long and when any other change is saved.
+	 * Readers replay the journal after loading the index file; readers that do
+	 * not know the journal only see the state of the index file.
+	 */
+	public static final String PROP_JOURNAL = Journal.PROP_JOURNAL;
+
 	private static final String CONTENT_FILENAME = "content"; //$NON-NLS-1$
 	private static final String REPOSITORY_TYPE = LocalMetadataRepository.class.getName();
 	private static final Integer REPOSITORY_VERSION = 1;
@@ -57,6 +68,7 @@ public class LocalMetadataRepository extends AbstractMetadataRepository implemen
 	private TranslationSupport translationSupport;
 	private boolean snapshotNeeded = false;
 	private boolean disableSave = false;
+	private UnitJournal journal;
 
 	private static File getActualLocation(URI location, String extension) {
 		File spec = URIUtil.toFile(location);
@@ -111,7 +123,7 @@ public class LocalMetadataRepository extends AbstractMetadataRepository implemen
 		}
 		units.addAll(installableUnits);
 		capabilityIndex = null; // Generated, not backed by units
-		save();
+		save(installableUnits, Collections.emptyList());
 	}
 
 	@Override
@@ -217,6 +229,52 @@ public class LocalMetadataRepository extends AbstractMetadataRepository implemen
 		setLocation(aLocation);
 	}
 
+	/**
+	 * Applies the changes recorded in the journal of a repository in the local
+	 * file system to the units read from its index file.
+	 */
+	synchronized void replayJournal() {
+		if (!isLocal()) {
+			return;
+		}
+		UnitJournal unitJournal = getJournal();
+		List<UnitJournal.Change> changes;
+		try {
+			changes = unitJournal.read(Journal.getGeneration(getProperty(Journal.PROP_GENERATION)));
+		} catch (IOException e) {
+			LogHelper.log(new Status(IStatus.WARNING, Constants.ID, "Unable to read journal " + unitJournal.getFile(), e)); //$NON-NLS-1$
+			return;
+		}
+		for (UnitJournal.Change change : changes) {
+			if (change.added()) {
+				units.addAll(Arrays.asList(change.units()));
+			} else {
+				units.removeAll(Arrays.asList(change.units()));
+			}
+		}
+		idIndex = null;
+		capabilityIndex = null;
+	}
+
+	private boolean isLocal() {
+		return "file".equalsIgnoreCase(getLocation().getScheme()); //$NON-NLS-1$
+	}
+
+	private boolean isJournaled() {
+		if (!"true".equalsIgnoreCase(getProperty(PROP_JOURNAL)) || !isLocal()) { //$NON-NLS-1$
+			return false;
+		}
+		// the journal is only valid together with the index file it extends
+		return getActualLocation(getLocation()).exists() || getActualLocation(getLocation(), JAR_EXTENSION).exists();
+	}
+
+	private UnitJournal getJournal() {
+		if (journal == null) {
+			journal = new UnitJournal(getProvisioningAgent(), getActualLocation(getLocation()).getParentFile());
+		}
+		return journal;
+	}
+
 	@Override
 	public boolean isModifiable() {
 		return true;
@@ -265,7 +323,7 @@ public class LocalMetadataRepository extends AbstractMetadataRepository implemen
 			capabilityIndex = null; // Generated, not backed by units.
 		}
 		if (changed) {
-			save();
+			save(Collections.emptyList(), installableUnits);
 		}
 		return changed;
 	}
@@ -311,12 +369,45 @@ public class LocalMetadataRepository extends AbstractMetadataRepository implemen
 				((JarOutputStream) output).putNextEntry(jarEntry);
 			}
 			super.setProperty(IRepository.PROP_TIMESTAMP, Long.toString(System.currentTimeMillis()), new NullProgressMonitor());
+			if ("true".equalsIgnoreCase(getProperty(PROP_JOURNAL)) || getJournal().getFile().exists()) { //$NON-NLS-1$
+				// a journal left over from before this index file is skipped
+				super.setProperty(Journal.PROP_GENERATION, Journal.nextGeneration(getProperty(Journal.PROP_GENERATION)), new NullProgressMonitor());
+			}
 			new MetadataRepositoryIO(getProvisioningAgent()).write(this, output);
+			// the index file contains all changes now
+			getJournal().delete();
 		} catch (IOException e) {
 			LogHelper.log(new Status(IStatus.ERROR, Constants.ID, ProvisionException.REPOSITORY_FAILED_WRITE, "Error saving metadata repository: " + getLocation(), e)); //$NON-NLS-1$
 		}
 	}
 
+	// caller should be synchronized
+	/**
+	 * Saves the given changes of the units. A journaled repository appends them
+	 * to its journal, other repositories rewrite the index file.
+	 */
+	private void save(Collection<IInstallableUnit> added, Collection<IInstallableUnit> removed) {
+		if (disableSave) {
+			return;
+		}
+		if (!isJournaled()) {
+			save();
+			return;
+		}
+		UnitJournal unitJournal = getJournal();
+		// an instance that has not read the journal would truncate it
+		if (!unitJournal.canAppend() || unitJournal.getUnitCount() + added.size() + removed.size() > Journal.COMPACTION_THRESHOLD) {
+			save();
+			return;
+		}
+		try {
+			unitJournal.append(Journal.getGeneration(getProperty(Journal.PROP_GENERATION)), added, removed);
+		} catch (IOException e) {
+			LogHelper.log(new Status(IStatus.WARNING, Constants.ID, "Unable to append to journal " + unitJournal.getFile(), e)); //$NON-NLS-1$
+			save();
+		}
+	}
+
 	@Override
 	public String setProperty(String key, String newValue, IProgressMonitor monitor) {
 		try {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2025 IBM Corporation and others.
+ * Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,8 +18,7 @@ package org.eclipse.equinox.internal.p2.metadata.repository;
 import java.io.*;
 import java.lang.reflect.Constructor;
 import java.net.URL;
-import java.util.Iterator;
-import java.util.Set;
+import java.util.*;
 import javax.xml.parsers.ParserConfigurationException;
 import org.eclipse.core.runtime.*;
 import org.eclipse.equinox.internal.p2.core.helpers.LogHelper;
@@ -30,6 +29,7 @@ import org.eclipse.equinox.internal.p2.persistence.XMLWriter;
 import org.eclipse.equinox.p2.core.IProvisioningAgent;
 import org.eclipse.equinox.p2.core.ProvisionException;
 import org.eclipse.equinox.p2.metadata.*;
+import org.eclipse.equinox.p2.metadata.MetadataFactory.InstallableUnitDescription;
 import org.eclipse.equinox.p2.query.QueryUtil;
 import org.eclipse.equinox.p2.repository.IRepositoryReference;
 import org.eclipse.equinox.p2.repository.metadata.IMetadataRepository;
@@ -87,11 +87,33 @@ public class MetadataRepositoryIO {
 
 	public void write(IMetadataRepository repository, OutputStream output) throws IOException {
 		try (OutputStream bufferedOutput = new BufferedOutputStream(output)) {
-			Writer repositoryWriter = new Writer(bufferedOutput, repository.getClass());
+			Writer repositoryWriter = new Writer(bufferedOutput, repository.getClass(), !XMLWriter.COMPACT);
 			repositoryWriter.write(repository);
 		}
 	}
 
+	/**
+	 * Writes the given installable units as a document of its own, e.g. as a
+	 * record of the journal of a local metadata repository.
+	 */
+	public void writeUnits(Collection<IInstallableUnit> units, OutputStream output) throws IOException {
+		try (OutputStream bufferedOutput = new BufferedOutputStream(output)) {
+			MetadataWriter unitsWriter = new MetadataWriter(bufferedOutput, null, false);
+			unitsWriter.writeInstallableUnits(units.iterator(), units.size());
+			unitsWriter.flush();
+		}
+	}
+
+	/**
+	 * Reads documents written by {@link #writeUnits(Collection, OutputStream)},
+	 * reusing a single parser for all of them.
+	 *
+	 * @return the units of each document, in the order of the given streams
+	 */
+	public List<IInstallableUnit[]> readUnits(List<InputStream> inputs) throws IOException {
+		return new UnitsParser(Constants.ID).parse(inputs);
+	}
+
 	private interface XMLConstants extends org.eclipse.equinox.internal.p2.metadata.repository.io.XMLConstants {
 
 		// Constants defining the structure of the XML for a MetadataRepository
@@ -121,6 +143,10 @@ public class MetadataRepositoryIO {
 			super(output, createPI(repositoryClass));
 		}
 
+		public Writer(OutputStream output, Class<? extends IMetadataRepository> repositoryClass, boolean indent) {
+			super(output, createPI(repositoryClass), indent);
+		}
+
 		/**
 		 * Write the given metadata repository to the output stream.
 		 */
@@ -343,4 +369,79 @@ public class MetadataRepositoryIO {
 			return null;
 		}
 	}
+
+	/*
+	 * Parser for documents holding nothing but installable units,
+	 * as written by writeUnits.
+	 */
+	private class UnitsParser extends MetadataParser implements XMLConstants {
+
+		private IInstallableUnit[] theUnits = null;
+
+		public UnitsParser(String bundleId) {
+			super(bundleId);
+		}
+
+		public synchronized List<IInstallableUnit[]> parse(List<InputStream> inputs) throws IOException {
+			List<IInstallableUnit[]> result = new ArrayList<>(inputs.size());
+			try {
+				XMLReader reader = getParser().getXMLReader();
+				for (InputStream input : inputs) {
+					this.status = null;
+					this.theUnits = null;
+					reader.setContentHandler(new DocHandler(INSTALLABLE_UNITS_ELEMENT, new UnitsHandler()));
+					reader.parse(new InputSource(input));
+					if (!isValidXML() || theUnits == null) {
+						throw new IOException(getStatus().getMessage());
+					}
+					result.add(theUnits);
+				}
+			} catch (SAXException | ParserConfigurationException e) {
+				throw new IOException(e.getMessage(), e);
+			}
+			return result;
+		}
+
+		@Override
+		protected Object getRootObject() {
+			return theUnits;
+		}
+
+		@Override
+		protected String getErrorMessage() {
+			return Messages.io_parseError;
+		}
+
+		private final class UnitsHandler extends RootHandler {
+
+			private List<InstallableUnitDescription> units;
+
+			@Override
+			protected void handleRootAttributes(Attributes attributes) {
+				String size = parseOptionalAttribute(attributes, COLLECTION_SIZE_ATTRIBUTE);
+				units = new ArrayList<>(size != null ? Integer.parseInt(size) : 4);
+			}
+
+			@Override
+			public void startElement(String name, Attributes attributes) {
+				if (INSTALLABLE_UNIT_ELEMENT.equals(name)) {
+					new InstallableUnitHandler(this, attributes, units);
+				} else {
+					invalidElement(name, attributes);
+				}
+			}
+
+			@Override
+			protected void finished() {
+				if (isValidXML()) {
+					IInstallableUnit[] result = new IInstallableUnit[units.size()];
+					int i = 0;
+					for (InstallableUnitDescription desc : units) {
+						result[i++] = MetadataFactory.createInstallableUnit(desc);
+					}
+					theUnits = result;
+				}
+			}
+		}
+	}
 }
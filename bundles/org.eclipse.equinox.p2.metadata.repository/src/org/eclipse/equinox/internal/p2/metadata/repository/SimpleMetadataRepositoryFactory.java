@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2007, 2017 IBM Corporation and others.
+ *  Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -116,6 +116,7 @@ public class SimpleMetadataRepositoryFactory extends MetadataRepositoryFactory {
 				}
 				if (result instanceof LocalMetadataRepository) {
 					((LocalMetadataRepository) result).initializeAfterLoad(location);
+					((LocalMetadataRepository) result).replayJournal();
 				}
 				if (result instanceof URLMetadataRepository) {
 					((URLMetadataRepository) result).initializeAfterLoad(location);
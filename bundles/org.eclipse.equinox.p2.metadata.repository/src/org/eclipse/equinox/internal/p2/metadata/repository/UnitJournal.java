@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.metadata.repository;
+
+import java.io.*;
+import java.util.*;
+import org.eclipse.equinox.internal.p2.persistence.Journal;
+import org.eclipse.equinox.p2.core.IProvisioningAgent;
+import org.eclipse.equinox.p2.metadata.IInstallableUnit;
+
+/**
+ * The journal of the installable units added to and removed from a local
+ * metadata repository since its index file was last written. Each record holds
+ * the units of one change in the same XML form as the index file.
+ */
+class UnitJournal {
+	static final String FILE_NAME = "content.journal"; //$NON-NLS-1$
+
+	private static final byte ADDED = 1;
+	private static final byte REMOVED = 2;
+
+	/**
+	 * A change read from the journal.
+	 */
+	record Change(boolean added, IInstallableUnit[] units) {
+	}
+
+	private final Journal journal;
+	private final MetadataRepositoryIO io;
+	private int unitCount;
+
+	UnitJournal(IProvisioningAgent agent, File directory) {
+		journal = new Journal(new File(directory, FILE_NAME));
+		io = new MetadataRepositoryIO(agent);
+	}
+
+	File getFile() {
+		return journal.getFile();
+	}
+
+	/**
+	 * Returns the number of units read or appended since the journal was last
+	 * read or deleted.
+	 */
+	int getUnitCount() {
+		return unitCount;
+	}
+
+	boolean canAppend() {
+		return journal.canAppend();
+	}
+
+	List<Change> read(long generation) throws IOException {
+		unitCount = 0;
+		List<byte[]> records = journal.read(generation);
+		List<InputStream> documents = new ArrayList<>(records.size());
+		for (byte[] record : records) {
+			if (record.length == 0 || (record[0] != ADDED && record[0] != REMOVED)) {
+				throw new IOException("Unknown journal record in " + getFile()); //$NON-NLS-1$
+			}
+			documents.add(new ByteArrayInputStream(record, 1, record.length - 1));
+		}
+		List<IInstallableUnit[]> units = io.readUnits(documents);
+		List<Change> changes = new ArrayList<>(records.size());
+		for (int i = 0; i < records.size(); i++) {
+			changes.add(new Change(records.get(i)[0] == ADDED, units.get(i)));
+			unitCount += units.get(i).length;
+		}
+		return changes;
+	}
+
+	void append(long generation, Collection<IInstallableUnit> added, Collection<IInstallableUnit> removed) throws IOException {
+		List<byte[]> records = new ArrayList<>(2);
+		if (!removed.isEmpty()) {
+			records.add(encode(REMOVED, removed));
+		}
+		if (!added.isEmpty()) {
+			records.add(encode(ADDED, added));
+		}
+		if (!journal.exists()) {
+			unitCount = 0;
+		}
+		journal.append(generation, records);
+		unitCount += added.size() + removed.size();
+	}
+
+	boolean delete() {
+		unitCount = 0;
+		return journal.delete();
+	}
+
+	private byte[] encode(byte kind, Collection<IInstallableUnit> units) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+		buffer.write(kind);
+		io.writeUnits(units, buffer);
+		return buffer.toByteArray();
+	}
+}
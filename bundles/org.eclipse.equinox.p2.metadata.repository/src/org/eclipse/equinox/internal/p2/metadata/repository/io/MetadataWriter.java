@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2007, 2025 IBM Corporation and others.
+ *  Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -33,6 +33,10 @@ public class MetadataWriter extends XMLWriter implements XMLConstants {
 		// TODO: add a processing instruction for the metadata version
 	}
 
+	public MetadataWriter(OutputStream output, ProcessingInstruction[] piElements, boolean indent) {
+		super(output, piElements, indent);
+	}
+
 	/**
 	 * Writes a list of {@link IInstallableUnit}.
 	 * @param units An Iterator of {@link IInstallableUnit}.
@@ -28,6 +28,9 @@ public class OSGiVersion extends BasicVersion {
 
 	private static final boolean[] allowedOSGiChars;
 
+	// numbers with more digits may overflow and are parsed by the version format
+	private static final int MAX_FAST_DIGITS = 9;
+
 	private final int major;
 
 	private final int minor;
@@ -71,6 +74,61 @@ public class OSGiVersion extends BasicVersion {
 		return true;
 	}
 
+	/**
+	 * Parses the plain OSGi version <code>major[.minor[.micro[.qualifier]]]</code>
+	 * found between <code>start</code> and <code>end</code> without going through
+	 * the version format. Versions that use anything else, such as numbers that
+	 * may not fit in an <code>int</code>, are left to the version format.
+	 *
+	 * @return the parsed version, or <code>null</code> if the string is not a plain
+	 *         OSGi version
+	 */
+	static BasicVersion parse(String version, int start, int end) {
+		int[] numbers = new int[3];
+		int pos = start;
+		int segment = 0;
+		for (;;) {
+			int value = 0;
+			int digitsEnd = Math.min(end, pos + MAX_FAST_DIGITS);
+			int first = pos;
+			char c = 0;
+			while (pos < digitsEnd && (c = version.charAt(pos)) >= '0' && c <= '9') {
+				value = value * 10 + (c - '0');
+				++pos;
+			}
+			if (pos == first || (pos < end && version.charAt(pos) != '.')) {
+				// no number, too many digits or not followed by a dot
+				return null;
+			}
+			numbers[segment++] = value;
+			if (pos == end) {
+				break;
+			}
+			// skip the dot
+			if (++pos == end) {
+				return null;
+			}
+			if (segment == 3) {
+				break;
+			}
+		}
+		Comparable<?> qualifier = VersionVector.MINS_VALUE;
+		if (pos < end) {
+			String q = version.substring(pos, end);
+			if (!isValidOSGiQualifier(q)) {
+				return null;
+			}
+			if (q.equals(IVersionFormat.DEFAULT_MAX_STRING_TRANSLATION)) {
+				return null;
+			}
+			qualifier = q;
+		}
+		int major = numbers[0];
+		int minor = numbers[1];
+		int micro = numbers[2];
+		return (major == 0 && minor == 0 && micro == 0 && qualifier == VersionVector.MINS_VALUE) ? (BasicVersion) emptyVersion : new OSGiVersion(major, minor, micro, qualifier);
+	}
+
 	static BasicVersion fromVector(List<Comparable<?>> vector) {
 		int vtop = vector.size() - 1;
 		Comparable<?> pad = vector.get(vtop);
@@ -108,19 +166,24 @@ public class OSGiVersion extends BasicVersion {
 
 	@Override
 	public int compareTo(Version v) {
-		int result;
 		if (!(v instanceof OSGiVersion ov)) {
+			// all OSGi versions are between the empty and the maximum version
+			if (v == emptyVersion) {
+				return 1;
+			}
+			if (v == MAX_VERSION) {
+				return -1;
+			}
 			BasicVersion ov = (BasicVersion) v;
-			result = VersionVector.compare(getVector(), null, ov.getVector(), ov.getPad());
-		} else {
-			result = major - ov.major;
+			return VersionVector.compare(getVector(), null, ov.getVector(), ov.getPad());
+		}
+		int result = Integer.compare(major, ov.major);
+		if (result == 0) {
+			result = Integer.compare(minor, ov.minor);
 			if (result == 0) {
-				result = minor - ov.minor;
-				if (result == 0) {
-					result = micro - ov.micro;
-					if (result == 0) {
-						result = VersionVector.compareSegments(qualifier, ov.qualifier);
-					}
+				result = Integer.compare(micro, ov.micro);
+				if (result == 0 && qualifier != ov.qualifier) {
+					result = qualifier instanceof String q && ov.qualifier instanceof String oq ? q.compareTo(oq) : VersionVector.compareSegments(qualifier, ov.qualifier);
 				}
 			}
 		}
@@ -134,6 +197,9 @@ public class OSGiVersion extends BasicVersion {
 		}
 
 		if (!(object instanceof OSGiVersion other)) {
+			if (object == emptyVersion || object == MAX_VERSION) {
+				return false;
+			}
 			if (object instanceof BasicVersion ov) {
 				return VersionVector.equals(getVector(), null, ov.getVector(), ov.getPad());
 			}
@@ -295,6 +295,15 @@ public class OmniVersion extends BasicVersion {
 
 	@Override
 	public int compareTo(Version v) {
+		if (v instanceof OSGiVersion) {
+			// all OSGi versions are between the empty and the maximum version
+			if (this == minimumVersion) {
+				return -1;
+			}
+			if (this == maximumVersion) {
+				return 1;
+			}
+		}
 		BasicVersion ov = (BasicVersion) v;
 		return VersionVector.compare(vector, padValue, ov.getVector(), ov.getPad());
 	}
@@ -297,6 +297,12 @@ public class VersionFormat implements IVersionFormat, Serializable {
 
 	@Override
 	public Version parse(String version) {
+		if (this == OSGI_FORMAT) {
+			Version osgiVersion = OSGiVersion.parse(version, 0, version.length());
+			if (osgiVersion != null) {
+				return osgiVersion;
+			}
+		}
 		List<Comparable<?>> vector = parse(version, 0, version.length());
 		return (this == OSGI_FORMAT) ? OSGiVersion.fromVector(vector) : OmniVersion.fromVector(vector, this, version);
 	}
@@ -79,7 +79,8 @@ public abstract class VersionParser {
 		VersionFormat fmt = null;
 		char c = version.charAt(pos);
 		if (isDigit(c)) {
-			return OSGiVersion.fromVector(VersionFormat.OSGI_FORMAT.parse(version, pos, maxPos));
+			Version osgiVersion = OSGiVersion.parse(version, pos, maxPos);
+			return osgiVersion != null ? osgiVersion : OSGiVersion.fromVector(VersionFormat.OSGI_FORMAT.parse(version, pos, maxPos));
 		}
 
 		if (!isLetter(c)) {
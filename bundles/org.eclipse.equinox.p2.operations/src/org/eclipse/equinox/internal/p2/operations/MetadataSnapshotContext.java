@@ -0,0 +1,63 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.operations;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.equinox.internal.p2.director.QueryableArray;
+import org.eclipse.equinox.p2.core.IProvisioningAgent;
+import org.eclipse.equinox.p2.engine.ProvisioningContext;
+import org.eclipse.equinox.p2.metadata.IInstallableUnit;
+import org.eclipse.equinox.p2.query.IQueryable;
+import org.eclipse.equinox.p2.query.QueryUtil;
+
+/**
+ * A provisioning context whose metadata is a snapshot of the installable units
+ * available in another context. The snapshot is taken once and never changes,
+ * so that several planner runs can use this context concurrently without
+ * loading or querying the repositories of the original context again.
+ */
+public class MetadataSnapshotContext extends ProvisioningContext {
+	private final IQueryable<IInstallableUnit> metadata;
+
+	/**
+	 * Creates a snapshot of the metadata available in the given context. The
+	 * properties and extra installable units of the given context are copied.
+	 */
+	public MetadataSnapshotContext(IProvisioningAgent agent, ProvisioningContext context, IProgressMonitor monitor) {
+		super(agent);
+		SubMonitor sub = SubMonitor.convert(monitor, 2);
+		IQueryable<IInstallableUnit> available = context.getMetadata(sub.split(1));
+		metadata = new QueryableArray(available.query(QueryUtil.ALL_UNITS, sub.split(1)).toUnmodifiableSet());
+		context.getProperties().forEach(this::setProperty);
+		setExtraInstallableUnits(context.getExtraInstallableUnits());
+	}
+
+	/**
+	 * Creates a copy of the given snapshot that shares its metadata. The
+	 * properties and extra installable units are copied, so that a planner run can
+	 * change them without affecting the runs using the given snapshot.
+	 */
+	public MetadataSnapshotContext(IProvisioningAgent agent, MetadataSnapshotContext snapshot) {
+		super(agent);
+		metadata = snapshot.metadata;
+		snapshot.getProperties().forEach(this::setProperty);
+		setExtraInstallableUnits(snapshot.getExtraInstallableUnits());
+	}
+
+	@Override
+	public IQueryable<IInstallableUnit> getMetadata(IProgressMonitor monitor) {
+		return metadata;
+	}
+}
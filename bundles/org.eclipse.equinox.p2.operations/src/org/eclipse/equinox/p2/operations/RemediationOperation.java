@@ -15,10 +15,12 @@ package org.eclipse.equinox.p2.operations;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.*;
 import org.eclipse.core.runtime.*;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.equinox.internal.p2.director.ProfileChangeRequest;
 import org.eclipse.equinox.internal.p2.operations.*;
+import org.eclipse.equinox.p2.engine.ProvisioningContext;
 import org.eclipse.equinox.p2.metadata.IInstallableUnit;
 import org.eclipse.equinox.p2.metadata.Version;
 import org.eclipse.equinox.p2.planner.IPlanner;
@@ -45,6 +47,15 @@ public class RemediationOperation extends ProfileChangeOperation {
 	private Remedy bestSolutionChangingWhatIsInstalled;
 	private Remedy currentRemedy;
 	private final RemedyConfig[] remedyConfigs;
+	private boolean stopAtBestSolutions;
+
+	/**
+	 * The maximum number of remedies computed concurrently.
+	 */
+	private static final int MAX_REMEDY_THREADS = Integer.getInteger("p2.remediation.maxThreads", //$NON-NLS-1$
+			Runtime.getRuntime().availableProcessors());
+	private static final int NONE = -1;
+	private static final int UNKNOWN = -2;
 
 	public RemedyConfig[] getRemedyConfigs() {
 		return remedyConfigs;
@@ -85,6 +96,20 @@ public class RemediationOperation extends ProfileChangeOperation {
 		return remedies;
 	}
 
+	/**
+	 * Sets whether the computation of the remedies stops as soon as the
+	 * {@link #bestSolutionChangingTheRequest()} and the
+	 * {@link #bestSolutionChangingWhatIsInstalled()} are known. When set,
+	 * {@link #getRemedies()} only returns the remedies computed until then.
+	 * By default, the remedies of all configurations are computed.
+	 *
+	 * @param stopAtBestSolutions whether to stop at the best solutions
+	 * @since 2.8
+	 */
+	public void setStopAtBestSolutions(boolean stopAtBestSolutions) {
+		this.stopAtBestSolutions = stopAtBestSolutions;
+	}
+
 	@Override
 	protected void computeProfileChangeRequest(MultiStatus status, IProgressMonitor monitor) {
 		SubMonitor sub = SubMonitor.convert(monitor, 1);
@@ -102,25 +127,159 @@ public class RemediationOperation extends ProfileChangeOperation {
 	}
 
 	private IStatus computeAllRemediations(IProgressMonitor monitor) {
-		SubMonitor sub = SubMonitor.convert(monitor, remedyConfigs.length);
+		SubMonitor sub = SubMonitor.convert(monitor, remedyConfigs.length + 1);
 		sub.setTaskName(Messages.RemediationOperation_ProfileChangeRequestProgress);
-		List<Remedy> tmpRemedies = new ArrayList<>(remedyConfigs.length);
+		List<Remedy> tmpRemedies;
+		try {
+			int threads = Math.min(remedyConfigs.length, MAX_REMEDY_THREADS);
+			tmpRemedies = threads > 1 ? computeRemediesConcurrently(threads, sub) : computeRemedies(sub);
+			if (tmpRemedies == null) {
+				return Status.CANCEL_STATUS;
+			}
+		} finally {
+			sub.done();
+		}
+		remedies = tmpRemedies;
+		return getResolutionResult();
+	}
+
+	private List<Remedy> computeRemedies(SubMonitor sub) {
+		sub.setWorkRemaining(remedyConfigs.length);
+		Remedy[] results = new Remedy[remedyConfigs.length];
+		boolean[] computed = new boolean[remedyConfigs.length];
+		for (int i = 0; i < remedyConfigs.length; i++) {
+			sub.subTask((i + 1) + " / " + remedyConfigs.length); //$NON-NLS-1$
+			if (sub.isCanceled()) {
+				return null;
+			}
+			results[i] = computeRemedy(remedyConfigs[i], getProvisioningContext(), sub.newChild(1, SubMonitor.SUPPRESS_ALL_LABELS));
+			computed[i] = true;
+			if (stopAtBestSolutions && areBestSolutionsKnown(results, computed)) {
+				break;
+			}
+		}
+		return collectRemedies(results, computed);
+	}
+
+	/**
+	 * Computes the remedies of all configurations on up to the given number of
+	 * threads. Each remedy is computed by its own planner run in its own copy of the
+	 * provisioning context, but all runs share a snapshot of the metadata available
+	 * in the provisioning context.
+	 *
+	 * @return the remedies in the order of their configurations, or
+	 *         <code>null</code> if the computation has been canceled
+	 */
+	private List<Remedy> computeRemediesConcurrently(int threads, SubMonitor sub) {
+		ProvisioningContext context = getProvisioningContext();
+		if (context == null) {
+			context = new ProvisioningContext(session.getProvisioningAgent());
+		}
+		MetadataSnapshotContext snapshot = new MetadataSnapshotContext(session.getProvisioningAgent(), context, sub.newChild(1, SubMonitor.SUPPRESS_ALL_LABELS));
+		Remedy[] results = new Remedy[remedyConfigs.length];
+		boolean[] computed = new boolean[remedyConfigs.length];
+		// the planner runs only observe cancellation, progress is reported by this thread
+		IProgressMonitor cancellation = new NullProgressMonitor();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CompletionService<Integer> completion = new ExecutorCompletionService<>(executor);
 		try {
 			for (int i = 0; i < remedyConfigs.length; i++) {
-				sub.subTask((i + 1) + " / " + remedyConfigs.length); //$NON-NLS-1$
+				int index = i;
+				// the planner runs change the properties of their context
+				ProvisioningContext remedyContext = new MetadataSnapshotContext(session.getProvisioningAgent(), snapshot);
+				completion.submit(() -> {
+					results[index] = computeRemedy(remedyConfigs[index], remedyContext, cancellation);
+					return index;
+				});
+			}
+			for (int pending = remedyConfigs.length; pending > 0;) {
 				if (sub.isCanceled()) {
-					return Status.CANCEL_STATUS;
+					return null;
 				}
-				Remedy remedy = computeRemedy(remedyConfigs[i], sub.newChild(1, SubMonitor.SUPPRESS_ALL_LABELS));
-				if (remedy != null) {
-					tmpRemedies.add(remedy);
+				Future<Integer> future = completion.poll(100, TimeUnit.MILLISECONDS);
+				if (future == null) {
+					continue;
+				}
+				pending--;
+				computed[future.get()] = true;
+				sub.subTask((remedyConfigs.length - pending) + " / " + remedyConfigs.length); //$NON-NLS-1$
+				sub.worked(1);
+				if (stopAtBestSolutions && areBestSolutionsKnown(results, computed)) {
+					break;
 				}
 			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			if (e.getCause() instanceof Error error) {
+				throw error;
+			}
+			throw new IllegalStateException(e.getCause());
 		} finally {
-			sub.done();
+			// stop the planner runs whose remedies are no longer needed
+			cancellation.setCanceled(true);
+			executor.shutdownNow();
 		}
-		remedies = tmpRemedies;
-		return getResolutionResult();
+		return collectRemedies(results, computed);
+	}
+
+	private static List<Remedy> collectRemedies(Remedy[] results, boolean[] computed) {
+		List<Remedy> tmpRemedies = new ArrayList<>(results.length);
+		for (int i = 0; i < results.length; i++) {
+			if (computed[i] && results[i] != null) {
+				tmpRemedies.add(results[i]);
+			}
+		}
+		return tmpRemedies;
+	}
+
+	/**
+	 * Returns whether the best solutions are known from the remedies computed so
+	 * far, i.e. none of the remedies still being computed could be chosen by
+	 * {@link #determineBestSolutions()} instead, and there is at least one of them.
+	 */
+	private boolean areBestSolutionsKnown(Remedy[] results, boolean[] computed) {
+		int changingTheRequest = findBestSolution(results, computed, true);
+		int changingWhatIsInstalled = findBestSolution(results, computed, false);
+		if (changingTheRequest == UNKNOWN || changingWhatIsInstalled == UNKNOWN) {
+			return false;
+		}
+		return changingTheRequest != NONE || changingWhatIsInstalled != NONE;
+	}
+
+	/**
+	 * Returns the index of the best solution relaxing either the request or what is
+	 * installed, {@link #NONE} if there is none, or {@link #UNKNOWN} if a remedy
+	 * still being computed could be the best solution. The relaxed weights only
+	 * depend on the configuration, so they are known before the remedy is computed.
+	 */
+	private int findBestSolution(Remedy[] results, boolean[] computed, boolean changingTheRequest) {
+		int best = NONE;
+		int bestWeight = 0;
+		for (int i = 0; i < remedyConfigs.length; i++) {
+			int weight = getSolutionWeight(remedyConfigs[i], changingTheRequest);
+			if (computed[i] && results[i] != null && results[i].getRequest() != null && weight > bestWeight) {
+				best = i;
+				bestWeight = weight;
+			}
+		}
+		for (int i = 0; i < remedyConfigs.length; i++) {
+			int weight = getSolutionWeight(remedyConfigs[i], changingTheRequest);
+			if (!computed[i] && (weight > bestWeight || (weight > 0 && weight == bestWeight && i < best))) {
+				return UNKNOWN;
+			}
+		}
+		return best;
+	}
+
+	private static int getSolutionWeight(RemedyConfig configuration, boolean changingTheRequest) {
+		int relaxed = changingTheRequest ? getBeingInstalledRelaxedWeight(configuration) : getInstallationRelaxedWeight(configuration);
+		int unchanged = changingTheRequest ? getInstallationRelaxedWeight(configuration) : getBeingInstalledRelaxedWeight(configuration);
+		return unchanged == 0 ? relaxed : 0;
 	}
 
 	private void determineBestSolutions() {
@@ -142,7 +301,7 @@ public class RemediationOperation extends ProfileChangeOperation {
 		}
 	}
 
-	private Remedy computeRemedy(RemedyConfig configuration, IProgressMonitor monitor) {
+	private Remedy computeRemedy(RemedyConfig configuration, ProvisioningContext context, IProgressMonitor monitor) {
 		Remedy remedy = new Remedy(originalRequest);
 		remedy.setConfig(configuration);
 		IPlanner planner = session.getPlanner();
@@ -151,33 +310,39 @@ public class RemediationOperation extends ProfileChangeOperation {
 		av.setAllowInstalledElementChange(configuration.allowInstalledUpdate);
 		av.setAllowInstalledElementRemoval(configuration.allowInstalledRemoval);
 		av.setAllowPartialInstall(configuration.allowPartialInstall);
-		av.setProvisioningContext(getProvisioningContext());
+		av.setProvisioningContext(context);
 		remedy.setRequest((ProfileChangeRequest) av.getChangeRequest(originalRequest, ((ProfileChangeRequest) originalRequest).getProfile(), monitor));
 		if (remedy.getRequest() == null) {
 			return null;
 		}
+		remedy.setInstallationRelaxedWeight(getInstallationRelaxedWeight(configuration));
+		remedy.setBeingInstalledRelaxedWeight(getBeingInstalledRelaxedWeight(configuration));
+		computeRemedyDetails(remedy);
+		return remedy;
+	}
 
+	private static int getInstallationRelaxedWeight(RemedyConfig configuration) {
 		if (configuration.allowInstalledUpdate && !configuration.allowInstalledRemoval) {
-			remedy.setInstallationRelaxedWeight(HIGH_WEIGHT);
+			return HIGH_WEIGHT;
 		} else if (!configuration.allowInstalledUpdate && configuration.allowInstalledRemoval) {
-			remedy.setInstallationRelaxedWeight(MEDIUM_WEIGHT);
+			return MEDIUM_WEIGHT;
 		} else if (configuration.allowInstalledUpdate && configuration.allowInstalledRemoval) {
-			remedy.setInstallationRelaxedWeight(LOW_WEIGHT);
+			return LOW_WEIGHT;
 		} else {
-			remedy.setInstallationRelaxedWeight(ZERO_WEIGHT);
+			return ZERO_WEIGHT;
 		}
+	}
 
+	private static int getBeingInstalledRelaxedWeight(RemedyConfig configuration) {
 		if (configuration.allowDifferentVersion && !configuration.allowPartialInstall) {
-			remedy.setBeingInstalledRelaxedWeight(HIGH_WEIGHT);
+			return HIGH_WEIGHT;
 		} else if (!configuration.allowDifferentVersion && configuration.allowPartialInstall) {
-			remedy.setBeingInstalledRelaxedWeight(MEDIUM_WEIGHT);
+			return MEDIUM_WEIGHT;
 		} else if (configuration.allowDifferentVersion && configuration.allowPartialInstall) {
-			remedy.setBeingInstalledRelaxedWeight(LOW_WEIGHT);
+			return LOW_WEIGHT;
 		} else {
-			remedy.setBeingInstalledRelaxedWeight(ZERO_WEIGHT);
+			return ZERO_WEIGHT;
 		}
-		computeRemedyDetails(remedy);
-		return remedy;
 	}
 
 	@Override
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2017 IBM Corporation and others.
+ * Copyright (c) 2007, 2026 IBM Corporation and others.
  * All rights reserved.
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License 2.0 which accompanies this distribution,
@@ -17,6 +17,9 @@ package org.eclipse.equinox.internal.p2.reconciler.dropins;
 import java.io.*;
 import java.net.URI;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import org.eclipse.core.runtime.*;
 import org.eclipse.equinox.internal.p2.artifact.repository.ArtifactRepositoryManager;
@@ -51,6 +54,8 @@ public class Activator implements BundleActivator {
 	private static final String CONFIG_INI = "config.ini"; //$NON-NLS-1$
 	private static final String PLATFORM_CFG = "org.eclipse.update/platform.xml"; //$NON-NLS-1$
 	private static final String CACHE_FILENAME = "cache.timestamps"; //$NON-NLS-1$
+	private static final String DIGEST = "digest"; //$NON-NLS-1$
+	private static final String DIGEST_ALGORITHM = "SHA-256"; //$NON-NLS-1$
 	private static final String DIR_ECLIPSE = "eclipse"; //$NON-NLS-1$
 	private static final String DIR_PLUGINS = "plugins"; //$NON-NLS-1$
 	private static final String DIR_FEATURES = "features"; //$NON-NLS-1$
@@ -154,24 +159,31 @@ public class Activator implements BundleActivator {
 	@Override
 	public void start(BundleContext context) throws Exception {
 		bundleContext = context;
+		long start = System.currentTimeMillis();
 
 		// check to see if there is really any work to do. Do this after setting the context, and
 		// doing other initialization in case others call our public methods later.
 		if (isUpToDate()) {
+			traceTime("Checked for changes", start); //$NON-NLS-1$
 			// clear the cache
 			filesToCheck = null;
 			return;
 		}
+		long time = traceTime("Checked for changes", start); //$NON-NLS-1$
 
 		checkConfigIni();
 
 		// create the watcher for the "drop-ins" folder
 		watchDropins();
+		time = traceTime("Scanned dropins and links", time); //$NON-NLS-1$
 		// keep an eye on the platform.xml
 		watchConfiguration();
+		time = traceTime("Scanned configured sites", time); //$NON-NLS-1$
 
 		synchronize(null);
+		time = traceTime("Synchronized profile", time); //$NON-NLS-1$
 		writeTimestamps();
+		traceTime("Reconciled", start); //$NON-NLS-1$
 
 		// we should probably be holding on to these repos by URL
 		// see Bug 223422
@@ -227,51 +239,69 @@ public class Activator implements BundleActivator {
 			return false;
 		}
 
-		// read timestamps
+		// read the digest of the watched files
 		Properties timestamps = readTimestamps();
-		if (timestamps.isEmpty()) {
-			trace("Cached timestamp file empty."); //$NON-NLS-1$
+		String expected = timestamps.getProperty(DIGEST);
+		if (expected == null) {
+			trace("Cached digest missing."); //$NON-NLS-1$
 			trace("Performing reconciliation."); //$NON-NLS-1$
 			return false;
 		}
 
-		// gather the list of files/folders that we need to check
-		Collection<File> files = getFilesToCheck();
-		for (File file : files) {
-			String key = file.getAbsolutePath();
-			String timestamp = timestamps.getProperty(key);
-			if (timestamp == null) {
-				trace("Missing timestamp for file: " + key); //$NON-NLS-1$
-				trace("Performing reconciliation."); //$NON-NLS-1$
-				return false;
-			}
-			long lastModified = file.lastModified();
-			if (!Long.toString(lastModified).equals(timestamp)) {
-				trace("Timestamp has been updated for file: " + key + ", expected: " + timestamp + ", actual: " + lastModified); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-				trace("Performing reconciliation."); //$NON-NLS-1$
-				return false;
-			}
-			timestamps.remove(key);
-		}
-
-		// if we had some extra timestamps in the file, then signal that something has
-		// changed and we need to reconcile
-		boolean result = timestamps.isEmpty();
+		String actual = computeDigest(getFilesToCheck());
+		boolean result = expected.equals(actual);
 		if (result) {
-			trace("Cached timestamp values up to date."); //$NON-NLS-1$
+			trace("Cached digest up to date."); //$NON-NLS-1$
 			trace("Reconciliation skipped."); //$NON-NLS-1$
 		} else {
-			if (Tracing.DEBUG_RECONCILER) {
-				trace("Found extra values in cached timestamp file: "); //$NON-NLS-1$
-				for (Object object : timestamps.keySet()) {
-					trace(object);
-				}
-				trace("Performing reconciliation. "); //$NON-NLS-1$
-			}
+			trace("Digest of watched files has changed, expected: " + expected + ", actual: " + actual); //$NON-NLS-1$ //$NON-NLS-2$
+			trace("Performing reconciliation."); //$NON-NLS-1$
 		}
 		return result;
 	}
 
+	/*
+	 * Return a digest of the given files and of the listings of the given directories, including
+	 * the names, sizes and timestamps of their entries. Unlike the timestamp of a directory, it also
+	 * changes when a bundle in a watched directory is replaced in place.
+	 */
+	public static String computeDigest(Collection<File> files) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			// every Java runtime supports SHA-256
+			throw new IllegalStateException(e);
+		}
+		List<File> sorted = new ArrayList<>(files);
+		sorted.sort(Comparator.comparing(File::getAbsolutePath));
+		for (File file : sorted) {
+			update(digest, file.getAbsolutePath(), file);
+			File[] children = file.listFiles();
+			if (children == null) {
+				continue;
+			}
+			Arrays.sort(children, Comparator.comparing(File::getName));
+			for (File child : children) {
+				update(digest, child.getName(), child);
+			}
+		}
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	private static void update(MessageDigest digest, String name, File file) {
+		digest.update(name.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) 0);
+		long lastModified = file.lastModified();
+		long length = file.isDirectory() ? -1 : file.length();
+		for (int shift = 56; shift >= 0; shift -= 8) {
+			digest.update((byte) (lastModified >>> shift));
+		}
+		for (int shift = 56; shift >= 0; shift -= 8) {
+			digest.update((byte) (length >>> shift));
+		}
+	}
+
 	/*
 	 * Restore the cached timestamp values.
 	 */
@@ -407,14 +437,11 @@ public class Activator implements BundleActivator {
 	}
 
 	/*
-	 * Persist the cache timestamp values.
+	 * Persist the digest of the watched files.
 	 */
 	private void writeTimestamps() {
 		Properties timestamps = new Properties();
-		Collection<File> files = getFilesToCheck();
-		for (File file : files) {
-			timestamps.put(file.getAbsolutePath(), Long.toString(file.lastModified()));
-		}
+		timestamps.put(DIGEST, computeDigest(getFilesToCheck()));
 
 		// write out the file
 		File file = Activator.getContext().getDataFile(CACHE_FILENAME);
@@ -705,6 +732,16 @@ public class Activator implements BundleActivator {
 		return profileRegistry.getProfile(IProfileRegistry.SELF);
 	}
 
+	/*
+	 * If tracing is enabled, then write out the time spent in the given phase.
+	 * Return the current time, the start of the next phase.
+	 */
+	private static long traceTime(String phase, long start) {
+		long now = System.currentTimeMillis();
+		trace(phase + " in " + (now - start) + "ms"); //$NON-NLS-1$ //$NON-NLS-2$
+		return now;
+	}
+
 	/*
 	 * If tracing is enabled, then write out the given message.
 	 */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2017 IBM Corporation and others.
+ * Copyright (c) 2008, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,6 +18,7 @@ import java.io.*;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.*;
+import java.util.concurrent.*;
 import org.eclipse.core.runtime.*;
 import org.eclipse.equinox.internal.p2.core.helpers.LogHelper;
 import org.eclipse.equinox.internal.p2.core.helpers.Tracing;
@@ -49,9 +50,12 @@ public class DropinsRepositoryListener extends RepositoryListener {
 	private static final String DROPIN_ARTIFACT_REPOSITORIES = "dropin.artifactRepositories"; //$NON-NLS-1$
 	private static final String DROPIN_METADATA_REPOSITORIES = "dropin.metadataRepositories"; //$NON-NLS-1$
 	private static final String PIPE = "|"; //$NON-NLS-1$
+	private static final int MAX_THREADS = Integer.getInteger("p2.reconciler.maxThreads", 4); //$NON-NLS-1$
 	private final IProvisioningAgent agent;
 	private final List<IMetadataRepository> metadataRepositories = new ArrayList<>();
 	private final List<IArtifactRepository> artifactRepositories = new ArrayList<>();
+	// the repositories found during a poll, created when the poll stops
+	private final Map<URI, Map<String, String>> pendingRepositories = new LinkedHashMap<>();
 
 	static class LinkedRepository {
 		LinkedRepository(File location) {
@@ -130,8 +134,68 @@ public class DropinsRepositoryListener extends RepositoryListener {
 				properties.put(Site.PROP_LINK_FILE, file.getAbsolutePath());
 			}
 		}
-		getMetadataRepository(repoLocation, properties);
-		getArtifactRepository(repoLocation, properties);
+		pendingRepositories.putIfAbsent(repoLocation, properties);
+	}
+
+	/*
+	 * Create or load the repositories found during the poll. The repositories are independent
+	 * of each other, so they are created and scanned concurrently.
+	 */
+	private void createPendingRepositories() {
+		List<Map.Entry<URI, Map<String, String>>> pending = new ArrayList<>(pendingRepositories.entrySet());
+		pendingRepositories.clear();
+		int threads = Math.min(pending.size(), MAX_THREADS);
+		if (threads <= 1) {
+			for (Map.Entry<URI, Map<String, String>> entry : pending) {
+				getMetadataRepository(entry.getKey(), entry.getValue());
+				getArtifactRepository(entry.getKey(), entry.getValue());
+			}
+			return;
+		}
+		List<Future<IRepository<?>[]>> results = new ArrayList<>(pending.size());
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			for (Map.Entry<URI, Map<String, String>> entry : pending) {
+				results.add(executor.submit(() -> createRepositories(entry.getKey(), entry.getValue())));
+			}
+			// add the repositories in the order they were found
+			for (int i = 0; i < results.size(); i++) {
+				IRepository<?>[] repositories;
+				try {
+					repositories = results.get(i).get();
+				} catch (ExecutionException e) {
+					LogHelper.log(new Status(IStatus.ERROR, Activator.ID, "Error occurred while creating repository: " + pending.get(i).getKey(), e.getCause())); //$NON-NLS-1$
+					continue;
+				}
+				if (repositories[0] != null) {
+					metadataRepositories.add((IMetadataRepository) repositories[0]);
+				}
+				if (repositories[1] != null) {
+					artifactRepositories.add((IArtifactRepository) repositories[1]);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Creates or loads the metadata and the artifact repository of the given location.
+	 * Called concurrently for the locations found during a poll.
+	 *
+	 * @param repoURL the location of the repositories
+	 * @param properties the properties of the repositories
+	 * @return the metadata and the artifact repository, either of them may be <code>null</code>
+	 */
+	protected IRepository<?>[] createRepositories(URI repoURL, Map<String, String> properties) {
+		IMetadataRepository metadataRepository = createMetadataRepository(repoURL, properties);
+		if (metadataRepository instanceof ExtensionLocationMetadataRepository extensionLocation) {
+			// scan the extension location now rather than on the first query
+			extensionLocation.ensureInitialized();
+		}
+		return new IRepository<?>[] {metadataRepository, createArtifactRepository(repoURL, properties)};
 	}
 
 	/*
@@ -237,6 +301,13 @@ public class DropinsRepositoryListener extends RepositoryListener {
 	}
 
 	public void getMetadataRepository(URI repoURL, Map<String, String> properties) {
+		IMetadataRepository repository = createMetadataRepository(repoURL, properties);
+		if (repository != null) {
+			metadataRepositories.add(repository);
+		}
+	}
+
+	private IMetadataRepository createMetadataRepository(URI repoURL, Map<String, String> properties) {
 		try {
 			IMetadataRepository repository = null;
 			try {
@@ -245,10 +316,11 @@ public class DropinsRepositoryListener extends RepositoryListener {
 			} catch (ProvisionException e) {
 				repository = Activator.loadMetadataRepository(repoURL, null);
 			}
-			metadataRepositories.add(repository);
 			debugRepository(repository);
+			return repository;
 		} catch (ProvisionException ex) {
 			LogHelper.log(ex);
+			return null;
 		}
 	}
 
@@ -265,6 +337,13 @@ public class DropinsRepositoryListener extends RepositoryListener {
 	}
 
 	public void getArtifactRepository(URI repoURL, Map<String, String> properties) {
+		IArtifactRepository repository = createArtifactRepository(repoURL, properties);
+		if (repository != null) {
+			artifactRepositories.add(repository);
+		}
+	}
+
+	private IArtifactRepository createArtifactRepository(URI repoURL, Map<String, String> properties) {
 		try {
 			IArtifactRepository repository = null;
 			try {
@@ -274,14 +353,16 @@ public class DropinsRepositoryListener extends RepositoryListener {
 			} catch (ProvisionException ex) {
 				repository = Activator.loadArtifactRepository(repoURL, null);
 			}
-			artifactRepositories.add(repository);
+			return repository;
 		} catch (ProvisionException ex) {
 			LogHelper.log(ex);
+			return null;
 		}
 	}
 
 	@Override
 	public void stopPoll() {
+		createPendingRepositories();
 		synchronizeDropinMetadataRepositories();
 		synchronizeDropinArtifactRepositories();
 		super.stopPoll();
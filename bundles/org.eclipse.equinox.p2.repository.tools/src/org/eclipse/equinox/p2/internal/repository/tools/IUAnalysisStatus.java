@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.internal.repository.tools;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.equinox.p2.metadata.IInstallableUnit;
+import org.eclipse.equinox.p2.repository.tools.analyzer.IUAnalyzer;
+
+/**
+ * An error that an {@link IUAnalyzer} reported for an IU. The IU is kept so
+ * that the errors of an analyzer that ran concurrently can be put back into
+ * the order of the analyzed IUs.
+ */
+public class IUAnalysisStatus extends Status {
+	private final IInstallableUnit iu;
+
+	public IUAnalysisStatus(IInstallableUnit iu, String message) {
+		super(IStatus.ERROR, Activator.ID, message);
+		this.iu = iu;
+	}
+
+	public IInstallableUnit getIU() {
+		return iu;
+	}
+}
@@ -14,68 +14,247 @@
 ******************************************************************************/
 package org.eclipse.equinox.p2.internal.repository.tools;
 
-import java.util.Iterator;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 import org.eclipse.core.runtime.*;
 import org.eclipse.equinox.p2.metadata.IInstallableUnit;
-import org.eclipse.equinox.p2.query.IQueryResult;
 import org.eclipse.equinox.p2.query.QueryUtil;
 import org.eclipse.equinox.p2.repository.metadata.IMetadataRepository;
 import org.eclipse.equinox.p2.repository.tools.analyzer.IIUAnalyzer;
 import org.eclipse.equinox.p2.repository.tools.analyzer.IUAnalyzer;
 
 /**
+ * Runs all registered {@link IIUAnalyzer}s over the IUs of the given
+ * repositories. The analyzers of a repository run in parallel with each other.
+ * Analyzers that are {@link IUAnalyzer#isConcurrent() concurrent} are
+ * additionally run in parallel over partitions of the IUs, all others see the
+ * IUs one after the other from a single thread. Either way, the errors of an
+ * analyzer are reported in the order of the IUs, and the results of the
+ * analyzers in the order of the analyzers.
+ * <p>
+ * The time spent in each analyzer is available through {@link #getTimings()}
+ * once the analysis is done.
+ * </p>
  * @since 2.0
  */
 public class RepositoryAnalyzer {
 
+	/**
+	 * The number of threads used to run the analyzers, defaults to the number of
+	 * available processors.
+	 */
+	private static final int MAX_THREADS = Integer.getInteger("p2.repositoryAnalyzer.maxThreads", //$NON-NLS-1$
+			Runtime.getRuntime().availableProcessors());
+
+	/**
+	 * The minimal number of IUs given to a single task of a concurrent analyzer.
+	 */
+	private static final int MIN_PARTITION_SIZE = 1000;
+
 	private final IMetadataRepository[] repositories;
+	private final Map<String, IIUAnalyzer> analyzers;
+	private final Map<String, Long> timings = new LinkedHashMap<>();
+
+	private static final class AnalyzerRun {
+		final IIUAnalyzer analyzer;
+		final String name;
+		final AtomicLong nanos = new AtomicLong();
+		volatile Throwable failure;
+
+		AnalyzerRun(IIUAnalyzer analyzer, String name) {
+			this.analyzer = analyzer;
+			this.name = name;
+		}
+
+		void analyze(List<IInstallableUnit> ius) {
+			long start = System.nanoTime();
+			try {
+				for (IInstallableUnit iu : ius) {
+					analyzer.analyzeIU(iu);
+				}
+			} catch (RuntimeException | LinkageError e) {
+				failure = e;
+			} finally {
+				nanos.addAndGet(System.nanoTime() - start);
+			}
+		}
+	}
 
 	public RepositoryAnalyzer(IMetadataRepository[] repositories) {
+		this(repositories, null);
+	}
+
+	/**
+	 * Creates a repository analyzer that runs the given analyzers instead of the
+	 * registered ones. The same analyzer instances are used for all repositories.
+	 *
+	 * @param repositories the repositories to analyze
+	 * @param analyzers the analyzers to run by name, in the order of their results,
+	 *        or <code>null</code> to run the registered analyzers
+	 */
+	public RepositoryAnalyzer(IMetadataRepository[] repositories, Map<String, IIUAnalyzer> analyzers) {
 		this.repositories = repositories;
+		this.analyzers = analyzers;
 	}
 
 	public IStatus analyze(IProgressMonitor monitor) {
 		MultiStatus result = new MultiStatus(Activator.ID, IStatus.OK, null, null);
+		timings.clear();
 
 		SubMonitor sub = SubMonitor.convert(monitor, repositories.length * 2);
-		IConfigurationElement[] config = RegistryFactory.getRegistry().getConfigurationElementsFor(IIUAnalyzer.ID);
-
-		for (IMetadataRepository repository : repositories) {
-			IQueryResult<IInstallableUnit> queryResult = repository.query(QueryUtil.createIUAnyQuery(), sub);
-			SubMonitor repositoryMonitor = SubMonitor.convert(sub, IProgressMonitor.UNKNOWN);
-			for (IConfigurationElement config1 : config) {
-				try {
-					IIUAnalyzer verifier = (IIUAnalyzer) config1.createExecutableExtension("class"); //$NON-NLS-1$
-					String analyizerName = config1.getAttribute("name"); //$NON-NLS-1$
-					if (verifier instanceof IUAnalyzer) {
-						((IUAnalyzer) verifier).setName(analyizerName);
-					}
-					verifier.preAnalysis(repository);
-					Iterator<IInstallableUnit> iter = queryResult.iterator();
-					while (iter.hasNext()) {
-						IInstallableUnit iu = iter.next();
-						verifier.analyzeIU(iu);
-					}
-					IStatus postAnalysisResult = verifier.postAnalysis();
-					if (postAnalysisResult == null) {
-						postAnalysisResult = new Status(IStatus.OK, Activator.ID, analyizerName);
-					}
-					if (postAnalysisResult.isOK() && !postAnalysisResult.isMultiStatus()) {
-						postAnalysisResult = new Status(IStatus.OK, Activator.ID, analyizerName);
-					}
-					result.add(postAnalysisResult);
-				} catch (CoreException e) {
-					if (e.getCause() instanceof ClassNotFoundException) {
-						result.add(new Status(IStatus.ERROR, Activator.ID,
-								"Cannot find: " + config1.getAttribute("class"))); //$NON-NLS-1$ //$NON-NLS-2$
-					} else {
-						e.printStackTrace();
-					}
+		IConfigurationElement[] config = analyzers == null ? RegistryFactory.getRegistry().getConfigurationElementsFor(IIUAnalyzer.ID) : null;
+
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, MAX_THREADS));
+		try {
+			for (IMetadataRepository repository : repositories) {
+				List<IInstallableUnit> ius = new ArrayList<>();
+				repository.query(QueryUtil.createIUAnyQuery(), sub.split(1)).forEach(ius::add);
+				List<AnalyzerRun> runs = analyzers == null ? createAnalyzers(config, result) : createAnalyzers(analyzers);
+				for (AnalyzerRun run : runs) {
+					long start = System.nanoTime();
+					run.analyzer.preAnalysis(repository);
+					run.nanos.addAndGet(System.nanoTime() - start);
+				}
+				if (!analyzeIUs(executor, runs, ius, sub.split(1))) {
+					result.add(Status.CANCEL_STATUS);
+					break;
+				}
+				Map<IInstallableUnit, Integer> order = new HashMap<>();
+				for (int i = 0; i < ius.size(); i++) {
+					order.put(ius.get(i), i);
+				}
+				for (AnalyzerRun run : runs) {
+					result.add(sortByIU(postAnalysis(run), order));
+					timings.merge(run.name, TimeUnit.NANOSECONDS.toMillis(run.nanos.get()), Long::sum);
 				}
 			}
-			repositoryMonitor.done();
+		} finally {
+			executor.shutdownNow();
 		}
 		sub.done();
 		return result;
 	}
+
+	/**
+	 * Returns the time in milliseconds that each analyzer spent analyzing the
+	 * repositories in the last call to {@link #analyze(IProgressMonitor)}, summed
+	 * up over all threads the analyzer ran in. The map is ordered like the
+	 * analyzers were run.
+	 *
+	 * @return the time spent in each analyzer, by analyzer name
+	 */
+	public Map<String, Long> getTimings() {
+		return Collections.unmodifiableMap(timings);
+	}
+
+	private static List<AnalyzerRun> createAnalyzers(IConfigurationElement[] config, MultiStatus result) {
+		List<AnalyzerRun> runs = new ArrayList<>();
+		for (IConfigurationElement config1 : config) {
+			try {
+				IIUAnalyzer verifier = (IIUAnalyzer) config1.createExecutableExtension("class"); //$NON-NLS-1$
+				String analyizerName = config1.getAttribute("name"); //$NON-NLS-1$
+				if (verifier instanceof IUAnalyzer) {
+					((IUAnalyzer) verifier).setName(analyizerName);
+				}
+				runs.add(new AnalyzerRun(verifier, analyizerName));
+			} catch (CoreException e) {
+				if (e.getCause() instanceof ClassNotFoundException) {
+					result.add(new Status(IStatus.ERROR, Activator.ID,
+							"Cannot find: " + config1.getAttribute("class"))); //$NON-NLS-1$ //$NON-NLS-2$
+				} else {
+					e.printStackTrace();
+				}
+			}
+		}
+		return runs;
+	}
+
+	private static List<AnalyzerRun> createAnalyzers(Map<String, IIUAnalyzer> analyzers) {
+		List<AnalyzerRun> runs = new ArrayList<>();
+		analyzers.forEach((name, analyzer) -> {
+			if (analyzer instanceof IUAnalyzer) {
+				((IUAnalyzer) analyzer).setName(name);
+			}
+			runs.add(new AnalyzerRun(analyzer, name));
+		});
+		return runs;
+	}
+
+	/**
+	 * Passes all IUs to all analyzers, splitting the IUs into partitions for the
+	 * concurrent analyzers.
+	 *
+	 * @return <code>false</code> if the analysis has been canceled
+	 */
+	private static boolean analyzeIUs(ExecutorService executor, List<AnalyzerRun> runs, List<IInstallableUnit> ius, IProgressMonitor monitor) {
+		CompletionService<Void> completion = new ExecutorCompletionService<>(executor);
+		List<Future<Void>> tasks = new ArrayList<>();
+		int partitionSize = Math.max(MIN_PARTITION_SIZE, (ius.size() + MAX_THREADS - 1) / Math.max(1, MAX_THREADS));
+		for (AnalyzerRun run : runs) {
+			if (run.analyzer instanceof IUAnalyzer analyzer && analyzer.isConcurrent()) {
+				for (int from = 0; from < ius.size(); from += partitionSize) {
+					List<IInstallableUnit> partition = ius.subList(from, Math.min(ius.size(), from + partitionSize));
+					tasks.add(completion.submit(() -> run.analyze(partition), null));
+				}
+			} else {
+				tasks.add(completion.submit(() -> run.analyze(ius), null));
+			}
+		}
+		SubMonitor sub = SubMonitor.convert(monitor, tasks.size());
+		try {
+			for (int done = 0; done < tasks.size(); done++) {
+				Future<Void> task = null;
+				while (task == null) {
+					if (sub.isCanceled()) {
+						tasks.forEach(t -> t.cancel(true));
+						return false;
+					}
+					task = completion.poll(100, TimeUnit.MILLISECONDS);
+				}
+				sub.worked(1);
+			}
+		} catch (InterruptedException e) {
+			tasks.forEach(t -> t.cancel(true));
+			Thread.currentThread().interrupt();
+			return false;
+		}
+		return true;
+	}
+
+	private static IStatus postAnalysis(AnalyzerRun run) {
+		if (run.failure != null) {
+			return new Status(IStatus.ERROR, Activator.ID, run.name, run.failure);
+		}
+		long start = System.nanoTime();
+		IStatus postAnalysisResult = run.analyzer.postAnalysis();
+		run.nanos.addAndGet(System.nanoTime() - start);
+		if (postAnalysisResult == null) {
+			postAnalysisResult = new Status(IStatus.OK, Activator.ID, run.name);
+		}
+		if (postAnalysisResult.isOK() && !postAnalysisResult.isMultiStatus()) {
+			postAnalysisResult = new Status(IStatus.OK, Activator.ID, run.name);
+		}
+		return postAnalysisResult;
+	}
+
+	/**
+	 * Puts the errors reported for IUs into the order of the analyzed IUs, the
+	 * order in which an analyzer that is not concurrent reports them. Errors that
+	 * are not about an IU keep their place at the end.
+	 */
+	private static IStatus sortByIU(IStatus status, Map<IInstallableUnit, Integer> order) {
+		if (!status.isMultiStatus()) {
+			return status;
+		}
+		IStatus[] children = status.getChildren().clone();
+		// the sort is stable, errors about the same IU keep their order
+		Arrays.sort(children, Comparator.comparingInt(child -> {
+			if (child instanceof IUAnalysisStatus error) {
+				return order.getOrDefault(error.getIU(), Integer.MAX_VALUE);
+			}
+			return Integer.MAX_VALUE;
+		}));
+		return new MultiStatus(status.getPlugin(), status.getCode(), children, status.getMessage(), status.getException());
+	}
 }
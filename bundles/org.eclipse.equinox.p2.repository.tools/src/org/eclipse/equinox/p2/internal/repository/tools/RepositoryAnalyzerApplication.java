@@ -61,6 +61,8 @@ public class RepositoryAnalyzerApplication implements IApplication {
 				}
 			}
 		}
+		System.out.println("Time spent per analyzer:");
+		repositoryAnalyzer.getTimings().forEach((name, millis) -> System.out.println("   " + name + ": " + millis + " ms"));
 		return IApplication.EXIT_OK;
 	}
 
@@ -44,6 +44,11 @@ public class CopyrightAnalyzer extends IUAnalyzer {
 		}
 	}
 
+	@Override
+	public boolean isConcurrent() {
+		return true;
+	}
+
 	@Override
 	public void preAnalysis(IMetadataRepository repository) {
 		// do nothing
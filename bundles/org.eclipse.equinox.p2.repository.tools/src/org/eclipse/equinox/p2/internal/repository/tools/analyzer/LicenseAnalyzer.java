@@ -50,6 +50,11 @@ public class LicenseAnalyzer extends IUAnalyzer {
 		}
 	}
 
+	@Override
+	public boolean isConcurrent() {
+		return true;
+	}
+
 	@Override
 	public void preAnalysis(IMetadataRepository repository) {
 		// Do nothing
@@ -46,6 +46,11 @@ public class UnzipFeatureJarAnalyzer extends IUAnalyzer {
 
 	}
 
+	@Override
+	public boolean isConcurrent() {
+		return true;
+	}
+
 	@Override
 	public void preAnalysis(IMetadataRepository repository) {
 		// Do nothing
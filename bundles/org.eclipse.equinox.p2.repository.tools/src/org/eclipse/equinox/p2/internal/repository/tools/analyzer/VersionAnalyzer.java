@@ -56,6 +56,11 @@ public class VersionAnalyzer extends IUAnalyzer {
 		return new org.osgi.framework.Version(version.toString());
 	}
 
+	@Override
+	public boolean isConcurrent() {
+		return true;
+	}
+
 	@Override
 	public void preAnalysis(IMetadataRepository repo) {
 		// Do nothing
@@ -14,20 +14,25 @@
 ******************************************************************************/
 package org.eclipse.equinox.p2.repository.tools.analyzer;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 import org.eclipse.core.runtime.*;
 import org.eclipse.equinox.p2.internal.repository.tools.Activator;
+import org.eclipse.equinox.p2.internal.repository.tools.IUAnalysisStatus;
 import org.eclipse.equinox.p2.metadata.IInstallableUnit;
 
 /**
  * An abstract base class for the Analyzer.  Clients are encouraged to extends this 
  * class when defining IU Analysis extension points.
+ * <p>
+ * Errors reported through {@link #error(IInstallableUnit, String)} are collected
+ * in a thread-safe way, so that subclasses which do not keep any state between
+ * the analyzed IUs can declare themselves {@link #isConcurrent() concurrent}.
+ * </p>
  * @since 2.0
  */
 public abstract class IUAnalyzer implements IIUAnalyzer {
 
-	private List<IStatus> errors = null;
+	private final List<IStatus> errors = Collections.synchronizedList(new ArrayList<>());
 	private String analyzerName;
 
 	public void setName(String name) {
@@ -35,17 +40,33 @@ public abstract class IUAnalyzer implements IIUAnalyzer {
 	}
 
 	protected void error(IInstallableUnit iu, String error) {
-		if (errors == null) {
-			errors = new ArrayList<>();
-		}
-		errors.add(new Status(IStatus.ERROR, Activator.ID, error));
+		errors.add(new IUAnalysisStatus(iu, error));
+	}
+
+	/**
+	 * Returns whether {@link #analyzeIU(IInstallableUnit)} may be called
+	 * concurrently for different IUs of the same repository. This is the case if
+	 * the analysis of an IU neither reads nor writes state that is modified while
+	 * analyzing other IUs. Non-concurrent analyzers are always called from a
+	 * single thread.
+	 * <p>
+	 * The default implementation returns <code>false</code>.
+	 * </p>
+	 *
+	 * @return <code>true</code> if the IUs may be analyzed concurrently
+	 * @since 2.5
+	 */
+	public boolean isConcurrent() {
+		return false;
 	}
 
 	@Override
 	public IStatus postAnalysis() {
-		if (errors == null || errors.size() == 0) {
-			return Status.OK_STATUS;
+		synchronized (errors) {
+			if (errors.isEmpty()) {
+				return Status.OK_STATUS;
+			}
+			return new MultiStatus(Activator.ID, IStatus.ERROR, errors.toArray(new IStatus[errors.size()]), analyzerName, null);
 		}
-		return new MultiStatus(Activator.ID, IStatus.ERROR, errors.toArray(new IStatus[errors.size()]), analyzerName, null);
 	}
 }
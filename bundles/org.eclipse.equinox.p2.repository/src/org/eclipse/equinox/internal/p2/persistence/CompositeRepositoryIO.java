@@ -38,7 +38,7 @@ public class CompositeRepositoryIO {
 		try {
 			try {
 				bufferedOutput = new BufferedOutputStream(output);
-				CompositeWriter repositoryWriter = new CompositeWriter(bufferedOutput, type);
+				CompositeWriter repositoryWriter = new CompositeWriter(bufferedOutput, type, !XMLWriter.COMPACT);
 				repositoryWriter.write(repository);
 			} finally {
 				if (bufferedOutput != null) {
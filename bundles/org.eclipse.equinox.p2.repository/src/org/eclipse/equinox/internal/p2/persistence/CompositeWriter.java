@@ -27,7 +27,11 @@ public class CompositeWriter extends XMLWriter implements XMLConstants {
 	private static final Version CURRENT_VERSION = Version.createOSGi(1, 0, 0);
 
 	public CompositeWriter(OutputStream output, String type) {
-		super(output, new XMLWriter.ProcessingInstruction[] {XMLWriter.ProcessingInstruction.makeTargetVersionInstruction(type, CURRENT_VERSION)});
+		this(output, type, true);
+	}
+
+	public CompositeWriter(OutputStream output, String type, boolean indent) {
+		super(output, new XMLWriter.ProcessingInstruction[] {XMLWriter.ProcessingInstruction.makeTargetVersionInstruction(type, CURRENT_VERSION)}, indent);
 		// TODO: add a processing instruction for the metadata version
 	}
 
@@ -0,0 +1,245 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.persistence;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only log of records kept next to the index file of a repository.
+ * Repositories append their changes to the journal instead of rewriting the
+ * whole index file on every change, replay the journal after loading the index
+ * file, and delete the journal once they have rewritten the index file.
+ * <p>
+ * Every record is stored with its length and checksum. A record that was only
+ * partially written, e.g. because the process was killed while appending it,
+ * is ignored when reading and overwritten by the next append.
+ * </p>
+ * <p>
+ * The journal is stamped with the generation of the index file it extends,
+ * which the repository stores in its {@link #PROP_GENERATION} property and
+ * increments whenever it rewrites the index file. A journal that could not be
+ * deleted after the index file was rewritten, e.g. because the process was
+ * killed in between, has an older generation and is skipped when reading, as
+ * replaying changes that the index file already contains would undo the
+ * changes written after them.
+ * </p>
+ */
+public class Journal {
+	/**
+	 * Boolean repository property to enable the journal of a local repository.
+	 */
+	public static final String PROP_JOURNAL = "p2.journal"; //$NON-NLS-1$
+
+	/**
+	 * The number of journaled changes after which repositories compact the
+	 * journal, i.e. rewrite the index file and delete the journal.
+	 */
+	public static final int COMPACTION_THRESHOLD = Integer.getInteger("p2.journal.compactionThreshold", 1000); //$NON-NLS-1$
+
+	/**
+	 * Repository property holding the generation of the index file, see
+	 * {@link #nextGeneration(String)}.
+	 */
+	public static final String PROP_GENERATION = "p2.journal.generation"; //$NON-NLS-1$
+
+	private static final int MAGIC = 0x50324A4C; // P2JL
+	private static final int FORMAT_VERSION = 1;
+	private static final int HEADER_SIZE = 16;
+	private static final int RECORD_HEADER_SIZE = 8;
+
+	private final File file;
+	private long validLength;
+	private long generation;
+	private int recordCount;
+	// whether validLength is known, i.e. the journal was read or deleted
+	private boolean positioned;
+
+	public Journal(File file) {
+		this.file = file;
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Returns the number of records read or appended by this instance since
+	 * the journal was last read or deleted.
+	 */
+	public int getRecordCount() {
+		return recordCount;
+	}
+
+	/**
+	 * Returns the generation of the given {@link #PROP_GENERATION} property
+	 * value, <code>0</code> if it is not set.
+	 */
+	public static long getGeneration(String property) {
+		if (property != null) {
+			try {
+				return Long.parseLong(property);
+			} catch (NumberFormatException e) {
+				// treat it as unset
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Returns the {@link #PROP_GENERATION} property value a repository stores
+	 * when it rewrites its index file, given the current value.
+	 */
+	public static String nextGeneration(String property) {
+		return Long.toString(getGeneration(property) + 1);
+	}
+
+	/**
+	 * Returns whether the journal file exists.
+	 */
+	public boolean exists() {
+		return file.exists();
+	}
+
+	/**
+	 * Reads the complete records of the journal of the given generation of the
+	 * index file.
+	 *
+	 * @param indexGeneration the generation of the index file the records are
+	 *                        replayed on
+	 * @return the records in the order they were appended, empty if there is
+	 *         no journal or the journal belongs to an older generation of the
+	 *         index file
+	 * @throws IOException if the journal cannot be read or was written in an
+	 *                     unknown format
+	 */
+	public List<byte[]> read(long indexGeneration) throws IOException {
+		List<byte[]> records = new ArrayList<>();
+		validLength = 0;
+		recordCount = 0;
+		positioned = true;
+		long length = file.length();
+		if (length < HEADER_SIZE) {
+			// missing or the header was not written completely
+			return records;
+		}
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION) {
+				throw new IOException("Unknown journal format: " + file); //$NON-NLS-1$
+			}
+			if (input.readLong() != indexGeneration) {
+				// stale, the index file already contains these records
+				return records;
+			}
+			generation = indexGeneration;
+			long position = HEADER_SIZE;
+			CRC32 crc = new CRC32();
+			while (position + RECORD_HEADER_SIZE <= length) {
+				int size = input.readInt();
+				int checksum = input.readInt();
+				if (size < 0 || position + RECORD_HEADER_SIZE + size > length) {
+					break;
+				}
+				byte[] record = new byte[size];
+				input.readFully(record);
+				crc.reset();
+				crc.update(record);
+				if ((int) crc.getValue() != checksum) {
+					break;
+				}
+				records.add(record);
+				position += RECORD_HEADER_SIZE + size;
+			}
+			validLength = position;
+		}
+		recordCount = records.size();
+		return records;
+	}
+
+	/**
+	 * Returns whether records can be appended through this instance, i.e. the
+	 * journal was read or deleted through it. An instance that has not read the
+	 * journal does not know where its complete records end, the caller has to
+	 * rewrite the index file instead.
+	 */
+	public boolean canAppend() {
+		return positioned;
+	}
+
+	/**
+	 * Appends the given records with a single write. Any incomplete record at
+	 * the end of the journal, or a journal of another generation of the index
+	 * file, is overwritten. The journal must have been read or deleted through
+	 * this instance before, and nobody else may have appended to it since, i.e.
+	 * the caller must hold the lock of the repository.
+	 *
+	 * @param indexGeneration the generation of the index file the records
+	 *                        extend
+	 * @param records         the records to append
+	 * @throws IOException           if the records could not be written
+	 * @throws IllegalStateException if the journal was not read or deleted
+	 *                               through this instance
+	 * @see #canAppend()
+	 */
+	public void append(long indexGeneration, List<byte[]> records) throws IOException {
+		if (!positioned) {
+			throw new IllegalStateException("Journal was not read: " + file); //$NON-NLS-1$
+		}
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		DataOutputStream output = new DataOutputStream(buffer);
+		long start = validLength;
+		if (start < HEADER_SIZE || generation != indexGeneration || !file.exists()) {
+			start = 0;
+			recordCount = 0;
+			output.writeInt(MAGIC);
+			output.writeInt(FORMAT_VERSION);
+			output.writeLong(indexGeneration);
+		}
+		CRC32 crc = new CRC32();
+		for (byte[] record : records) {
+			crc.reset();
+			crc.update(record);
+			output.writeInt(record.length);
+			output.writeInt((int) crc.getValue());
+			output.write(record);
+		}
+		output.flush();
+		file.getParentFile().mkdirs();
+		try (RandomAccessFile journal = new RandomAccessFile(file, "rw")) { //$NON-NLS-1$
+			if (journal.length() != start) {
+				journal.setLength(start);
+			}
+			journal.seek(start);
+			journal.write(buffer.toByteArray());
+		}
+		validLength = start + buffer.size();
+		generation = indexGeneration;
+		recordCount += records.size();
+	}
+
+	/**
+	 * Deletes the journal, typically after the index file was rewritten with
+	 * all changes.
+	 *
+	 * @return <code>true</code> if there is no journal anymore
+	 */
+	public boolean delete() {
+		validLength = 0;
+		recordCount = 0;
+		positioned = true;
+		return !file.exists() || file.delete();
+	}
+}
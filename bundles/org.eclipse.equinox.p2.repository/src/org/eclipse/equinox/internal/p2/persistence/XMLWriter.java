@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2007, 2017 IBM Corporation and others.
+ *  Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -24,6 +24,14 @@ public class XMLWriter implements XMLConstants {
 
 	static final boolean ignoreWhitespace = Boolean.getBoolean("p2.ignoreWhitespace"); //$NON-NLS-1$
 
+	/**
+	 * Whether the writers of the metadata, artifact and composite repositories
+	 * and of the profiles write their files without indentation and line breaks.
+	 * Unlike <code>p2.ignoreWhitespace</code>, this leaves other documents
+	 * indented.
+	 */
+	public static final boolean COMPACT = Boolean.getBoolean("p2.compactXML"); //$NON-NLS-1$
+
 	public static class ProcessingInstruction {
 
 		private final String target;
@@ -60,16 +68,36 @@ public class XMLWriter implements XMLConstants {
 		}
 	}
 
-	private final Stack<String> elements; // XML elements that have not yet been closed
+	private static final String LINE_SEPARATOR = System.lineSeparator();
+	private static final int BUFFER_SIZE = 8192;
+
+	private final List<String> elements = new ArrayList<>(); // XML elements that have not yet been closed
 	private boolean open; // Can attributes be added to the current element?
 	private final String indent; // used for each level of indentation
+	private final boolean compact; // no indentation and line breaks
 
-	private final PrintWriter pw;
+	// the characters are collected here and encoded in large chunks
+	private final Writer out;
+	private final char[] buffer = new char[BUFFER_SIZE];
+	private int count;
+	private boolean error;
 
 	public XMLWriter(OutputStream output, ProcessingInstruction[] piElements) {
-		this.pw = new PrintWriter(new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8)), false);
+		this(output, piElements, true);
+	}
+
+	/**
+	 * Creates a writer for the given stream.
+	 *
+	 * @param output the stream the document is written to
+	 * @param piElements the processing instructions written after the XML declaration
+	 * @param indent whether the elements are written on lines of their own and
+	 * indented, <code>false</code> writes the most compact document
+	 */
+	public XMLWriter(OutputStream output, ProcessingInstruction[] piElements, boolean indent) {
+		this.out = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+		this.compact = ignoreWhitespace || !indent;
 		println(ProcessingInstruction.XML_UTF8);
-		this.elements = new Stack<>();
 		this.open = false;
 		this.indent = "  "; //$NON-NLS-1$
 		if (piElements != null) {
@@ -84,39 +112,40 @@ public class XMLWriter implements XMLConstants {
 		if (this.open) {
 			println('>');
 		}
-		if (!ignoreWhitespace) {
-			indent();
-		}
+		indent();
 		print('<');
 		print(name);
-		this.elements.push(name);
+		this.elements.add(name);
 		this.open = true;
 	}
 
 	// end the most recent element with this name
 	public void end(String name) {
-		if (this.elements.empty()) {
+		if (this.elements.isEmpty()) {
 			throw new EndWithoutStartError();
 		}
-		int index = this.elements.search(name);
+		int index = this.elements.lastIndexOf(name);
 		if (index == -1) {
 			throw new EndWithoutStartError(name);
 		}
-		for (int i = 0; i < index; i += 1) {
+		for (int i = this.elements.size(); i > index; i -= 1) {
 			end();
 		}
 	}
 
 	// end the current element
 	public void end() {
-		if (this.elements.empty()) {
+		if (this.elements.isEmpty()) {
 			throw new EndWithoutStartError();
 		}
-		String name = this.elements.pop();
+		String name = this.elements.remove(this.elements.size() - 1);
 		if (this.open) {
 			println("/>"); //$NON-NLS-1$
 		} else {
-			printlnIndented("</" + name + '>', false); //$NON-NLS-1$
+			indent();
+			print("</"); //$NON-NLS-1$
+			print(name);
+			println('>');
 		}
 		this.open = false;
 	}
@@ -124,48 +153,18 @@ public class XMLWriter implements XMLConstants {
 	public static String escape(String txt) {
 		StringBuilder buffer = null;
 		for (int i = 0; i < txt.length(); ++i) {
-			String replace;
 			char c = txt.charAt(i);
-			switch (c) {
-				case '<' :
-					replace = "&lt;"; //$NON-NLS-1$
-					break;
-				case '>' :
-					replace = "&gt;"; //$NON-NLS-1$
-					break;
-				case '"' :
-					replace = "&quot;"; //$NON-NLS-1$
-					break;
-				case '\'' :
-					replace = "&apos;"; //$NON-NLS-1$
-					break;
-				case '&' :
-					replace = "&amp;"; //$NON-NLS-1$
-					break;
-				case '\t' :
-					replace = "&#x9;"; //$NON-NLS-1$
-					break;
-				case '\n' :
-					replace = "&#xA;"; //$NON-NLS-1$
-					break;
-				case '\r' :
-					replace = "&#xD;"; //$NON-NLS-1$
-					break;
-				default :
-					// this is the set of legal xml scharacters in unicode excluding high surrogates since they cannot be represented with a char
-					// see http://www.w3.org/TR/REC-xml/#charsets
-					if ((c >= '\u0020' && c <= '\uD7FF') || (c >= '\uE000' && c <= '\uFFFD')) {
-						if (buffer != null) {
-							buffer.append(c);
-						}
-						continue;
-					}
-					replace = Character.isWhitespace(c) ? " " : null; //$NON-NLS-1$
+			if (isLegal(c)) {
+				if (buffer != null) {
+					buffer.append(c);
+				}
+				continue;
 			}
 			if (buffer == null) {
 				buffer = new StringBuilder(txt.length() + 16);
-				buffer.append(txt.substring(0, i));
+				buffer.append(txt, 0, i);
 			}
+			String replace = replacement(c);
 			if (replace != null) {
 				buffer.append(replace);
 			}
@@ -178,6 +177,46 @@ public class XMLWriter implements XMLConstants {
 		return buffer.toString();
 	}
 
+	// whether the character is written as is
+	private static boolean isLegal(char c) {
+		switch (c) {
+			case '<' :
+			case '>' :
+			case '"' :
+			case '\'' :
+			case '&' :
+				return false;
+			default :
+				// this is the set of legal xml scharacters in unicode excluding high surrogates since they cannot be represented with a char
+				// see http://www.w3.org/TR/REC-xml/#charsets
+				return (c >= '\u0020' && c <= '\uD7FF') || (c >= '\uE000' && c <= '\uFFFD');
+		}
+	}
+
+	// the replacement of a character that is not legal, null if it is omitted
+	private static String replacement(char c) {
+		switch (c) {
+			case '<' :
+				return "&lt;"; //$NON-NLS-1$
+			case '>' :
+				return "&gt;"; //$NON-NLS-1$
+			case '"' :
+				return "&quot;"; //$NON-NLS-1$
+			case '\'' :
+				return "&apos;"; //$NON-NLS-1$
+			case '&' :
+				return "&amp;"; //$NON-NLS-1$
+			case '\t' :
+				return "&#x9;"; //$NON-NLS-1$
+			case '\n' :
+				return "&#xA;"; //$NON-NLS-1$
+			case '\r' :
+				return "&#xD;"; //$NON-NLS-1$
+			default :
+				return Character.isWhitespace(c) ? " " : null; //$NON-NLS-1$
+		}
+	}
+
 	// write a boolean attribute if it doesn't have the default value
 	public void attribute(String name, boolean value, boolean defaultValue) {
 		if (value != defaultValue) {
@@ -209,7 +248,7 @@ public class XMLWriter implements XMLConstants {
 		print(' ');
 		print(name);
 		print("='"); //$NON-NLS-1$
-		print(escape(value.toString()));
+		printEscaped(value.toString());
 		print('\'');
 	}
 
@@ -228,7 +267,12 @@ public class XMLWriter implements XMLConstants {
 	}
 
 	public void flush() {
-		this.pw.flush();
+		flushBuffer();
+		try {
+			this.out.flush();
+		} catch (IOException e) {
+			this.error = true;
+		}
 	}
 
 	public void writeProperties(Map<String, ?> properties) {
@@ -315,48 +359,95 @@ public class XMLWriter implements XMLConstants {
 	}
 
 	private void println(char c) {
-		if (ignoreWhitespace) {
-			this.pw.print(c);
-		} else {
-			this.pw.println(c);
-		}
+		print(c);
+		println();
 	}
 
 	private void println(String s) {
-		if (ignoreWhitespace) {
-			this.pw.print(s);
-		} else {
-			this.pw.println(s);
-		}
+		print(s);
+		println();
 	}
 
 	private void println() {
-		if (!ignoreWhitespace) {
-			this.pw.println();
+		if (!compact) {
+			print(LINE_SEPARATOR);
 		}
 	}
 
 	private void print(char c) {
-		this.pw.print(c);
+		if (this.count == BUFFER_SIZE) {
+			flushBuffer();
+		}
+		this.buffer[this.count++] = c;
 	}
 
 	private void print(String s) {
-		this.pw.print(s);
+		print(s, 0, s.length());
+	}
+
+	private void print(String s, int begin, int end) {
+		int offset = begin;
+		while (offset < end) {
+			if (this.count == BUFFER_SIZE) {
+				flushBuffer();
+			}
+			int chunk = Math.min(end - offset, BUFFER_SIZE - this.count);
+			s.getChars(offset, offset + chunk, this.buffer, this.count);
+			this.count += chunk;
+			offset += chunk;
+		}
+	}
+
+	// same as print(escape(s)) without creating the escaped string
+	private void printEscaped(String s) {
+		int length = s.length();
+		int start = 0; // the first character that has not been printed
+		for (int i = 0; i < length; i++) {
+			char c = s.charAt(i);
+			if (isLegal(c)) {
+				continue;
+			}
+			print(s, start, i);
+			String replace = replacement(c);
+			if (replace != null) {
+				print(replace);
+			}
+			start = i + 1;
+		}
+		print(s, start, length);
+	}
+
+	private void flushBuffer() {
+		if (this.count == 0) {
+			return;
+		}
+		// like a PrintWriter the writer does not report failures, the output is incomplete
+		if (!this.error) {
+			try {
+				this.out.write(this.buffer, 0, this.count);
+			} catch (IOException e) {
+				this.error = true;
+			}
+		}
+		this.count = 0;
 	}
 
 	private void printlnIndented(String s, boolean escape) {
 		if (s.length() == 0) {
 			println();
 		} else {
-			if (!ignoreWhitespace) {
-				indent();
+			indent();
+			if (escape) {
+				printEscaped(s);
+			} else {
+				print(s);
 			}
-			println(escape ? escape(s) : s);
+			println();
 		}
 	}
 
 	private void indent() {
-		if (!ignoreWhitespace) {
+		if (!compact) {
 			for (int i = this.elements.size(); i > 0; i -= 1) {
 				print(this.indent);
 			}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2012 IBM Corporation and others.
+ * Copyright (c) 2008, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,6 +18,7 @@ package org.eclipse.equinox.internal.p2.repository;
 import java.io.*;
 import java.net.*;
 import java.util.HashSet;
+import java.util.Properties;
 import org.eclipse.core.runtime.*;
 import org.eclipse.equinox.internal.p2.core.helpers.LogHelper;
 import org.eclipse.equinox.internal.provisional.p2.core.eventbus.IProvisioningEventBus;
@@ -37,6 +38,13 @@ import org.eclipse.osgi.util.NLS;
  * Using the bus listeners will allow the manager to listen for repository
  * events. When a repository is removed, it will remove the cache file if one
  * was created for the repository.
+ *
+ * The entity tag of a cache file and the time it was last validated against
+ * the remote file are kept in a properties file next to it. If the transport
+ * supports {@link Transport#downloadIfModified conditional downloads}, a cache
+ * file is revalidated and updated with a single request. Within the
+ * {@link #FRESHNESS_PROPERTY freshness window} a cache file is used without
+ * any request.
  */
 public class CacheManager {
 	/**
@@ -44,6 +52,13 @@ public class CacheManager {
 	 */
 	public static final String SERVICE_NAME = CacheManager.class.getName();
 
+	/**
+	 * System property with the number of seconds a validated cache file is
+	 * used without checking the remote file again. The default is 0, i.e. the
+	 * remote file is always checked.
+	 */
+	public static final String FRESHNESS_PROPERTY = "p2.cache.freshness"; //$NON-NLS-1$
+
 	private final IAgentLocation agentLocation;
 
 	private final Transport transport;
@@ -81,6 +96,9 @@ public class CacheManager {
 	private static final String DOWNLOADING = "downloading"; //$NON-NLS-1$
 	private static final String JAR_EXTENSION = ".jar"; //$NON-NLS-1$
 	private static final String XML_EXTENSION = ".xml"; //$NON-NLS-1$
+	private static final String VALIDATORS_EXTENSION = ".validators"; //$NON-NLS-1$
+	private static final String ENTITY_TAG = "etag"; //$NON-NLS-1$
+	private static final String VALIDATED = "validated"; //$NON-NLS-1$
 
 	private final HashSet<String> knownPrefixes = new HashSet<>(5);
 
@@ -99,6 +117,9 @@ public class CacheManager {
 		SubMonitor submonitor = SubMonitor.convert(monitor, 1000);
 		try {
 			File cacheFile = getCacheFile(remoteFile);
+			if (cacheFile.exists() && (isFresh(cacheFile) || revalidate(cacheFile, remoteFile, submonitor))) {
+				return cacheFile;
+			}
 
 			boolean stale = true;
 			long lastModified = cacheFile.lastModified();
@@ -136,6 +157,7 @@ public class CacheManager {
 
 			stale = lastModifiedRemote != lastModified;
 			if (!stale) {
+				markValidated(cacheFile, getEntityTag(cacheFile));
 				return cacheFile;
 			}
 
@@ -187,8 +209,15 @@ public class CacheManager {
 			URI remoteFile = jarLocation;
 
 			if (cacheFile != null) {
+				if (isFresh(cacheFile)) {
+					return cacheFile;
+				}
 				lastModified = cacheFile.lastModified();
 				name = cacheFile.getName();
+				// a jar is preferred over an xml, so a cached jar only needs to be revalidated
+				if (name.endsWith(JAR_EXTENSION) && revalidate(cacheFile, jarLocation, submonitor)) {
+					return cacheFile;
+				}
 			}
 			// get last modified on jar
 			long lastModifiedRemote = 0L;
@@ -231,6 +260,9 @@ public class CacheManager {
 				// Bug 269588 - also stale if remote reports 0
 				stale = lastModifiedRemote != lastModified || (name != null && name.endsWith(XML_EXTENSION) || lastModifiedRemote <= 0);
 			} else {
+				if (name != null && name.endsWith(XML_EXTENSION) && revalidate(cacheFile, xmlLocation, submonitor)) {
+					return cacheFile;
+				}
 				// Also need to check remote XML file, and handle cancel, and errors
 				// (Status is reported based on finding the XML file as giving up on certain errors
 				// when checking for the jar may not be correct).
@@ -267,6 +299,7 @@ public class CacheManager {
 			}
 
 			if (!stale) {
+				markValidated(cacheFile, getEntityTag(cacheFile));
 				return cacheFile;
 			}
 
@@ -298,6 +331,116 @@ public class CacheManager {
 		return lastModifiedRemote;
 	}
 
+	/**
+	 * Returns whether the given cache file was validated within the freshness
+	 * window.
+	 */
+	private boolean isFresh(File cacheFile) {
+		long freshness = Long.getLong(FRESHNESS_PROPERTY, 0) * 1000;
+		if (freshness <= 0) {
+			return false;
+		}
+		String validated = readValidators(cacheFile).getProperty(VALIDATED);
+		if (validated == null) {
+			return false;
+		}
+		try {
+			long age = System.currentTimeMillis() - Long.parseLong(validated);
+			return age >= 0 && age < freshness;
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Revalidates the cache file with a conditional download of the remote
+	 * file, replacing the cache file if the remote file was modified.
+	 *
+	 * @return <code>true</code> if the cache file is up to date,
+	 *         <code>false</code> if the transport does not support conditional
+	 *         downloads or the download failed
+	 */
+	private boolean revalidate(File cacheFile, URI remoteFile, SubMonitor submonitor) throws IOException {
+		if (!transport.supportsConditionalDownload(remoteFile)) {
+			return false;
+		}
+		String entityTag = getEntityTag(cacheFile);
+		File tempFile = createTempFile(cacheFile);
+		IStatus result = null;
+		try {
+			try (StatefulStream stream = new StatefulStream(new FileOutputStream(tempFile))) {
+				result = transport.downloadIfModified(remoteFile, stream, entityTag, cacheFile.lastModified(), submonitor.newChild(500));
+			}
+			if (result == null || !result.isOK()) {
+				// let the caller check the remote file and report any error
+				return false;
+			}
+			if (result.getCode() == DownloadStatus.CODE_NOT_MODIFIED) {
+				markValidated(cacheFile, entityTag);
+				return true;
+			}
+			safeDelete(cacheFile);
+			if (!tempFile.renameTo(cacheFile)) {
+				return false;
+			}
+			if (result instanceof DownloadStatus status) {
+				if (status.getLastModified() > 0) {
+					cacheFile.setLastModified(status.getLastModified());
+				}
+				entityTag = status.getEntityTag();
+			} else {
+				entityTag = null;
+			}
+			markValidated(cacheFile, entityTag);
+			return true;
+		} finally {
+			safeDelete(tempFile);
+		}
+	}
+
+	private static File getValidatorsFile(File cacheFile) {
+		return new File(cacheFile.getParentFile(), cacheFile.getName() + VALIDATORS_EXTENSION);
+	}
+
+	private static Properties readValidators(File cacheFile) {
+		Properties validators = new Properties();
+		File validatorsFile = getValidatorsFile(cacheFile);
+		if (validatorsFile.exists()) {
+			try (InputStream input = new FileInputStream(validatorsFile)) {
+				validators.load(input);
+			} catch (IOException e) {
+				// revalidate as if there were no validators
+			}
+		}
+		return validators;
+	}
+
+	private static String getEntityTag(File cacheFile) {
+		return readValidators(cacheFile).getProperty(ENTITY_TAG);
+	}
+
+	/**
+	 * Remembers that the cache file is up to date with the remote file.
+	 *
+	 * @param entityTag the entity tag of the remote file, or <code>null</code>
+	 *                  if unknown
+	 */
+	private void markValidated(File cacheFile, String entityTag) {
+		if (!cacheFile.exists()) {
+			return;
+		}
+		Properties validators = new Properties();
+		if (entityTag != null) {
+			validators.setProperty(ENTITY_TAG, entityTag);
+		}
+		validators.setProperty(VALIDATED, Long.toString(System.currentTimeMillis()));
+		try (OutputStream output = new FileOutputStream(getValidatorsFile(cacheFile))) {
+			validators.store(output, null);
+		} catch (IOException e) {
+			LogHelper.log(new Status(IStatus.WARNING, Activator.ID, "Unable to write cache validators for " + cacheFile, e)); //$NON-NLS-1$
+		}
+	}
+
 	/**
 	 * Deletes the local cache file(s) for the given repository
 	 */
@@ -307,6 +450,7 @@ public class CacheManager {
 			for (File cacheFile : cacheFiles) {
 				// delete the cache file if it exists
 				safeDelete(cacheFile);
+				safeDelete(getValidatorsFile(cacheFile));
 				// delete a resumable download if it exists
 				safeDelete(new File(new File(cacheFile.getParentFile(), DOWNLOADING), cacheFile.getName()));
 			}
@@ -411,7 +555,10 @@ public class CacheManager {
 		}
 	}
 
-	protected void updateCache(File cacheFile, URI remoteFile, long lastModifiedRemote, SubMonitor submonitor) throws FileNotFoundException, IOException, ProvisionException {
+	/**
+	 * Creates an empty file to download the given cache file to.
+	 */
+	private File createTempFile(File cacheFile) throws IOException {
 		cacheFile.getParentFile().mkdirs();
 		File downloadDir = new File(cacheFile.getParentFile(), DOWNLOADING);
 		if (!downloadDir.exists()) {
@@ -424,6 +571,11 @@ public class CacheManager {
 		}
 
 		tempFile.createNewFile();
+		return tempFile;
+	}
+
+	protected void updateCache(File cacheFile, URI remoteFile, long lastModifiedRemote, SubMonitor submonitor) throws FileNotFoundException, IOException, ProvisionException {
+		File tempFile = createTempFile(cacheFile);
 
 		StatefulStream stream = null;
 		try {
@@ -458,6 +610,7 @@ public class CacheManager {
 					//local cache file should have the same lastModified as the server's file. bug 324200
 					cacheFile.setLastModified(lastModifiedRemote);
 				}
+				markValidated(cacheFile, result instanceof DownloadStatus status ? status.getEntityTag() : null);
 				return;
 			}
 			result = new Status(IStatus.ERROR, Activator.ID, NLS.bind(Messages.CacheManage_ErrorRenamingCache, new Object[] {remoteFile.toString(), tempFile.getAbsolutePath(), cacheFile.getAbsolutePath()}));
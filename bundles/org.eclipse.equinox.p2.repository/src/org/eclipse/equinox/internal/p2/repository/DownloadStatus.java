@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2012 IBM Corporation and others.
+ * Copyright (c) 2008, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -23,9 +23,19 @@ public class DownloadStatus extends Status {
 	public static final long UNKNOWN_RATE = -1;
 	public static final long UNKNOWN_SIZE = -1;
 
+	/**
+	 * Status code of a successful conditional download that did not transfer
+	 * anything as the remote file was not modified.
+	 *
+	 * @see Transport#downloadIfModified(java.net.URI, java.io.OutputStream,
+	 *      String, long, org.eclipse.core.runtime.IProgressMonitor)
+	 */
+	public static final int CODE_NOT_MODIFIED = 304;
+
 	private long speed = UNKNOWN_RATE;
 	private long fileSize = UNKNOWN_SIZE;
 	private long lastModified = 0;
+	private String entityTag;
 
 	/**
 	 * Constructs a new DownloadStatus with the given attributes.
@@ -79,6 +89,22 @@ public class DownloadStatus extends Status {
 		return lastModified;
 	}
 
+	/**
+	 * Sets the entity tag the server reported for the downloaded file.
+	 * @param entityTag the entity tag, or <code>null</code> if unknown
+	 */
+	public void setEntityTag(String entityTag) {
+		this.entityTag = entityTag;
+	}
+
+	/**
+	 * Returns the entity tag the server reported for the downloaded file.
+	 * @return the entity tag, or <code>null</code> if unknown
+	 */
+	public String getEntityTag() {
+		return entityTag;
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder(super.toString());
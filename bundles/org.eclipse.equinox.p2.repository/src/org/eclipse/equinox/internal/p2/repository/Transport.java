@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2007, 2022 IBM Corporation and others.
+ *  Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -151,6 +151,49 @@ public abstract class Transport {
 		return download(source, target, monitor);
 	}
 
+	/**
+	 * Perform a conditional download, writing into the target output stream
+	 * only if the remote file was modified since it was downloaded with the
+	 * given validators. Progress is reported on the monitor. If the
+	 * <code>target</code> is an instance of {@link IStateful} the resulting
+	 * status is also set on the target.
+	 * <p>
+	 * The default implementation returns <code>null</code>; transports that
+	 * can ask the server to revalidate a file in the same request that
+	 * downloads it should override this method.
+	 * </p>
+	 *
+	 * @return a {@link DownloadStatus} with code
+	 *         {@link DownloadStatus#CODE_NOT_MODIFIED} if the remote file was not
+	 *         modified and nothing was written, the status of the download
+	 *         otherwise, or <code>null</code> if conditional downloads are not
+	 *         supported
+	 * @param toDownload   URI of file to download
+	 * @param target       OutputStream where result is written
+	 * @param entityTag    the entity tag of the previous download, or
+	 *                     <code>null</code>
+	 * @param lastModified the last modified date of the previous download, or
+	 *                     0
+	 * @param monitor      where progress should be reported
+	 * @throws OperationCanceledException if the operation was canceled.
+	 */
+	public IStatus downloadIfModified(URI toDownload, OutputStream target, String entityTag, long lastModified, IProgressMonitor monitor) {
+		return null;
+	}
+
+	/**
+	 * Returns whether {@link #downloadIfModified} can revalidate the given
+	 * location, so that callers do not prepare a target for a download that
+	 * will not happen. The default implementation returns <code>false</code>;
+	 * transports that override {@link #downloadIfModified} should override this
+	 * method as well.
+	 *
+	 * @param location URI of the file that would be downloaded
+	 */
+	public boolean supportsConditionalDownload(URI location) {
+		return false;
+	}
+
 	/**
 	 * Perform a stream download, writing into an InputStream that is returned.
 	 * Performs authentication if needed.
@@ -21,6 +21,7 @@ import java.io.*;
 import java.lang.ref.SoftReference;
 import java.net.*;
 import java.util.*;
+import java.util.concurrent.*;
 import org.eclipse.core.runtime.*;
 import org.eclipse.core.runtime.preferences.IPreferencesService;
 import org.eclipse.equinox.internal.p2.core.helpers.*;
@@ -76,6 +77,12 @@ public abstract class AbstractRepositoryManager<T> implements IRepositoryManager
 	public static final String NODE_REPOSITORIES = "repositories"; //$NON-NLS-1$
 	private static final String INDEX_FILE = "p2.index"; //$NON-NLS-1$
 
+	/**
+	 * The maximum number of repositories loaded concurrently when querying all
+	 * known repositories.
+	 */
+	private static final int MAX_LOAD_THREADS = Integer.getInteger("p2.repositoryManager.maxThreads", 4); //$NON-NLS-1$
+
 	/**
 	 * Map of String->RepositoryInfo, where String is the repository key
 	 * obtained via getKey(URI).
@@ -711,6 +718,8 @@ public abstract class AbstractRepositoryManager<T> implements IRepositoryManager
 		SubMonitor sub = SubMonitor.convert(monitor, 100);
 		boolean added = false;
 		IRepository<T> result = null;
+		long start = System.currentTimeMillis();
+		long loadStart = 0;
 
 		try {
 			enterLoad(location, sub.newChild(5));
@@ -718,36 +727,29 @@ public abstract class AbstractRepositoryManager<T> implements IRepositoryManager
 			if (result != null) {
 				return result;
 			}
+			loadStart = System.currentTimeMillis();
 			if (checkNotFound(location)) {
 				fail(location, ProvisionException.REPOSITORY_NOT_FOUND);
 			}
 			//add the repository first so that it will be enabled, but don't send add event until after the load
 			added = addRepository(location, true, false);
 
-			LocationProperties indexFile = loadIndexFile(location, sub.newChild(15));
-			String[] preferredOrder = getPreferredRepositorySearchOrder(indexFile);
-			String[] suffixes = sortSuffixes(getAllSuffixes(), location, preferredOrder);
-
-			sub = SubMonitor.convert(sub, NLS.bind(Messages.repoMan_adding, location), suffixes.length * 100);
 			ProvisionException failure = null;
 			try {
-				for (String suffixe : suffixes) {
-					if (sub.isCanceled()) {
-						throw new OperationCanceledException();
-					}
-					try {
-						result = loadRepository(location, suffixe, type, flags, sub.newChild(100));
-					} catch (ProvisionException e) {
-						failure = e;
-						break;
-					}
-					if (result != null) {
-						addRepository(result, false, suffixe);
-						break;
-					}
+				String knownSuffix = getKnownSuffix(location);
+				if (knownSuffix != null) {
+					// the layout that loaded last time wins over p2.index until it stops loading
+					result = loadRepository(location, List.of(knownSuffix), type, flags, sub.newChild(20));
+				}
+				if (result == null) {
+					LocationProperties indexFile = loadIndexFile(location, sub.newChild(15));
+					String[] preferredOrder = getPreferredRepositorySearchOrder(indexFile);
+					List<String> suffixes = new ArrayList<>(Arrays.asList(sortSuffixes(getAllSuffixes(), location, preferredOrder)));
+					suffixes.remove(knownSuffix);
+					result = loadRepository(location, suffixes, type, flags, sub.newChild(60));
 				}
-			} finally {
-				sub.done();
+			} catch (ProvisionException e) {
+				failure = e;
 			}
 			if (result == null) {
 				//if we just added the repository, remove it because it cannot be loaded
@@ -767,6 +769,11 @@ public abstract class AbstractRepositoryManager<T> implements IRepositoryManager
 			}
 		} finally {
 			exitLoad(location);
+			if (Tracing.DEBUG_LOAD_REPO && loadStart != 0) {
+				long end = System.currentTimeMillis();
+				Tracing.debug((result != null ? "Loaded repository: " : "Failed to load repository: ") + location //$NON-NLS-1$ //$NON-NLS-2$
+						+ " in " + (end - loadStart) + "ms (waited " + (loadStart - start) + "ms)"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
 		}
 		//broadcast the add event after releasing lock
 		if (added) {
@@ -775,6 +782,57 @@ public abstract class AbstractRepositoryManager<T> implements IRepositoryManager
 		return result;
 	}
 
+	/**
+	 * Loads the repository at the given location with the first of the given
+	 * suffixes that succeeds, and adds it. While the first suffix is loaded, the
+	 * files of the others are probed concurrently so that the suffixes whose files
+	 * are missing are skipped.
+	 *
+	 * @return the loaded repository or <code>null</code> if no suffix matches
+	 */
+	private IRepository<T> loadRepository(URI location, List<String> suffixes, String type, int flags, IProgressMonitor monitor) throws ProvisionException {
+		SubMonitor sub = SubMonitor.convert(monitor, NLS.bind(Messages.repoMan_adding, location), suffixes.size() * 100);
+		try (LayoutProbe probe = suffixes.isEmpty() ? null : LayoutProbe.start(getTransport(), location, suffixes.subList(1, suffixes.size()))) {
+			for (int i = 0; i < suffixes.size(); i++) {
+				String suffix = suffixes.get(i);
+				if (sub.isCanceled()) {
+					throw new OperationCanceledException();
+				}
+				if (i > 0 && probe != null && probe.isMissing(suffix, sub)) {
+					if (Tracing.DEBUG_LOAD_REPO) {
+						Tracing.debug("Skipping missing " + suffix + " of repository: " + location); //$NON-NLS-1$ //$NON-NLS-2$
+					}
+					sub.worked(100);
+					continue;
+				}
+				IRepository<T> result = loadRepository(location, suffix, type, flags, sub.newChild(100));
+				if (result != null) {
+					addRepository(result, false, suffix);
+					return result;
+				}
+			}
+			return null;
+		} finally {
+			sub.done();
+		}
+	}
+
+	/**
+	 * Returns the suffix the repository at the given location was last loaded
+	 * with, if it is still one of the known suffixes.
+	 */
+	private String getKnownSuffix(URI location) {
+		String suffix;
+		synchronized (repositoryLock) {
+			if (repositories == null) {
+				restoreRepositories();
+			}
+			RepositoryInfo<T> info = repositories.get(getKey(location));
+			suffix = info == null ? null : info.suffix;
+		}
+		return suffix != null && Arrays.asList(getAllSuffixes()).contains(suffix) ? suffix : null;
+	}
+
 	/**
 	 * Fetches the p2.index file from the server. If the file could not be fetched
 	 * a NullSafe version is returned.
@@ -1265,23 +1323,89 @@ public abstract class AbstractRepositoryManager<T> implements IRepositoryManager
 	@Override
 	public IQueryResult<T> query(IQuery<T> query, IProgressMonitor monitor) {
 		URI[] locations = getKnownRepositories(REPOSITORIES_ALL);
-		List<IRepository<T>> queryables = new ArrayList<>(locations.length); // use a list since we don't know exactly how many will load
 		SubMonitor sub = SubMonitor.convert(monitor, locations.length * 10);
-		for (URI location : locations) {
-			try {
+		try {
+			List<IRepository<T>> queryables = loadRepositories(locations, sub.newChild(locations.length * 9));
+			IQueryable<T> compoundQueryable = QueryUtil.compoundQueryable(queryables);
+			return compoundQueryable.query(query, sub.newChild(locations.length * 1));
+		} finally {
+			sub.done();
+		}
+	}
+
+	/**
+	 * Loads the repositories at the given locations for a query, using up to
+	 * {@link #MAX_LOAD_THREADS} threads. Concurrent loads of the same location are
+	 * still serialized by {@link #enterLoad(URI, IProgressMonitor)}. Repositories
+	 * that cannot be loaded are ignored.
+	 *
+	 * @return the loaded repositories, in the order of the given locations
+	 */
+	private List<IRepository<T>> loadRepositories(URI[] locations, IProgressMonitor monitor) {
+		List<IRepository<T>> result = new ArrayList<>(locations.length); // use a list since we don't know exactly how many will load
+		SubMonitor sub = SubMonitor.convert(monitor, locations.length);
+		int threads = Math.min(locations.length, MAX_LOAD_THREADS);
+		if (threads <= 1) {
+			for (URI location : locations) {
 				if (sub.isCanceled()) {
 					throw new OperationCanceledException();
 				}
-				queryables.add(loadRepository(location, sub.newChild(9), null, 0));
-			} catch (ProvisionException e) {
-				//ignore this repository for this query
+				try {
+					result.add(loadRepository(location, sub.newChild(1), null, 0));
+				} catch (ProvisionException e) {
+					//ignore this repository for this query
+				}
 			}
+			return result;
 		}
+		// the loading threads only observe cancellation, progress is reported by this thread
+		IProgressMonitor cancellation = new NullProgressMonitor();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
 		try {
-			IQueryable<T> compoundQueryable = QueryUtil.compoundQueryable(queryables);
-			return compoundQueryable.query(query, sub.newChild(locations.length * 1));
+			List<Future<IRepository<T>>> loads = new ArrayList<>(locations.length);
+			for (URI location : locations) {
+				loads.add(executor.submit(() -> loadRepository(location, cancellation, null, 0)));
+			}
+			for (Future<IRepository<T>> load : loads) {
+				try {
+					result.add(await(load, sub));
+				} catch (ProvisionException e) {
+					//ignore this repository for this query
+				}
+				sub.worked(1);
+			}
 		} finally {
-			sub.done();
+			// stop the loads that have not completed if this query is abandoned
+			cancellation.setCanceled(true);
+			executor.shutdownNow();
+		}
+		return result;
+	}
+
+	private static <R> R await(Future<R> future, IProgressMonitor monitor) throws ProvisionException {
+		while (true) {
+			if (monitor.isCanceled()) {
+				throw new OperationCanceledException();
+			}
+			try {
+				return future.get(100, TimeUnit.MILLISECONDS);
+			} catch (TimeoutException e) {
+				// check for cancellation again
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new OperationCanceledException();
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof ProvisionException provisionException) {
+					throw provisionException;
+				}
+				if (e.getCause() instanceof RuntimeException runtimeException) {
+					throw runtimeException;
+				}
+				if (e.getCause() instanceof Error error) {
+					throw error;
+				}
+				throw new IllegalStateException(e.getCause());
+			}
 		}
 	}
 
@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.repository.helpers;
+
+import java.io.FileNotFoundException;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.*;
+import org.eclipse.core.runtime.*;
+import org.eclipse.equinox.internal.p2.repository.Transport;
+
+/**
+ * Probes a remote location concurrently for the files of the candidate
+ * repository layouts, so that a layout whose files are all missing can be
+ * skipped instead of being loaded after the others, one round trip at a time.
+ * A layout is only reported as missing if the transport has reported all of
+ * its files as not found, any other outcome leaves the decision to the
+ * repository factories.
+ */
+public class LayoutProbe implements AutoCloseable {
+	/**
+	 * The maximum number of files probed concurrently, a value of 1 or less
+	 * disables probing.
+	 */
+	private static final int MAX_PROBES = Integer.getInteger("p2.repositoryManager.maxProbes", 4); //$NON-NLS-1$
+
+	private static final String XML = ".xml"; //$NON-NLS-1$
+	private static final String JAR = ".jar"; //$NON-NLS-1$
+
+	private final Map<String, List<Future<Boolean>>> probes = new HashMap<>();
+	// the probing threads only observe cancellation
+	private final IProgressMonitor cancellation = new NullProgressMonitor();
+	private final ExecutorService executor;
+
+	/**
+	 * Starts probing the given location for the given layouts, or returns
+	 * <code>null</code> if the location is not worth probing: a location that is
+	 * not a remote directory, or a single candidate.
+	 */
+	public static LayoutProbe start(Transport transport, URI location, List<String> suffixes) {
+		if (transport == null || MAX_PROBES <= 1 || suffixes.size() < 2 || !isRemoteDirectory(location)) {
+			return null;
+		}
+		return new LayoutProbe(transport, location, suffixes, MAX_PROBES);
+	}
+
+	LayoutProbe(Transport transport, URI location, List<String> suffixes, int threads) {
+		Map<String, List<URI>> files = new LinkedHashMap<>();
+		int count = 0;
+		for (String suffix : suffixes) {
+			List<URI> candidates = new ArrayList<>(2);
+			// the xml factories prefer the jarred form of their file
+			if (suffix.endsWith(XML)) {
+				candidates.add(URIUtil.append(location, suffix.substring(0, suffix.length() - XML.length()) + JAR));
+			}
+			candidates.add(URIUtil.append(location, suffix));
+			files.put(suffix, candidates);
+			count += candidates.size();
+		}
+		executor = Executors.newFixedThreadPool(Math.min(count, threads));
+		files.forEach((suffix, candidates) -> {
+			List<Future<Boolean>> futures = new ArrayList<>(candidates.size());
+			for (URI file : candidates) {
+				futures.add(executor.submit(() -> exists(transport, file)));
+			}
+			probes.put(suffix, futures);
+		});
+	}
+
+	private Boolean exists(Transport transport, URI file) throws Exception {
+		if (cancellation.isCanceled()) {
+			throw new OperationCanceledException();
+		}
+		try {
+			transport.getLastModified(file, cancellation);
+			return Boolean.TRUE;
+		} catch (FileNotFoundException e) {
+			return Boolean.FALSE;
+		}
+	}
+
+	private static boolean isRemoteDirectory(URI location) {
+		String scheme = location.getScheme();
+		if (!"http".equalsIgnoreCase(scheme) && !"https".equalsIgnoreCase(scheme)) { //$NON-NLS-1$ //$NON-NLS-2$
+			return false;
+		}
+		// a location that names a file, such as a zipped repository, has no layout to probe
+		String path = location.getPath();
+		if (path == null || path.isEmpty() || path.endsWith("/")) { //$NON-NLS-1$
+			return true;
+		}
+		return path.substring(path.lastIndexOf('/') + 1).indexOf('.') < 0;
+	}
+
+	/**
+	 * Returns whether all files of the given layout have been reported as not
+	 * found, waiting for their probes to complete.
+	 *
+	 * @throws OperationCanceledException if the given monitor is canceled while
+	 *                                    waiting
+	 */
+	public boolean isMissing(String suffix, IProgressMonitor monitor) {
+		List<Future<Boolean>> files = probes.get(suffix);
+		if (files == null) {
+			return false;
+		}
+		for (Future<Boolean> file : files) {
+			if (!Boolean.FALSE.equals(await(file, monitor))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static Boolean await(Future<Boolean> probe, IProgressMonitor monitor) {
+		while (true) {
+			if (monitor.isCanceled()) {
+				throw new OperationCanceledException();
+			}
+			try {
+				return probe.get(100, TimeUnit.MILLISECONDS);
+			} catch (TimeoutException e) {
+				// check for cancellation again
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new OperationCanceledException();
+			} catch (ExecutionException | CancellationException e) {
+				// not known, let the factories decide
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Cancels the probes that have not completed, once a layout has been loaded
+	 * or the load has failed.
+	 */
+	@Override
+	public void close() {
+		cancellation.setCanceled(true);
+		executor.shutdownNow();
+	}
+}
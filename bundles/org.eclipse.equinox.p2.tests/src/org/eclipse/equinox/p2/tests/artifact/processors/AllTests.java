@@ -22,7 +22,7 @@ import org.junit.runners.Suite;
 @RunWith(Suite.class)
 @Suite.SuiteClasses({ ZipVerifierProcessorTest.class, ChecksumVerifierTest.class,
 		ChecksumUtilitiesTest.class, PGPSignatureVerifierTest.class, ProduceChecksumTest.class,
-		ChecksumPriorityTest.class })
+		ChecksumPriorityTest.class, FusedChecksumVerifierTest.class, SignatureVerifierTest.class })
 public class AllTests {
 // test suite
 }
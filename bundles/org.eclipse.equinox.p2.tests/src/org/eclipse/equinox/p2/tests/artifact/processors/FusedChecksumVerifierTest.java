@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.artifact.processors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.equinox.internal.p2.artifact.processors.checksum.ChecksumUtilities;
+import org.eclipse.equinox.internal.p2.artifact.processors.checksum.ChecksumVerifier;
+import org.eclipse.equinox.internal.p2.artifact.processors.checksum.FusedChecksumVerifier;
+import org.eclipse.equinox.internal.p2.repository.helpers.ChecksumHelper;
+import org.eclipse.equinox.internal.provisional.p2.artifact.repository.processing.ProcessingStep;
+import org.eclipse.equinox.p2.repository.artifact.spi.ProcessingStepDescriptor;
+import org.junit.Test;
+
+public class FusedChecksumVerifierTest {
+
+	private static final byte[] DATA = "The quick brown fox jumps over the lazy dog".repeat(1000)
+			.getBytes(StandardCharsets.US_ASCII);
+
+	@Test
+	public void testAllChecksumsMatch() throws Exception {
+		FusedChecksumVerifier verifier = new FusedChecksumVerifier(List.of(createVerifier("MD5", "md5", digest("MD5")),
+				createVerifier("SHA-256", "sha-256", digest("SHA-256"))));
+		ByteArrayOutputStream destination = new ByteArrayOutputStream();
+		verifier.link(destination, new NullProgressMonitor());
+		writeMixed(verifier);
+		verifier.close();
+
+		assertArrayEquals(DATA, destination.toByteArray());
+		assertTrue(verifier.getStatus().isOK());
+		Map<String, IStatus> results = verifier.getResults();
+		assertEquals(List.of("md5", "sha-256"), List.copyOf(results.keySet()));
+		assertTrue(results.values().stream().allMatch(IStatus::isOK));
+	}
+
+	@Test
+	public void testReportsFailingAlgorithm() throws Exception {
+		FusedChecksumVerifier verifier = new FusedChecksumVerifier(List.of(createVerifier("MD5", "md5", digest("MD5")),
+				createVerifier("SHA-256", "sha-256", digest("MD5"))));
+		verifier.link(new ByteArrayOutputStream(), new NullProgressMonitor());
+		writeMixed(verifier);
+		verifier.close();
+
+		assertEquals(IStatus.ERROR, verifier.getStatus().getSeverity());
+		Map<String, IStatus> results = verifier.getResults();
+		assertTrue(results.get("md5").isOK());
+		assertEquals(IStatus.ERROR, results.get("sha-256").getSeverity());
+	}
+
+	@Test
+	public void testDigestWithoutWriting() throws Exception {
+		FusedChecksumVerifier verifier = new FusedChecksumVerifier(List.of(createVerifier("MD5", "md5", digest("MD5")),
+				createVerifier("SHA-256", "sha-256", digest("SHA-256"))));
+		ByteArrayOutputStream destination = new ByteArrayOutputStream();
+		verifier.link(destination, new NullProgressMonitor());
+		ByteBuffer data = ByteBuffer.wrap(DATA);
+		verifier.updateDigests(data);
+		verifier.close();
+
+		assertEquals(0, destination.size());
+		assertFalse(data.hasRemaining());
+		assertTrue(verifier.getStatus().isOK());
+	}
+
+	@Test
+	public void testFuseDuplicateChecksums() throws Exception {
+		ChecksumVerifier first = createVerifier("SHA-256", "sha-256", digest("SHA-256"));
+		ChecksumVerifier second = createVerifier("SHA-256", "sha-256", digest("SHA-256"));
+		ProcessingStep step = ChecksumUtilities.fuseChecksumVerifiers(List.of(first, second));
+		assertSame(first, step);
+	}
+
+	private static void writeMixed(ProcessingStep step) throws IOException {
+		// single bytes followed by bulk writes must be digested in order
+		int split = 100;
+		for (int i = 0; i < split; i++) {
+			step.write(DATA[i]);
+		}
+		step.write(DATA, split, DATA.length - split);
+	}
+
+	private static ChecksumVerifier createVerifier(String algorithm, String id, String expected) {
+		ChecksumVerifier verifier = new ChecksumVerifier(algorithm, null, id, false, 0);
+		verifier.initialize(null, new ProcessingStepDescriptor(null, expected, true), null);
+		return verifier;
+	}
+
+	private static String digest(String algorithm) throws NoSuchAlgorithmException {
+		return ChecksumHelper.toHexString(MessageDigest.getInstance(algorithm).digest(DATA));
+	}
+}
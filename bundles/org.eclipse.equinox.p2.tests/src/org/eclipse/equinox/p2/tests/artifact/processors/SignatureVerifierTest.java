@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.artifact.processors;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.equinox.internal.p2.artifact.repository.SignatureVerifier;
+import org.eclipse.equinox.p2.metadata.IArtifactKey;
+import org.eclipse.equinox.p2.repository.artifact.ArtifactKeyQuery;
+import org.eclipse.equinox.p2.repository.artifact.IArtifactDescriptor;
+import org.eclipse.equinox.p2.repository.artifact.IArtifactRepository;
+import org.eclipse.equinox.p2.repository.artifact.spi.ArtifactDescriptor;
+import org.eclipse.equinox.p2.tests.AbstractProvisioningTest;
+
+/**
+ * Tests the {@link SignatureVerifier} when it passes the artifact on into the
+ * file of a local repository while it is downloaded.
+ */
+public class SignatureVerifierTest extends AbstractProvisioningTest {
+	private static final String JAR = "plugins/blah_1.0.0.123456.jar";
+
+	private File source;
+	private File target;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		File folder = getTempFolder();
+		source = new File(folder, "source");
+		target = new File(folder, "target");
+		copy("copying source repository", getTestData("signed repository", "testData/CertificateChecker/selfsigned"), source);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		getArtifactRepositoryManager().removeRepository(source.toURI());
+		getArtifactRepositoryManager().removeRepository(target.toURI());
+		super.tearDown();
+	}
+
+	/**
+	 * Replaces the content of the signed entry, keeping the signature files.
+	 */
+	private void tamper() throws IOException {
+		File jar = new File(source, JAR);
+		byte[] original = Files.readAllBytes(jar.toPath());
+		try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(original)); ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+			for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+				out.putNextEntry(new ZipEntry(entry.getName()));
+				out.write(entry.getName().startsWith("META-INF/") ? in.readAllBytes() : "tampered".getBytes());
+			}
+		}
+	}
+
+	private IStatus transfer(IArtifactRepository targetRepository) throws Exception {
+		IArtifactRepository sourceRepository = getArtifactRepositoryManager().loadRepository(source.toURI(), null);
+		IArtifactKey key = sourceRepository.query(ArtifactKeyQuery.ALL_KEYS, null).iterator().next();
+		IArtifactDescriptor descriptor = sourceRepository.getArtifactDescriptors(key)[0];
+		IStatus status;
+		try (OutputStream destination = targetRepository.getOutputStream(new ArtifactDescriptor(descriptor))) {
+			status = sourceRepository.getArtifact(descriptor, destination, getMonitor());
+		}
+		return status;
+	}
+
+	public void testValidSignature() throws Exception {
+		IArtifactRepository targetRepository = createArtifactRepository(target.toURI(), null);
+		IStatus status = transfer(targetRepository);
+		assertTrue(status.toString(), status.isOK());
+		assertEquals(1, targetRepository.query(ArtifactKeyQuery.ALL_KEYS, null).toUnmodifiableSet().size());
+		assertTrue(new File(target, JAR).exists());
+	}
+
+	public void testBadSignatureIsNotCommitted() throws Exception {
+		tamper();
+		IArtifactRepository targetRepository = createArtifactRepository(target.toURI(), null);
+		IStatus status = transfer(targetRepository);
+		// the content has passed through the verifier, not around it into the file
+		assertFalse(status.isOK());
+		assertTrue(targetRepository.query(ArtifactKeyQuery.ALL_KEYS, null).isEmpty());
+		assertFalse(new File(target, JAR).exists());
+	}
+}
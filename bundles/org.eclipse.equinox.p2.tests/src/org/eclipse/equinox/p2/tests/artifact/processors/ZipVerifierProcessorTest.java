@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2008 IBM Corporation and others.
+ * Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,6 +18,9 @@ import static org.junit.Assert.assertEquals;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.equinox.internal.p2.core.helpers.FileUtils;
@@ -105,4 +108,50 @@ public class ZipVerifierProcessorTest {
 		assertEquals(step.getStatus().getSeverity(), IStatus.ERROR);
 
 	}
+
+	private static byte[] createZip(String comment) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+			for (int i = 0; i < 100; i++) {
+				zip.putNextEntry(new ZipEntry("entry" + i + ".txt"));
+				zip.write(("content of entry " + i).getBytes());
+			}
+			zip.setComment(comment);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static IStatus verify(byte[] content, boolean bulk) throws IOException {
+		ProcessingStep step = new ZipVerifierStep();
+		ByteArrayOutputStream destination = new ByteArrayOutputStream();
+		step.link(destination, new NullProgressMonitor());
+		if (bulk) {
+			// odd chunks, so that the header and the end record are split
+			for (int i = 0; i < content.length; i += 3) {
+				step.write(content, i, Math.min(3, content.length - i));
+			}
+		} else {
+			for (byte b : content) {
+				step.write(b);
+			}
+		}
+		step.close();
+		assertEquals(content.length, destination.size());
+		return step.getStatus();
+	}
+
+	@Test
+	public void testCompleteZip() throws IOException {
+		assertEquals(IStatus.OK, verify(createZip(null), true).getSeverity());
+		assertEquals(IStatus.OK, verify(createZip(null), false).getSeverity());
+		assertEquals(IStatus.OK, verify(createZip("a comment"), true).getSeverity());
+	}
+
+	@Test
+	public void testTruncatedZip() throws IOException {
+		byte[] zip = createZip(null);
+		assertEquals(IStatus.ERROR, verify(Arrays.copyOf(zip, zip.length - 1), true).getSeverity());
+		assertEquals(IStatus.ERROR, verify(Arrays.copyOf(zip, zip.length / 2), false).getSeverity());
+		assertEquals(IStatus.ERROR, verify(Arrays.copyOf(zip, 4), true).getSeverity());
+	}
 }
@@ -21,7 +21,7 @@ import org.junit.runners.Suite;
  */
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
-		ArtifactLockingTest.class, ArtifactOutputStreamTest.class, ArtifactRepositoryManagerTest.class,
+		ArtifactLockingTest.class, ArtifactOutputStreamTest.class, ArtifactRepositoryJournalTest.class, ArtifactRepositoryManagerTest.class,
 		ArtifactRepositoryMissingSizeData.class, ArtifactRepositoryWithReferenceDescriptors.class,
 		BatchExecuteArtifactRepositoryTest.class, Bug252308.class, Bug265577.class, Bug351944.class,
 		CompositeArtifactRepositoryTest.class, CorruptedJar.class, FoldersRepositoryTest.class,
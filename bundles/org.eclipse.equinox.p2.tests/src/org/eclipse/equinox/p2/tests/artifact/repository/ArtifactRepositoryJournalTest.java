@@ -0,0 +1,206 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.artifact.repository;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThrows;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.equinox.internal.p2.artifact.repository.simple.SimpleArtifactRepository;
+import org.eclipse.equinox.internal.p2.artifact.repository.simple.SimpleArtifactRepositoryFactory;
+import org.eclipse.equinox.internal.p2.metadata.ArtifactKey;
+import org.eclipse.equinox.internal.p2.persistence.Journal;
+import org.eclipse.equinox.p2.metadata.IArtifactKey;
+import org.eclipse.equinox.p2.metadata.Version;
+import org.eclipse.equinox.p2.repository.IRepositoryManager;
+import org.eclipse.equinox.p2.repository.artifact.IArtifactDescriptor;
+import org.eclipse.equinox.p2.repository.artifact.IArtifactRepository;
+import org.eclipse.equinox.p2.repository.artifact.spi.ArtifactDescriptor;
+import org.eclipse.equinox.p2.repository.artifact.spi.ProcessingStepDescriptor;
+import org.eclipse.equinox.p2.tests.AbstractProvisioningTest;
+
+/**
+ * Tests the journal of a simple artifact repository that has the
+ * {@link SimpleArtifactRepository#PROP_JOURNAL} property set.
+ */
+public class ArtifactRepositoryJournalTest extends AbstractProvisioningTest {
+	private File location;
+	private SimpleArtifactRepositoryFactory factory;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		location = new File(getTempFolder(), getUniqueString());
+		factory = new SimpleArtifactRepositoryFactory();
+		factory.setAgent(getAgent());
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		delete(location);
+		super.tearDown();
+	}
+
+	private SimpleArtifactRepository createRepository(boolean journaled) {
+		Map<String, String> properties = new HashMap<>();
+		properties.put(SimpleArtifactRepository.PROP_COMPRESSED, "false");
+		if (journaled) {
+			properties.put(SimpleArtifactRepository.PROP_JOURNAL, "true");
+		}
+		return (SimpleArtifactRepository) factory.create(location.toURI(), "journal test", null, properties);
+	}
+
+	private IArtifactRepository reload() throws Exception {
+		return factory.load(location.toURI(), IRepositoryManager.REPOSITORY_HINT_MODIFIABLE, new NullProgressMonitor());
+	}
+
+	private File getIndexFile() {
+		return new File(location, "artifacts.xml");
+	}
+
+	private File getJournalFile() {
+		return new File(location, "artifacts.journal");
+	}
+
+	private static IArtifactDescriptor createDescriptor(String id) {
+		ArtifactDescriptor descriptor = new ArtifactDescriptor(new ArtifactKey("osgi.bundle", id, Version.create("1.0.0")));
+		descriptor.setProperty(IArtifactDescriptor.DOWNLOAD_SIZE, "42");
+		descriptor.setProcessingSteps(new ProcessingStepDescriptor[] {new ProcessingStepDescriptor("org.eclipse.equinox.p2.processing.ChecksumVerifier", "sha-256", true)});
+		return descriptor;
+	}
+
+	public void testAddsAreJournaled() throws Exception {
+		SimpleArtifactRepository repository = createRepository(true);
+		byte[] index = Files.readAllBytes(getIndexFile().toPath());
+		for (int i = 0; i < 10; i++) {
+			repository.addDescriptor(createDescriptor("bundle" + i), new NullProgressMonitor());
+		}
+		assertArrayEquals(index, Files.readAllBytes(getIndexFile().toPath()));
+		assertTrue(getJournalFile().exists());
+
+		IArtifactRepository loaded = reload();
+		for (int i = 0; i < 10; i++) {
+			IArtifactKey key = new ArtifactKey("osgi.bundle", "bundle" + i, Version.create("1.0.0"));
+			assertTrue(loaded.contains(key));
+			IArtifactDescriptor descriptor = loaded.getArtifactDescriptors(key)[0];
+			assertEquals("42", descriptor.getProperty(IArtifactDescriptor.DOWNLOAD_SIZE));
+			assertEquals(1, descriptor.getProcessingSteps().length);
+			assertEquals("sha-256", descriptor.getProcessingSteps()[0].getData());
+		}
+	}
+
+	public void testRemovesAreJournaled() throws Exception {
+		SimpleArtifactRepository repository = createRepository(true);
+		IArtifactDescriptor first = createDescriptor("first");
+		IArtifactDescriptor second = createDescriptor("second");
+		repository.addDescriptors(new IArtifactDescriptor[] {first, second}, new NullProgressMonitor());
+		repository.removeDescriptor(first, new NullProgressMonitor());
+
+		IArtifactRepository loaded = reload();
+		assertFalse(loaded.contains(first.getArtifactKey()));
+		assertTrue(loaded.contains(second.getArtifactKey()));
+
+		// removing a descriptor contained in the index file is journaled as well
+		((SimpleArtifactRepository) loaded).setProperty("unrelated", "value", new NullProgressMonitor());
+		assertFalse(getJournalFile().exists());
+		loaded.removeDescriptor(second, new NullProgressMonitor());
+		assertTrue(getJournalFile().exists());
+		assertFalse(reload().contains(second.getArtifactKey()));
+	}
+
+	public void testTornRecordIsIgnored() throws Exception {
+		SimpleArtifactRepository repository = createRepository(true);
+		repository.addDescriptor(createDescriptor("complete"), new NullProgressMonitor());
+		long length = getJournalFile().length();
+		repository.addDescriptor(createDescriptor("torn"), new NullProgressMonitor());
+		// simulate a process that was killed while appending
+		try (RandomAccessFile journal = new RandomAccessFile(getJournalFile(), "rw")) {
+			journal.setLength(journal.length() - 3);
+		}
+
+		IArtifactRepository loaded = reload();
+		assertTrue(loaded.contains(createDescriptor("complete").getArtifactKey()));
+		assertFalse(loaded.contains(createDescriptor("torn").getArtifactKey()));
+
+		// the next change overwrites the torn record
+		loaded.addDescriptor(createDescriptor("next"), new NullProgressMonitor());
+		assertTrue(getJournalFile().length() > length);
+		IArtifactRepository reloaded = reload();
+		assertTrue(reloaded.contains(createDescriptor("complete").getArtifactKey()));
+		assertTrue(reloaded.contains(createDescriptor("next").getArtifactKey()));
+	}
+
+	public void testBatchCompactsJournal() throws Exception {
+		SimpleArtifactRepository repository = createRepository(true);
+		repository.addDescriptor(createDescriptor("before"), new NullProgressMonitor());
+		assertTrue(getJournalFile().exists());
+		repository.executeBatch(monitor -> repository.addDescriptor(createDescriptor("inside"), monitor), new NullProgressMonitor());
+		assertFalse(getJournalFile().exists());
+
+		IArtifactRepository loaded = reload();
+		assertTrue(loaded.contains(createDescriptor("before").getArtifactKey()));
+		assertTrue(loaded.contains(createDescriptor("inside").getArtifactKey()));
+	}
+
+	public void testStaleJournalIsSkipped() throws Exception {
+		SimpleArtifactRepository repository = createRepository(true);
+		IArtifactDescriptor descriptor = createDescriptor("removed");
+		repository.addDescriptor(descriptor, new NullProgressMonitor());
+		byte[] journal = Files.readAllBytes(getJournalFile().toPath());
+		repository.executeBatch(monitor -> repository.removeDescriptor(descriptor, monitor), new NullProgressMonitor());
+		// simulate a journal that could not be deleted after the index file was rewritten
+		Files.write(getJournalFile().toPath(), journal);
+
+		IArtifactRepository loaded = reload();
+		assertFalse(loaded.contains(descriptor.getArtifactKey()));
+
+		// the next change replaces the stale journal
+		loaded.addDescriptor(createDescriptor("next"), new NullProgressMonitor());
+		IArtifactRepository reloaded = reload();
+		assertFalse(reloaded.contains(descriptor.getArtifactKey()));
+		assertTrue(reloaded.contains(createDescriptor("next").getArtifactKey()));
+	}
+
+	public void testAppendRequiresRead() throws Exception {
+		SimpleArtifactRepository repository = createRepository(true);
+		repository.addDescriptor(createDescriptor("first"), new NullProgressMonitor());
+		long length = getJournalFile().length();
+		long generation = Journal.getGeneration(repository.getProperty(Journal.PROP_GENERATION));
+
+		// a journal that was not read does not know where its records end
+		Journal journal = new Journal(getJournalFile());
+		assertFalse(journal.canAppend());
+		assertThrows(IllegalStateException.class, () -> journal.append(generation, List.of(new byte[] {1})));
+		assertEquals(length, getJournalFile().length());
+
+		assertEquals(1, journal.read(generation).size());
+		assertTrue(journal.canAppend());
+		journal.append(generation, List.of(new byte[] {1}));
+		assertEquals(2, journal.read(generation).size());
+		assertTrue(journal.read(generation + 1).isEmpty());
+	}
+
+	public void testNotJournaledByDefault() throws Exception {
+		SimpleArtifactRepository repository = createRepository(false);
+		repository.addDescriptor(createDescriptor("bundle"), new NullProgressMonitor());
+		assertFalse(getJournalFile().exists());
+		assertTrue(reload().contains(createDescriptor("bundle").getArtifactKey()));
+	}
+}
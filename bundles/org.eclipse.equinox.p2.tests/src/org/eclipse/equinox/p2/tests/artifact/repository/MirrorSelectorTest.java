@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2017 IBM Corporation and others.
+ * Copyright (c) 2008, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,12 +16,27 @@ package org.eclipse.equinox.p2.tests.artifact.repository;
 
 import static org.junit.Assert.assertEquals;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.equinox.internal.p2.artifact.repository.MirrorSelector;
 import org.eclipse.equinox.internal.p2.artifact.repository.MirrorSelector.MirrorInfo;
+import org.eclipse.equinox.internal.p2.repository.Transport;
+import org.eclipse.equinox.p2.repository.IRepository;
+import org.eclipse.equinox.p2.tests.TestArtifactRepository;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -310,6 +325,70 @@ public class MirrorSelectorTest {
 
 	}
 
+	@Test
+	public void testStatisticsAreSmoothed() {
+		MirrorInfo mirror = new MirrorInfo("https://mirror.example.org/eclipse/", 0);
+		mirror.updateBytesPerSecond(100000);
+		assertEquals(100000, mirror.getBytesPerSecond());
+		// one slow download doesn't ruin the mirror's reputation
+		mirror.updateBytesPerSecond(10000);
+		assertEquals(73000, mirror.getBytesPerSecond());
+
+		assertEquals(MirrorInfo.UNKNOWN_LATENCY, mirror.getLatency());
+		mirror.updateLatency(100);
+		mirror.updateLatency(200);
+		assertEquals(130, mirror.getLatency());
+	}
+
+	@Test
+	public void testConcurrentDownloadsAreSpread() {
+		URI base = URI.create("https://download.example.org/releases/");
+		Map<String, String> properties = Map.of(IRepository.PROP_MIRRORS_URL, "https://download.example.org/mirrors.xml");
+		TestArtifactRepository repository = new TestArtifactRepository(null, base) {
+			@Override
+			public synchronized Map<String, String> getProperties() {
+				return properties;
+			}
+		};
+		Transport transport = new Transport() {
+			@Override
+			public InputStream stream(URI toDownload, IProgressMonitor monitor) {
+				StringBuilder mirrors = new StringBuilder("<mirrors>");
+				for (String host : new String[] {"a", "b", "c", "d"}) {
+					mirrors.append("<mirror url='https://" + host + ".example.org/releases/'/>");
+				}
+				mirrors.append("</mirrors>");
+				return new ByteArrayInputStream(mirrors.toString().getBytes(StandardCharsets.UTF_8));
+			}
+
+			@Override
+			public long getLastModified(URI toDownload, IProgressMonitor monitor) {
+				return 0;
+			}
+
+			@Override
+			public IStatus download(URI toDownload, OutputStream target, IProgressMonitor monitor) {
+				throw new UnsupportedOperationException();
+			}
+		};
+		MirrorSelector selector = new MirrorSelector(repository, transport);
+		URI artifact = base.resolve("plugins/a_1.0.0.jar");
+		for (int round = 0; round < 2; round++) {
+			// each of the best three mirrors gets one of three concurrent downloads
+			List<URI> locations = new ArrayList<>();
+			Set<String> hosts = new HashSet<>();
+			for (int i = 0; i < 3; i++) {
+				URI location = selector.getMirrorLocation(artifact, new NullProgressMonitor());
+				locations.add(location);
+				hosts.add(location.getHost());
+			}
+			assertEquals(locations.toString(), 3, hosts.size());
+			for (URI location : locations) {
+				selector.reportResult(location.toString(), Status.OK_STATUS);
+			}
+		}
+	}
+
 	private void assertList(List<MirrorInfo> originallist, MirrorInfo[] mirrors) {
 		assertEquals("length", originallist.size(), mirrors.length);
 		for (int i = 0; i < originallist.size(); i++) {
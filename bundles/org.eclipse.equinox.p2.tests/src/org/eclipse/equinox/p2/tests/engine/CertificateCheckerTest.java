@@ -29,6 +29,7 @@ import org.eclipse.equinox.internal.p2.core.AgentLocation;
 import org.eclipse.equinox.internal.p2.core.ProvisioningAgent;
 import org.eclipse.equinox.internal.p2.engine.EngineActivator;
 import org.eclipse.equinox.internal.p2.engine.phases.CertificateChecker;
+import org.eclipse.equinox.internal.p2.engine.phases.SignedContentCache;
 import org.eclipse.equinox.internal.p2.metadata.ArtifactKey;
 import org.eclipse.equinox.internal.provisional.p2.repository.DefaultPGPPublicKeyService;
 import org.eclipse.equinox.p2.core.IAgentLocation;
@@ -301,6 +302,37 @@ public class CertificateCheckerTest extends AbstractProvisioningTest {
 		}
 	}
 
+	/**
+	 * Tests that several artifacts are verified together and that the results are
+	 * cached in the agent for subsequent checks.
+	 */
+	public void testSignedContentCachedInAgent() throws IOException {
+		try {
+			System.getProperties().setProperty(EngineActivator.PROP_UNSIGNED_POLICY, EngineActivator.UNSIGNED_FAIL);
+			File pgpSigned = TestData.getFile("pgp/repoPGPOK/plugins", "blah_1.0.0.123456.jar");
+			checker.add(Map.of(new ArtifactDescriptor(new ArtifactKey("what", "ever", Version.create("1"))), unsigned,
+					new ArtifactDescriptor(new ArtifactKey("what", "else", Version.create("1"))), pgpSigned));
+			IStatus result = checker.start();
+			assertEquals(IStatus.ERROR, result.getSeverity());
+			SignedContentCache cache = (SignedContentCache) testAgent.getService(SignedContentCache.SERVICE_NAME);
+			assertNotNull(cache);
+			long verifications = cache.getVerificationCount();
+			assertEquals(2, verifications);
+
+			CertificateChecker secondChecker = new CertificateChecker(testAgent);
+			secondChecker.add(
+					Map.of(new ArtifactDescriptor(new ArtifactKey("what", "ever", Version.create("1"))), unsigned));
+			IStatus secondResult = secondChecker.start();
+			assertEquals(IStatus.ERROR, secondResult.getSeverity());
+			// served from the cache, the file is not verified again
+			assertEquals(verifications, cache.getVerificationCount());
+			assertEquals(result.getMessage().contains(unsigned.toString()),
+					secondResult.getMessage().contains(unsigned.toString()));
+		} finally {
+			System.getProperties().remove(EngineActivator.PROP_UNSIGNED_POLICY);
+		}
+	}
+
 	public void testPGPSignedArtifactUntrustedKey() throws IOException, ProvisionException {
 		try {
 			// create a test profile
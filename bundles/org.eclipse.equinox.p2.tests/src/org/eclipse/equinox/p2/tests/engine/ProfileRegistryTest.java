@@ -18,7 +18,10 @@ import java.io.FileFilter;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -1082,4 +1085,156 @@ public class ProfileRegistryTest extends AbstractProvisioningTest {
 		assertEquals("c", result.get("a"));
 		assertEquals("yy", result.get("zz"));
 	}
+
+	public void testDeltaSnapshots() throws ProvisionException {
+		System.setProperty(EngineActivator.PROP_PROFILE_SNAPSHOTS, EngineActivator.PROFILE_SNAPSHOTS_DELTA);
+		try {
+			File folder = getTempFolder();
+			folder.mkdirs();
+			SimpleProfileRegistry profileRegistry = new SimpleProfileRegistry(getAgent(), folder, null, false);
+			long[] states = createProfileStates(profileRegistry);
+			File profileFolder = new File(folder, PROFILE_NAME + ".profile");
+			String[] deltas = profileFolder.list((dir, name) -> name.endsWith(".profiledelta.gz"));
+			assertEquals(3, deltas.length);
+
+			profileRegistry = new SimpleProfileRegistry(getAgent(), folder, null, false);
+			assertTrue(Arrays.equals(states, profileRegistry.listProfileTimestamps(PROFILE_NAME)));
+			assertProfileStates(profileRegistry, states);
+
+			// removing the checkpoint keeps the states stored against it readable
+			profileRegistry.removeProfile(PROFILE_NAME, states[1]);
+			assertEquals(4, profileRegistry.listProfileTimestamps(PROFILE_NAME).length);
+			assertNull(profileRegistry.getProfile(PROFILE_NAME, states[1]));
+			assertProfileStates(profileRegistry, new long[] {states[0], -1, states[2], states[3], states[4]});
+			for (int i = 2; i < 4; i++) {
+				profileRegistry.removeProfile(PROFILE_NAME, states[i]);
+			}
+			assertEquals(2, profileRegistry.listProfileTimestamps(PROFILE_NAME).length);
+			assertProfileStates(profileRegistry, new long[] {states[0], -1, -1, -1, states[4]});
+		} finally {
+			System.getProperties().remove(EngineActivator.PROP_PROFILE_SNAPSHOTS);
+		}
+	}
+
+	public void testCompactProfileStates() throws ProvisionException {
+		File folder = getTempFolder();
+		folder.mkdirs();
+		SimpleProfileRegistry profileRegistry = new SimpleProfileRegistry(getAgent(), folder, null, false);
+		long[] states = createProfileStates(profileRegistry);
+		File profileFolder = new File(folder, PROFILE_NAME + ".profile");
+		assertEquals(0, profileFolder.list((dir, name) -> name.endsWith(".profiledelta.gz")).length);
+
+		assertOK(profileRegistry.compactProfileStates(PROFILE_NAME));
+		assertEquals(3, profileFolder.list((dir, name) -> name.endsWith(".profiledelta.gz")).length);
+		assertTrue(Arrays.equals(states, profileRegistry.listProfileTimestamps(PROFILE_NAME)));
+		assertProfileStates(profileRegistry, states);
+
+		profileRegistry = new SimpleProfileRegistry(getAgent(), folder, null, false);
+		assertProfileStates(profileRegistry, states);
+	}
+
+	public void testProfileStateIndex() throws ProvisionException {
+		File folder = getTempFolder();
+		folder.mkdirs();
+		SimpleProfileRegistry profileRegistry = new SimpleProfileRegistry(getAgent(), folder, null, false);
+		long[] states = createProfileStates(profileRegistry);
+		File profileFolder = new File(folder, PROFILE_NAME + ".profile");
+		File indexFile = new File(folder, PROFILE_NAME + ".profile.index");
+		// an index is only persisted once the directory has not changed for a while
+		assertTrue(profileFolder.setLastModified(System.currentTimeMillis() - 10000));
+
+		profileRegistry = new SimpleProfileRegistry(getAgent(), folder, null, false);
+		assertTrue(Arrays.equals(states, profileRegistry.listProfileTimestamps(PROFILE_NAME)));
+		assertTrue(indexFile.isFile());
+		IProfile first = profileRegistry.getProfile(PROFILE_NAME, states[2]);
+		IProfile second = profileRegistry.getProfile(PROFILE_NAME, states[2]);
+		assertNotSame(first, second);
+		assertEquals(queryResultSize(first.query(QueryUtil.createIUAnyQuery(), null)), queryResultSize(second.query(QueryUtil.createIUAnyQuery(), null)));
+		assertProfileStates(profileRegistry, states);
+
+		// states removed behind the back of the registry are no longer reported
+		assertTrue(new File(profileFolder, states[1] + ".profile.gz").delete());
+		assertTrue(profileFolder.setLastModified(System.currentTimeMillis() - 5000));
+		assertEquals(4, profileRegistry.listProfileTimestamps(PROFILE_NAME).length);
+		assertNull(profileRegistry.getProfile(PROFILE_NAME, states[1]));
+
+		profileRegistry.removeProfile(PROFILE_NAME);
+		assertFalse(indexFile.exists());
+		assertEquals(0, profileRegistry.listProfileTimestamps(PROFILE_NAME).length);
+	}
+
+	public void testLazyRestoreKeepsSubProfiles() throws Exception {
+		File folder = getTempFolder();
+		folder.mkdirs();
+		SimpleProfileRegistry profileRegistry = new SimpleProfileRegistry(getAgent(), folder, null, false);
+		profileRegistry.addProfile("parent");
+		profileRegistry.addProfile("child1", null, "parent");
+		profileRegistry.addProfile("child2", null, "parent");
+		profileRegistry.addProfile("other");
+		// an index is only persisted once the directory has not changed for a while
+		for (File profileFolder : folder.listFiles((FileFilter) File::isDirectory)) {
+			assertTrue(profileFolder.setLastModified(System.currentTimeMillis() - 10000));
+		}
+
+		// the parents are not known before the profiles have been read once
+		profileRegistry = new SimpleProfileRegistry(getAgent(), folder, null, false);
+		assertEquals(List.of("child1", "child2"), getSubProfileIds(profileRegistry, "parent"));
+		assertTrue(Files.readString(new File(folder, "child1.profile.index").toPath()).contains("P\tparent\n"));
+
+		// a parent restored on its own knows its sub-profiles from the index
+		profileRegistry = new SimpleProfileRegistry(getAgent(), folder, null, false);
+		assertEquals(List.of("child1", "child2"), getSubProfileIds(profileRegistry, "parent"));
+		assertEquals(List.of(), getSubProfileIds(profileRegistry, "other"));
+		assertEquals("parent", ((Profile) profileRegistry.getProfile("child1")).getParentProfile().getProfileId());
+	}
+
+	private static List<String> getSubProfileIds(SimpleProfileRegistry profileRegistry, String id) {
+		List<String> subProfileIds = new ArrayList<>(((Profile) profileRegistry.getProfile(id)).getSubProfileIds());
+		Collections.sort(subProfileIds);
+		return subProfileIds;
+	}
+
+	/**
+	 * Creates five states of a profile with 20 units: an empty one, one with all
+	 * units, and three that change a single unit each.
+	 */
+	private long[] createProfileStates(SimpleProfileRegistry profileRegistry) throws ProvisionException {
+		long[] states = new long[5];
+		Profile profile = (Profile) profileRegistry.addProfile(PROFILE_NAME);
+		states[0] = profile.getTimestamp();
+		for (int i = 0; i < 20; i++) {
+			profile.addInstallableUnit(createIU("test" + i));
+		}
+		saveProfile(profileRegistry, profile);
+		states[1] = profile.getTimestamp();
+		profile.setInstallableUnitProperty(createIU("test0"), "test", "test");
+		saveProfile(profileRegistry, profile);
+		states[2] = profile.getTimestamp();
+		profile.removeInstallableUnit(createIU("test1"));
+		saveProfile(profileRegistry, profile);
+		states[3] = profile.getTimestamp();
+		profile.removeInstallableUnitProperty(createIU("test0"), "test");
+		saveProfile(profileRegistry, profile);
+		states[4] = profile.getTimestamp();
+		return states;
+	}
+
+	/**
+	 * Asserts the content of the states created by createProfileStates. States
+	 * passed as -1 are skipped.
+	 */
+	private void assertProfileStates(SimpleProfileRegistry profileRegistry, long[] states) {
+		int[] sizes = {0, 20, 20, 19, 19};
+		String[] properties = {null, null, "test", "test", null};
+		for (int i = 0; i < states.length; i++) {
+			if (states[i] == -1) {
+				continue;
+			}
+			IProfile state = profileRegistry.getProfile(PROFILE_NAME, states[i]);
+			assertNotNull("state " + i, state);
+			assertEquals("state " + i, states[i], state.getTimestamp());
+			assertEquals("state " + i, sizes[i], queryResultSize(state.query(QueryUtil.createIUAnyQuery(), null)));
+			assertEquals("state " + i, properties[i], state.getInstallableUnitProperty(createIU("test0"), "test"));
+		}
+	}
 }
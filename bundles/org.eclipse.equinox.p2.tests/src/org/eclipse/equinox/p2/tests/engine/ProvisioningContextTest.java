@@ -167,6 +167,28 @@ public class ProvisioningContextTest extends AbstractProvisioningTest {
 		assertEquals("three artifact repos", 3, followed.length);
 	}
 
+	public void testContextCircularAndMissingReferences() throws Exception {
+		URI missing = getTempFolder().toURI();
+		repoC.addReferences(Collections.singletonList(new RepositoryReference(repoA.getLocation(), null, IRepository.TYPE_METADATA, IRepository.ENABLED)));
+		repoC.addReferences(Collections.singletonList(new RepositoryReference(missing, null, IRepository.TYPE_METADATA, IRepository.ENABLED)));
+		repoC.addReferences(Collections.singletonList(new RepositoryReference(missing, null, IRepository.TYPE_ARTIFACT, IRepository.ENABLED)));
+		try {
+			ProvisioningContext context = new ProvisioningContext(getAgent());
+			context.setMetadataRepositories(new URI[] {repoA.getLocation(), missing});
+			context.setArtifactRepositories(new URI[0]);
+			context.setProperty(ProvisioningContext.FOLLOW_REPOSITORY_REFERENCES, "true");
+			IQueryable<IInstallableUnit> queryable = context.getMetadata(getMonitor());
+			IInstallableUnit[] units = queryable.query(QueryUtil.createIUQuery("C"), getMonitor()).toArray(IInstallableUnit.class);
+			assertTrue("should find C", units.length > 0);
+			IQuery<IArtifactRepository> all = new ExpressionMatchQuery<>(IArtifactRepository.class, ExpressionUtil.TRUE_EXPRESSION);
+			IArtifactRepository[] followed = context.getArtifactRepositories(getMonitor()).query(all, getMonitor()).toArray(IArtifactRepository.class);
+			assertEquals("three artifact repos", 3, followed.length);
+		} finally {
+			getMetadataRepositoryManager().removeRepository(missing);
+			getArtifactRepositoryManager().removeRepository(missing);
+		}
+	}
+
 	public void testContextNoReposNoFollow() {
 		ProvisioningContext context = new ProvisioningContext(getAgent());
 		context.setArtifactRepositories(new URI[0]);
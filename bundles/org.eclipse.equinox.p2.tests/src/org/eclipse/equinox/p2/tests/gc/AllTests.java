@@ -20,7 +20,7 @@ import org.junit.runners.Suite;
  * Performs all automated gc tests.
  */
 @RunWith(Suite.class)
-@Suite.SuiteClasses({ GCCleanTest.class })
+@Suite.SuiteClasses({ ArtifactReferenceIndexTest.class, GCCleanTest.class, GarbageCollectorTest.class })
 public class AllTests {
 // test suite
 }
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.gc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.equinox.internal.p2.garbagecollector.ArtifactReferenceIndex;
+import org.eclipse.equinox.internal.p2.metadata.ArtifactKey;
+import org.eclipse.equinox.p2.metadata.IArtifactKey;
+import org.eclipse.equinox.p2.metadata.Version;
+import org.junit.Test;
+
+/**
+ * Tests for the reference counting of the incremental garbage collection
+ */
+public class ArtifactReferenceIndexTest {
+	private static final URI POOL = URI.create("file:/pool/");
+	private static final IArtifactKey A = new ArtifactKey("osgi.bundle", "a", Version.create("1.0.0"));
+	private static final IArtifactKey B = new ArtifactKey("osgi.bundle", "b", Version.create("1.0.0"));
+	private static final IArtifactKey C = new ArtifactKey("osgi.bundle", "c", Version.create("1.0.0"));
+
+	@Test
+	public void testSharedKeysAreNotCandidates() {
+		ArtifactReferenceIndex index = new ArtifactReferenceIndex();
+		index.update("first", 1, Map.of(POOL, Set.of(A, B)));
+		index.update("second", 1, Map.of(POOL, Set.of(B, C)));
+		assertEquals(2, index.getReferenceCount(POOL, B));
+
+		index.update("first", 2, Map.of(POOL, Set.of(C)));
+		assertEquals(Set.of(A), index.takeCandidates(POOL));
+		assertEquals(1, index.getReferenceCount(POOL, B));
+		assertEquals(2, index.getReferenceCount(POOL, C));
+		assertTrue(index.takeCandidates(POOL).isEmpty());
+
+		index.remove("second");
+		assertEquals(Set.of(B), index.takeCandidates(POOL));
+	}
+
+	@Test
+	public void testReferencedAgainIsNoCandidate() {
+		ArtifactReferenceIndex index = new ArtifactReferenceIndex();
+		index.update("first", 1, Map.of(POOL, Set.of(A)));
+		index.update("first", 2, Map.of(POOL, Set.of()));
+		index.update("second", 1, Map.of(POOL, Set.of(A)));
+		assertTrue(index.takeCandidates(POOL).isEmpty());
+	}
+
+	@Test
+	public void testReadWrite() throws Exception {
+		ArtifactReferenceIndex index = new ArtifactReferenceIndex();
+		index.update("first profile", 5, Map.of(POOL, Set.of(A, B)));
+		index.update("second", 7, Map.of(POOL, Set.of(B)));
+		index.update("first profile", 6, Map.of(POOL, Set.of(B)));
+		index.setComplete(true);
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		index.write(output);
+		assertFalse(index.isDirty());
+
+		ArtifactReferenceIndex read = ArtifactReferenceIndex.read(new ByteArrayInputStream(output.toByteArray()));
+		assertTrue(read.isComplete());
+		assertFalse(read.isDirty());
+		assertTrue(read.isCurrent("first profile", 6));
+		assertTrue(read.isCurrent("second", 7));
+		assertEquals(2, read.getReferenceCount(POOL, B));
+		assertEquals(Set.of(A), read.takeCandidates(POOL));
+	}
+}
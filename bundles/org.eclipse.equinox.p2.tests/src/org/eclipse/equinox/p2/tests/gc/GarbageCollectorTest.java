@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.gc;
+
+import java.io.File;
+import java.net.URI;
+import java.util.*;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.URIUtil;
+import org.eclipse.equinox.internal.p2.engine.Profile;
+import org.eclipse.equinox.internal.p2.engine.SimpleProfileRegistry;
+import org.eclipse.equinox.internal.p2.garbagecollector.GarbageCollector;
+import org.eclipse.equinox.internal.p2.garbagecollector.GarbageCollectorHelper;
+import org.eclipse.equinox.internal.p2.metadata.ArtifactKey;
+import org.eclipse.equinox.p2.core.IAgentLocation;
+import org.eclipse.equinox.p2.engine.IProfile;
+import org.eclipse.equinox.p2.metadata.*;
+import org.eclipse.equinox.p2.metadata.MetadataFactory.InstallableUnitDescription;
+import org.eclipse.equinox.p2.repository.artifact.*;
+import org.eclipse.equinox.p2.repository.artifact.spi.ArtifactDescriptor;
+import org.eclipse.equinox.p2.tests.AbstractProvisioningTest;
+
+/**
+ * Tests the incremental garbage collection that {@link GarbageCollector#runGC(IProfile)}
+ * does once a full sweep has built the reference index.
+ */
+public class GarbageCollectorTest extends AbstractProvisioningTest {
+	private static final String PROFILE_ID = "GarbageCollectorTest";
+
+	private IArtifactRepository pool;
+	private File indexFile;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		URI dataArea = getAgent().getService(IAgentLocation.class).getDataArea(GarbageCollectorHelper.ID);
+		indexFile = new File(URIUtil.toFile(dataArea), "referenceIndex.txt");
+		// the first collection must be a full one
+		indexFile.delete();
+
+		File folder = getTempFolder();
+		pool = getArtifactRepositoryManager().createRepository(folder.toURI(), "pool", IArtifactRepositoryManager.TYPE_SIMPLE_REPOSITORY, new HashMap<>());
+		addKeys("a", "b", "c");
+		createProfile(PROFILE_ID, Map.of(IProfile.PROP_CACHE, folder.getAbsolutePath()));
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		indexFile.delete();
+		getArtifactRepositoryManager().removeRepository(pool.getLocation());
+		super.tearDown();
+	}
+
+	public void testIncrementalSweep() {
+		GarbageCollector gc = new GarbageCollector(getAgent());
+		setInstallableUnits("a", "b");
+		gc.runGC(getProfile(PROFILE_ID));
+		assertEquals(Set.of("a", "b"), getIds());
+
+		// b loses its last reference while d is never referenced at all
+		setInstallableUnits("a");
+		addKeys("d");
+		gc.runGC(getProfile(PROFILE_ID));
+		assertEquals(Set.of("a"), getIds());
+	}
+
+	private static IArtifactKey key(String id) {
+		return new ArtifactKey("osgi.bundle", id, Version.create("1.0.0"));
+	}
+
+	private void addKeys(String... ids) {
+		for (String id : ids) {
+			pool.addDescriptor(new ArtifactDescriptor(key(id)), new NullProgressMonitor());
+		}
+	}
+
+	private Set<String> getIds() {
+		Set<String> ids = new HashSet<>();
+		for (IArtifactKey key : pool.query(ArtifactKeyQuery.ALL_KEYS, null)) {
+			ids.add(key.getId());
+		}
+		return ids;
+	}
+
+	private void setInstallableUnits(String... ids) {
+		SimpleProfileRegistry registry = (SimpleProfileRegistry) getProfileRegistry();
+		Profile profile = (Profile) registry.getProfile(PROFILE_ID);
+		registry.lockProfile(profile);
+		try {
+			profile.clearInstallableUnits();
+			for (String id : ids) {
+				InstallableUnitDescription description = new InstallableUnitDescription();
+				description.setId(id.toUpperCase());
+				description.setVersion(Version.create("1.0.0"));
+				description.setArtifacts(new IArtifactKey[] {key(id)});
+				profile.addInstallableUnit(MetadataFactory.createInstallableUnit(description));
+			}
+			registry.updateProfile(profile);
+		} finally {
+			registry.unlockProfile(profile);
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2008 IBM Corporation and others.
+ * Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -20,7 +20,7 @@ import org.junit.runners.Suite;
  * Performs all automated JarProcessor tests.
  */
 @RunWith(Suite.class)
-@Suite.SuiteClasses({ JarProcessorTests.class })
+@Suite.SuiteClasses({ JarProcessorTests.class, ParallelJarProcessorTest.class })
 public class AllTests {
 // test suite
 }
\ No newline at end of file
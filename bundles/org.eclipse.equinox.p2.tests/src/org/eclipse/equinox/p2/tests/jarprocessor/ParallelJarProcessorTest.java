@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.jarprocessor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+import org.eclipse.equinox.internal.p2.jarprocessor.Utils;
+import org.eclipse.equinox.p2.tests.AbstractProvisioningTest;
+import org.eclipse.internal.provisional.equinox.p2.jarprocessor.IProcessStep;
+import org.eclipse.internal.provisional.equinox.p2.jarprocessor.JarProcessor;
+
+/**
+ * Tests the processing of nested jars by a {@link JarProcessor} that runs in a
+ * {@link ForkJoinPool}.
+ */
+public class ParallelJarProcessorTest extends AbstractProvisioningTest {
+
+	/**
+	 * A step that remembers the jars it has seen.
+	 */
+	private static class RecordingStep implements IProcessStep {
+		final Set<String> processed = ConcurrentHashMap.newKeySet();
+
+		@Override
+		public String recursionEffect(String entryName) {
+			return entryName.endsWith(".jar") ? entryName : null;
+		}
+
+		@Override
+		public File preProcess(File input, File workingDirectory, List<Properties> containers) {
+			processed.add(input.getName());
+			return null;
+		}
+
+		@Override
+		public File postProcess(File input, File workingDirectory, List<Properties> containers) {
+			return null;
+		}
+
+		@Override
+		public String getStepName() {
+			return "Record";
+		}
+
+		@Override
+		public boolean adjustInf(File input, Properties inf, List<Properties> containers) {
+			return false;
+		}
+	}
+
+	private static byte[] createJar(String inf, int classes) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (JarOutputStream jar = new JarOutputStream(bytes)) {
+			if (inf != null) {
+				jar.putNextEntry(new ZipEntry(Utils.MARK_FILE_NAME));
+				jar.write(inf.getBytes());
+			}
+			for (int i = 0; i < classes; i++) {
+				jar.putNextEntry(new ZipEntry("org/foo/Class" + i + ".class"));
+				jar.write(new byte[] {(byte) 0xCA, (byte) 0xFE, (byte) i});
+			}
+		}
+		return bytes.toByteArray();
+	}
+
+	private File createOuterJar(File folder) throws IOException {
+		File outer = new File(folder, "outer.jar");
+		try (JarOutputStream jar = new JarOutputStream(new FileOutputStream(outer))) {
+			for (String name : new String[] {"a", "b", "c"}) {
+				jar.putNextEntry(new ZipEntry("lib/" + name + ".jar"));
+				jar.write(createJar(null, 5));
+			}
+			jar.putNextEntry(new ZipEntry("lib/excluded.jar"));
+			jar.write(createJar(Utils.MARK_EXCLUDE + "=true\n", 1));
+		}
+		return outer;
+	}
+
+	private RecordingStep process(File outer, boolean parallel) throws Exception {
+		File output = new File(outer.getParentFile(), "output");
+		output.mkdirs();
+		RecordingStep step = new RecordingStep();
+		JarProcessor processor = new JarProcessor();
+		processor.setWorkingDirectory(output.getAbsolutePath());
+		processor.setProcessAll(true);
+		processor.setParallel(parallel);
+		processor.addProcessStep(step);
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			File result = pool.submit(() -> processor.processJar(outer)).get();
+			try (JarFile jar = new JarFile(result)) {
+				for (String name : new String[] {"a", "b", "c", "excluded"}) {
+					JarEntry entry = jar.getJarEntry("lib/" + name + ".jar");
+					assertNotNull(name, entry);
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+		assertTrue(processor.getStepTimes().containsKey("Record"));
+		return step;
+	}
+
+	public void testNestedJarsInParallel() throws Exception {
+		File outer = createOuterJar(getTestFolder("testNestedJarsInParallel"));
+		RecordingStep step = process(outer, true);
+		assertEquals(Set.of("outer.jar", "a.jar", "b.jar", "c.jar"), step.processed);
+	}
+
+	public void testSameJarsSerially() throws Exception {
+		File outer = createOuterJar(getTestFolder("testSameJarsSerially"));
+		RecordingStep step = process(outer, false);
+		assertEquals(Set.of("outer.jar", "a.jar", "b.jar", "c.jar"), step.processed);
+	}
+}
@@ -23,9 +23,9 @@ import org.junit.runners.Suite;
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
 		BatchExecuteMetadataRepositoryTest.class, CompositeMetadataRepositoryTest.class,
-		JarURLMetadataRepositoryTest.class, LocalMetadataRepositoryTest.class, SPIMetadataRepositoryTest.class,
-		StandaloneSerializationTest.class, MetadataRepositoryManagerTest.class, NoFailOver.class,
-		SiteIndexFileTest.class, XZedRepositoryTest.class
+		JarURLMetadataRepositoryTest.class, LocalMetadataRepositoryTest.class, MetadataRepositoryJournalTest.class,
+		SPIMetadataRepositoryTest.class, StandaloneSerializationTest.class, MetadataRepositoryManagerTest.class,
+		NoFailOver.class, SiteIndexFileTest.class, XZedRepositoryTest.class
 })
 public class AllTests {
 	// ResumeDownloadTest.class,
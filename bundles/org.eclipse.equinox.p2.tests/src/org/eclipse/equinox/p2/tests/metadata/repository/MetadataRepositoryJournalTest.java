@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.metadata.repository;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.equinox.internal.p2.metadata.repository.LocalMetadataRepository;
+import org.eclipse.equinox.internal.p2.metadata.repository.SimpleMetadataRepositoryFactory;
+import org.eclipse.equinox.p2.metadata.IInstallableUnit;
+import org.eclipse.equinox.p2.metadata.IProvidedCapability;
+import org.eclipse.equinox.p2.metadata.MetadataFactory;
+import org.eclipse.equinox.p2.metadata.MetadataFactory.InstallableUnitDescription;
+import org.eclipse.equinox.p2.metadata.Version;
+import org.eclipse.equinox.p2.query.QueryUtil;
+import org.eclipse.equinox.p2.repository.IRepository;
+import org.eclipse.equinox.p2.repository.metadata.IMetadataRepository;
+import org.eclipse.equinox.p2.tests.AbstractProvisioningTest;
+
+/**
+ * Tests the journal of a local metadata repository that has the
+ * {@link LocalMetadataRepository#PROP_JOURNAL} property set.
+ */
+public class MetadataRepositoryJournalTest extends AbstractProvisioningTest {
+	private File location;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		location = new File(getTempFolder(), getUniqueString());
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		delete(location);
+		super.tearDown();
+	}
+
+	private LocalMetadataRepository createRepository(boolean journaled) {
+		return new LocalMetadataRepository(getAgent(), location.toURI(), "journal test", Map.of(IRepository.PROP_COMPRESSED, "false", LocalMetadataRepository.PROP_JOURNAL, Boolean.toString(journaled)));
+	}
+
+	private IMetadataRepository reload() throws Exception {
+		SimpleMetadataRepositoryFactory factory = new SimpleMetadataRepositoryFactory();
+		factory.setAgent(getAgent());
+		return factory.load(location.toURI(), 0, new NullProgressMonitor());
+	}
+
+	private File getIndexFile() {
+		return new File(location, "content.xml");
+	}
+
+	private File getJournalFile() {
+		return new File(location, "content.journal");
+	}
+
+	private static IInstallableUnit createUnit(String id) {
+		InstallableUnitDescription description = new MetadataFactory.InstallableUnitDescription();
+		description.setId(id);
+		description.setVersion(Version.create("1.0.0"));
+		description.setProperty("journal.test", "<value & more>");
+		description.setCapabilities(new IProvidedCapability[] {MetadataFactory.createProvidedCapability(IInstallableUnit.NAMESPACE_IU_ID, id, Version.create("1.0.0"))});
+		return MetadataFactory.createInstallableUnit(description);
+	}
+
+	private static boolean contains(IMetadataRepository repository, String id) {
+		return !repository.query(QueryUtil.createIUQuery(id), null).isEmpty();
+	}
+
+	public void testAddsAreJournaled() throws Exception {
+		LocalMetadataRepository repository = createRepository(true);
+		byte[] index = Files.readAllBytes(getIndexFile().toPath());
+		for (int i = 0; i < 10; i++) {
+			repository.addInstallableUnits(List.of(createUnit("unit" + i)));
+		}
+		assertArrayEquals(index, Files.readAllBytes(getIndexFile().toPath()));
+		assertTrue(getJournalFile().exists());
+
+		IMetadataRepository loaded = reload();
+		for (int i = 0; i < 10; i++) {
+			IInstallableUnit unit = loaded.query(QueryUtil.createIUQuery("unit" + i), null).iterator().next();
+			assertEquals("<value & more>", unit.getProperty("journal.test"));
+			assertEquals(1, unit.getProvidedCapabilities().size());
+		}
+		// the capability index of the loaded repository includes the journaled units
+		assertEquals(10, loaded.query(QueryUtil.createMatchQuery("providedCapabilities.exists(c | c.namespace == $0)", IInstallableUnit.NAMESPACE_IU_ID), null).toUnmodifiableSet().size());
+	}
+
+	public void testRemovesAreJournaled() throws Exception {
+		LocalMetadataRepository repository = createRepository(true);
+		repository.addInstallableUnits(List.of(createUnit("first"), createUnit("second")));
+		repository.removeInstallableUnits(List.of(createUnit("first")));
+
+		IMetadataRepository loaded = reload();
+		assertFalse(contains(loaded, "first"));
+		assertTrue(contains(loaded, "second"));
+	}
+
+	public void testTornRecordIsIgnored() throws Exception {
+		LocalMetadataRepository repository = createRepository(true);
+		repository.addInstallableUnits(List.of(createUnit("complete")));
+		repository.addInstallableUnits(List.of(createUnit("torn")));
+		// simulate a process that was killed while appending
+		try (RandomAccessFile journal = new RandomAccessFile(getJournalFile(), "rw")) {
+			journal.setLength(journal.length() - 3);
+		}
+
+		IMetadataRepository loaded = reload();
+		assertTrue(contains(loaded, "complete"));
+		assertFalse(contains(loaded, "torn"));
+
+		// the next change overwrites the torn record
+		loaded.addInstallableUnits(List.of(createUnit("next")));
+		IMetadataRepository reloaded = reload();
+		assertTrue(contains(reloaded, "complete"));
+		assertTrue(contains(reloaded, "next"));
+	}
+
+	public void testCompactionKeepsIndexReadable() throws Exception {
+		LocalMetadataRepository repository = createRepository(true);
+		repository.addInstallableUnits(List.of(createUnit("journaled")));
+		assertTrue(getJournalFile().exists());
+		repository.executeBatch(monitor -> repository.addInstallableUnits(List.of(createUnit("batched"))), new NullProgressMonitor());
+		assertFalse(getJournalFile().exists());
+
+		// the index file alone has all units, as seen by clients that do not know the journal
+		String index = Files.readString(getIndexFile().toPath());
+		assertTrue(index.contains("id='journaled'"));
+		assertTrue(index.contains("id='batched'"));
+		IMetadataRepository loaded = reload();
+		assertTrue(contains(loaded, "journaled"));
+		assertTrue(contains(loaded, "batched"));
+	}
+
+	public void testNotJournaledByDefault() throws Exception {
+		LocalMetadataRepository repository = createRepository(false);
+		repository.addInstallableUnits(List.of(createUnit("unit")));
+		assertFalse(getJournalFile().exists());
+		assertTrue(contains(reload(), "unit"));
+	}
+}
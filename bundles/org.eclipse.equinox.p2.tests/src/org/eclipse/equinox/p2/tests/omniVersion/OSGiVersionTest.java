@@ -174,6 +174,41 @@ public class OSGiVersionTest extends VersionTesting {
 
 	}
 
+	@Test
+	public void testLargeAndPaddedNumbers() {
+		assertEquals(Version.createOSGi(1, 2, 3), Version.parseVersion("01.002.0003"));
+		assertEquals(Version.createOSGi(123456789, 0, 0), Version.parseVersion("123456789"));
+		assertEquals(Version.createOSGi(Integer.MAX_VALUE, 0, 0), Version.parseVersion("2147483647"));
+		assertOrder(Version.parseVersion("1.0.0"), Version.parseVersion("2147483647.0.0"));
+		assertOrder(Version.parseVersion("0.0.0.a"), Version.parseVersion("2147483647.2147483647.2147483647"));
+	}
+
+	@Test
+	public void testCompareWithBounds() {
+		Version v1 = Version.parseVersion("0.0.0.a");
+		Version v2 = Version.parseVersion("1.0.0");
+		Version v3 = Version.parseVersion("1.0.0.zzz");
+		assertOrder(Version.emptyVersion, v1);
+		assertOrder(v1, Version.MAX_VERSION);
+		assertOrder(Version.emptyVersion, v2);
+		assertOrder(v2, Version.MAX_VERSION);
+		assertOrder(v3, Version.MAX_VERSION);
+		assertFalse(v2.equals(Version.emptyVersion));
+		assertFalse(v2.equals(Version.MAX_VERSION));
+		assertEquals(Version.emptyVersion, Version.parseVersion("0.0.0"));
+	}
+
+	@Test
+	public void testSameAsRawVersion() {
+		String[][] versions = {{"1.2.3", "raw:1.2.3.''"}, {"1.2.3.abc", "raw:1.2.3.'abc'"}, {"1.2", "raw:1.2.0.''"}, {"7.0.0.v20200101-1200", "raw:7.0.0.'v20200101-1200'"}};
+		for (String[] version : versions) {
+			Version osgi = Version.parseVersion(version[0]);
+			Version raw = Version.parseVersion(version[1]);
+			assertEquals(version[0], 0, osgi.compareTo(raw));
+			assertEquals(version[0], 0, raw.compareTo(osgi));
+		}
+	}
+
 	@Test
 	public void testCompatability() {
 		Version v = Version.parseVersion("raw:1.2.3.'foo'");
@@ -14,13 +14,15 @@
 
 package org.eclipse.equinox.p2.tests.omniVersion;
 
+import org.eclipse.equinox.internal.p2.metadata.VersionParser;
 import org.eclipse.equinox.p2.metadata.Version;
+import org.eclipse.equinox.p2.metadata.VersionRange;
 import org.junit.Test;
 
 /**
  * Simple performance comparison between OSGi version implementation and Omni Version.
  * Tests performance of creating version instances using 4 values, as well as string parsing.
- * Tests comparison of versions.
+ * Tests comparison of versions and inclusion of versions in ranges.
  *
  * Aprox 10000 instances are created.
  * Comparison compares all instances against all other (i.e. about 10 milj).
@@ -54,6 +56,28 @@ public class PerformanceTest {
 		// System.out.printf("String creation: osgi=%d, omni=%d, factor=%.2f\n", osgiTime, omniTime, factor(omniTime, osgiTime));
 	}
 
+	@Test
+	public void testStringParsingPerformance() {
+		// Version.create pools the parsed versions, parse without the pool
+		Version.MAX_VERSION.compareTo(Version.emptyVersion);
+		org.osgi.framework.Version.emptyVersion.compareTo(org.osgi.framework.Version.emptyVersion);
+
+		String[] strings = createStrings();
+
+		long start = System.currentTimeMillis();
+		for (int idx = 0; idx < 100; ++idx) {
+			osgiVersionCreateFromString(strings);
+		}
+		long osgiTime = System.currentTimeMillis() - start;
+
+		start = System.currentTimeMillis();
+		for (int idx = 0; idx < 100; ++idx) {
+			omniVersionParse(strings);
+		}
+		long omniTime = System.currentTimeMillis() - start;
+		outputResult("String parsing", 100 * MUL * MUL * MUL, osgiTime, omniTime);
+	}
+
 	@Test
 	public void testCreationPerformance() {
 		// Ensure that classes are loaded etc.
@@ -112,6 +136,29 @@ public class PerformanceTest {
 		//System.out.printf("Equals (%d comparisons): osgi=%d, omni=%d, factor=%d\n", units, osgiTime, omniTime, omniTime / osgiTime);
 	}
 
+	@Test
+	public void testRangeInclusionPerformance() {
+		Version[] omniVersions = createOmniVersions();
+		org.osgi.framework.Version osgiVersions[] = createOsgiVersions();
+		// bounded ranges as well as ranges without upper bound, which compare to the maximum version
+		VersionRange[] omniRanges = {new VersionRange("[1.0.0,2.0.0)"), new VersionRange("[3.0.0,3.0.0]"), new VersionRange("10.0.0"), VersionRange.emptyRange};
+		org.osgi.framework.VersionRange[] osgiRanges = {new org.osgi.framework.VersionRange("[1.0.0,2.0.0)"), new org.osgi.framework.VersionRange("[3.0.0,3.0.0]"), new org.osgi.framework.VersionRange("10.0.0"), new org.osgi.framework.VersionRange("0.0.0")};
+
+		long start = System.currentTimeMillis();
+		for (int idx = 0; idx < 100; ++idx) {
+			osgiVersionIncluded(osgiRanges, osgiVersions);
+		}
+		long osgiTime = System.currentTimeMillis() - start;
+
+		start = System.currentTimeMillis();
+		for (int idx = 0; idx < 100; ++idx) {
+			omniVersionIncluded(omniRanges, omniVersions);
+		}
+		long omniTime = System.currentTimeMillis() - start;
+		long units = 100L * omniRanges.length * MUL * MUL * MUL;
+		outputResult("Range inclusion", units, osgiTime, omniTime);
+	}
+
 	@Test
 	public void testToStringPerformance() {
 		Version[] omniVersions = createOmniVersions();
@@ -183,6 +230,28 @@ public class PerformanceTest {
 		}
 	}
 
+	public static void omniVersionParse(String[] strings) {
+		for (String string : strings) {
+			VersionParser.parse(string, 0, string.length());
+		}
+	}
+
+	public static void omniVersionIncluded(VersionRange[] ranges, Version versions[]) {
+		for (VersionRange range : ranges) {
+			for (Version version : versions) {
+				range.isIncluded(version);
+			}
+		}
+	}
+
+	public static void osgiVersionIncluded(org.osgi.framework.VersionRange[] ranges, org.osgi.framework.Version versions[]) {
+		for (org.osgi.framework.VersionRange range : ranges) {
+			for (org.osgi.framework.Version version : versions) {
+				range.includes(version);
+			}
+		}
+	}
+
 	public static void osgiVersionCompare(org.osgi.framework.Version versions[]) {
 		// compare every version against all other versions
 		for (int i = 0; i < MUL * MUL * MUL; i++) {
@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.perf;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.tests.harness.PerformanceTestRunner;
+import org.eclipse.equinox.internal.p2.artifact.repository.simple.SimpleArtifactRepository;
+import org.eclipse.equinox.internal.p2.artifact.repository.simple.SimpleArtifactRepositoryFactory;
+import org.eclipse.equinox.internal.p2.metadata.ArtifactKey;
+import org.eclipse.equinox.p2.metadata.Version;
+import org.eclipse.equinox.p2.repository.artifact.IArtifactDescriptor;
+import org.eclipse.equinox.p2.repository.artifact.spi.ArtifactDescriptor;
+
+/**
+ * Performance of adding artifacts one at a time to a large bundle pool, with
+ * and without the journal of the simple artifact repository.
+ */
+public class ArtifactRepositoryJournalPerformanceTest extends ProvisioningPerformanceTest {
+	private static final int REPEATS = 5;
+	private static final int POOL_SIZE = 20000;
+	private static final int ADD_COUNT = 100;
+
+	protected File repoLocation;
+	SimpleArtifactRepository repository;
+	int generation;
+
+	@Override
+	protected void tearDown() throws Exception {
+		delete(repoLocation);
+		super.tearDown();
+	}
+
+	public void testAddToPool() throws Exception {
+		runAdds(false);
+	}
+
+	public void testAddToJournaledPool() throws Exception {
+		runAdds(true);
+	}
+
+	private void runAdds(boolean journaled) throws Exception {
+		repoLocation = new File(System.getProperty("java.io.tmpdir"), "ArtifactRepositoryJournalPerformanceTest");
+		delete(repoLocation);
+		Map<String, String> properties = new HashMap<>();
+		if (journaled) {
+			properties.put(SimpleArtifactRepository.PROP_JOURNAL, "true");
+		}
+		SimpleArtifactRepositoryFactory factory = new SimpleArtifactRepositoryFactory();
+		factory.setAgent(getAgent());
+		repository = (SimpleArtifactRepository) factory.create(repoLocation.toURI(), "Pool", null, properties);
+		IArtifactDescriptor[] pool = new IArtifactDescriptor[POOL_SIZE];
+		for (int i = 0; i < POOL_SIZE; i++) {
+			pool[i] = createDescriptor("org.eclipse.pooled" + i, i);
+		}
+		repository.addDescriptors(pool, new NullProgressMonitor());
+
+		new PerformanceTestRunner() {
+			@Override
+			protected void test() {
+				generation++;
+				for (int i = 0; i < ADD_COUNT; i++) {
+					repository.addDescriptor(createDescriptor("org.eclipse.added" + generation, i), new NullProgressMonitor());
+				}
+			}
+		}.run(this, "Add " + ADD_COUNT + " artifacts to a pool of " + POOL_SIZE + (journaled ? " with" : " without") + " journal", REPEATS, 1);
+	}
+
+	static IArtifactDescriptor createDescriptor(String id, int i) {
+		ArtifactDescriptor descriptor = new ArtifactDescriptor(new ArtifactKey("osgi.bundle", id, Version.createOSGi(1, 0, i)));
+		descriptor.setProperty(IArtifactDescriptor.DOWNLOAD_SIZE, Integer.toString(1000 + i));
+		descriptor.setProperty(IArtifactDescriptor.ARTIFACT_SIZE, Integer.toString(2000 + i));
+		return descriptor;
+	}
+}
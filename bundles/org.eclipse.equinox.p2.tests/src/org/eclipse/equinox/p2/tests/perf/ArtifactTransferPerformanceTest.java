@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.perf;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.util.Random;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.tests.harness.PerformanceTestRunner;
+import org.eclipse.equinox.internal.p2.metadata.ArtifactKey;
+import org.eclipse.equinox.p2.metadata.IArtifactKey;
+import org.eclipse.equinox.p2.metadata.Version;
+import org.eclipse.equinox.p2.repository.artifact.ArtifactKeyQuery;
+import org.eclipse.equinox.p2.repository.artifact.IArtifactDescriptor;
+import org.eclipse.equinox.p2.repository.artifact.IArtifactRepository;
+import org.eclipse.equinox.p2.repository.artifact.IArtifactRepositoryManager;
+import org.eclipse.equinox.p2.repository.artifact.spi.ArtifactDescriptor;
+
+/**
+ * Performance of mirroring artifacts between two simple artifact repositories
+ * on the local file system.
+ */
+public class ArtifactTransferPerformanceTest extends ProvisioningPerformanceTest {
+	private static final int REPEATS = 5;
+	private static final int ARTIFACT_COUNT = 50;
+	private static final int ARTIFACT_SIZE = 4 * 1024 * 1024;
+
+	protected File sourceLocation;
+	protected File targetLocation;
+	IArtifactRepository source;
+	IArtifactRepository target;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		File tempDir = new File(System.getProperty("java.io.tmpdir"));
+		sourceLocation = new File(tempDir, "ArtifactTransferPerformanceTest/source");
+		targetLocation = new File(tempDir, "ArtifactTransferPerformanceTest/target");
+		delete(sourceLocation.getParentFile());
+		IArtifactRepositoryManager manager = getArtifactRepositoryManager();
+		source = manager.createRepository(sourceLocation.toURI(), "Source", IArtifactRepositoryManager.TYPE_SIMPLE_REPOSITORY, null);
+		target = manager.createRepository(targetLocation.toURI(), "Target", IArtifactRepositoryManager.TYPE_SIMPLE_REPOSITORY, null);
+
+		byte[] content = new byte[ARTIFACT_SIZE];
+		Random random = new Random(42);
+		for (int i = 0; i < ARTIFACT_COUNT; i++) {
+			random.nextBytes(content);
+			ArtifactDescriptor descriptor = new ArtifactDescriptor(new ArtifactKey("osgi.bundle", "org.eclipse.someartifact" + i, Version.createOSGi(1, 0, i)));
+			try (OutputStream out = source.getOutputStream(descriptor)) {
+				out.write(content);
+			}
+		}
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		getArtifactRepositoryManager().removeRepository(sourceLocation.toURI());
+		getArtifactRepositoryManager().removeRepository(targetLocation.toURI());
+		delete(sourceLocation.getParentFile());
+		super.tearDown();
+	}
+
+	public void testRawMirrorLocalRepository() {
+		new PerformanceTestRunner() {
+			@Override
+			protected void setUp() {
+				target.removeAll(new NullProgressMonitor());
+			}
+
+			@Override
+			protected void test() throws Exception {
+				for (IArtifactKey key : source.query(ArtifactKeyQuery.ALL_KEYS, null)) {
+					for (IArtifactDescriptor descriptor : source.getArtifactDescriptors(key)) {
+						try (OutputStream out = target.getOutputStream(new ArtifactDescriptor(descriptor))) {
+							IStatus status = source.getRawArtifact(descriptor, out, new NullProgressMonitor());
+							assertOK(status);
+						}
+					}
+				}
+			}
+		}.run(this, "Mirror " + ARTIFACT_COUNT + " artifacts of " + ARTIFACT_SIZE / (1024 * 1024) + " MB between local repositories", REPEATS, 1);
+	}
+}
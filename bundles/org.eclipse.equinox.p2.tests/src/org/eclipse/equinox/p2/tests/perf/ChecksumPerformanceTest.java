@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.perf;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.*;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.tests.harness.PerformanceTestRunner;
+import org.eclipse.equinox.internal.p2.artifact.processors.checksum.ChecksumUtilities;
+import org.eclipse.equinox.internal.p2.artifact.processors.checksum.ChecksumVerifier;
+import org.eclipse.equinox.internal.provisional.p2.artifact.repository.processing.ProcessingStep;
+import org.eclipse.equinox.internal.provisional.p2.artifact.repository.processing.ProcessingStepHandler;
+import org.eclipse.equinox.p2.repository.artifact.spi.ProcessingStepDescriptor;
+
+/**
+ * Throughput of checksum verification on a large artifact, comparing one
+ * processing step per algorithm with a single fused step.
+ */
+public class ChecksumPerformanceTest extends ProvisioningPerformanceTest {
+	private static final int REPEATS = 5;
+	private static final int ARTIFACT_SIZE = 64 * 1024 * 1024;
+	private static final int CHUNK_SIZE = 64 * 1024;
+	private static final String[][] ALGORITHMS = { { "MD5", "md5" }, { "SHA-256", "sha-256" },
+			{ "SHA-512", "sha-512" } };
+
+	private final byte[] chunk = new byte[CHUNK_SIZE];
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		new Random(42).nextBytes(chunk);
+	}
+
+	public void testSeparateChecksumSteps() {
+		new PerformanceTestRunner() {
+			@Override
+			protected void test() {
+				List<ChecksumVerifier> verifiers = createVerifiers();
+				ProcessingStep[] steps = verifiers.toArray(ProcessingStep[]::new);
+				transfer(new ProcessingStepHandler().link(steps, OutputStream.nullOutputStream(),
+						new NullProgressMonitor()));
+			}
+		}.run(this, "Verify " + ALGORITHMS.length + " checksums with separate steps", REPEATS, 1);
+	}
+
+	public void testFusedChecksumStep() {
+		new PerformanceTestRunner() {
+			@Override
+			protected void test() {
+				ProcessingStep step = ChecksumUtilities.fuseChecksumVerifiers(createVerifiers());
+				transfer(new ProcessingStepHandler().link(new ProcessingStep[] { step },
+						OutputStream.nullOutputStream(), new NullProgressMonitor()));
+			}
+		}.run(this, "Verify " + ALGORITHMS.length + " checksums with a fused step", REPEATS, 1);
+	}
+
+	List<ChecksumVerifier> createVerifiers() {
+		List<ChecksumVerifier> verifiers = new ArrayList<>();
+		for (String[] algorithm : ALGORITHMS) {
+			ChecksumVerifier verifier = new ChecksumVerifier(algorithm[0], null, algorithm[1], false, 0);
+			// the expected value does not matter for the throughput
+			verifier.initialize(null, new ProcessingStepDescriptor(null, "0", true), null);
+			verifiers.add(verifier);
+		}
+		return verifiers;
+	}
+
+	void transfer(OutputStream stream) {
+		try (stream) {
+			for (int written = 0; written < ARTIFACT_SIZE; written += CHUNK_SIZE) {
+				stream.write(chunk, 0, CHUNK_SIZE);
+			}
+		} catch (IOException e) {
+			fail("Failed to write artifact", e);
+		}
+	}
+}
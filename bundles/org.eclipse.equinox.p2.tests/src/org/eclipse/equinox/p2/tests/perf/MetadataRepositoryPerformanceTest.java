@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2017 IBM Corporation and others.
+ * Copyright (c) 2009, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,12 +14,13 @@
 package org.eclipse.equinox.p2.tests.perf;
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 import org.eclipse.core.tests.harness.PerformanceTestRunner;
+import org.eclipse.equinox.internal.p2.metadata.repository.LocalMetadataRepository;
 import org.eclipse.equinox.p2.metadata.IInstallableUnit;
 import org.eclipse.equinox.p2.query.IQuery;
 import org.eclipse.equinox.p2.query.QueryUtil;
+import org.eclipse.equinox.p2.repository.IRepository;
 import org.eclipse.equinox.p2.repository.metadata.IMetadataRepository;
 import org.eclipse.equinox.p2.repository.metadata.IMetadataRepositoryManager;
 
@@ -73,4 +74,34 @@ public class MetadataRepositoryPerformanceTest extends ProvisioningPerformanceTe
 			}
 		}.run(this, "Test query local metadata repo for " + IU_COUNT + " ius", REPEATS, 10);
 	}
+
+	public void testAddToLargeRepository() {
+		runAdds(false);
+	}
+
+	public void testAddToLargeJournaledRepository() {
+		runAdds(true);
+	}
+
+	private void runAdds(boolean journaled) {
+		final int IU_COUNT = 50000;
+		final int ADD_COUNT = 1000;
+		File location = new File(repoLocation, journaled ? "journaled" : "plain");
+		LocalMetadataRepository large = new LocalMetadataRepository(getAgent(), location.toURI(), "Large", Map.of(IRepository.PROP_COMPRESSED, "false", LocalMetadataRepository.PROP_JOURNAL, Boolean.toString(journaled)));
+		List<IInstallableUnit> ius = new ArrayList<>(IU_COUNT);
+		for (int i = 0; i < IU_COUNT; i++) {
+			ius.add(generateIU(i));
+		}
+		large.addInstallableUnits(ius);
+		new PerformanceTestRunner() {
+			int next = IU_COUNT;
+
+			@Override
+			protected void test() {
+				for (int i = 0; i < ADD_COUNT; i++) {
+					large.addInstallableUnits(List.of(generateIU(next++)));
+				}
+			}
+		}.run(this, "Add " + ADD_COUNT + " single ius to a repo of " + IU_COUNT + " ius" + (journaled ? " with" : " without") + " journal", REPEATS, 1);
+	}
 }
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.perf;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.core.tests.harness.PerformanceTestRunner;
+import org.eclipse.equinox.p2.metadata.*;
+import org.eclipse.equinox.p2.metadata.io.IUSerializer;
+
+/**
+ * Time needed to write the installable units of a large repository.
+ */
+public class MetadataWriterPerformanceTest extends ProvisioningPerformanceTest {
+	private static final int REPEATS = 5;
+	private static final int IU_COUNT = 100000;
+
+	private final List<IInstallableUnit> units = new ArrayList<>(IU_COUNT);
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		for (int i = 0; i < IU_COUNT; i++) {
+			units.add(generateUnit(i));
+		}
+	}
+
+	public void testWriteRepository() {
+		new PerformanceTestRunner() {
+			@Override
+			protected void test() {
+				try (OutputStream output = OutputStream.nullOutputStream()) {
+					new IUSerializer(output).write(units);
+				} catch (IOException e) {
+					fail("Failed to write units", e);
+				}
+			}
+		}.run(this, "Write " + IU_COUNT + " ius", REPEATS, 1);
+	}
+
+	private IInstallableUnit generateUnit(int i) {
+		MetadataFactory.InstallableUnitDescription desc = new MetadataFactory.InstallableUnitDescription();
+		desc.setId("org.eclipse.someiu" + i);
+		desc.setVersion(Version.createOSGi(1, 1, i, "v20260101-1200"));
+		desc.setProperty(IInstallableUnit.PROP_NAME, "Some <unit> & 'friends' " + i);
+		desc.setProperty(IInstallableUnit.PROP_PROVIDER, "Eclipse.org");
+		desc.setCapabilities(new IProvidedCapability[] {MetadataFactory.createProvidedCapability(IInstallableUnit.NAMESPACE_IU_ID, desc.getId(), desc.getVersion())});
+		desc.setRequirements(new IRequirement[] {//
+				MetadataFactory.createRequirement("osgi.bundle", "org.eclipse.core.runtime", new VersionRange("[3.0.0,4.0.0)"), (String) null, false, false, true), //
+				MetadataFactory.createRequirement("java.package", "org.osgi.framework", new VersionRange("1.3.0"), "(osgi.os=linux)", true, false, true)});
+		return MetadataFactory.createInstallableUnit(desc);
+	}
+}
@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.perf;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.*;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.tests.harness.PerformanceTestRunner;
+import org.eclipse.equinox.internal.p2.repository.Transport;
+import org.eclipse.equinox.internal.p2.transport.ecf.HttpClientTransport;
+import org.eclipse.equinox.internal.p2.transport.ecf.RepositoryTransport;
+
+/**
+ * Compares the download performance of the ECF based transport and the
+ * transport based on the HTTP client of the JRE against an embedded HTTP
+ * server, downloading many small files (like artifact and metadata indices) and
+ * a few large files (like bundles) with several threads. The embedded server
+ * only speaks HTTP/1.1, so this measures connection reuse and the per download
+ * overhead, not HTTP/2 multiplexing.
+ */
+public class TransportPerformanceTest extends ProvisioningPerformanceTest {
+	private static final int REPEATS = 5;
+	private static final int THREADS = 4;
+	private static final int SMALL_COUNT = 400;
+	private static final int SMALL_SIZE = 4 * 1024;
+	private static final int LARGE_COUNT = 8;
+	private static final int LARGE_SIZE = 8 * 1024 * 1024;
+
+	private HttpServer server;
+	private URI base;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		byte[] small = new byte[SMALL_SIZE];
+		byte[] large = new byte[LARGE_SIZE];
+		Random random = new Random(42);
+		random.nextBytes(small);
+		random.nextBytes(large);
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.setExecutor(Executors.newFixedThreadPool(THREADS));
+		server.createContext("/small/", exchange -> {
+			exchange.sendResponseHeaders(200, small.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(small);
+			}
+		});
+		server.createContext("/large/", exchange -> {
+			exchange.sendResponseHeaders(200, large.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(large);
+			}
+		});
+		server.start();
+		base = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		server.stop(0);
+		((ExecutorService) server.getExecutor()).shutdownNow();
+		super.tearDown();
+	}
+
+	public void testSmallFilesRepositoryTransport() {
+		runDownloads(new RepositoryTransport(), "small", SMALL_COUNT, SMALL_SIZE);
+	}
+
+	public void testSmallFilesHttpClientTransport() {
+		runDownloads(new HttpClientTransport(), "small", SMALL_COUNT, SMALL_SIZE);
+	}
+
+	public void testLargeFilesRepositoryTransport() {
+		runDownloads(new RepositoryTransport(), "large", LARGE_COUNT, LARGE_SIZE);
+	}
+
+	public void testLargeFilesHttpClientTransport() {
+		runDownloads(new HttpClientTransport(), "large", LARGE_COUNT, LARGE_SIZE);
+	}
+
+	private void runDownloads(Transport transport, String kind, int count, int size) {
+		new PerformanceTestRunner() {
+			@Override
+			protected void test() throws Exception {
+				ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+				try {
+					List<Future<IStatus>> results = new ArrayList<>(count);
+					for (int i = 0; i < count; i++) {
+						URI location = base.resolve(kind + "/file" + i);
+						results.add(executor.submit(() -> transport.download(location, OutputStream.nullOutputStream(), new NullProgressMonitor())));
+					}
+					for (Future<IStatus> result : results) {
+						assertOK(result.get());
+					}
+				} finally {
+					executor.shutdown();
+				}
+			}
+		}.run(this, transport.getClass().getSimpleName() + ": download " + count + " files of " + size / 1024 + " KB with " + THREADS + " threads", REPEATS, 1);
+	}
+}
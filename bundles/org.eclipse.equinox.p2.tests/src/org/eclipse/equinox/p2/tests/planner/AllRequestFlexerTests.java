@@ -22,7 +22,7 @@ import org.junit.runners.Suite;
 		TestRequestFlexerOneInstalledReplacingIt.class, TestRequestFlexerOneInstalledTwoBeingInstalled.class,
 		TestRequestFlexerProduct.class, TestRequestFlexerProduct2.class, TestRequestFlexerProductWithLegacyMarkup.class,
 		TestRequestFlexerProductWithMixedMarkup.class, TestRequestFlexerRequestWithOptionalInstall.class,
-		TestRequestFlexerRequestWithRemoval.class, TestRequestFlexerSharedInstall.class
+		TestRequestFlexerRequestWithRemoval.class, TestRequestFlexerSharedInstall.class, TestRemediationOperation.class
 })
 public class AllRequestFlexerTests {
 // test suite
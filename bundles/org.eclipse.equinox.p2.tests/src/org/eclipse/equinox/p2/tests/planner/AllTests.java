@@ -32,13 +32,13 @@ import org.junit.runners.Suite;
 		DisabledExplanation.class, DropinsScenario.class, EPPPackageInstallStability_bug323322.class,
 		ExplanationDeepConflict.class, ExplanationForOptionalDependencies.class,
 		ExplanationForPartialInstallation.class, ExplanationLargeConflict.class,
-		ExplanationSeveralConflictingRoots.class, FindRootsAfterUpdate.class, FromStrictToOptional.class,
+		ExplanationSeveralConflictingRoots.class, ExplanationTimeBudget.class, FilterEvaluatorTest.class, FindRootsAfterUpdate.class, FromStrictToOptional.class,
 		GreedyRequirement.class, InclusionRuleTest.class, InclusionRuleTest2.class, IUProperties.class,
 		IUPropertyRemoval.class, IUWithFilter.class, IUWithFilter2.class, MinimalInstall.class, MinimalInstall2.class,
 		MissingDependency.class, MissingDependency2.class, MissingDependency3.class, MissingNonGreedyRequirement.class,
 		MissingNonGreedyRequirement2.class, MissingOptional.class, MissingOptionalNonGreedyRequirement.class,
 		MissingOptionalWithDependencies.class, MissingOptionalWithDependencies2.class, NonMinimalState.class,
-		NonMinimalState2.class, NoUnecessaryIUProperty.class, MultipleProvider.class, MultipleSingleton.class,
+		NonMinimalState2.class, NoUnecessaryIUProperty.class, MultiEnvironmentPlanning.class, MultipleProvider.class, MultipleSingleton.class,
 		NoRequirements.class, ORTesting.class, PatchTest1.class, PatchTest10.class, PatchTest11.class,
 		PatchTest12.class, PatchTest13.class, PatchTest1b.class, PatchTest1c.class, PatchTest2.class, PatchTest3.class,
 		PatchTest4.class, PatchTest5.class, PatchTest6.class, PatchTest7.class, PatchTest7b.class, PatchTest8.class,
@@ -51,7 +51,7 @@ import org.junit.runners.Suite;
 		SeveralOptionalDependencies3.class, SeveralOptionalDependencies4.class, SeveralOptionalDependencies5.class,
 		SimpleOptionalTest.class, SimpleOptionalTest2.class, SimpleOptionalTest3.class, SimpleOptionalTest4.class,
 		SimpleOptionalTest5.class, SimpleSingleton.class, SimulatedSharedInstallTest.class,
-		SingletonOptionallyInstalled.class, SingletonOptionallyInstalled2.class, SWTFragment.class,
+		SingletonOptionallyInstalled.class, SingletonOptionallyInstalled2.class, SolutionCacheTest.class, SWTFragment.class,
 		SynchronizeOperationTest.class, TestNoopChangeRequest.class, TestFilteringOnAbsentProperty.class,
 		TopLevelFilterTest.class, TwoVersionsOfWSDL.class, TychoUsage.class, UninstallEverything.class,
 		UpdateForTwoIUs.class, UpdateQueryTest.class, })
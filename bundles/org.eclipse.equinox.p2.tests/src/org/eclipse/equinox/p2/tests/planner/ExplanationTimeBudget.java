@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.planner;
+
+import java.util.*;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.equinox.internal.p2.director.*;
+import org.eclipse.equinox.internal.p2.engine.ProvisioningPlan;
+import org.eclipse.equinox.internal.provisional.p2.director.PlannerStatus;
+import org.eclipse.equinox.p2.engine.IProfile;
+import org.eclipse.equinox.p2.engine.ProvisioningContext;
+import org.eclipse.equinox.p2.metadata.*;
+import org.eclipse.equinox.p2.planner.IPlanner;
+import org.eclipse.equinox.p2.query.Collector;
+import org.eclipse.equinox.p2.tests.AbstractProvisioningTest;
+
+public class ExplanationTimeBudget extends AbstractProvisioningTest {
+	private static final int UNRELATED = 20;
+
+	private IInstallableUnit root;
+	private IInstallableUnit[] units;
+	private IProfile profile;
+	private IPlanner planner;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		List<IInstallableUnit> all = new ArrayList<>();
+		List<IRequirement> rootRequirements = new ArrayList<>();
+		// A and B require different versions of the singleton C
+		all.add(createIU("A", Version.create("1.0.0"), createRequiredCapabilities(IInstallableUnit.NAMESPACE_IU_ID, "C", new VersionRange("[1.0.0, 1.0.0]"))));
+		all.add(createIU("B", Version.create("1.0.0"), createRequiredCapabilities(IInstallableUnit.NAMESPACE_IU_ID, "C", new VersionRange("[2.0.0, 2.0.0]"))));
+		all.add(createIU("C", Version.create("1.0.0"), true));
+		all.add(createIU("C", Version.create("2.0.0"), true));
+		rootRequirements.add(MetadataFactory.createRequirement(IInstallableUnit.NAMESPACE_IU_ID, "A", VersionRange.emptyRange, null, false, false, true));
+		rootRequirements.add(MetadataFactory.createRequirement(IInstallableUnit.NAMESPACE_IU_ID, "B", VersionRange.emptyRange, null, false, false, true));
+		// requirements that have nothing to do with the conflict
+		for (int i = 0; i < UNRELATED; i++) {
+			String id = "U" + i;
+			all.add(createIU(id, Version.create("1.0.0"), createRequiredCapabilities(IInstallableUnit.NAMESPACE_IU_ID, "V" + i, VersionRange.emptyRange)));
+			all.add(createIU("V" + i, Version.create("1.0.0")));
+			rootRequirements.add(MetadataFactory.createRequirement(IInstallableUnit.NAMESPACE_IU_ID, id, VersionRange.emptyRange, null, false, false, true));
+		}
+		root = createIU("root", Version.create("1.0.0"), rootRequirements.toArray(new IRequirement[rootRequirements.size()]));
+		all.add(root);
+		units = all.toArray(new IInstallableUnit[all.size()]);
+		createTestMetdataRepository(units);
+		profile = createProfile("TestProfile." + getName());
+		planner = createPlanner();
+	}
+
+	public void testRefinementsShrinkToExplanation() {
+		List<Set<Explanation>> refinements = Collections.synchronizedList(new ArrayList<>());
+		Projector projector = new Projector(new QueryableArray(units), new HashMap<>(), new HashSet<>(), false);
+		projector.encode(createIU("entryPoint", Version.create("1.0.0"), createRequiredCapabilities(IInstallableUnit.NAMESPACE_IU_ID, "root", VersionRange.emptyRange)), new IInstallableUnit[0], new Collector<>(), List.of(root), new NullProgressMonitor());
+		assertEquals(IStatus.ERROR, projector.invokeSolver(new NullProgressMonitor()).getSeverity());
+		projector.setExplanationListener(refinements::add);
+		Set<Explanation> explanation = projector.getExplanation(new NullProgressMonitor());
+		projector.close();
+
+		assertFalse(explanation.isEmpty());
+		Set<Explanation> previous = null;
+		for (Set<Explanation> refinement : refinements) {
+			assertTrue(refinement.containsAll(explanation));
+			if (previous != null) {
+				assertTrue(previous.containsAll(refinement));
+			}
+			previous = refinement;
+		}
+		for (Explanation ex : explanation) {
+			assertFalse(ex.toString(), ex.toString().contains("U0"));
+		}
+	}
+
+	public void testSameExplanationWithinBudget() {
+		Set<Explanation> unbounded = explain(null);
+		assertFalse(unbounded.isEmpty());
+		assertEquals(unbounded, explain("60000"));
+	}
+
+	public void testExhaustedBudget() {
+		// the conflicting constraints reported first are still an explanation
+		assertFalse(explain("1").isEmpty());
+	}
+
+	public void testInvalidBudget() {
+		assertEquals(explain(null), explain("soon"));
+	}
+
+	private Set<Explanation> explain(String budget) {
+		ProfileChangeRequest request = new ProfileChangeRequest(profile);
+		request.addInstallableUnits(new IInstallableUnit[] {root});
+		ProvisioningContext context = new ProvisioningContext(getAgent());
+		if (budget != null) {
+			context.setProperty("org.eclipse.equinox.p2.director.explanationTimeBudget", budget);
+		}
+		ProvisioningPlan plan = (ProvisioningPlan) planner.getProvisioningPlan(request, context, null);
+		assertEquals(IStatus.ERROR, plan.getStatus().getSeverity());
+		return ((PlannerStatus) plan.getStatus()).getRequestStatus().getExplanations();
+	}
+}
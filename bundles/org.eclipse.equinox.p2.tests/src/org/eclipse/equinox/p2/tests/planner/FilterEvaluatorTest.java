@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.planner;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.equinox.internal.p2.director.FilterEvaluator;
+import org.eclipse.equinox.internal.p2.director.QueryableArray;
+import org.eclipse.equinox.internal.p2.director.Slicer;
+import org.eclipse.equinox.internal.p2.metadata.InstallableUnit;
+import org.eclipse.equinox.p2.metadata.*;
+import org.eclipse.equinox.p2.metadata.expression.ExpressionUtil;
+import org.eclipse.equinox.p2.metadata.expression.IMatchExpression;
+import org.eclipse.equinox.p2.query.IQueryable;
+import org.eclipse.equinox.p2.query.QueryUtil;
+import org.eclipse.equinox.p2.tests.AbstractProvisioningTest;
+
+public class FilterEvaluatorTest extends AbstractProvisioningTest {
+	private static final Map<String, String> LINUX = Map.of("osgi.os", "linux", "osgi.ws", "gtk", "osgi.arch", "x86_64");
+
+	public void testMatch() {
+		FilterEvaluator evaluator = new FilterEvaluator(LINUX);
+		assertTrue(evaluator.isMatch(null));
+		assertTrue(evaluator.isMatch(InstallableUnit.parseFilter("(osgi.os=linux)")));
+		assertFalse(evaluator.isMatch(InstallableUnit.parseFilter("(osgi.os=win32)")));
+		assertTrue(evaluator.isMatch(InstallableUnit.parseFilter("(&(osgi.os=linux)(!(osgi.arch=aarch64)))")));
+		assertFalse(evaluator.isMatch(InstallableUnit.parseFilter("(osgi.nl=*)")));
+	}
+
+	public void testEqualFiltersEvaluatedOnce() {
+		IMatchExpression<IInstallableUnit> filter = InstallableUnit.parseFilter("(osgi.os=linux)");
+		AtomicInteger evaluations = new AtomicInteger();
+		FilterEvaluator evaluator = new FilterEvaluator(LINUX);
+		IMatchExpression<IInstallableUnit> counting = countEvaluations(filter, evaluations);
+		for (int i = 0; i < 10; i++) {
+			assertTrue(evaluator.isMatch(counting));
+		}
+		assertEquals(1, evaluations.get());
+
+		// filters created separately share the result of an equal filter
+		IMatchExpression<IInstallableUnit> copy = ExpressionUtil.getFactory().matchExpression(ExpressionUtil.parse("properties ~= $0"), ExpressionUtil.parseLDAP("(osgi.os=linux)"));
+		assertNotSame(filter, copy);
+		assertTrue(evaluator.isMatch(filter));
+		assertTrue(evaluator.isMatch(copy));
+	}
+
+	public void testSliceWithFilters() {
+		IInstallableUnit root = createIU("root", Version.create("1.0.0"), new IRequirement[] {//
+				MetadataFactory.createRequirement(IInstallableUnit.NAMESPACE_IU_ID, "linux", VersionRange.emptyRange, "(osgi.os=linux)", false, false, true), //
+				MetadataFactory.createRequirement(IInstallableUnit.NAMESPACE_IU_ID, "win32", VersionRange.emptyRange, "(osgi.os=win32)", false, false, true)});
+		IInstallableUnit linux = createIU("linux", Version.create("1.0.0"));
+		IInstallableUnit win32 = createIU("win32", Version.create("1.0.0"));
+		Slicer slicer = new Slicer(new QueryableArray(List.of(root, linux, win32)), new FilterEvaluator(LINUX), false);
+		IQueryable<IInstallableUnit> slice = slicer.slice(List.of(root), new NullProgressMonitor());
+		assertNotNull(slice);
+		assertFalse(slice.query(QueryUtil.createIUQuery("linux"), null).isEmpty());
+		assertTrue(slice.query(QueryUtil.createIUQuery("win32"), null).isEmpty());
+	}
+
+	@SuppressWarnings("unchecked")
+	private static IMatchExpression<IInstallableUnit> countEvaluations(IMatchExpression<IInstallableUnit> filter, AtomicInteger evaluations) {
+		return (IMatchExpression<IInstallableUnit>) Proxy.newProxyInstance(FilterEvaluatorTest.class.getClassLoader(), new Class<?>[] {IMatchExpression.class}, (proxy, method, args) -> {
+			switch (method.getName()) {
+				case "equals" :
+					return proxy == args[0];
+				case "hashCode" :
+					return System.identityHashCode(proxy);
+				case "isMatch" :
+					evaluations.incrementAndGet();
+					break;
+				default :
+					break;
+			}
+			return method.invoke(filter, args);
+		});
+	}
+}
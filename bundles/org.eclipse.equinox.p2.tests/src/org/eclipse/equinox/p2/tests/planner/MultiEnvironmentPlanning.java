@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.planner;
+
+import java.util.*;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.equinox.internal.p2.director.ProfileChangeRequest;
+import org.eclipse.equinox.internal.p2.director.SimplePlanner;
+import org.eclipse.equinox.p2.engine.*;
+import org.eclipse.equinox.p2.metadata.*;
+import org.eclipse.equinox.p2.query.QueryUtil;
+import org.eclipse.equinox.p2.tests.AbstractProvisioningTest;
+
+public class MultiEnvironmentPlanning extends AbstractProvisioningTest {
+	private static final Map<String, String> LINUX = Map.of("osgi.os", "linux", "osgi.ws", "gtk", "osgi.arch", "x86_64");
+	private static final Map<String, String> WIN32 = Map.of("osgi.os", "win32", "osgi.ws", "win32", "osgi.arch", "x86_64");
+	private static final Map<String, String> MACOSX = Map.of("osgi.os", "macosx", "osgi.ws", "cocoa", "osgi.arch", "aarch64");
+
+	private IInstallableUnit root;
+	private IProfile profile;
+	private SimplePlanner planner;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		root = createIU("root", Version.create("1.0.0"), new IRequirement[] {//
+				MetadataFactory.createRequirement(IInstallableUnit.NAMESPACE_IU_ID, "common", VersionRange.emptyRange, null, false, false, true), //
+				MetadataFactory.createRequirement(IInstallableUnit.NAMESPACE_IU_ID, "linux", VersionRange.emptyRange, "(osgi.os=linux)", false, false, true), //
+				MetadataFactory.createRequirement(IInstallableUnit.NAMESPACE_IU_ID, "win32", VersionRange.emptyRange, "(osgi.os=win32)", false, false, true), //
+				MetadataFactory.createRequirement(IInstallableUnit.NAMESPACE_IU_ID, "macosx", VersionRange.emptyRange, "(osgi.os=macosx)", false, false, true)});
+		IInstallableUnit common = createIU("common", Version.create("1.0.0"));
+		IInstallableUnit linux = createIU("linux", Version.create("1.0.0"));
+		IInstallableUnit win32 = createIU("win32", Version.create("1.0.0"), createRequiredCapabilities(IInstallableUnit.NAMESPACE_IU_ID, "win32.native", VersionRange.emptyRange));
+		IInstallableUnit win32Native = createIU("win32.native", Version.create("1.0.0"), "(osgi.arch=x86_64)", NO_PROVIDES);
+		// macosx requires something that is not available
+		IInstallableUnit macosx = createIU("macosx", Version.create("1.0.0"), createRequiredCapabilities(IInstallableUnit.NAMESPACE_IU_ID, "missing", VersionRange.emptyRange));
+		createTestMetdataRepository(new IInstallableUnit[] {root, common, linux, win32, win32Native, macosx});
+		profile = createProfile("TestProfile." + getName());
+		planner = (SimplePlanner) createPlanner();
+	}
+
+	public void testPlanPerEnvironment() {
+		Map<Map<String, String>, IProvisioningPlan> plans = planner.getProvisioningPlans(createRequest(), List.of(LINUX, WIN32, MACOSX), new ProvisioningContext(getAgent()), null);
+		assertEquals(List.of(LINUX, WIN32, MACOSX), new ArrayList<>(plans.keySet()));
+
+		assertOK(plans.get(LINUX).getStatus());
+		assertEquals(Set.of("root", "common", "linux"), getAddedIds(plans.get(LINUX)));
+		assertOK(plans.get(WIN32).getStatus());
+		assertEquals(Set.of("root", "common", "win32", "win32.native"), getAddedIds(plans.get(WIN32)));
+		assertEquals(IStatus.ERROR, plans.get(MACOSX).getStatus().getSeverity());
+	}
+
+	public void testSameAsSeparatePlans() {
+		Map<Map<String, String>, IProvisioningPlan> plans = planner.getProvisioningPlans(createRequest(), List.of(LINUX, WIN32, MACOSX), new ProvisioningContext(getAgent()), null);
+		for (Map<String, String> environment : List.of(LINUX, WIN32, MACOSX)) {
+			IProfile environmentProfile = createProfile("TestProfile." + getName() + '.' + environment.get("osgi.os"), environment);
+			ProfileChangeRequest request = new ProfileChangeRequest(environmentProfile);
+			request.addInstallableUnits(new IInstallableUnit[] {root});
+			IProvisioningPlan separate = planner.getProvisioningPlan(request, new ProvisioningContext(getAgent()), null);
+			IProvisioningPlan shared = plans.get(environment);
+			assertEquals(separate.getStatus().getSeverity(), shared.getStatus().getSeverity());
+			if (separate.getStatus().isOK()) {
+				assertEquals(getAddedIds(separate), getAddedIds(shared));
+			}
+		}
+	}
+
+	public void testNoEnvironment() {
+		assertTrue(planner.getProvisioningPlans(createRequest(), List.of(), new ProvisioningContext(getAgent()), null).isEmpty());
+	}
+
+	private ProfileChangeRequest createRequest() {
+		ProfileChangeRequest request = new ProfileChangeRequest(profile);
+		request.addInstallableUnits(new IInstallableUnit[] {root});
+		return request;
+	}
+
+	private static Set<String> getAddedIds(IProvisioningPlan plan) {
+		Set<String> ids = new HashSet<>();
+		plan.getAdditions().query(QueryUtil.createIUAnyQuery(), null).forEach(iu -> ids.add(iu.getId()));
+		return ids;
+	}
+}
@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.planner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Set;
+import org.eclipse.core.runtime.URIUtil;
+import org.eclipse.equinox.internal.p2.director.ProfileChangeRequest;
+import org.eclipse.equinox.internal.p2.director.SolutionCache;
+import org.eclipse.equinox.p2.core.IAgentLocation;
+import org.eclipse.equinox.p2.engine.*;
+import org.eclipse.equinox.p2.metadata.*;
+import org.eclipse.equinox.p2.planner.IPlanner;
+import org.eclipse.equinox.p2.query.QueryUtil;
+import org.eclipse.equinox.p2.tests.AbstractProvisioningTest;
+
+public class SolutionCacheTest extends AbstractProvisioningTest {
+	private static final String SOLUTION_CACHE = "org.eclipse.equinox.p2.director.solutionCache";
+
+	private IInstallableUnit a1;
+	private IProfile profile;
+	private IPlanner planner;
+	private File cacheDirectory;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		a1 = createIU("A", Version.create("1.0.0"), createRequiredCapabilities(IInstallableUnit.NAMESPACE_IU_ID, "B", new VersionRange("[1.0.0, 2.0.0)")));
+		IInstallableUnit b1 = createIU("B", Version.create("1.0.0"), true);
+		IInstallableUnit b2 = createIU("B", Version.create("2.0.0"), true);
+		createTestMetdataRepository(new IInstallableUnit[] {a1, b1, b2});
+		profile = createProfile("TestProfile." + getName());
+		planner = createPlanner();
+		IAgentLocation location = getAgent().getService(IAgentLocation.class);
+		cacheDirectory = URIUtil.toFile(URIUtil.append(location.getDataArea("org.eclipse.equinox.p2.director"), "solutions"));
+		delete(cacheDirectory);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		delete(cacheDirectory);
+		super.tearDown();
+	}
+
+	public void testCachedSolution() {
+		IProvisioningPlan solved = plan(null);
+		assertEquals(0, countSolutions());
+
+		int hits = SolutionCache.getHitCount();
+		assertEquals(getAdditions(solved), getAdditions(plan("true")));
+		assertEquals(hits, SolutionCache.getHitCount());
+		int stored = countSolutions();
+		assertTrue(stored > 0);
+
+		// every stored solution is served from the cache instead of running the solver
+		IProvisioningPlan cached = plan("true");
+		assertEquals(hits + stored, SolutionCache.getHitCount());
+		assertEquals(stored, countSolutions());
+		assertEquals(getAdditions(solved), getAdditions(cached));
+		assertEquals(getRemovals(solved), getRemovals(cached));
+	}
+
+	public void testDifferentContext() {
+		plan("true");
+		int stored = countSolutions();
+		ProvisioningContext context = createContext("true");
+		context.setProperty("org.eclipse.equinox.p2.tests.unrelated", "true");
+		ProfileChangeRequest request = new ProfileChangeRequest(profile);
+		request.addInstallableUnits(new IInstallableUnit[] {a1});
+		assertOK(planner.getProvisioningPlan(request, context, null).getStatus());
+		assertTrue(countSolutions() > stored);
+	}
+
+	public void testStaleSolution() throws IOException {
+		Set<IInstallableUnit> expected = getAdditions(plan("true"));
+		for (File solution : cacheDirectory.listFiles()) {
+			Files.writeString(solution.toPath(), Files.readString(solution.toPath(), StandardCharsets.UTF_8) + "U\tmissing\t1.0.0\n", StandardCharsets.UTF_8);
+		}
+		assertEquals(expected, getAdditions(plan("true")));
+		for (File solution : cacheDirectory.listFiles()) {
+			assertFalse(Files.readString(solution.toPath(), StandardCharsets.UTF_8).contains("missing"));
+		}
+	}
+
+	private IProvisioningPlan plan(String cache) {
+		ProfileChangeRequest request = new ProfileChangeRequest(profile);
+		request.addInstallableUnits(new IInstallableUnit[] {a1});
+		IProvisioningPlan plan = planner.getProvisioningPlan(request, createContext(cache), null);
+		assertOK(plan.getStatus());
+		return plan;
+	}
+
+	private ProvisioningContext createContext(String cache) {
+		ProvisioningContext context = new ProvisioningContext(getAgent());
+		if (cache != null) {
+			context.setProperty(SOLUTION_CACHE, cache);
+		}
+		return context;
+	}
+
+	private static Set<IInstallableUnit> getAdditions(IProvisioningPlan plan) {
+		return plan.getAdditions().query(QueryUtil.createIUAnyQuery(), null).toUnmodifiableSet();
+	}
+
+	private static Set<IInstallableUnit> getRemovals(IProvisioningPlan plan) {
+		return plan.getRemovals().query(QueryUtil.createIUAnyQuery(), null).toUnmodifiableSet();
+	}
+
+	private int countSolutions() {
+		String[] names = cacheDirectory.list((dir, name) -> name.endsWith(".solution"));
+		return names == null ? 0 : names.length;
+	}
+}
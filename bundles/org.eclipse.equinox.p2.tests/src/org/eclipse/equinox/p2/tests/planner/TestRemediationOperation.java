@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.planner;
+
+import java.util.*;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.equinox.internal.p2.director.ProfileChangeRequest;
+import org.eclipse.equinox.p2.core.IProvisioningAgent;
+import org.eclipse.equinox.p2.engine.*;
+import org.eclipse.equinox.p2.metadata.IInstallableUnit;
+import org.eclipse.equinox.p2.operations.*;
+import org.eclipse.equinox.p2.planner.*;
+import org.eclipse.equinox.p2.query.IQueryResult;
+import org.eclipse.equinox.p2.tests.*;
+
+public class TestRemediationOperation extends AbstractProvisioningTest {
+	private static final String EXPLANATION = "org.eclipse.equinox.p2.director.explain";
+
+	/**
+	 * Records the contexts the remedies are computed in, and whether they asked
+	 * for explanations at the time the planner was called.
+	 */
+	static class RecordingPlanner implements IPlanner {
+		private final IPlanner planner;
+		final Set<ProvisioningContext> contexts = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+		final List<String> explanations = Collections.synchronizedList(new ArrayList<>());
+
+		RecordingPlanner(IPlanner planner) {
+			this.planner = planner;
+		}
+
+		@Override
+		public IProvisioningPlan getProvisioningPlan(IProfileChangeRequest request, ProvisioningContext context, IProgressMonitor monitor) {
+			if (((ProfileChangeRequest) request).getPropertiesToAdd().containsKey("_internal_user_defined_")) {
+				contexts.add(context);
+				explanations.add(context.getProperty(EXPLANATION));
+			}
+			return planner.getProvisioningPlan(request, context, monitor);
+		}
+
+		@Override
+		public IProvisioningPlan getDiffPlan(IProfile currentProfile, IProfile targetProfile, IProgressMonitor monitor) {
+			return planner.getDiffPlan(currentProfile, targetProfile, monitor);
+		}
+
+		@Override
+		public IProfileChangeRequest createChangeRequest(IProfile profileToChange) {
+			return planner.createChangeRequest(profileToChange);
+		}
+
+		@Override
+		public IQueryResult<IInstallableUnit> updatesFor(IInstallableUnit iu, ProvisioningContext context, IProgressMonitor monitor) {
+			return planner.updatesFor(iu, context, monitor);
+		}
+	}
+
+	@IUDescription(content = "package: sdk \n" + "singleton: true\n" + "version: 1 \n" + "depends: platform = 1")
+	public IInstallableUnit sdk1;
+
+	@IUDescription(content = "package: platform \n" + "singleton: true\n" + "version: 1 \n")
+	public IInstallableUnit platform1;
+
+	@IUDescription(content = "package: sdk \n" + "singleton: true\n" + "version: 2 \n" + "depends: platform = 2")
+	public IInstallableUnit sdk2;
+
+	@IUDescription(content = "package: platform \n" + "singleton: true\n" + "version: 2 \n")
+	public IInstallableUnit platform2;
+
+	@IUDescription(content = "package: egit \n" + "singleton: true\n" + "version: 1 \n" + "depends: platform = 1")
+	public IInstallableUnit egit1;
+
+	@IUDescription(content = "package: egit \n" + "singleton: true\n" + "version: 2 \n" + "depends: platform = 2")
+	public IInstallableUnit egit2;
+
+	IProfile profile;
+
+	private IPlanner planner;
+
+	private IProfileChangeRequest originalRequest;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		profile = createProfile("TestProfile." + getName());
+		IULoader.loadIUs(this);
+		createTestMetdataRepository(new IInstallableUnit[] {sdk1, platform1, sdk2, platform2, egit1, egit2});
+		planner = createPlanner();
+		assertOK(install(profile, new IInstallableUnit[] {sdk1}, true, planner, createEngine()));
+
+		originalRequest = planner.createChangeRequest(profile);
+		originalRequest.add(egit2);
+		originalRequest.setInstallableUnitInclusionRules(egit2, ProfileInclusionRules.createStrictInclusionRule(egit2));
+		assertNotOK(planner.getProvisioningPlan(originalRequest, null, null).getStatus());
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		super.tearDown();
+		getProfileRegistry().removeProfile(profile.getProfileId());
+	}
+
+	public void testAllRemedies() {
+		RemediationOperation operation = createOperation();
+		assertOK(operation.resolveModal(getMonitor()));
+		assertEquals(RemedyConfig.getAllRemedyConfigs().length, operation.getRemedyConfigs().length);
+		assertFalse(operation.getRemedies().isEmpty());
+
+		Remedy changingTheRequest = operation.bestSolutionChangingTheRequest();
+		assertNotNull(changingTheRequest);
+		assertTrue(changingTheRequest.getRequest().getAdditions().contains(egit1));
+		Remedy changingWhatIsInstalled = operation.bestSolutionChangingWhatIsInstalled();
+		assertNotNull(changingWhatIsInstalled);
+		assertTrue(changingWhatIsInstalled.getRequest().getAdditions().contains(egit2));
+	}
+
+	public void testStopAtBestSolutions() {
+		RemediationOperation all = createOperation();
+		assertOK(all.resolveModal(getMonitor()));
+
+		RemediationOperation best = createOperation();
+		best.setStopAtBestSolutions(true);
+		assertOK(best.resolveModal(getMonitor()));
+		assertTrue(best.getRemedies().size() <= all.getRemedies().size());
+		assertSameConfig(all.bestSolutionChangingTheRequest(), best.bestSolutionChangingTheRequest());
+		assertSameConfig(all.bestSolutionChangingWhatIsInstalled(), best.bestSolutionChangingWhatIsInstalled());
+	}
+
+	public void testConcurrentRemediesWithExplanation() {
+		RemediationOperation expected = createOperation();
+		assertOK(expected.resolveModal(getMonitor()));
+
+		IProvisioningAgent agent = getAgent();
+		RecordingPlanner recording = new RecordingPlanner(planner);
+		agent.registerService(IPlanner.SERVICE_NAME, recording);
+		try {
+			RemediationOperation operation = createOperation();
+			ProvisioningContext context = operation.getProvisioningContext();
+			context.setProperty(EXPLANATION, "true");
+			assertOK(operation.resolveModal(getMonitor()));
+
+			// the remedies do not need explanations, whatever the other runs do
+			assertFalse(recording.explanations.isEmpty());
+			for (String explanation : recording.explanations) {
+				assertEquals("false", explanation);
+			}
+			if (Integer.getInteger("p2.remediation.maxThreads", Runtime.getRuntime().availableProcessors()) > 1) {
+				// each configuration is resolved concurrently in a context of its own
+				assertTrue(recording.contexts.size() >= operation.getRemedyConfigs().length);
+				assertFalse(recording.contexts.contains(context));
+			}
+			assertEquals("true", context.getProperty(EXPLANATION));
+			assertSameConfig(expected.bestSolutionChangingTheRequest(), operation.bestSolutionChangingTheRequest());
+			assertSameConfig(expected.bestSolutionChangingWhatIsInstalled(), operation.bestSolutionChangingWhatIsInstalled());
+		} finally {
+			agent.unregisterService(IPlanner.SERVICE_NAME, recording);
+			agent.registerService(IPlanner.SERVICE_NAME, planner);
+		}
+	}
+
+	private RemediationOperation createOperation() {
+		RemediationOperation operation = new RemediationOperation(new ProvisioningSession(getAgent()), originalRequest);
+		operation.setProfileId(profile.getProfileId());
+		operation.setProvisioningContext(new ProvisioningContext(getAgent()));
+		return operation;
+	}
+
+	private static void assertSameConfig(Remedy expected, Remedy actual) {
+		assertNotNull(expected);
+		assertNotNull(actual);
+		RemedyConfig expectedConfig = expected.getConfig();
+		RemedyConfig actualConfig = actual.getConfig();
+		assertEquals(expectedConfig.allowDifferentVersion, actualConfig.allowDifferentVersion);
+		assertEquals(expectedConfig.allowInstalledRemoval, actualConfig.allowInstalledRemoval);
+		assertEquals(expectedConfig.allowInstalledUpdate, actualConfig.allowInstalledUpdate);
+		assertEquals(expectedConfig.allowPartialInstall, actualConfig.allowPartialInstall);
+		assertEquals(new HashSet<>(expected.getRequest().getAdditions()), new HashSet<>(actual.getRequest().getAdditions()));
+	}
+}
@@ -37,6 +37,8 @@ public class AllTests extends TestCase {
 			suite.addTest(SharedInstallTestsProfileSpoofEnabledConfigured.suite());
 		}
 		suite.addTest(Bug362692.suite());
+		suite.addTestSuite(DropinsDigestTest.class);
+		suite.addTestSuite(DropinsRepositoryListenerTest.class);
 		return suite;
 	}
 }
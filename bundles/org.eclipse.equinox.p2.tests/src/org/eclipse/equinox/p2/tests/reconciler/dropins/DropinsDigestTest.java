@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.reconciler.dropins;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import org.eclipse.equinox.internal.p2.reconciler.dropins.Activator;
+import org.eclipse.equinox.p2.tests.AbstractProvisioningTest;
+
+/**
+ * Tests the digest of the watched files that lets the reconciler skip the
+ * reconciliation when nothing has changed.
+ */
+public class DropinsDigestTest extends AbstractProvisioningTest {
+	private File dropins;
+	private File plugins;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		dropins = getTempFolder();
+		plugins = new File(dropins, "plugins");
+		plugins.mkdirs();
+		Files.writeString(new File(plugins, "a_1.0.0.jar").toPath(), "a");
+	}
+
+	private String digest() {
+		return Activator.computeDigest(List.of(dropins, plugins));
+	}
+
+	public void testUnchanged() {
+		assertEquals(digest(), Activator.computeDigest(List.of(plugins, dropins)));
+	}
+
+	public void testAddedFile() throws Exception {
+		String before = digest();
+		long lastModified = plugins.lastModified();
+		Files.writeString(new File(plugins, "b_1.0.0.jar").toPath(), "b");
+		// only the listing tells
+		plugins.setLastModified(lastModified);
+		assertFalse(before.equals(digest()));
+	}
+
+	public void testReplacedFile() throws Exception {
+		File jar = new File(plugins, "a_1.0.0.jar");
+		long lastModified = jar.lastModified();
+		String before = digest();
+		Files.writeString(jar.toPath(), "replaced");
+		jar.setLastModified(lastModified);
+		assertFalse(before.equals(digest()));
+	}
+
+	public void testTouchedFile() throws Exception {
+		File jar = new File(plugins, "a_1.0.0.jar");
+		String before = digest();
+		jar.setLastModified(jar.lastModified() - 10000);
+		assertFalse(before.equals(digest()));
+	}
+}
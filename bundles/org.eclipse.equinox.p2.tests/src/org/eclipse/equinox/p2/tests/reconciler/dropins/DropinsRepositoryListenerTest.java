@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.reconciler.dropins;
+
+import java.io.File;
+import java.net.URI;
+import java.util.*;
+import org.eclipse.equinox.internal.p2.core.helpers.ServiceHelper;
+import org.eclipse.equinox.internal.p2.reconciler.dropins.DropinsRepositoryListener;
+import org.eclipse.equinox.p2.core.ProvisionException;
+import org.eclipse.equinox.p2.repository.IRepository;
+import org.eclipse.equinox.p2.repository.metadata.IMetadataRepository;
+import org.eclipse.equinox.p2.tests.AbstractProvisioningTest;
+import org.eclipse.equinox.p2.tests.TestActivator;
+import org.eclipse.osgi.framework.log.FrameworkLog;
+
+/**
+ * Tests that the repositories found during a poll of the dropins are created
+ * concurrently but added in the order they were found.
+ */
+public class DropinsRepositoryListenerTest extends AbstractProvisioningTest {
+	private static final String BROKEN = "broken";
+
+	/**
+	 * Completes the locations in the reverse order they were found and fails
+	 * for the broken one.
+	 */
+	class ReversingListener extends DropinsRepositoryListener {
+		private final List<URI> locations;
+
+		ReversingListener(List<URI> locations) {
+			super(getAgent(), DropinsRepositoryListenerTest.class.getName(), null);
+			this.locations = locations;
+		}
+
+		@Override
+		protected IRepository<?>[] createRepositories(URI repoURL, Map<String, String> properties) {
+			if (repoURL.getPath().contains(BROKEN)) {
+				throw new IllegalStateException(BROKEN);
+			}
+			try {
+				Thread.sleep(100L * (locations.size() - locations.indexOf(repoURL)));
+				// the test keeps track of the created repositories in a plain list
+				synchronized (DropinsRepositoryListenerTest.this) {
+					return new IRepository<?>[] {createMetadataRepository(repoURL, null), createArtifactRepository(repoURL, null)};
+				}
+			} catch (InterruptedException | ProvisionException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+	public void testRepositoriesKeepTheirOrder() throws Exception {
+		FrameworkLog log = ServiceHelper.getService(TestActivator.getContext(), FrameworkLog.class);
+		assertNotNull(log);
+		log.getFile().delete();
+
+		File folder = getTempFolder();
+		List<File> files = new ArrayList<>();
+		List<URI> locations = new ArrayList<>();
+		for (String name : new String[] {"first", BROKEN, "second", "third"}) {
+			File file = new File(folder, name);
+			file.mkdirs();
+			files.add(file);
+			locations.add(file.getCanonicalFile().toURI());
+		}
+		ReversingListener listener = new ReversingListener(locations);
+		for (File file : files) {
+			listener.added(file);
+		}
+		listener.stopPoll();
+
+		List<URI> found = new ArrayList<>();
+		for (IMetadataRepository repository : listener.getMetadataRepositories()) {
+			found.add(repository.getLocation());
+		}
+		// the repository of the listener itself comes last
+		assertEquals(List.of(locations.get(0), locations.get(2), locations.get(3)), found.subList(0, found.size() - 1));
+		assertLogContainsLine(log.getFile(), new String[] {"Error occurred while creating repository: ", locations.get(1).toString()});
+	}
+}
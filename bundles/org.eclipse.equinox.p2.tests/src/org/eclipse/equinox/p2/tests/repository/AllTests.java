@@ -21,7 +21,8 @@ import org.junit.runners.Suite;
  */
 @RunWith(Suite.class)
 @Suite.SuiteClasses({ CacheManagerTest.class, RepositoryHelperTest.class, RepositoryExtensionPointTest.class,
-		FileReaderTest2.class, ChecksumHelperTest.class })
+		FileReaderTest2.class, ChecksumHelperTest.class, XMLWriterTest.class, LayoutProbeTest.class,
+		HttpClientTransportTest.class, RepositoryAnalyzerTest.class })
 public class AllTests {
 	// test suite
 }
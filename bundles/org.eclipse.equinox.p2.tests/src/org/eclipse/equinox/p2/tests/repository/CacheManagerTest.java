@@ -21,6 +21,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
@@ -28,6 +32,7 @@ import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.equinox.internal.p2.repository.AuthenticationFailedException;
 import org.eclipse.equinox.internal.p2.repository.CacheManager;
+import org.eclipse.equinox.internal.p2.repository.DownloadStatus;
 import org.eclipse.equinox.internal.p2.repository.Messages;
 import org.eclipse.equinox.internal.p2.repository.Transport;
 import org.eclipse.equinox.p2.core.IAgentLocation;
@@ -143,6 +148,129 @@ public class CacheManagerTest {
 		}
 	}
 
+	@Test
+	public void testConditionalRevalidation() throws IOException, ProvisionException {
+		ConditionalTransport transport = new ConditionalTransport();
+		CacheManager manager = new CacheManager(new AgentLocationMock(), transport);
+		URI remoteFile = URI.create("https://foo.bar/repository/content.xml.xz");
+
+		File cache = manager.createCacheFromFile(remoteFile, new NullProgressMonitor());
+		assertEquals("content 1", Files.readString(cache.toPath()));
+		assertEquals(List.of("lastModified", "download"), transport.requests);
+
+		// not modified, a single request with the entity tag of the cached file
+		transport.requests.clear();
+		cache = manager.createCacheFromFile(remoteFile, new NullProgressMonitor());
+		assertEquals("content 1", Files.readString(cache.toPath()));
+		assertEquals(List.of("downloadIfModified \"1\""), transport.requests);
+
+		// modified, still a single request
+		transport.requests.clear();
+		transport.version = 2;
+		cache = manager.createCacheFromFile(remoteFile, new NullProgressMonitor());
+		assertEquals("content 2", Files.readString(cache.toPath()));
+		assertEquals(List.of("downloadIfModified \"1\""), transport.requests);
+
+		transport.requests.clear();
+		manager.createCacheFromFile(remoteFile, new NullProgressMonitor());
+		assertEquals(List.of("downloadIfModified \"2\""), transport.requests);
+	}
+
+	@Test
+	public void testUnconditionalTransport() throws IOException, ProvisionException {
+		ConditionalTransport transport = new ConditionalTransport() {
+			@Override
+			public boolean supportsConditionalDownload(URI location) {
+				return false;
+			}
+		};
+		CacheManager manager = new CacheManager(new AgentLocationMock(), transport);
+		URI remoteFile = URI.create("https://foo.bar/repository/content.xml.xz");
+		manager.createCacheFromFile(remoteFile, new NullProgressMonitor());
+
+		// the cache file is checked against the last modified date instead
+		transport.requests.clear();
+		File cache = manager.createCacheFromFile(remoteFile, new NullProgressMonitor());
+		assertEquals("content 1", Files.readString(cache.toPath()));
+		assertEquals(List.of("lastModified"), transport.requests);
+	}
+
+	@Test
+	public void testFreshnessWindow() throws IOException, ProvisionException {
+		ConditionalTransport transport = new ConditionalTransport();
+		CacheManager manager = new CacheManager(new AgentLocationMock(), transport);
+		URI remoteFile = URI.create("https://foo.bar/repository/content.xml.xz");
+		manager.createCacheFromFile(remoteFile, new NullProgressMonitor());
+
+		System.setProperty(CacheManager.FRESHNESS_PROPERTY, "3600");
+		try {
+			transport.requests.clear();
+			transport.version = 2;
+			File cache = manager.createCacheFromFile(remoteFile, new NullProgressMonitor());
+			assertEquals("content 1", Files.readString(cache.toPath()));
+			assertEquals(List.of(), transport.requests);
+		} finally {
+			System.clearProperty(CacheManager.FRESHNESS_PROPERTY);
+		}
+		File cache = manager.createCacheFromFile(remoteFile, new NullProgressMonitor());
+		assertEquals("content 2", Files.readString(cache.toPath()));
+	}
+
+	/**
+	 * A transport serving a single file that supports conditional downloads
+	 * with entity tags.
+	 */
+	static class ConditionalTransport extends Transport {
+		final List<String> requests = new ArrayList<>();
+		int version = 1;
+
+		@Override
+		public InputStream stream(URI toDownload, IProgressMonitor monitor) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public long getLastModified(URI toDownload, IProgressMonitor monitor) {
+			requests.add("lastModified");
+			return 1000000000000L + version;
+		}
+
+		@Override
+		public IStatus download(URI toDownload, OutputStream target, IProgressMonitor monitor) {
+			requests.add("download");
+			return write(target);
+		}
+
+		@Override
+		public boolean supportsConditionalDownload(URI location) {
+			return true;
+		}
+
+		@Override
+		public IStatus downloadIfModified(URI toDownload, OutputStream target, String entityTag, long lastModified, IProgressMonitor monitor) {
+			requests.add("downloadIfModified " + entityTag);
+			if (getEntityTag().equals(entityTag)) {
+				return new DownloadStatus(IStatus.OK, "test", DownloadStatus.CODE_NOT_MODIFIED, "", null);
+			}
+			return write(target);
+		}
+
+		private String getEntityTag() {
+			return "\"" + version + '"';
+		}
+
+		private IStatus write(OutputStream target) {
+			try {
+				target.write(("content " + version).getBytes(StandardCharsets.UTF_8));
+			} catch (IOException e) {
+				return new DownloadStatus(IStatus.ERROR, "test", e.getMessage(), e);
+			}
+			DownloadStatus status = new DownloadStatus(IStatus.OK, "test", "");
+			status.setEntityTag(getEntityTag());
+			return status;
+		}
+	}
+
 	private URI createRepistory() throws IOException {
 		File repository = File.createTempFile("remoteFile", ""); //$NON-NLS-1$//$NON-NLS-2$
 		repository.deleteOnExit();
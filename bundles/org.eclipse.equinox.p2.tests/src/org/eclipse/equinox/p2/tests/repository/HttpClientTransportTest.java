@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.repository;
+
+import static org.junit.Assert.assertThrows;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.cert.Certificate;
+import java.util.*;
+import java.util.concurrent.*;
+import org.eclipse.core.runtime.*;
+import org.eclipse.equinox.internal.p2.repository.Credentials;
+import org.eclipse.equinox.internal.p2.transport.ecf.HttpClientTransport;
+import org.eclipse.equinox.p2.core.IProvisioningAgent;
+import org.eclipse.equinox.p2.core.ProvisionException;
+import org.eclipse.equinox.p2.core.UIServices;
+import org.eclipse.equinox.p2.tests.AbstractProvisioningTest;
+
+/**
+ * Tests the {@link HttpClientTransport} against an embedded HTTP server.
+ */
+public class HttpClientTransportTest extends AbstractProvisioningTest {
+	private static final String CONTENT = "the content";
+	private static final String LAST_MODIFIED = "Wed, 21 Oct 2015 07:28:00 GMT";
+	private static final long LAST_MODIFIED_MILLIS = 1445412480000L;
+	private static final String AUTHORIZATION = "Basic " + Base64.getEncoder().encodeToString("Aladdin:open sesame".getBytes(StandardCharsets.UTF_8));
+
+	private HttpServer server;
+	private URI base;
+	private final List<String> authorizations = new CopyOnWriteArrayList<>();
+	private final CountDownLatch stalled = new CountDownLatch(1);
+	private UIServices previousUI;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.createContext("/file", exchange -> {
+			exchange.getResponseHeaders().add("Last-Modified", LAST_MODIFIED);
+			send(exchange, 200, CONTENT);
+		});
+		server.createContext("/private", exchange -> {
+			authorizations.add(String.valueOf(exchange.getRequestHeaders().getFirst("Authorization")));
+			if (!AUTHORIZATION.equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+				exchange.getResponseHeaders().add("WWW-Authenticate", "Basic realm=\"test\"");
+				send(exchange, 401, "");
+				return;
+			}
+			send(exchange, 200, CONTENT);
+		});
+		server.createContext("/stalled", exchange -> {
+			exchange.sendResponseHeaders(200, 1024 * 1024);
+			OutputStream body = exchange.getResponseBody();
+			body.write(new byte[16]);
+			body.flush();
+			stalled.countDown();
+			try {
+				Thread.sleep(60000);
+			} catch (InterruptedException e) {
+				// stopped
+			}
+			exchange.close();
+		});
+		server.start();
+		base = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/");
+
+		IProvisioningAgent agent = getAgent();
+		previousUI = agent.getService(UIServices.class);
+		agent.registerService(UIServices.SERVICE_NAME, new UIServices() {
+			@Override
+			public AuthenticationInfo getUsernamePassword(String location) {
+				return new AuthenticationInfo("Aladdin", "open sesame", false);
+			}
+
+			@Override
+			public AuthenticationInfo getUsernamePassword(String location, AuthenticationInfo previousInfo) {
+				return previousInfo;
+			}
+
+			@Override
+			public TrustInfo getTrustInfo(Certificate[][] untrustedChain, String[] unsignedDetail) {
+				return new TrustInfo(Collections.emptyList(), Collections.emptyList(), false, true);
+			}
+		});
+		Credentials.clearPromptCache(base);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		Credentials.clearPromptCache(base);
+		IProvisioningAgent agent = getAgent();
+		agent.unregisterService(UIServices.SERVICE_NAME, agent.getService(UIServices.class));
+		if (previousUI != null) {
+			agent.registerService(UIServices.SERVICE_NAME, previousUI);
+		}
+		server.stop(0);
+		((ExecutorService) server.getExecutor()).shutdownNow();
+		super.tearDown();
+	}
+
+	private static void send(HttpExchange exchange, int code, String content) throws IOException {
+		byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+		exchange.sendResponseHeaders(code, "HEAD".equals(exchange.getRequestMethod()) || bytes.length == 0 ? -1 : bytes.length);
+		try (OutputStream body = exchange.getResponseBody()) {
+			if (!"HEAD".equals(exchange.getRequestMethod())) {
+				body.write(bytes);
+			}
+		}
+	}
+
+	public void testDownload() {
+		ByteArrayOutputStream target = new ByteArrayOutputStream();
+		IStatus status = new HttpClientTransport().download(base.resolve("file"), target, new NullProgressMonitor());
+		assertOK(status);
+		assertEquals(CONTENT, target.toString(StandardCharsets.UTF_8));
+	}
+
+	public void testNotFound() throws Exception {
+		HttpClientTransport transport = new HttpClientTransport();
+		URI missing = base.resolve("missing");
+		IStatus status = transport.download(missing, new ByteArrayOutputStream(), new NullProgressMonitor());
+		assertEquals(ProvisionException.ARTIFACT_NOT_FOUND, status.getCode());
+		assertThrows(FileNotFoundException.class, () -> transport.getLastModified(missing, new NullProgressMonitor()));
+		assertThrows(FileNotFoundException.class, () -> transport.stream(missing, new NullProgressMonitor()));
+	}
+
+	public void testLastModified() throws Exception {
+		assertEquals(LAST_MODIFIED_MILLIS, new HttpClientTransport().getLastModified(base.resolve("file"), new NullProgressMonitor()));
+	}
+
+	public void testStream() throws Exception {
+		try (InputStream stream = new HttpClientTransport().stream(base.resolve("file"), new NullProgressMonitor())) {
+			assertEquals(CONTENT, new String(stream.readAllBytes(), StandardCharsets.UTF_8));
+		}
+	}
+
+	public void testCredentialsAfterChallenge() {
+		ByteArrayOutputStream target = new ByteArrayOutputStream();
+		IStatus status = new HttpClientTransport().download(base.resolve("private"), target, new NullProgressMonitor());
+		assertOK(status);
+		assertEquals(CONTENT, target.toString(StandardCharsets.UTF_8));
+		// no credentials before the server asked for them
+		assertEquals("null", authorizations.get(0));
+		assertEquals(AUTHORIZATION, authorizations.get(authorizations.size() - 1));
+
+		// the challenged server now gets them right away
+		authorizations.clear();
+		assertOK(new HttpClientTransport().download(base.resolve("private"), new ByteArrayOutputStream(), new NullProgressMonitor()));
+		assertEquals(List.of(AUTHORIZATION), authorizations);
+	}
+
+	public void testCancelStalledDownload() throws Exception {
+		NullProgressMonitor monitor = new NullProgressMonitor();
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<IStatus> download = executor.submit(() -> new HttpClientTransport().download(base.resolve("stalled"), new ByteArrayOutputStream(), monitor));
+			assertTrue(stalled.await(10, TimeUnit.SECONDS));
+			monitor.setCanceled(true);
+			// the download is blocked in a read, not between two of them
+			ExecutionException e = assertThrows(ExecutionException.class, () -> download.get(10, TimeUnit.SECONDS));
+			assertTrue(e.getCause() instanceof OperationCanceledException);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	public void testCancelStalledStream() throws Exception {
+		NullProgressMonitor monitor = new NullProgressMonitor();
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try (InputStream stream = new HttpClientTransport().stream(base.resolve("stalled"), monitor)) {
+			Future<byte[]> read = executor.submit(stream::readAllBytes);
+			assertTrue(stalled.await(10, TimeUnit.SECONDS));
+			monitor.setCanceled(true);
+			// the caller is blocked in a read of the returned stream
+			ExecutionException e = assertThrows(ExecutionException.class, () -> read.get(10, TimeUnit.SECONDS));
+			assertTrue(e.getCause() instanceof OperationCanceledException);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
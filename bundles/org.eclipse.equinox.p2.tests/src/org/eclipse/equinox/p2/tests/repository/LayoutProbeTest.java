@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.repository;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.Set;
+import org.eclipse.core.runtime.*;
+import org.eclipse.equinox.internal.p2.repository.Transport;
+import org.eclipse.equinox.internal.p2.repository.helpers.LayoutProbe;
+import org.junit.Test;
+
+/**
+ * Tests the concurrent probing of the files of the candidate repository
+ * layouts.
+ */
+public class LayoutProbeTest {
+	private static final List<String> SUFFIXES = List.of("compositeContent.xml", "content.xml.xz", "site.xml");
+
+	static class ProbedTransport extends Transport {
+		private final Set<String> existing;
+
+		ProbedTransport(Set<String> existing) {
+			this.existing = existing;
+		}
+
+		@Override
+		public long getLastModified(URI toDownload, IProgressMonitor monitor) throws CoreException, FileNotFoundException {
+			String path = toDownload.getPath();
+			String name = path.substring(path.lastIndexOf('/') + 1);
+			if ("broken.xml".equals(name)) {
+				throw new CoreException(Status.error("server error"));
+			}
+			if (!existing.contains(name)) {
+				throw new FileNotFoundException(toDownload.toString());
+			}
+			return 1;
+		}
+
+		@Override
+		public InputStream stream(URI toDownload, IProgressMonitor monitor) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public IStatus download(URI toDownload, OutputStream target, IProgressMonitor monitor) {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	@Test
+	public void testMissingLayoutsAreReported() {
+		ProbedTransport transport = new ProbedTransport(Set.of("compositeContent.jar", "site.xml"));
+		try (LayoutProbe probe = LayoutProbe.start(transport, URI.create("https://example.org/updates/"), SUFFIXES)) {
+			NullProgressMonitor monitor = new NullProgressMonitor();
+			assertFalse(probe.isMissing("compositeContent.xml", monitor));
+			assertTrue(probe.isMissing("content.xml.xz", monitor));
+			assertFalse(probe.isMissing("site.xml", monitor));
+			// not probed
+			assertFalse(probe.isMissing("content.xml", monitor));
+		}
+	}
+
+	@Test
+	public void testFailedProbeIsNotMissing() {
+		ProbedTransport transport = new ProbedTransport(Set.of());
+		try (LayoutProbe probe = LayoutProbe.start(transport, URI.create("http://example.org/updates"), List.of("broken.xml", "site.xml"))) {
+			NullProgressMonitor monitor = new NullProgressMonitor();
+			// the jar is missing but the xml file could not be probed
+			assertFalse(probe.isMissing("broken.xml", monitor));
+			assertTrue(probe.isMissing("site.xml", monitor));
+		}
+	}
+
+	@Test
+	public void testOnlyRemoteDirectoriesAreProbed() {
+		ProbedTransport transport = new ProbedTransport(Set.of());
+		assertNull(LayoutProbe.start(transport, URI.create("file:/tmp/updates/"), SUFFIXES));
+		assertNull(LayoutProbe.start(transport, URI.create("https://example.org/updates/site.zip"), SUFFIXES));
+		assertNull(LayoutProbe.start(transport, URI.create("https://example.org/updates/"), List.of("content.xml")));
+	}
+}
@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.repository;
+
+import java.util.*;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.equinox.p2.internal.repository.tools.RepositoryAnalyzer;
+import org.eclipse.equinox.p2.metadata.IInstallableUnit;
+import org.eclipse.equinox.p2.metadata.Version;
+import org.eclipse.equinox.p2.query.QueryUtil;
+import org.eclipse.equinox.p2.repository.metadata.IMetadataRepository;
+import org.eclipse.equinox.p2.repository.tools.analyzer.IIUAnalyzer;
+import org.eclipse.equinox.p2.repository.tools.analyzer.IUAnalyzer;
+import org.eclipse.equinox.p2.tests.AbstractProvisioningTest;
+
+/**
+ * Tests that the {@link RepositoryAnalyzer} reports the results of analyzers
+ * that run concurrently in a stable order.
+ */
+public class RepositoryAnalyzerTest extends AbstractProvisioningTest {
+	private static final int IUS = 5000;
+
+	static class EveryIUAnalyzer extends IUAnalyzer {
+		@Override
+		public boolean isConcurrent() {
+			return true;
+		}
+
+		@Override
+		public void preAnalysis(IMetadataRepository repository) {
+			// nothing to prepare
+		}
+
+		@Override
+		public void analyzeIU(IInstallableUnit iu) {
+			error(iu, iu.getId());
+		}
+	}
+
+	static class FailingAnalyzer extends IUAnalyzer {
+		@Override
+		public void preAnalysis(IMetadataRepository repository) {
+			// nothing to prepare
+		}
+
+		@Override
+		public void analyzeIU(IInstallableUnit iu) {
+			if (iu.getId().equals("iu" + IUS / 2)) {
+				throw new IllegalStateException(iu.getId());
+			}
+		}
+	}
+
+	static class CleanAnalyzer extends IUAnalyzer {
+		@Override
+		public void preAnalysis(IMetadataRepository repository) {
+			// nothing to prepare
+		}
+
+		@Override
+		public void analyzeIU(IInstallableUnit iu) {
+			// no errors
+		}
+	}
+
+	public void testResultsInAnalyzerOrder() {
+		IInstallableUnit[] units = new IInstallableUnit[IUS];
+		for (int i = 0; i < units.length; i++) {
+			units[i] = createIU("iu" + i, Version.createOSGi(1, 0, 0));
+		}
+		IMetadataRepository repository = createTestMetdataRepository(units);
+		Map<String, IIUAnalyzer> analyzers = new LinkedHashMap<>();
+		analyzers.put("every", new EveryIUAnalyzer());
+		analyzers.put("failing", new FailingAnalyzer());
+		analyzers.put("clean", new CleanAnalyzer());
+		RepositoryAnalyzer analyzer = new RepositoryAnalyzer(new IMetadataRepository[] {repository}, analyzers);
+
+		IStatus result = analyzer.analyze(new NullProgressMonitor());
+
+		IStatus[] children = result.getChildren();
+		assertEquals(3, children.length);
+		// the errors come in the order of the IUs, whatever the partitions
+		assertEquals("every", children[0].getMessage());
+		List<String> expected = new ArrayList<>();
+		repository.query(QueryUtil.createIUAnyQuery(), null).forEach(iu -> expected.add(iu.getId()));
+		List<String> errors = new ArrayList<>();
+		for (IStatus error : children[0].getChildren()) {
+			errors.add(error.getMessage());
+		}
+		assertEquals(expected, errors);
+		assertEquals(IStatus.ERROR, children[1].getSeverity());
+		assertEquals("failing", children[1].getMessage());
+		assertTrue(children[1].getException() instanceof IllegalStateException);
+		assertTrue(children[2].isOK());
+		assertEquals("clean", children[2].getMessage());
+		assertEquals(List.of("every", "failing", "clean"), new ArrayList<>(analyzer.getTimings().keySet()));
+	}
+}
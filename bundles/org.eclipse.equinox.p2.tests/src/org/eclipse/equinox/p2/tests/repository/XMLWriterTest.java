@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.p2.tests.repository;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import org.eclipse.equinox.internal.p2.persistence.XMLWriter;
+import org.junit.Test;
+
+public class XMLWriterTest {
+	private static final String NL = System.lineSeparator();
+
+	@Test
+	public void testIndented() {
+		assertEquals("<?xml version='1.0' encoding='UTF-8'?>" + NL //
+				+ "<a x='1 &lt; 2 &amp;&#xA;&apos;3&apos;'>" + NL //
+				+ "  <b/>" + NL //
+				+ "  <c>" + NL //
+				+ "    text &amp; more" + NL //
+				+ "  </c>" + NL //
+				+ "</a>" + NL, write(true));
+	}
+
+	@Test
+	public void testCompact() {
+		assertEquals("<?xml version='1.0' encoding='UTF-8'?><a x='1 &lt; 2 &amp;&#xA;&apos;3&apos;'><b/><c>text &amp; more</c></a>", write(false));
+	}
+
+	@Test
+	public void testLargeContent() {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 10000; i++) {
+			text.append("é<\ud800");
+		}
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		XMLWriter writer = new XMLWriter(output, null, false);
+		writer.start("a");
+		writer.attribute("x", text);
+		writer.end();
+		writer.flush();
+		String expected = "<?xml version='1.0' encoding='UTF-8'?><a x='" + "é&lt;".repeat(10000) + "'/>";
+		assertEquals(expected, output.toString(StandardCharsets.UTF_8));
+	}
+
+	private static String write(boolean indent) {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		XMLWriter writer = new XMLWriter(output, null, indent);
+		writer.start("a");
+		writer.attribute("x", "1 < 2 &\n'3'");
+		writer.start("b");
+		writer.end();
+		writer.start("c");
+		writer.cdata("text & more");
+		writer.end("a");
+		writer.flush();
+		return output.toString(StandardCharsets.UTF_8);
+	}
+}
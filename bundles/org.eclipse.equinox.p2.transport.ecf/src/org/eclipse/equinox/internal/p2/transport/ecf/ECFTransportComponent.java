@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2017 IBM Corporation and others.
+ * Copyright (c) 2011, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -20,6 +20,9 @@ public class ECFTransportComponent implements IAgentServiceFactory {
 
 	@Override
 	public Object createService(IProvisioningAgent agent) {
+		if (Boolean.getBoolean(HttpClientTransport.ENABLED)) {
+			return new HttpClientTransport(agent);
+		}
 		return new RepositoryTransport(agent);
 	}
 
@@ -0,0 +1,524 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Eclipse contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.p2.transport.ecf;
+
+import java.io.*;
+import java.net.*;
+import java.net.http.*;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.core.runtime.*;
+import org.eclipse.ecf.filetransfer.IRetrieveFileTransferOptions;
+import org.eclipse.equinox.internal.p2.core.helpers.LogHelper;
+import org.eclipse.equinox.internal.p2.repository.*;
+import org.eclipse.equinox.internal.p2.repository.Credentials.LoginCanceledException;
+import org.eclipse.equinox.internal.p2.repository.Messages;
+import org.eclipse.equinox.internal.provisional.p2.core.eventbus.IProvisioningEventBus;
+import org.eclipse.equinox.internal.provisional.p2.core.eventbus.ProvisioningListener;
+import org.eclipse.equinox.internal.provisional.p2.repository.IStateful;
+import org.eclipse.equinox.p2.core.IProvisioningAgent;
+import org.eclipse.equinox.p2.core.ProvisionException;
+import org.eclipse.equinox.p2.core.UIServices.AuthenticationInfo;
+import org.eclipse.osgi.util.NLS;
+
+/**
+ * A transport downloading http and https locations with the
+ * {@link HttpClient} of the JRE. All instances share one client, so
+ * connections are pooled across downloads and HTTP/2 capable servers serve
+ * concurrent downloads as streams of a single connection. Requests are sent
+ * asynchronously and awaited in the calling thread, which also observes the
+ * progress monitor; no job is scheduled per download.
+ * <p>
+ * Credentials, connection retries and error reporting follow
+ * {@link RepositoryTransport}. Like the ECF providers, credentials are only
+ * sent after the server has challenged the request, and from then on
+ * preemptively to the same server. A download or stream that receives no
+ * data for the read timeout fails with a {@link SocketTimeoutException}. Locations with
+ * other schemes are delegated to a {@link RepositoryTransport}.
+ * </p>
+ */
+public class HttpClientTransport extends Transport {
+
+	/**
+	 * System property selecting this transport instead of
+	 * {@link RepositoryTransport} for new provisioning agents.
+	 */
+	public static final String ENABLED = "org.eclipse.equinox.p2.transport.httpclient"; //$NON-NLS-1$
+
+	private static final Duration CONNECT_TIMEOUT = Duration.ofMillis(Integer.getInteger("org.eclipse.equinox.p2.transport.httpclient.connectTimeout", 10000)); //$NON-NLS-1$
+	private static final Duration READ_TIMEOUT = Duration.ofMillis(Integer.getInteger("org.eclipse.equinox.p2.transport.httpclient.readTimeout", 60000)); //$NON-NLS-1$
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final long CANCEL_POLL_MS = 200;
+
+	private static HttpClient client;
+
+	// closes the bodies of stalled or canceled downloads, which would otherwise block a reading thread
+	private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "p2 download watchdog"); //$NON-NLS-1$
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	// the servers that have challenged a request, as scheme and authority
+	private static final Set<String> CHALLENGED = ConcurrentHashMap.newKeySet();
+
+	private final IProvisioningAgent agent;
+	private final Transport fallback;
+
+	public HttpClientTransport() {
+		this(null);
+	}
+
+	/**
+	 * @param agent If agent is <code>null</code>, download progress is not
+	 *              published.
+	 */
+	public HttpClientTransport(IProvisioningAgent agent) {
+		this.agent = agent;
+		this.fallback = new RepositoryTransport(agent);
+	}
+
+	static synchronized HttpClient getClient() {
+		if (client == null) {
+			HttpClient.Builder builder = HttpClient.newBuilder() //
+					.version(HttpClient.Version.HTTP_2) //
+					.followRedirects(HttpClient.Redirect.NORMAL) //
+					.connectTimeout(CONNECT_TIMEOUT);
+			ProxySelector proxySelector = ProxySelector.getDefault();
+			if (proxySelector != null) {
+				builder.proxy(proxySelector);
+			}
+			client = builder.build();
+		}
+		return client;
+	}
+
+	private static boolean isHttp(URI location) {
+		String scheme = location.getScheme();
+		return "http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Override
+	public IStatus download(URI toDownload, OutputStream target, IProgressMonitor monitor) {
+		if (!isHttp(toDownload)) {
+			return fallback.download(toDownload, target, monitor);
+		}
+		return download(toDownload, target, null, 0, monitor);
+	}
+
+	@Override
+	public IStatus downloadIfModified(URI toDownload, OutputStream target, String entityTag, long lastModified, IProgressMonitor monitor) {
+		if (!isHttp(toDownload)) {
+			return fallback.downloadIfModified(toDownload, target, entityTag, lastModified, monitor);
+		}
+		return download(toDownload, target, entityTag, lastModified, monitor);
+	}
+
+	@Override
+	public boolean supportsConditionalDownload(URI location) {
+		return isHttp(location) || fallback.supportsConditionalDownload(location);
+	}
+
+	private IStatus download(URI toDownload, OutputStream target, String entityTag, long lastModified, IProgressMonitor monitor) {
+		URI secureToDownload;
+		try {
+			secureToDownload = getSecureLocation(toDownload);
+		} catch (CoreException e) {
+			return e.getStatus();
+		}
+		boolean promptUser = false;
+		AuthenticationInfo loginDetails = null;
+		for (int i = RepositoryPreferences.getLoginRetryCount(); i > 0; i--) {
+			try {
+				loginDetails = Credentials.forLocation(secureToDownload, promptUser, loginDetails);
+				HttpResponse<InputStream> response = send(secureToDownload, "GET", loginDetails, entityTag, lastModified, monitor); //$NON-NLS-1$
+				if (response.statusCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+					response.body().close();
+					return statusOn(target, new DownloadStatus(IStatus.OK, Activator.ID, DownloadStatus.CODE_NOT_MODIFIED, Status.OK_STATUS.getMessage(), null));
+				}
+				return statusOn(target, copy(secureToDownload, response, target, monitor));
+			} catch (OperationCanceledException e) {
+				statusOn(target, new DownloadStatus(IStatus.CANCEL, Activator.ID, 1, "", null)); //$NON-NLS-1$
+				throw e;
+			} catch (AuthenticationFailedException e) {
+				promptUser = true;
+			} catch (LoginCanceledException e) {
+				DownloadStatus status = new DownloadStatus(IStatus.ERROR, Activator.ID, ProvisionException.REPOSITORY_FAILED_AUTHENTICATION, //
+						NLS.bind(Messages.UnableToRead_0_UserCanceled, secureToDownload), null);
+				return statusOn(target, status);
+			} catch (CoreException e) {
+				return statusOn(target, e.getStatus() instanceof DownloadStatus status ? status : RepositoryTransport.forStatus(e.getStatus(), secureToDownload));
+			} catch (IOException e) {
+				return statusOn(target, RepositoryTransport.forException(e, secureToDownload));
+			}
+		}
+		// reached maximum number of retries without success
+		DownloadStatus status = new DownloadStatus(IStatus.ERROR, Activator.ID, ProvisionException.REPOSITORY_FAILED_AUTHENTICATION, //
+				NLS.bind(Messages.UnableToRead_0_TooManyAttempts, secureToDownload), null);
+		return statusOn(target, status);
+	}
+
+	@Override
+	public InputStream stream(URI toDownload, IProgressMonitor monitor) throws FileNotFoundException, CoreException, AuthenticationFailedException {
+		if (!isHttp(toDownload)) {
+			return fallback.stream(toDownload, monitor);
+		}
+		URI secureToDownload = getSecureLocation(toDownload);
+		boolean promptUser = false;
+		AuthenticationInfo loginDetails = null;
+		for (int i = RepositoryPreferences.getLoginRetryCount(); i > 0; i--) {
+			try {
+				loginDetails = Credentials.forLocation(secureToDownload, promptUser, loginDetails);
+				// the caller reads the body, which fails like a download when it stalls or the monitor is canceled
+				return new WatchedBody(send(secureToDownload, "GET", loginDetails, null, 0, monitor).body(), monitor); //$NON-NLS-1$
+			} catch (AuthenticationFailedException e) {
+				promptUser = true;
+			} catch (LoginCanceledException e) {
+				// i.e. same behavior when user cancels as when failing n attempts.
+				throw new AuthenticationFailedException();
+			} catch (FileNotFoundException e) {
+				throw e;
+			} catch (IOException e) {
+				throw new CoreException(RepositoryTransport.forException(e, secureToDownload));
+			}
+		}
+		throw new AuthenticationFailedException();
+	}
+
+	@Override
+	public long getLastModified(URI toDownload, IProgressMonitor monitor) throws CoreException, FileNotFoundException, AuthenticationFailedException {
+		if (!isHttp(toDownload)) {
+			return fallback.getLastModified(toDownload, monitor);
+		}
+		URI secureToDownload = getSecureLocation(toDownload);
+		boolean promptUser = false;
+		AuthenticationInfo loginDetails = null;
+		for (int i = RepositoryPreferences.getLoginRetryCount(); i > 0; i--) {
+			try {
+				loginDetails = Credentials.forLocation(secureToDownload, promptUser, loginDetails);
+				HttpResponse<InputStream> response = send(secureToDownload, "HEAD", loginDetails, null, 0, monitor); //$NON-NLS-1$
+				response.body().close();
+				return getLastModified(response);
+			} catch (AuthenticationFailedException e) {
+				promptUser = true;
+			} catch (LoginCanceledException e) {
+				// same behavior as if user failed n attempts.
+				throw new AuthenticationFailedException();
+			} catch (FileNotFoundException e) {
+				throw e;
+			} catch (IOException e) {
+				throw new CoreException(RepositoryTransport.forException(e, secureToDownload));
+			}
+		}
+		// reached maximum number of authentication retries without success
+		throw new AuthenticationFailedException();
+	}
+
+	/**
+	 * Sends the request and waits for the response headers. Failed connection
+	 * attempts are retried as configured by {@link RepositoryPreferences}. The
+	 * request is conditional if an entity tag or last modified date is given.
+	 * The given credentials are only sent to a server that has challenged a
+	 * request.
+	 *
+	 * @return the successful or not modified response, its body must be closed
+	 *         by the caller
+	 * @throws AuthenticationFailedException if the server requires (other)
+	 *                                       credentials
+	 * @throws FileNotFoundException         if the server does not have the
+	 *                                       resource
+	 * @throws CoreException                 if the server reports another error
+	 * @throws IOException                   if the server could not be reached
+	 */
+	private HttpResponse<InputStream> send(URI uri, String method, AuthenticationInfo loginDetails, String entityTag, long lastModified, IProgressMonitor monitor) throws IOException, CoreException, AuthenticationFailedException {
+		boolean authorized = loginDetails != null && CHALLENGED.contains(getServer(uri));
+		HttpResponse<InputStream> response = request(uri, method, authorized ? loginDetails : null, entityTag, lastModified, monitor);
+		if (response.statusCode() == HttpURLConnection.HTTP_UNAUTHORIZED && !authorized && loginDetails != null) {
+			// answer the challenge, but only if it comes from the server the credentials are for
+			URI challenger = response.uri();
+			if (getServer(challenger).equals(getServer(uri))) {
+				response.body().close();
+				CHALLENGED.add(getServer(uri));
+				response = request(challenger, method, loginDetails, entityTag, lastModified, monitor);
+			}
+		}
+		int code = response.statusCode();
+		if (code < 300 || code == HttpURLConnection.HTTP_NOT_MODIFIED) {
+			return response;
+		}
+		response.body().close();
+		if (code == 401 || code == 403 || code == 407) {
+			throw new AuthenticationFailedException();
+		}
+		if (code == 404) {
+			throw new FileNotFoundException(uri.toString());
+		}
+		throw new CoreException(new DownloadStatus(IStatus.ERROR, Activator.ID, ProvisionException.REPOSITORY_FAILED_READ, RepositoryStatus.codeToMessage(code, uri.toString()), null));
+	}
+
+	private static String getServer(URI uri) {
+		return uri.getScheme().toLowerCase(Locale.ROOT) + "://" + uri.getRawAuthority(); //$NON-NLS-1$
+	}
+
+	/**
+	 * Sends a single request, retrying it when the server cannot be reached.
+	 */
+	private HttpResponse<InputStream> request(URI uri, String method, AuthenticationInfo credentials, String entityTag, long lastModified, IProgressMonitor monitor) throws IOException {
+		HttpRequest.Builder builder = HttpRequest.newBuilder(uri) //
+				.method(method, HttpRequest.BodyPublishers.noBody()) //
+				.timeout(READ_TIMEOUT);
+		String userAgent = FileReader.options.get(IRetrieveFileTransferOptions.REQUEST_HEADERS).get("User-Agent"); //$NON-NLS-1$
+		if (userAgent != null) {
+			builder.header("User-Agent", userAgent.trim()); //$NON-NLS-1$
+		}
+		if (credentials != null) {
+			String basic = credentials.getUserName() + ':' + credentials.getPassword();
+			builder.header("Authorization", "Basic " + Base64.getEncoder().encodeToString(basic.getBytes(StandardCharsets.UTF_8))); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		if (entityTag != null) {
+			builder.header("If-None-Match", entityTag); //$NON-NLS-1$
+		}
+		if (lastModified > 0) {
+			builder.header("If-Modified-Since", DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(lastModified).atZone(ZoneOffset.UTC))); //$NON-NLS-1$
+		}
+		HttpRequest request = builder.build();
+		for (int attempt = 1;; attempt++) {
+			try {
+				return await(getClient().sendAsync(request, BodyHandlers.ofInputStream()), monitor);
+			} catch (IOException e) {
+				if (attempt >= RepositoryPreferences.getConnectionRetryCount() || (e instanceof HttpTimeoutException && !RepositoryPreferences.getRetryOnSocketTimeout())) {
+					throw e;
+				}
+				LogHelper.log(new Status(IStatus.WARNING, Activator.ID, NLS.bind(Messages.connection_to_0_failed_on_1_retry_attempt_2, new String[] {uri.toString(), e.getMessage(), String.valueOf(attempt)}), e));
+				try {
+					Thread.sleep(RepositoryPreferences.getConnectionMsRetryDelay());
+				} catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					throw new OperationCanceledException();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Waits for the future to complete, canceling it when the monitor is
+	 * canceled.
+	 */
+	private static <T> T await(CompletableFuture<T> future, IProgressMonitor monitor) throws IOException {
+		try {
+			while (true) {
+				if (monitor != null && monitor.isCanceled()) {
+					future.cancel(true);
+					throw new OperationCanceledException();
+				}
+				try {
+					return future.get(CANCEL_POLL_MS, TimeUnit.MILLISECONDS);
+				} catch (TimeoutException e) {
+					// check for cancellation again
+				}
+			}
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException ioException) {
+				throw ioException;
+			}
+			throw new IOException(cause);
+		} catch (InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		}
+	}
+
+	private DownloadStatus copy(URI uri, HttpResponse<InputStream> response, OutputStream target, IProgressMonitor monitor) throws IOException {
+		long length = response.headers().firstValueAsLong("Content-Length").orElse(-1); //$NON-NLS-1$
+		String path = uri.getPath();
+		String fileName = path == null ? null : path.substring(path.lastIndexOf('/') + 1);
+		ProgressStatistics stats = new ProgressStatistics(agent, uri, fileName, length);
+		SubMonitor subMonitor = SubMonitor.convert(monitor, 1000);
+		subMonitor.subTask(stats.report());
+		PauseListener pauseListener = new PauseListener();
+		IProvisioningEventBus eventBus = agent == null ? null : agent.getService(IProvisioningEventBus.class);
+		if (eventBus != null) {
+			eventBus.addListener(pauseListener);
+		}
+		long received = 0;
+		long reported = 0;
+		try (InputStream body = new WatchedBody(response.body(), subMonitor)) {
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int read;
+			while ((read = body.read(buffer)) != -1) {
+				if (subMonitor.isCanceled()) {
+					throw new OperationCanceledException();
+				}
+				target.write(buffer, 0, read);
+				stats.increase(read);
+				received += read;
+				if (stats.shouldReport()) {
+					subMonitor.subTask(stats.report());
+					if (length > 0) {
+						subMonitor.worked((int) (1000 * (received - reported) / length));
+						reported = received;
+					}
+				}
+				pauseListener.awaitResume(subMonitor);
+			}
+		} finally {
+			if (eventBus != null) {
+				eventBus.removeListener(pauseListener);
+			}
+		}
+		DownloadStatus status = new DownloadStatus(IStatus.OK, Activator.ID, Status.OK_STATUS.getMessage());
+		status.setFileSize(length != -1 ? length : received);
+		status.setLastModified(getLastModified(response));
+		status.setEntityTag(response.headers().firstValue("ETag").orElse(null)); //$NON-NLS-1$
+		status.setTransferRate(stats.getAverageSpeed());
+		return status;
+	}
+
+	private static long getLastModified(HttpResponse<?> response) {
+		return response.headers().firstValue("Last-Modified").map(value -> { //$NON-NLS-1$
+			try {
+				return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+			} catch (DateTimeParseException e) {
+				return 0L;
+			}
+		}).orElse(0L).longValue();
+	}
+
+	private static DownloadStatus statusOn(OutputStream target, DownloadStatus status) {
+		if (target instanceof IStateful stateful) {
+			stateful.setStatus(status);
+		}
+		return status;
+	}
+
+	/**
+	 * A response body that the {@link #WATCHDOG} closes when the monitor is
+	 * canceled or a read received no data for the read timeout, so that a
+	 * blocked read fails instead of hanging. The time spent between reads, e.g.
+	 * while a download is paused, does not count.
+	 */
+	private static class WatchedBody extends FilterInputStream {
+		private final IProgressMonitor monitor;
+		private final AtomicLong readStart = new AtomicLong();
+		private final AtomicBoolean stalled = new AtomicBoolean();
+		private volatile boolean reading;
+		private volatile ScheduledFuture<?> watchdog;
+
+		WatchedBody(InputStream body, IProgressMonitor monitor) {
+			super(body);
+			this.monitor = monitor;
+			watchdog = WATCHDOG.scheduleWithFixedDelay(() -> {
+				boolean canceled = isCanceled();
+				if (canceled || (reading && System.nanoTime() - readStart.get() > READ_TIMEOUT.toNanos())) {
+					stalled.set(!canceled);
+					try {
+						close();
+					} catch (IOException e) {
+						// the reading thread fails anyway
+					}
+				}
+			}, CANCEL_POLL_MS, CANCEL_POLL_MS, TimeUnit.MILLISECONDS);
+		}
+
+		private boolean isCanceled() {
+			return monitor != null && monitor.isCanceled();
+		}
+
+		@Override
+		public int read() throws IOException {
+			readStart.set(System.nanoTime());
+			reading = true;
+			try {
+				return super.read();
+			} catch (IOException e) {
+				throw failure(e);
+			} finally {
+				reading = false;
+			}
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) throws IOException {
+			readStart.set(System.nanoTime());
+			reading = true;
+			try {
+				return super.read(buffer, offset, length);
+			} catch (IOException e) {
+				throw failure(e);
+			} finally {
+				reading = false;
+			}
+		}
+
+		private IOException failure(IOException e) {
+			// the watchdog has closed the body
+			if (isCanceled()) {
+				throw new OperationCanceledException();
+			}
+			if (stalled.get()) {
+				SocketTimeoutException timeout = new SocketTimeoutException("Read timed out after " + READ_TIMEOUT.toMillis() + " ms"); //$NON-NLS-1$ //$NON-NLS-2$
+				timeout.initCause(e);
+				return timeout;
+			}
+			return e;
+		}
+
+		@Override
+		public void close() throws IOException {
+			ScheduledFuture<?> future = watchdog;
+			if (future != null) {
+				future.cancel(false);
+			}
+			super.close();
+		}
+	}
+
+	/**
+	 * Holds a download while a {@link DownloadPauseResumeEvent} paused it.
+	 */
+	private static class PauseListener implements ProvisioningListener {
+		private boolean paused;
+
+		@Override
+		public synchronized void notify(EventObject event) {
+			if (event instanceof DownloadPauseResumeEvent pauseResumeEvent) {
+				paused = pauseResumeEvent.getType() == DownloadPauseResumeEvent.TYPE_PAUSE;
+				notifyAll();
+			}
+		}
+
+		synchronized void awaitResume(IProgressMonitor monitor) {
+			try {
+				while (paused) {
+					if (monitor.isCanceled()) {
+						throw new OperationCanceledException();
+					}
+					wait(CANCEL_POLL_MS);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new OperationCanceledException();
+			}
+		}
+	}
+}